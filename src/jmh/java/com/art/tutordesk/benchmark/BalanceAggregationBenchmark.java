@@ -0,0 +1,90 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.TutorDeskApplication;
+import com.art.tutordesk.balance.BalanceTransaction;
+import com.art.tutordesk.balance.BalanceTransactionRepository;
+import com.art.tutordesk.balance.StudentBalance;
+import com.art.tutordesk.balance.StudentBalanceRepository;
+import com.art.tutordesk.payment.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Balance of one student: loading and summing the whole ledger per currency, as balances were computed before the
+ * per-student snapshot, compared with reading the student_balances rows through StudentBalanceRepository.
+ * The application runs against PostgreSQL in a Testcontainers container; the perf profile seeds a single student
+ * with one payment, and so one ledger entry, per transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceAggregationBenchmark {
+
+    private static final Long STUDENT_ID = 1L;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int transactionsPerStudent;
+
+    private ConfigurableApplicationContext context;
+    private BalanceTransactionRepository balanceTransactionRepository;
+    private StudentBalanceRepository studentBalanceRepository;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(BenchmarkDatabase.arguments());
+        args.addAll(List.of(
+                "--app.perf.seed.students=1",
+                "--app.perf.seed.lessons=0",
+                "--app.perf.seed.payments=" + transactionsPerStudent,
+                "--logging.level.root=WARN"));
+        context = new SpringApplicationBuilder(TutorDeskApplication.class)
+                .profiles("perf")
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        balanceTransactionRepository = context.getBean(BalanceTransactionRepository.class);
+        studentBalanceRepository = context.getBean(StudentBalanceRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Currency, BigDecimal> aggregateLedger() {
+        return balanceTransactionRepository.findByStudentId(STUDENT_ID).stream()
+                .collect(Collectors.groupingBy(
+                        BalanceTransaction::getCurrency,
+                        Collectors.mapping(BalanceTransaction::getAmount, Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
+                ));
+    }
+
+    @Benchmark
+    public Map<Currency, BigDecimal> readSnapshot() {
+        return studentBalanceRepository.findByIdStudentId(STUDENT_ID).stream()
+                .collect(Collectors.toMap(balance -> balance.getId().getCurrency(), StudentBalance::getBalance));
+    }
+}
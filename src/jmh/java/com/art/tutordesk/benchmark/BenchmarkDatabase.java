@@ -0,0 +1,33 @@
+package com.art.tutordesk.benchmark;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+
+/**
+ * PostgreSQL in a Testcontainers container for the benchmarks that run the application, so they measure the
+ * production database instead of the embedded H2 of the perf profile. The container is started once per fork and
+ * removed by Testcontainers when the JVM exits.
+ */
+final class BenchmarkDatabase {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("tutordesk_benchmark")
+            .withUsername("benchmark")
+            .withPassword("benchmark");
+
+    private BenchmarkDatabase() {
+    }
+
+    // Command line arguments take precedence over the perf profile, which configures H2
+    static synchronized List<String> arguments() {
+        if (!POSTGRES.isRunning()) {
+            POSTGRES.start();
+        }
+        return List.of(
+                "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                "--spring.datasource.driver-class-name=" + POSTGRES.getDriverClassName(),
+                "--spring.datasource.username=" + POSTGRES.getUsername(),
+                "--spring.datasource.password=" + POSTGRES.getPassword());
+    }
+}
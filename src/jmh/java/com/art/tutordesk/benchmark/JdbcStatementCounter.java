@@ -0,0 +1,64 @@
+package com.art.tutordesk.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements executed through the DataSource bean: every execute call and every executed JDBC batch is one
+ * round trip. Unlike the Hibernate statistics it also sees the statements sent over a plain JDBC connection, e.g.
+ * the ledger inserts of LedgerEntryRepository. Register it before the context is refreshed; it wraps the DataSource.
+ */
+final class JdbcStatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final AtomicLong executed = new AtomicLong();
+
+    long executed() {
+        return executed.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(JdbcStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    // Batched statements are sent when the batch is executed, not per addBatch
+                    if (target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+                        executed.incrementAndGet();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return wrap(method.getReturnType(), result);
+                });
+    }
+
+    // Connections and statements handed out are wrapped as well, so that their executions are counted
+    @SuppressWarnings("unchecked")
+    private <T> Object wrap(Class<T> returnType, Object result) {
+        if ((result instanceof Connection || result instanceof Statement) && returnType.isInterface()
+                && returnType.isInstance(result)) {
+            return proxy(returnType, (T) result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.dto.LessonListDTO;
+import com.art.tutordesk.lesson.mapper.LessonMapper;
+import com.art.tutordesk.lesson.mapper.LessonMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of the lesson list page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LessonMapperBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int lessonCount;
+
+    private final LessonMapper lessonMapper = new LessonMapperImpl();
+    private List<Lesson> lessons;
+
+    @Setup
+    public void setUp() {
+        lessons = new SyntheticData(42).groupLessons(lessonCount);
+    }
+
+    @Benchmark
+    public void toLessonListDTO(Blackhole blackhole) {
+        for (Lesson lesson : lessons) {
+            LessonListDTO dto = lessonMapper.toLessonListDTO(lesson);
+            blackhole.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.TutorDeskApplication;
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.dto.LessonStudentUpdateDTO;
+import com.art.tutordesk.lesson.dto.LessonUpdateForm;
+import com.art.tutordesk.lesson.service.LessonService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Creating a lesson for a group of students and completing it, through LessonService on the embedded H2 database of
+ * the perf profile. jdbcBatchSize = 1 turns JDBC batching off, so the two settings show the round-trip reduction.
+ * Executed statements (one per round trip or per JDBC batch), counted on the DataSource by JdbcStatementCounter so
+ * that the plain JDBC ledger inserts are included, are reported as the secondary "statements" metric; divide it by
+ * "calls" for the statements per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LessonWriteBenchmark {
+
+    @Param({"1", "10"})
+    public int groupSize;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private LessonService lessonService;
+    private JdbcStatementCounter statementCounter;
+    private List<Long> studentIds;
+    private LocalDate lessonDate;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+        public long statements;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            calls = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        statementCounter = new JdbcStatementCounter();
+        context = new SpringApplicationBuilder(TutorDeskApplication.class)
+                .profiles("perf")
+                .web(WebApplicationType.NONE)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(statementCounter))
+                // Command line arguments, because default properties lose to the seed sizes of the perf profile
+                .run("--app.perf.seed.students=" + groupSize,
+                        "--app.perf.seed.lessons=0",
+                        "--app.perf.seed.payments=0",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "--logging.level.root=WARN");
+        lessonService = context.getBean(LessonService.class);
+        studentIds = LongStream.rangeClosed(1, groupSize).boxed().toList();
+        lessonDate = LocalDate.now();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Lesson saveLesson(RoundTrips roundTrips) {
+        long before = statementCounter.executed();
+        Lesson lesson = lessonService.saveLesson(newLesson(), studentIds);
+        roundTrips.statements += statementCounter.executed() - before;
+        roundTrips.calls++;
+        return lesson;
+    }
+
+    @Benchmark
+    public Lesson saveAndCompleteLesson(RoundTrips roundTrips) {
+        long before = statementCounter.executed();
+        Lesson lesson = lessonService.saveLesson(newLesson(), studentIds);
+        lessonService.updateLesson(lesson.getId(), completeAll());
+        roundTrips.statements += statementCounter.executed() - before;
+        roundTrips.calls++;
+        return lesson;
+    }
+
+    private Lesson newLesson() {
+        Lesson lesson = new Lesson();
+        lesson.setLessonDate(lessonDate);
+        return lesson;
+    }
+
+    private LessonUpdateForm completeAll() {
+        LessonUpdateForm form = new LessonUpdateForm();
+        form.setLessonDate(lessonDate);
+        for (Long studentId : studentIds) {
+            LessonStudentUpdateDTO update = new LessonStudentUpdateDTO();
+            update.setStudentId(studentId);
+            update.setStatus(LessonStudentStatus.COMPLETED);
+            form.getStudentUpdates().add(update);
+        }
+        return form;
+    }
+}
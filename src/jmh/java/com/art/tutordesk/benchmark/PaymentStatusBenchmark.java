@@ -0,0 +1,62 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.PaymentStatusUtil;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.Payment;
+import com.art.tutordesk.student.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIFO payment status calculation over the full history of one student.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentStatusBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int lessonsPerStudent;
+
+    private final PaymentStatusUtil paymentStatusUtil = new PaymentStatusUtil();
+    private List<LessonStudent> lessons;
+    private List<Payment> payments;
+    private List<PaymentStatus> lessonStatuses;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = new SyntheticData(42);
+        Student student = data.student(Currency.USD);
+        lessons = data.lessons(student, lessonsPerStudent);
+        payments = data.payments(student, lessons, 0.7);
+        lessonStatuses = List.copyOf(paymentStatusUtil.calculatePaymentStatuses(lessons, payments).values());
+    }
+
+    @Benchmark
+    public Map<Long, PaymentStatus> calculatePaymentStatuses() {
+        return paymentStatusUtil.calculatePaymentStatuses(lessons, payments);
+    }
+
+    @Benchmark
+    public PaymentStatus calculateOverallLessonPaymentStatus() {
+        return paymentStatusUtil.calculateOverallLessonPaymentStatus(lessonStatuses);
+    }
+}
@@ -0,0 +1,83 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.TutorDeskApplication;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.report.LessonPaymentStatusStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Payment statuses of a 30-day report window, resolved by the java strategy (full history, FIFO in the JVM) versus
+ * the native strategy (running sum of the charges up to the end of the window in the database). The application
+ * runs against PostgreSQL in a Testcontainers container, seeded by the perf profile with about 200 lessons per student.
+ * Run with ./gradlew jmh -PjmhIncludes=ReportPaymentStatusBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportPaymentStatusBenchmark {
+
+    @Param({"java", "native"})
+    public String strategy;
+
+    @Param({"10", "500"})
+    public int students;
+
+    private ConfigurableApplicationContext context;
+    private LessonPaymentStatusStrategy paymentStatusStrategy;
+    private List<Long> studentIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(BenchmarkDatabase.arguments());
+        args.addAll(List.of(
+                "--app.perf.seed.students=500",
+                "--app.perf.seed.lessons=100000",
+                "--app.perf.seed.payments=40000",
+                "--app.reports.payment-status-strategy=" + strategy,
+                "--logging.level.root=WARN"));
+        context = new SpringApplicationBuilder(TutorDeskApplication.class)
+                .profiles("perf")
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        paymentStatusStrategy = context.getBean(LessonPaymentStatusStrategy.class);
+        studentIds = LongStream.rangeClosed(1, students).boxed().toList();
+        endDate = LocalDate.now();
+        startDate = endDate.minusDays(30);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, PaymentStatus> getPaymentStatuses() {
+        return paymentStatusStrategy.getPaymentStatuses(studentIds, startDate, endDate);
+    }
+}
@@ -0,0 +1,145 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.TutorDeskApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of two read-heavy pages over real HTTP, with Tomcat on platform threads versus the opt-in
+ * virtual-threads profile. The application runs in the benchmark JVM on a random port against PostgreSQL in a
+ * Testcontainers container, seeded by the perf profile; 64 client threads share one logged-in session. Both modes use
+ * the same connection pool of 20, so the pool is not what separates them.
+ * Throughput gives the requests per second, SampleTime the latency distribution (p0.50, p0.95, p0.99, ...).
+ * Run with ./gradlew jmh -PjmhIncludes=RequestThreadingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest lessonList;
+    private HttpRequest report;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        // Both modes get the pool of the virtual-threads profile, so the only difference is the request thread model
+        List<String> args = new ArrayList<>(BenchmarkDatabase.arguments());
+        args.addAll(List.of(
+                "--server.port=0",
+                "--management.server.port=",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.datasource.hikari.connection-timeout=5000",
+                "--app.perf.seed.students=500",
+                "--app.perf.seed.lessons=50000",
+                "--app.perf.seed.payments=20000",
+                "--logging.level.root=WARN"));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TutorDeskApplication.class);
+        context = ("virtual".equals(threads) ? builder.profiles("perf", "virtual-threads") : builder.profiles("perf"))
+                .run(args.toArray(String[]::new));
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .cookieHandler(new CookieManager(null, CookiePolicy.ACCEPT_ALL))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        login(baseUrl, context.getEnvironment().getProperty("app.admin.username"),
+                context.getEnvironment().getProperty("app.admin.password"));
+
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(30);
+        lessonList = HttpRequest.newBuilder(URI.create(baseUrl + "/lessons/list")).build();
+        report = HttpRequest.newBuilder(URI.create(baseUrl + "/reports/generate?startDate=%s&endDate=%s&includeLessons=true&includePayments=true"
+                .formatted(start, end))).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int lessonList() throws IOException, InterruptedException {
+        return send(lessonList);
+    }
+
+    @Benchmark
+    public int generateReport() throws IOException, InterruptedException {
+        return send(report);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    // Form login with the CSRF token of the login page; the session cookie is kept by the client's cookie manager
+    private void login(String baseUrl, String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> loginPage = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher token = CSRF_TOKEN.matcher(loginPage.body());
+        if (!token.find()) {
+            throw new IllegalStateException("No CSRF token on the login page");
+        }
+
+        String form = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(token.group(1));
+        HttpResponse<Void> result = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/perform_login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .timeout(Duration.ofSeconds(10))
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = result.headers().firstValue("Location").orElse("");
+        if (result.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login failed: " + result.statusCode() + " " + location);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
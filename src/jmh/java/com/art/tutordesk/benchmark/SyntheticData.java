@@ -0,0 +1,125 @@
+package com.art.tutordesk.benchmark;
+
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.Payment;
+import com.art.tutordesk.payment.PaymentMethod;
+import com.art.tutordesk.student.Student;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator of in-memory entities for benchmarks.
+ * The same seed always produces the same data, so results are comparable across commits.
+ */
+public final class SyntheticData {
+
+    private static final LocalDate FIRST_LESSON_DATE = LocalDate.of(2020, 1, 1);
+    private static final BigDecimal[] PRICES = {
+            BigDecimal.ZERO, new BigDecimal("20.00"), new BigDecimal("25.00"), new BigDecimal("30.00")
+    };
+    private static final LessonStudentStatus[] STATUSES = LessonStudentStatus.values();
+
+    private final Random random;
+    private long nextId = 1;
+
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Student student(Currency currency) {
+        Student student = new Student();
+        student.setId(nextId++);
+        student.setFirstName("Student");
+        student.setLastName(String.valueOf(student.getId()));
+        student.setCurrency(currency);
+        student.setPriceIndividual(new BigDecimal("25.00"));
+        student.setPriceGroup(new BigDecimal("20.00"));
+        return student;
+    }
+
+    /**
+     * Lessons of one student, one per day, mostly chargeable and with a few free and cancelled ones.
+     */
+    public List<LessonStudent> lessons(Student student, int count) {
+        List<LessonStudent> lessons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setId(nextId++);
+            lesson.setLessonDate(FIRST_LESSON_DATE.plusDays(i));
+
+            LessonStudent lessonStudent = new LessonStudent();
+            lessonStudent.setId(nextId++);
+            lessonStudent.setLesson(lesson);
+            lessonStudent.setStudent(student);
+            lessonStudent.setCurrency(student.getCurrency());
+            lessonStudent.setPrice(PRICES[random.nextInt(PRICES.length)]);
+            lessonStudent.setStatus(random.nextInt(10) < 8 ? LessonStudentStatus.COMPLETED : STATUSES[random.nextInt(STATUSES.length)]);
+            lesson.getLessonStudents().add(lessonStudent);
+            lessons.add(lessonStudent);
+        }
+        return lessons;
+    }
+
+    /**
+     * Lessons with one to three students each, as shown on the lesson list.
+     */
+    public List<Lesson> groupLessons(int count) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            students.add(student(Currency.USD));
+        }
+        List<Lesson> lessons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setId(nextId++);
+            lesson.setLessonDate(FIRST_LESSON_DATE.plusDays(i));
+            int size = 1 + random.nextInt(students.size());
+            for (int s = 0; s < size; s++) {
+                LessonStudent lessonStudent = new LessonStudent();
+                lessonStudent.setId(nextId++);
+                lessonStudent.setLesson(lesson);
+                lessonStudent.setStudent(students.get(s));
+                lessonStudent.setCurrency(Currency.USD);
+                lessonStudent.setPrice(new BigDecimal("20.00"));
+                lessonStudent.setStatus(LessonStudentStatus.COMPLETED);
+                lesson.getLessonStudents().add(lessonStudent);
+            }
+            lessons.add(lesson);
+        }
+        return lessons;
+    }
+
+    /**
+     * Payments covering roughly {@code coverage} of the total price of the lessons.
+     */
+    public List<Payment> payments(Student student, List<LessonStudent> lessons, double coverage) {
+        BigDecimal total = lessons.stream()
+                .map(LessonStudent::getPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal remaining = total.multiply(BigDecimal.valueOf(coverage));
+        BigDecimal installment = new BigDecimal("100.00");
+
+        List<Payment> payments = new ArrayList<>();
+        LocalDate date = FIRST_LESSON_DATE;
+        while (remaining.signum() > 0) {
+            Payment payment = new Payment();
+            payment.setId(nextId++);
+            payment.setStudent(student);
+            payment.setCurrency(student.getCurrency());
+            payment.setPaymentMethod(PaymentMethod.CARD);
+            payment.setPaymentDate(date);
+            payment.setAmount(remaining.min(installment));
+            payments.add(payment);
+            remaining = remaining.subtract(installment);
+            date = date.plusDays(4);
+        }
+        return payments;
+    }
+}
@@ -0,0 +1,29 @@
+package com.art.tutordesk.allocation;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Chronological position of a charge within the history of a (student, currency) pair.
+ */
+record AllocationPosition(LocalDate lessonDate, Long lessonStudentId) implements Comparable<AllocationPosition> {
+
+    private static final Comparator<AllocationPosition> ORDER = Comparator.comparing(AllocationPosition::lessonDate)
+            .thenComparing(AllocationPosition::lessonStudentId);
+
+    static AllocationPosition of(LessonChargeAllocation allocation) {
+        return new AllocationPosition(allocation.getLessonDate(), allocation.getLessonStudentId());
+    }
+
+    static AllocationPosition of(PaymentAllocationCursor cursor) {
+        if (cursor.getAllocatedUpToDate() == null) {
+            return null;
+        }
+        return new AllocationPosition(cursor.getAllocatedUpToDate(), cursor.getAllocatedUpToLessonStudentId());
+    }
+
+    @Override
+    public int compareTo(AllocationPosition other) {
+        return ORDER.compare(this, other);
+    }
+}
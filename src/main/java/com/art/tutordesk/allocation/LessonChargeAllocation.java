@@ -0,0 +1,79 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.payment.Currency;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Result of allocating a student's paid credit to a single chargeable lesson.
+ * Rows are ordered by (lessonDate, lessonStudentId) within a (student, currency) pair;
+ * {@code consumedCredit} is the running total of credit allocated up to and including this row.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "lesson_charge_allocations")
+public class LessonChargeAllocation implements Persistable<Long> {
+
+    @Id
+    private Long lessonStudentId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Currency currency;
+
+    @Column(nullable = false)
+    private LocalDate lessonDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentStatus status;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal allocatedAmount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal consumedCredit;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public LessonChargeAllocation(Long lessonStudentId) {
+        this.lessonStudentId = lessonStudentId;
+    }
+
+    @Override
+    public Long getId() {
+        return lessonStudentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
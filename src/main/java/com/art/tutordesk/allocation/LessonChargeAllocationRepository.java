@@ -0,0 +1,50 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.payment.Currency;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LessonChargeAllocationRepository extends JpaRepository<LessonChargeAllocation, Long> {
+
+    List<LessonChargeAllocation> findByStudentIdAndCurrency(Long studentId, Currency currency);
+
+    @Query("""
+            SELECT a FROM LessonChargeAllocation a
+            WHERE a.studentId = :studentId AND a.currency = :currency
+            AND (a.lessonDate > :lessonDate OR (a.lessonDate = :lessonDate AND a.lessonStudentId >= :lessonStudentId))
+            """)
+    List<LessonChargeAllocation> findFromPosition(@Param("studentId") Long studentId,
+                                                  @Param("currency") Currency currency,
+                                                  @Param("lessonDate") LocalDate lessonDate,
+                                                  @Param("lessonStudentId") Long lessonStudentId);
+
+    @Query("""
+            SELECT a FROM LessonChargeAllocation a
+            WHERE a.studentId = :studentId AND a.currency = :currency
+            AND (a.lessonDate < :lessonDate OR (a.lessonDate = :lessonDate AND a.lessonStudentId < :lessonStudentId))
+            ORDER BY a.lessonDate DESC, a.lessonStudentId DESC
+            """)
+    List<LessonChargeAllocation> findLastBeforePosition(@Param("studentId") Long studentId,
+                                                        @Param("currency") Currency currency,
+                                                        @Param("lessonDate") LocalDate lessonDate,
+                                                        @Param("lessonStudentId") Long lessonStudentId,
+                                                        Pageable pageable);
+
+    @Query("""
+            SELECT a FROM LessonChargeAllocation a
+            WHERE a.studentId = :studentId AND a.currency = :currency AND a.consumedCredit > :credit
+            ORDER BY a.lessonDate ASC, a.lessonStudentId ASC
+            """)
+    List<LessonChargeAllocation> findFirstConsumingMoreThan(@Param("studentId") Long studentId,
+                                                            @Param("currency") Currency currency,
+                                                            @Param("credit") BigDecimal credit,
+                                                            Pageable pageable);
+}
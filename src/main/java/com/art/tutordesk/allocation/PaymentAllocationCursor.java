@@ -0,0 +1,39 @@
+package com.art.tutordesk.allocation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Allocation state of a (student, currency) pair.
+ * Every charge before the "allocated up to" position is settled; the position itself points to the
+ * first UNPAID charge and is empty when all charges are covered.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "payment_allocation_cursors")
+public class PaymentAllocationCursor {
+
+    @EmbeddedId
+    private AllocationCursorId id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    private LocalDate allocatedUpToDate;
+
+    private Long allocatedUpToLessonStudentId;
+
+    public PaymentAllocationCursor(AllocationCursorId id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,38 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentAllocationCursorRepository extends JpaRepository<PaymentAllocationCursor, AllocationCursorId> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM PaymentAllocationCursor c WHERE c.id = :id")
+    Optional<PaymentAllocationCursor> findByIdForUpdate(@Param("id") AllocationCursorId id);
+
+    // An uncommitted insert of the same row makes this one wait for it and then insert nothing
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO payment_allocation_cursors (student_id, currency, total_paid)
+            VALUES (:studentId, :currency, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId, @Param("currency") String currency);
+
+    @Query("""
+            SELECT DISTINCT new com.art.tutordesk.allocation.AllocationCursorId(ls.student.id, ls.currency)
+            FROM LessonStudent ls
+            WHERE ls.status IN :statuses
+            """)
+    List<AllocationCursorId> findStudentCurrenciesWithCharges(@Param("statuses") Collection<LessonStudentStatus> statuses);
+}
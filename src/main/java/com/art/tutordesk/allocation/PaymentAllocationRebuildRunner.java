@@ -0,0 +1,33 @@
+package com.art.tutordesk.allocation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Initialises payment allocations on the first start after the allocation tables were introduced,
+ * or rebuilds them when the application is launched with {@code --rebuild-allocations}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentAllocationRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-allocations";
+
+    private final PaymentAllocationCursorRepository cursorRepository;
+    private final PaymentAllocationService paymentAllocationService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            log.info("Rebuilding payment allocations as requested by --{}", REBUILD_OPTION);
+            paymentAllocationService.rebuildAll();
+        } else if (cursorRepository.count() == 0) {
+            log.info("No payment allocations found, initialising them from lesson and payment history");
+            paymentAllocationService.rebuildAll();
+        }
+    }
+}
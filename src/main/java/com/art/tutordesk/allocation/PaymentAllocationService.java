@@ -0,0 +1,313 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentAllocationService {
+
+    static final Set<LessonStudentStatus> CHARGEABLE_STATUSES = EnumSet.of(LessonStudentStatus.COMPLETED, LessonStudentStatus.NOT_ATTENDED);
+    private static final Pageable FIRST = PageRequest.of(0, 1);
+    private static final Comparator<AllocationCursorId> CURSOR_ORDER = Comparator.comparing(AllocationCursorId::getStudentId)
+            .thenComparing(AllocationCursorId::getCurrency);
+
+    private final LessonChargeAllocationRepository allocationRepository;
+    private final PaymentAllocationCursorRepository cursorRepository;
+    private final LessonStudentRepository lessonStudentRepository;
+    private final PaymentRepository paymentRepository;
+
+    /**
+     * Returns the persisted payment status of the given LessonStudent records, keyed by LessonStudent ID.
+     * Records that are not chargeable have no allocation and are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, PaymentStatus> getPaymentStatuses(Collection<Long> lessonStudentIds) {
+        if (CollectionUtils.isEmpty(lessonStudentIds)) {
+            return Map.of();
+        }
+        return allocationRepository.findAllById(lessonStudentIds).stream()
+                .collect(Collectors.toMap(LessonChargeAllocation::getLessonStudentId, LessonChargeAllocation::getStatus));
+    }
+
+    /**
+     * Re-allocates credit after the total paid by a student in a currency changed by {@code delta}.
+     * Logic:
+     * 1. A positive delta can only settle charges from the first UNPAID one ("allocated up to" cursor) onwards.
+     * 2. A negative delta can only unsettle charges whose running consumed credit exceeds the new total.
+     * Everything before that position keeps its allocation.
+     */
+    @Transactional
+    public void onPaymentChanged(Long studentId, Currency currency, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        PaymentAllocationCursor cursor = lockCursor(studentId, currency);
+        cursor.setTotalPaid(cursor.getTotalPaid().add(delta));
+
+        AllocationPosition from;
+        if (delta.signum() > 0) {
+            from = AllocationPosition.of(cursor);
+        } else {
+            from = allocationRepository.findFirstConsumingMoreThan(studentId, currency, cursor.getTotalPaid(), FIRST).stream()
+                    .findFirst()
+                    .map(AllocationPosition::of)
+                    .orElse(null);
+        }
+
+        if (from != null) {
+            reallocateFrom(cursor, from);
+        }
+        cursorRepository.save(cursor);
+        log.debug("Payments of student {} in {} changed by {}, re-allocated from {}", studentId, currency, delta, from);
+    }
+
+    /**
+     * Re-allocates credit after the price, status, date or currency of a lesson charge changed.
+     * Only the charges from the position of the changed one onwards are re-allocated.
+     */
+    @Transactional
+    public void onChargeChanged(LessonStudent lessonStudent) {
+        Map<AllocationCursorId, AllocationPosition> fromByCursor = new TreeMap<>(CURSOR_ORDER);
+        fromByCursor.put(cursorIdOf(lessonStudent), positionOf(lessonStudent));
+        allocationRepository.findById(lessonStudent.getId())
+                .ifPresent(previous -> mergePreviousPosition(fromByCursor, previous, lessonStudent));
+
+        fromByCursor.forEach(this::reallocate);
+        log.debug("Charge {} of student {} changed, re-allocated from {}",
+                lessonStudent.getId(), lessonStudent.getStudent().getId(), fromByCursor.values());
+    }
+
+    /**
+     * Re-allocates credit after many charges changed at once, e.g. by a bulk status update.
+     * Logic:
+     * 1. Charges are grouped by student and currency; the earliest of their current and previously allocated
+     *    positions is the point to re-allocate from.
+     * 2. Every (student, currency) pair is re-allocated once, however many of its charges changed.
+     */
+    @Transactional
+    public void onChargesChanged(Collection<LessonStudent> lessonStudents) {
+        if (CollectionUtils.isEmpty(lessonStudents)) {
+            return;
+        }
+        Map<Long, LessonChargeAllocation> previousAllocations = allocationRepository
+                .findAllById(lessonStudents.stream().map(LessonStudent::getId).toList()).stream()
+                .collect(Collectors.toMap(LessonChargeAllocation::getLessonStudentId, Function.identity()));
+
+        Map<AllocationCursorId, AllocationPosition> fromByCursor = new TreeMap<>(CURSOR_ORDER);
+        for (LessonStudent lessonStudent : lessonStudents) {
+            fromByCursor.merge(cursorIdOf(lessonStudent), positionOf(lessonStudent), PaymentAllocationService::earliest);
+            LessonChargeAllocation previous = previousAllocations.get(lessonStudent.getId());
+            if (previous != null) {
+                mergePreviousPosition(fromByCursor, previous, lessonStudent);
+            }
+        }
+
+        // Cursors are locked in a fixed order so concurrent bulk updates cannot deadlock
+        fromByCursor.forEach(this::reallocate);
+        log.debug("{} charges changed, re-allocated {} student/currency pairs", lessonStudents.size(), fromByCursor.size());
+    }
+
+    /**
+     * Re-allocates credit before charges are deleted, e.g. together with their lesson.
+     * Logic:
+     * 1. The allocation rows of the charges give the (student, currency) pairs they belong to and their positions.
+     * 2. Every pair is re-allocated once from the earliest removed position without the removed charges, so the
+     *    credit they consumed settles the later UNPAID charges. Their allocation rows are deleted on the way.
+     */
+    @Transactional
+    public void onChargesRemoved(Collection<LessonStudent> lessonStudents) {
+        if (CollectionUtils.isEmpty(lessonStudents)) {
+            return;
+        }
+        Set<Long> removedIds = lessonStudents.stream().map(LessonStudent::getId).collect(Collectors.toSet());
+        Map<AllocationCursorId, AllocationPosition> fromByCursor = new TreeMap<>(CURSOR_ORDER);
+        allocationRepository.findAllById(removedIds).forEach(allocation ->
+                fromByCursor.merge(new AllocationCursorId(allocation.getStudentId(), allocation.getCurrency()),
+                        AllocationPosition.of(allocation), PaymentAllocationService::earliest));
+
+        fromByCursor.forEach((id, from) -> {
+            PaymentAllocationCursor cursor = lockCursor(id.getStudentId(), id.getCurrency());
+            reallocateFrom(cursor, from, removedIds);
+            cursorRepository.save(cursor);
+        });
+        log.debug("{} charges removed, re-allocated {} student/currency pairs", removedIds.size(), fromByCursor.size());
+    }
+
+    /**
+     * Recomputes allocations of every student and currency from the full lesson and payment history.
+     * Used to initialise the allocation tables and to recover from drift.
+     */
+    @Transactional
+    public int rebuildAll() {
+        Map<AllocationCursorId, BigDecimal> totalsPaid = new HashMap<>();
+        paymentRepository.sumAmountsGroupedByStudentAndCurrency().forEach(total ->
+                totalsPaid.put(new AllocationCursorId(total.studentId(), total.currency()), total.total()));
+        cursorRepository.findStudentCurrenciesWithCharges(CHARGEABLE_STATUSES).forEach(id ->
+                totalsPaid.putIfAbsent(id, BigDecimal.ZERO));
+
+        totalsPaid.forEach((id, totalPaid) -> {
+            PaymentAllocationCursor cursor = lockCursor(id.getStudentId(), id.getCurrency());
+            cursor.setTotalPaid(totalPaid);
+            reallocateFrom(cursor, null);
+            cursorRepository.save(cursor);
+        });
+        log.info("Payment allocations rebuilt for {} student/currency pairs.", totalsPaid.size());
+        return totalsPaid.size();
+    }
+
+    /**
+     * Adds the previously allocated position of a changed charge to the positions to re-allocate from.
+     * Logic:
+     * 1. A moved lesson must also be re-allocated from its previous position if that one is earlier.
+     * 2. A charge whose currency changed leaves the history of its previous currency, which is re-allocated from the
+     *    previous position. Its allocation row is moved to the new currency and position first, so the previous
+     *    currency is walked without it and the new one updates the same row.
+     */
+    private static void mergePreviousPosition(Map<AllocationCursorId, AllocationPosition> fromByCursor,
+                                              LessonChargeAllocation previous, LessonStudent lessonStudent) {
+        fromByCursor.merge(new AllocationCursorId(previous.getStudentId(), previous.getCurrency()),
+                AllocationPosition.of(previous), PaymentAllocationService::earliest);
+        if (previous.getCurrency() != lessonStudent.getCurrency()) {
+            previous.setCurrency(lessonStudent.getCurrency());
+            previous.setLessonDate(lessonStudent.getLesson().getLessonDate());
+        }
+    }
+
+    private static AllocationCursorId cursorIdOf(LessonStudent lessonStudent) {
+        return new AllocationCursorId(lessonStudent.getStudent().getId(), lessonStudent.getCurrency());
+    }
+
+    private static AllocationPosition positionOf(LessonStudent lessonStudent) {
+        return new AllocationPosition(lessonStudent.getLesson().getLessonDate(), lessonStudent.getId());
+    }
+
+    private static AllocationPosition earliest(AllocationPosition a, AllocationPosition b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private void reallocate(AllocationCursorId id, AllocationPosition from) {
+        PaymentAllocationCursor cursor = lockCursor(id.getStudentId(), id.getCurrency());
+        reallocateFrom(cursor, from);
+        cursorRepository.save(cursor);
+    }
+
+    /**
+     * Locks the cursor of a student and currency, creating it first when it does not exist yet.
+     * The cursor is inserted with ON CONFLICT DO NOTHING, so concurrent first writes of the same pair cannot collide
+     * on the primary key; all of them then wait for the row lock.
+     */
+    private PaymentAllocationCursor lockCursor(Long studentId, Currency currency) {
+        AllocationCursorId id = new AllocationCursorId(studentId, currency);
+        cursorRepository.insertIfAbsent(studentId, currency.name());
+        return cursorRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new IllegalStateException("Payment allocation cursor not found: " + studentId + "/" + currency));
+    }
+
+    /**
+     * Applies the FIFO rule of PaymentStatusUtil to the charges at or after {@code from} (all charges when null).
+     * Charges are walked chronologically; a charge is PAID if the remaining credit covers its price,
+     * UNPAID otherwise, and FREE when its price is zero.
+     */
+    private void reallocateFrom(PaymentAllocationCursor cursor, AllocationPosition from) {
+        reallocateFrom(cursor, from, Set.of());
+    }
+
+    // Charges in removedIds are skipped as if they were already deleted
+    private void reallocateFrom(PaymentAllocationCursor cursor, AllocationPosition from, Set<Long> removedIds) {
+        Long studentId = cursor.getId().getStudentId();
+        Currency currency = cursor.getId().getCurrency();
+
+        List<LessonChargeAllocation> staleAllocations;
+        List<LessonStudent> charges;
+        BigDecimal consumed;
+        if (from == null) {
+            staleAllocations = allocationRepository.findByStudentIdAndCurrency(studentId, currency);
+            charges = lessonStudentRepository.findChargesInOrder(studentId, currency, CHARGEABLE_STATUSES);
+            consumed = BigDecimal.ZERO;
+        } else {
+            staleAllocations = allocationRepository.findFromPosition(studentId, currency, from.lessonDate(), from.lessonStudentId());
+            charges = lessonStudentRepository.findChargesInOrderFromPosition(studentId, currency, CHARGEABLE_STATUSES,
+                    from.lessonDate(), from.lessonStudentId());
+            consumed = allocationRepository.findLastBeforePosition(studentId, currency, from.lessonDate(), from.lessonStudentId(), FIRST)
+                    .stream()
+                    .findFirst()
+                    .map(LessonChargeAllocation::getConsumedCredit)
+                    .orElse(BigDecimal.ZERO);
+        }
+
+        Map<Long, LessonChargeAllocation> existing = staleAllocations.stream()
+                .collect(Collectors.toMap(LessonChargeAllocation::getLessonStudentId, Function.identity()));
+        BigDecimal remainingCredit = cursor.getTotalPaid().subtract(consumed);
+        AllocationPosition firstUnpaid = null;
+        List<LessonChargeAllocation> allocations = new ArrayList<>(charges.size());
+
+        for (LessonStudent charge : charges) {
+            if (removedIds.contains(charge.getId())) {
+                continue;
+            }
+            LessonChargeAllocation allocation = existing.remove(charge.getId());
+            if (allocation == null) {
+                allocation = new LessonChargeAllocation(charge.getId());
+                allocation.setStudentId(studentId);
+                allocation.setCurrency(currency);
+            }
+            allocation.setLessonDate(charge.getLesson().getLessonDate());
+
+            BigDecimal price = charge.getPrice();
+            if (price == null || price.compareTo(BigDecimal.ZERO) == 0) {
+                allocation.setStatus(PaymentStatus.FREE);
+                allocation.setAllocatedAmount(BigDecimal.ZERO);
+            } else if (remainingCredit.compareTo(price) >= 0) {
+                remainingCredit = remainingCredit.subtract(price);
+                consumed = consumed.add(price);
+                allocation.setStatus(PaymentStatus.PAID);
+                allocation.setAllocatedAmount(price);
+            } else {
+                allocation.setStatus(PaymentStatus.UNPAID);
+                allocation.setAllocatedAmount(BigDecimal.ZERO);
+                if (firstUnpaid == null) {
+                    firstUnpaid = AllocationPosition.of(allocation);
+                }
+            }
+            allocation.setConsumedCredit(consumed);
+            allocations.add(allocation);
+        }
+
+        // Whatever is left belonged to charges that are no longer chargeable
+        allocationRepository.deleteAll(existing.values());
+        allocationRepository.saveAll(allocations);
+
+        // The cursor only moves when it was inside the re-allocated tail
+        AllocationPosition cursorPosition = AllocationPosition.of(cursor);
+        if (from == null || cursorPosition == null || cursorPosition.compareTo(from) >= 0) {
+            cursor.setAllocatedUpToDate(firstUnpaid != null ? firstUnpaid.lessonDate() : null);
+            cursor.setAllocatedUpToLessonStudentId(firstUnpaid != null ? firstUnpaid.lessonStudentId() : null);
+        }
+    }
+}
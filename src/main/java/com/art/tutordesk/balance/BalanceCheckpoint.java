@@ -0,0 +1,52 @@
+package com.art.tutordesk.balance;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance of a student in a single currency at the end of a month, written once by {@link BalanceCheckpointService}.
+ * A point-in-time balance starts from the nearest checkpoint and only sums the ledger entries after it.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "balance_checkpoints")
+public class BalanceCheckpoint implements Persistable<BalanceCheckpointId> {
+
+    @EmbeddedId
+    private BalanceCheckpointId id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Transient
+    private boolean newEntity = true;
+
+    public BalanceCheckpoint(BalanceCheckpointId id, BigDecimal balance) {
+        this.id = id;
+        this.balance = balance;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Getter
+@Embeddable
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceCheckpointId implements Serializable {
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Currency currency;
+
+    // Start of the month after the checkpointed one; the balance covers the ledger entries before it
+    @Column(name = "checkpoint_at", nullable = false)
+    private LocalDateTime checkpointAt;
+}
@@ -0,0 +1,26 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Writes the checkpoint of the month that just ended, and any earlier ones that are missing, shortly after midnight
+ * on the first day of each month. The schedule is set by {@code app.balance.checkpoint.cron} ("-" disables it).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceCheckpointJob {
+
+    private final BalanceCheckpointService balanceCheckpointService;
+
+    @Scheduled(cron = "${app.balance.checkpoint.cron}")
+    public void writeCheckpoints() {
+        int months = balanceCheckpointService.writeMissingCheckpoints(LocalDate.now());
+        log.info("Balance checkpoint job finished, {} month(s) written.", months);
+    }
+}
@@ -0,0 +1,33 @@
+package com.art.tutordesk.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, BalanceCheckpointId> {
+
+    @Query("SELECT MAX(bc.id.checkpointAt) FROM BalanceCheckpoint bc")
+    Optional<LocalDateTime> findLatestCheckpointAt();
+
+    List<BalanceCheckpoint> findByIdCheckpointAt(LocalDateTime checkpointAt);
+
+    // All currencies of the student's latest checkpoint at or before asOf
+    @Query("""
+            SELECT bc FROM BalanceCheckpoint bc
+            WHERE bc.id.studentId = :studentId
+              AND bc.id.checkpointAt = (SELECT MAX(c.id.checkpointAt) FROM BalanceCheckpoint c
+                                        WHERE c.id.studentId = :studentId AND c.id.checkpointAt <= :asOf)
+            """)
+    List<BalanceCheckpoint> findLatestOfStudent(@Param("studentId") Long studentId, @Param("asOf") LocalDateTime asOf);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM BalanceCheckpoint bc WHERE bc.id.studentId = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+}
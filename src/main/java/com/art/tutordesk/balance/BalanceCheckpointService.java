@@ -0,0 +1,69 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointService {
+
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final BalanceTransactionRepository balanceTransactionRepository;
+
+    /**
+     * Writes the month-end checkpoints that are still missing, oldest month first.
+     * Logic:
+     * 1. The first missing month follows the latest checkpoint, or is the month of the oldest ledger entry.
+     * 2. A month's checkpoint is the previous checkpoint plus the ledger entries of the month, summed with one range query.
+     * 3. Only completed months are written; the month of {@code today} stays open.
+     * Returns the number of months written.
+     */
+    @Transactional
+    public int writeMissingCheckpoints(LocalDate today) {
+        LocalDateTime openMonthStart = today.withDayOfMonth(1).atStartOfDay();
+        Map<StudentBalanceId, BigDecimal> balances = new HashMap<>();
+        LocalDateTime from;
+
+        Optional<LocalDateTime> latest = balanceCheckpointRepository.findLatestCheckpointAt();
+        if (latest.isPresent()) {
+            from = latest.get();
+            balanceCheckpointRepository.findByIdCheckpointAt(from).forEach(checkpoint -> balances.put(
+                    new StudentBalanceId(checkpoint.getId().getStudentId(), checkpoint.getId().getCurrency()),
+                    checkpoint.getBalance()));
+        } else {
+            Optional<LocalDateTime> firstEntry = balanceTransactionRepository.findFirstTransactionDateTime();
+            if (firstEntry.isEmpty()) {
+                log.debug("No ledger entries yet, no balance checkpoints to write.");
+                return 0;
+            }
+            from = firstEntry.get().toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+
+        int months = 0;
+        for (LocalDateTime to = from.plusMonths(1); !to.isAfter(openMonthStart); from = to, to = to.plusMonths(1)) {
+            for (StudentCurrencyTotal total : balanceTransactionRepository.sumAmountsBetween(from, to)) {
+                balances.merge(new StudentBalanceId(total.studentId(), total.currency()), total.total(), BigDecimal::add);
+            }
+            LocalDateTime checkpointAt = to;
+            List<BalanceCheckpoint> checkpoints = balances.entrySet().stream()
+                    .map(entry -> new BalanceCheckpoint(new BalanceCheckpointId(entry.getKey().getStudentId(),
+                            entry.getKey().getCurrency(), checkpointAt), entry.getValue()))
+                    .toList();
+            balanceCheckpointRepository.saveAll(checkpoints);
+            months++;
+            log.info("Balance checkpoint at {} written for {} student balances.", checkpointAt, checkpoints.size());
+        }
+        return months;
+    }
+}
@@ -0,0 +1,12 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+
+/**
+ * Difference between the stored balance snapshot and the balance recomputed from the ledger.
+ * A {@code null} snapshot balance means the snapshot row was missing.
+ */
+public record BalanceDrift(Long studentId, Currency currency, BigDecimal snapshotBalance, BigDecimal ledgerBalance) {
+}
@@ -7,6 +7,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -16,15 +19,64 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BalanceQueryService {
 
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
     private final BalanceTransactionRepository balanceTransactionRepository;
+    private final BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
 
     @Transactional(readOnly = true)
     public Map<Currency, BigDecimal> getAllBalancesForStudent(Long studentId) {
-        List<BalanceTransaction> transactions = balanceTransactionRepository.findByStudentId(studentId);
-        return transactions.stream()
-                .collect(Collectors.groupingBy(
-                        BalanceTransaction::getCurrency,
-                        Collectors.mapping(BalanceTransaction::getAmount, Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
-                ));
+        List<StudentBalance> balances = studentBalanceRepository.findByIdStudentId(studentId);
+        return balances.stream()
+                .collect(Collectors.toMap(sb -> sb.getId().getCurrency(), StudentBalance::getBalance));
+    }
+
+    /**
+     * Reads the balances of all students (or only the active ones) from the snapshot table with one query,
+     * grouped by student and ordered by currency. Students without a snapshot row are not in the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<Currency, BigDecimal>> getBalancesByStudent(boolean includeInactive) {
+        List<StudentBalance> balances = includeInactive
+                ? studentBalanceRepository.findAll()
+                : studentBalanceRepository.findAllOfActiveStudents();
+        Map<Long, Map<Currency, BigDecimal>> balancesByStudent = new HashMap<>();
+        balances.forEach(sb -> balancesByStudent
+                .computeIfAbsent(sb.getId().getStudentId(), id -> new EnumMap<>(Currency.class))
+                .put(sb.getId().getCurrency(), sb.getBalance()));
+        log.debug("Balances read for {} students ({} snapshot rows)", balancesByStudent.size(), balances.size());
+        return balancesByStudent;
+    }
+
+    /**
+     * Balances of a student as they were at {@code asOf}, including the ledger entries made at that moment.
+     * Logic:
+     * 1. The student's latest month-end checkpoint at or before asOf gives the starting balances (none: zero).
+     * 2. Only the ledger entries between that checkpoint and asOf are summed, with an index range scan.
+     *    Before the student's opening balance from the ledger archival, those entries are read from the archive.
+     */
+    @Transactional(readOnly = true)
+    public Map<Currency, BigDecimal> getBalancesAsOf(Long studentId, LocalDateTime asOf) {
+        List<BalanceCheckpoint> checkpoints = balanceCheckpointRepository.findLatestOfStudent(studentId, asOf);
+        Map<Currency, BigDecimal> balances = new EnumMap<>(Currency.class);
+        checkpoints.forEach(checkpoint -> balances.put(checkpoint.getId().getCurrency(), checkpoint.getBalance()));
+
+        boolean archived = balanceTransactionRepository.findOpeningDateTimeOfStudent(studentId)
+                .map(asOf::isBefore)
+                .orElse(false);
+        List<StudentCurrencyTotal> entries;
+        if (checkpoints.isEmpty()) {
+            entries = archived
+                    ? balanceTransactionArchiveRepository.sumAmountsOfStudentUpTo(studentId, asOf)
+                    : balanceTransactionRepository.sumAmountsOfStudentUpTo(studentId, asOf);
+        } else {
+            LocalDateTime from = checkpoints.getFirst().getId().getCheckpointAt();
+            entries = archived
+                    ? balanceTransactionArchiveRepository.sumAmountsOfStudentBetween(studentId, from, asOf)
+                    : balanceTransactionRepository.sumAmountsOfStudentBetween(studentId, from, asOf);
+        }
+        entries.forEach(total -> balances.merge(total.currency(), total.total(), BigDecimal::add));
+        log.debug("Balances of student {} as of {}: {} (from {} checkpoint rows)", studentId, asOf, balances, checkpoints.size());
+        return balances;
     }
 }
@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
@@ -32,7 +33,8 @@ import java.time.LocalDateTime;
 public class BalanceTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_transactions_seq")
+    @SequenceGenerator(name = "balance_transactions_seq", sequenceName = "balance_transactions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -63,4 +65,8 @@ public class BalanceTransaction {
     private TransactionSource sourceEntity;
 
     private Long sourceId;
+
+    // Key of the write of the source, unique together with source and type; null if the entry is never deduplicated
+    @Column(name = "operation_seq")
+    private Integer operationSeq;
 }
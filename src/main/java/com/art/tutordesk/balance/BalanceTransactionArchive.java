@@ -0,0 +1,59 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A ledger entry moved out of balance_transactions by {@link LedgerArchiveService}, unchanged apart from the archive time.
+ * The live ledger keeps one opening balance per (student, currency) in its place.
+ */
+@Getter
+@Entity
+@Immutable
+@NoArgsConstructor
+@Table(name = "balance_transactions_archive")
+public class BalanceTransactionArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "transaction_datetime", nullable = false)
+    private LocalDateTime transactionDateTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private TransactionSource sourceEntity;
+
+    private Long sourceId;
+
+    @Column(name = "operation_seq")
+    private Integer operationSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
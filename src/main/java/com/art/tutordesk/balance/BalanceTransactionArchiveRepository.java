@@ -0,0 +1,49 @@
+package com.art.tutordesk.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BalanceTransactionArchiveRepository extends JpaRepository<BalanceTransactionArchive, Long> {
+
+    // Opening balances of earlier archivals are not copied, the entries they stand for are archived already
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO balance_transactions_archive
+                (id, student_id, transaction_datetime, type, amount, currency, source_entity, source_id, operation_seq, archived_at)
+            SELECT bt.id, bt.student_id, bt.transaction_datetime, bt.type, bt.amount, bt.currency, bt.source_entity, bt.source_id,
+                   bt.operation_seq, :archivedAt
+            FROM balance_transactions bt
+            WHERE bt.transaction_datetime < :horizon
+              AND (bt.source_entity IS NULL OR bt.source_entity <> 'LEDGER_ARCHIVE')
+            """, nativeQuery = true)
+    int copyEntriesBefore(@Param("horizon") LocalDateTime horizon, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(ba.studentId, ba.currency, SUM(ba.amount))
+            FROM BalanceTransactionArchive ba
+            WHERE ba.studentId = :studentId AND ba.transactionDateTime >= :from AND ba.transactionDateTime <= :asOf
+            GROUP BY ba.studentId, ba.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsOfStudentBetween(@Param("studentId") Long studentId,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("asOf") LocalDateTime asOf);
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(ba.studentId, ba.currency, SUM(ba.amount))
+            FROM BalanceTransactionArchive ba
+            WHERE ba.studentId = :studentId AND ba.transactionDateTime <= :asOf
+            GROUP BY ba.studentId, ba.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsOfStudentUpTo(@Param("studentId") Long studentId, @Param("asOf") LocalDateTime asOf);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM BalanceTransactionArchive ba WHERE ba.studentId = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+}
@@ -2,9 +2,15 @@ package com.art.tutordesk.balance;
 
 import com.art.tutordesk.payment.Currency;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BalanceTransactionRepository extends JpaRepository<BalanceTransaction, Long> {
@@ -14,4 +20,97 @@ public interface BalanceTransactionRepository extends JpaRepository<BalanceTrans
     List<BalanceTransaction> findByStudentIdAndCurrency(Long studentId, Currency currency);
 
     List<BalanceTransaction> findByStudentId(Long studentId);
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(bt.student.id, bt.currency, SUM(bt.amount))
+            FROM BalanceTransaction bt
+            GROUP BY bt.student.id, bt.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsGroupedByStudentAndCurrency();
+
+    @Query("SELECT MIN(bt.transactionDateTime) FROM BalanceTransaction bt")
+    Optional<LocalDateTime> findFirstTransactionDateTime();
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(bt.student.id, bt.currency, SUM(bt.amount))
+            FROM BalanceTransaction bt
+            WHERE bt.transactionDateTime >= :from AND bt.transactionDateTime < :to
+            GROUP BY bt.student.id, bt.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Range scan on idx_balance_transactions_student_datetime, from inclusive, asOf inclusive
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(bt.student.id, bt.currency, SUM(bt.amount))
+            FROM BalanceTransaction bt
+            WHERE bt.student.id = :studentId AND bt.transactionDateTime >= :from AND bt.transactionDateTime <= :asOf
+            GROUP BY bt.student.id, bt.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsOfStudentBetween(@Param("studentId") Long studentId,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("asOf") LocalDateTime asOf);
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(bt.student.id, bt.currency, SUM(bt.amount))
+            FROM BalanceTransaction bt
+            WHERE bt.student.id = :studentId AND bt.transactionDateTime <= :asOf
+            GROUP BY bt.student.id, bt.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsOfStudentUpTo(@Param("studentId") Long studentId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("""
+            SELECT MAX(bt.transactionDateTime) FROM BalanceTransaction bt
+            WHERE bt.sourceEntity = com.art.tutordesk.balance.TransactionSource.LEDGER_ARCHIVE
+            """)
+    Optional<LocalDateTime> findLatestOpeningDateTime();
+
+    @Query("""
+            SELECT MAX(bt.transactionDateTime) FROM BalanceTransaction bt
+            WHERE bt.student.id = :studentId AND bt.sourceEntity = com.art.tutordesk.balance.TransactionSource.LEDGER_ARCHIVE
+            """)
+    Optional<LocalDateTime> findOpeningDateTimeOfStudent(@Param("studentId") Long studentId);
+
+    // One opening balance per (student, currency) for everything before the horizon, previous openings included
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO balance_transactions (id, student_id, transaction_datetime, type, amount, currency, source_entity, source_id)
+            SELECT nextval('balance_transactions_seq'), totals.student_id, :openingAt, 'BALANCE_MIGRATION', totals.amount, totals.currency,
+                   'LEDGER_ARCHIVE', NULL
+            FROM (SELECT bt.student_id, bt.currency, SUM(bt.amount) AS amount
+                  FROM balance_transactions bt
+                  WHERE bt.transaction_datetime < :horizon
+                  GROUP BY bt.student_id, bt.currency) totals
+            """, nativeQuery = true)
+    int insertOpeningBalances(@Param("horizon") LocalDateTime horizon, @Param("openingAt") LocalDateTime openingAt);
+
+    // Everything before the horizon except the opening balances just written at openingAt
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            DELETE FROM BalanceTransaction bt
+            WHERE bt.transactionDateTime < :openingAt
+               OR (bt.transactionDateTime < :horizon
+                   AND (bt.sourceEntity IS NULL OR bt.sourceEntity <> com.art.tutordesk.balance.TransactionSource.LEDGER_ARCHIVE))
+            """)
+    int deleteEntriesBefore(@Param("horizon") LocalDateTime horizon, @Param("openingAt") LocalDateTime openingAt);
+
+    // One statement, so the ledger and the source tables are read from the same snapshot; every branch contributes
+    // explicit zeros, so a (student, currency) that is missing on one side still shows up
+    @Query(value = """
+            SELECT t.student_id AS "studentId", t.currency AS "currency", SUM(t.ledger) AS "ledgerBalance",
+                   SUM(t.charges) AS "lessonCharges", SUM(t.paid) AS "payments"
+            FROM (SELECT bt.student_id, bt.currency, bt.amount AS ledger,
+                         CAST(0 AS NUMERIC) AS charges, CAST(0 AS NUMERIC) AS paid
+                  FROM balance_transactions bt
+                  WHERE bt.student_id IN (:studentIds)
+                  UNION ALL
+                  SELECT ls.student_id, ls.currency, CAST(0 AS NUMERIC), CAST(COALESCE(ls.price, 0) AS NUMERIC), CAST(0 AS NUMERIC)
+                  FROM lesson_student ls
+                  WHERE ls.student_id IN (:studentIds) AND ls.status IN ('COMPLETED', 'NOT_ATTENDED')
+                  UNION ALL
+                  SELECT p.student_id, p.currency, CAST(0 AS NUMERIC), CAST(0 AS NUMERIC), p.amount
+                  FROM payments p
+                  WHERE p.student_id IN (:studentIds)) t
+            GROUP BY t.student_id, t.currency
+            """, nativeQuery = true)
+    List<LedgerReconciliationView> sumLedgerAndSourcesOfStudents(@Param("studentIds") Collection<Long> studentIds);
 }
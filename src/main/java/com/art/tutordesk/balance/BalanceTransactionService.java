@@ -2,12 +2,21 @@ package com.art.tutordesk.balance;
 
 import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.student.Student;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -15,25 +24,106 @@ import java.math.BigDecimal;
 public class BalanceTransactionService {
 
     private final BalanceTransactionRepository balanceTransactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Records one ledger entry and adds it to the balance snapshot.
+     * The operation identifies this write of the source (see {@link LedgerEntry}); writing the same operation again
+     * records nothing.
+     */
     @Transactional
+    @Timed(value = "tutordesk.service", histogram = true)
     public void createBalanceTransaction(Student student, TransactionType transactionType, Currency currency,
-                                         TransactionSource sourceEntity,BigDecimal amount, Long sourceId) {
+                                         TransactionSource sourceEntity, BigDecimal amount, Long sourceId,
+                                         Integer operation) {
+        LedgerWriteEvent event = new LedgerWriteEvent();
+        event.begin();
 
-        BalanceTransaction transaction = new BalanceTransaction();
-        transaction.setStudent(student);
-        transaction.setType(transactionType);
-        transaction.setAmount(amount);
-        transaction.setCurrency(currency);
-        transaction.setSourceEntity(sourceEntity);
-        transaction.setSourceId(sourceId);
+        LedgerEntry entry = new LedgerEntry(student, transactionType, currency, sourceEntity, amount, sourceId, operation);
+        if (ledgerEntryRepository.insert(entry, LocalDateTime.now())) {
+            applyToSnapshot(student.getId(), currency, amount);
+            countLedgerEntries(transactionType, 1);
+        } else {
+            logDuplicate(entry);
+        }
 
-        balanceTransactionRepository.save(transaction);
+        event.end();
+        if (event.shouldCommit()) {
+            event.transactionType = transactionType.name();
+            event.studentId = student.getId();
+            event.currency = currency.name();
+            event.amount = amount.doubleValue();
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes many ledger entries at once.
+     * Logic:
+     * 1. All entries are inserted as one JDBC batch; entries that were already recorded are skipped.
+     * 2. The snapshot of every (student, currency) pair is updated once with the sum of its written entries,
+     *    locking the pairs in a fixed order so concurrent bulk writes cannot deadlock.
+     */
+    @Transactional
+    public void createBalanceTransactions(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        boolean[] written = ledgerEntryRepository.insertAll(entries, LocalDateTime.now());
+        List<LedgerEntry> writtenEntries = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            if (written[i]) {
+                writtenEntries.add(entries.get(i));
+            } else {
+                logDuplicate(entries.get(i));
+            }
+        }
+        writtenEntries.stream()
+                .collect(Collectors.groupingBy(LedgerEntry::type, Collectors.counting()))
+                .forEach(this::countLedgerEntries);
+
+        Map<StudentBalanceId, BigDecimal> deltas = new LinkedHashMap<>();
+        writtenEntries.forEach(entry -> deltas.merge(new StudentBalanceId(entry.student().getId(), entry.currency()),
+                entry.amount(), BigDecimal::add));
+        deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(StudentBalanceId::getStudentId)
+                        .thenComparing(StudentBalanceId::getCurrency)))
+                .forEach(delta -> applyToSnapshot(delta.getKey().getStudentId(), delta.getKey().getCurrency(), delta.getValue()));
+        log.info("Recorded {} balance transactions for {} student balances.", writtenEntries.size(), deltas.size());
     }
 
     @Transactional
     public void deleteTransactionsByStudentId(Long studentId) {
         balanceTransactionRepository.deleteByStudentId(studentId);
+        studentBalanceRepository.deleteByStudentId(studentId);
         log.info("Successfully deleted balance transactions for student with ID: {}", studentId);
     }
+
+    private void countLedgerEntries(TransactionType type, long count) {
+        meterRegistry.counter("tutordesk.ledger.entries", "type", type.name()).increment(count);
+    }
+
+    private void logDuplicate(LedgerEntry entry) {
+        log.warn("Ledger entry {} #{} of {} {} for student {} is already recorded, the duplicate is ignored.",
+                entry.type(), entry.operation(), entry.source(), entry.sourceId(), entry.student().getId());
+    }
+
+    /**
+     * Adds the amount to the snapshot of the student and currency, creating the row on the first write.
+     * Logic:
+     * 1. The snapshot row is updated in place; the row lock serializes concurrent writes for the same pair.
+     * 2. If there is no row yet, it is inserted with the amount as its balance.
+     * 3. If a concurrent transaction inserted the row first, the insert waits for it, inserts nothing, and the
+     *    amount is added to that row instead of failing with a duplicate key.
+     */
+    private void applyToSnapshot(Long studentId, Currency currency, BigDecimal amount) {
+        StudentBalanceId id = new StudentBalanceId(studentId, currency);
+        LocalDateTime now = LocalDateTime.now();
+        if (studentBalanceRepository.addToBalance(id, amount, now) == 0
+                && studentBalanceRepository.insertIfAbsent(studentId, currency.name(), amount, now) == 0) {
+            studentBalanceRepository.addToBalance(id, amount, now);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.art.tutordesk.balance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Archives the ledger entries older than {@code app.ledger.archive.retention-months} once a month, after the balance
+ * checkpoints are written. The schedule is set by {@code app.ledger.archive.cron} ("-" disables it).
+ */
+@Slf4j
+@Component
+public class LedgerArchiveJob {
+
+    private final LedgerArchiveService ledgerArchiveService;
+    private final int retentionMonths;
+
+    public LedgerArchiveJob(LedgerArchiveService ledgerArchiveService,
+                            @Value("${app.ledger.archive.retention-months:24}") int retentionMonths) {
+        this.ledgerArchiveService = ledgerArchiveService;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${app.ledger.archive.cron}")
+    public void archive() {
+        ledgerArchiveService.archive(LocalDate.now(), retentionMonths)
+                .ifPresent(result -> log.info("Ledger archive job moved {} entries before {}.", result.archivedEntries(), result.horizon()));
+    }
+}
@@ -0,0 +1,6 @@
+package com.art.tutordesk.balance;
+
+import java.time.LocalDateTime;
+
+public record LedgerArchiveResult(LocalDateTime horizon, int archivedEntries, int openingBalances) {
+}
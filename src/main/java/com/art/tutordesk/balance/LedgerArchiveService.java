@@ -0,0 +1,81 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerArchiveService {
+
+    private final BalanceTransactionRepository balanceTransactionRepository;
+    private final BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+
+    /**
+     * Moves the ledger entries older than the retention period to balance_transactions_archive.
+     * Logic:
+     * 1. The horizon is the first day of the month {@code retentionMonths} before today, but never later than the latest
+     *    balance checkpoint, so every archived month is covered by checkpoints. Nothing happens without checkpoints or
+     *    when the ledger is already archived up to the horizon.
+     * 2. The entries before the horizon are copied to the archive.
+     * 3. They are replaced by one BALANCE_MIGRATION opening balance per (student, currency), dated just before the horizon.
+     * 4. The ledger totals per (student, currency) are compared before and after; any difference rolls everything back.
+     * Returns the result, or empty when there was nothing to archive.
+     */
+    @Transactional
+    public Optional<LedgerArchiveResult> archive(LocalDate today, int retentionMonths) {
+        Optional<LocalDateTime> latestCheckpoint = balanceCheckpointRepository.findLatestCheckpointAt();
+        if (latestCheckpoint.isEmpty()) {
+            log.info("No balance checkpoints yet, the ledger is not archived.");
+            return Optional.empty();
+        }
+        LocalDateTime retentionStart = today.minusMonths(retentionMonths).withDayOfMonth(1).atStartOfDay();
+        LocalDateTime horizon = retentionStart.isBefore(latestCheckpoint.get()) ? retentionStart : latestCheckpoint.get();
+        // PostgreSQL keeps microseconds, so this is the last moment before the horizon
+        LocalDateTime openingAt = horizon.minusNanos(1_000);
+
+        Optional<LocalDateTime> latestOpening = balanceTransactionRepository.findLatestOpeningDateTime();
+        if (latestOpening.isPresent() && !latestOpening.get().isBefore(openingAt)) {
+            log.info("Ledger already archived up to {}, nothing before {} to move.", latestOpening.get(), horizon);
+            return Optional.empty();
+        }
+
+        Map<StudentBalanceId, BigDecimal> totalsBefore = ledgerTotals();
+        int archived = balanceTransactionArchiveRepository.copyEntriesBefore(horizon, LocalDateTime.now());
+        int openings = balanceTransactionRepository.insertOpeningBalances(horizon, openingAt);
+        int deleted = balanceTransactionRepository.deleteEntriesBefore(horizon, openingAt);
+        verifyTotals(totalsBefore, ledgerTotals());
+
+        log.info("Ledger archived before {}: {} entries moved ({} rows deleted), {} opening balances written.",
+                horizon, archived, deleted, openings);
+        return Optional.of(new LedgerArchiveResult(horizon, archived, openings));
+    }
+
+    private Map<StudentBalanceId, BigDecimal> ledgerTotals() {
+        Map<StudentBalanceId, BigDecimal> totals = new HashMap<>();
+        balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency().forEach(total ->
+                totals.put(new StudentBalanceId(total.studentId(), total.currency()), total.total()));
+        return totals;
+    }
+
+    private void verifyTotals(Map<StudentBalanceId, BigDecimal> before, Map<StudentBalanceId, BigDecimal> after) {
+        boolean match = before.keySet().equals(after.keySet()) && before.entrySet().stream()
+                .allMatch(entry -> Objects.requireNonNull(after.get(entry.getKey())).compareTo(entry.getValue()) == 0);
+        if (!match) {
+            log.error("Ledger totals changed by the archival, rolling back. Before: {}, after: {}", before, after);
+            throw new IllegalStateException("Ledger totals do not match after the archival, nothing was archived.");
+        }
+        log.debug("Ledger totals verified for {} student balances.", after.size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A (student, currency) whose ledger total differs from its payments minus its chargeable lessons, as found by
+ * {@link LedgerReconciliationService}. All discrepancies of one run share its {@code reconciledAt}.
+ */
+@Getter
+@Entity
+@NoArgsConstructor
+@Table(name = "ledger_discrepancies")
+public class LedgerDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_discrepancies_seq")
+    @SequenceGenerator(name = "ledger_discrepancies_seq", sequenceName = "ledger_discrepancies_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "reconciled_at", nullable = false)
+    private LocalDateTime reconciledAt;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Currency currency;
+
+    @Column(name = "ledger_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal ledgerBalance;
+
+    @Column(name = "lesson_charges", nullable = false, precision = 19, scale = 2)
+    private BigDecimal lessonCharges;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal payments;
+
+    public LedgerDiscrepancy(LocalDateTime reconciledAt, Long studentId, Currency currency, BigDecimal ledgerBalance,
+                             BigDecimal lessonCharges, BigDecimal payments) {
+        this.reconciledAt = reconciledAt;
+        this.studentId = studentId;
+        this.currency = currency;
+        this.ledgerBalance = ledgerBalance;
+        this.lessonCharges = lessonCharges;
+        this.payments = payments;
+    }
+
+    // What the ledger should add up to according to the source tables
+    public BigDecimal getExpectedBalance() {
+        return payments.subtract(lessonCharges);
+    }
+}
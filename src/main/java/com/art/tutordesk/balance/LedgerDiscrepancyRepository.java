@@ -0,0 +1,20 @@
+package com.art.tutordesk.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerDiscrepancyRepository extends JpaRepository<LedgerDiscrepancy, Long> {
+
+    List<LedgerDiscrepancy> findByReconciledAtOrderByStudentIdAscCurrencyAsc(LocalDateTime reconciledAt);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM LedgerDiscrepancy ld WHERE ld.studentId = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+}
@@ -0,0 +1,18 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.Student;
+
+import java.math.BigDecimal;
+
+/**
+ * A balance transaction that is yet to be written, collected by bulk operations to write them as one batch.
+ * The operation is the key of this write of the source, taken from the source's own state, so a replay of the same
+ * write carries the same key; null if the entry is never deduplicated.
+ */
+public record LedgerEntry(Student student, TransactionType type, Currency currency, TransactionSource source,
+                          BigDecimal amount, Long sourceId, Integer operation) {
+
+    // Key of an operation that happens at most once per source, like receiving or deleting a payment
+    public static final int SINGLE_OPERATION = 1;
+}
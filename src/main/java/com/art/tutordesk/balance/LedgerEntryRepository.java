@@ -0,0 +1,90 @@
+package com.art.tutordesk.balance;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Idempotent inserts of ledger entries.
+ * Every entry carries the operation key its writer derived from the source, and the unique index on
+ * (source_entity, source_id, type, operation_seq) turns a second write of the same operation into a no-op
+ * (ON CONFLICT DO NOTHING). A replay after the first write committed is dropped right away; a duplicate racing in from
+ * a concurrent transaction waits for the first one to commit and is then dropped, without any lock on the source rows.
+ * Entries without a source ID or operation key are never deduplicated.
+ * The batch bypasses Hibernate's statement handling, so it reports itself to the session's event listeners and to the
+ * statistics.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerEntryRepository {
+
+    // Each entry takes a whole sequence value, Hibernate's pooled optimizer continues above it
+    static final String INSERT_IF_ABSENT = """
+            INSERT INTO balance_transactions
+                (id, student_id, transaction_datetime, type, amount, currency, source_entity, source_id, operation_seq)
+            VALUES (nextval('balance_transactions_seq'), ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Returns false when the entry was already recorded.
+     */
+    public boolean insert(LedgerEntry entry, LocalDateTime transactionDateTime) {
+        return insertAll(List.of(entry), transactionDateTime)[0];
+    }
+
+    /**
+     * Sends the entries as one JDBC batch. Returns, per entry, whether it was written (false for a duplicate).
+     * The persistence context is not flushed, so the students of the entries must already be in the database.
+     */
+    public boolean[] insertAll(List<LedgerEntry> entries, LocalDateTime transactionDateTime) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionEventListener events = session.getEventListenerManager();
+        StatisticsImplementor statistics = session.getFactory().getStatistics();
+        return session.doReturningWork(connection -> {
+            events.jdbcPrepareStatementStart();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT)) {
+                events.jdbcPrepareStatementEnd();
+                if (statistics.isStatisticsEnabled()) {
+                    statistics.prepareStatement();
+                }
+                Timestamp timestamp = Timestamp.valueOf(transactionDateTime);
+                for (LedgerEntry entry : entries) {
+                    statement.setLong(1, entry.student().getId());
+                    statement.setTimestamp(2, timestamp);
+                    statement.setString(3, entry.type().name());
+                    statement.setBigDecimal(4, entry.amount());
+                    statement.setString(5, entry.currency().name());
+                    statement.setString(6, entry.source() != null ? entry.source().name() : null);
+                    statement.setObject(7, entry.sourceId(), Types.BIGINT);
+                    statement.setObject(8, entry.operation(), Types.INTEGER);
+                    statement.addBatch();
+                }
+                int[] counts;
+                events.jdbcExecuteBatchStart();
+                try {
+                    counts = statement.executeBatch();
+                } finally {
+                    events.jdbcExecuteBatchEnd();
+                }
+                boolean[] written = new boolean[counts.length];
+                for (int i = 0; i < counts.length; i++) {
+                    // SUCCESS_NO_INFO (-2) is only reported for rows that were executed
+                    written[i] = counts[i] != 0;
+                }
+                return written;
+            }
+        });
+    }
+}
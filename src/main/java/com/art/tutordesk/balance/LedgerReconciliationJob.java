@@ -0,0 +1,29 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reconciles the ledger of all students with their lessons and payments every night.
+ * The schedule is set by {@code app.ledger.reconciliation.cron} ("-" disables it).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerReconciliationJob {
+
+    private final LedgerReconciliationService ledgerReconciliationService;
+
+    @Scheduled(cron = "${app.ledger.reconciliation.cron}")
+    public void reconcile() {
+        LedgerReconciliationResult result = ledgerReconciliationService.reconcile(LocalDateTime.now());
+        if (result.discrepancies() > 0 || result.failedChunks() > 0) {
+            log.warn("Ledger reconciliation of {} found {} discrepancies, {} chunk(s) failed.",
+                    result.reconciledAt(), result.discrepancies(), result.failedChunks());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.art.tutordesk.balance;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one {@link LedgerReconciliationService#reconcile} run. Students of failed chunks are not counted as checked.
+ */
+public record LedgerReconciliationResult(LocalDateTime reconciledAt, int studentsChecked, int discrepancies, int failedChunks) {
+}
@@ -0,0 +1,104 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.StudentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+
+    private final StudentRepository studentRepository;
+    private final BalanceTransactionRepository balanceTransactionRepository;
+    private final LedgerDiscrepancyRepository ledgerDiscrepancyRepository;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public LedgerReconciliationService(StudentRepository studentRepository,
+                                       BalanceTransactionRepository balanceTransactionRepository,
+                                       LedgerDiscrepancyRepository ledgerDiscrepancyRepository,
+                                       @Value("${app.ledger.reconciliation.chunk-size:500}") int chunkSize,
+                                       @Value("${app.ledger.reconciliation.parallelism:8}") int parallelism) {
+        this.studentRepository = studentRepository;
+        this.balanceTransactionRepository = balanceTransactionRepository;
+        this.ledgerDiscrepancyRepository = ledgerDiscrepancyRepository;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Checks the ledger of every student against the lessons and payments it was written from.
+     * Logic:
+     * 1. Student IDs are read in chunks by keyset pagination, so the student table is never loaded at once.
+     * 2. Every chunk is checked on its own virtual thread with a single statement that sums, per (student, currency),
+     *    the ledger, the chargeable lessons (COMPLETED, NOT_ATTENDED) and the payments. A semaphore keeps at most
+     *    {@code parallelism} chunks in flight, which bounds the connections taken from the pool and the IDs read ahead.
+     * 3. Every (student, currency) whose ledger differs from payments minus lesson charges is saved as a
+     *    {@link LedgerDiscrepancy} of this run.
+     * A failing chunk is logged and counted without stopping the others. Nothing is corrected.
+     */
+    public LedgerReconciliationResult reconcile(LocalDateTime reconciledAt) {
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicInteger studentsChecked = new AtomicInteger();
+        AtomicInteger discrepancies = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+
+        // Closing the executor waits for the chunks still running
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Long> chunk = studentRepository.findIdsAfter(0L, Limit.of(chunkSize));
+            while (!chunk.isEmpty()) {
+                inFlight.acquire();
+                List<Long> studentIds = chunk;
+                executor.execute(() -> {
+                    try {
+                        discrepancies.addAndGet(reconcileChunk(studentIds, reconciledAt));
+                        studentsChecked.addAndGet(studentIds.size());
+                    } catch (RuntimeException e) {
+                        failedChunks.incrementAndGet();
+                        log.error("Ledger reconciliation failed for students {} to {}.", studentIds.getFirst(), studentIds.getLast(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                chunk = chunk.size() < chunkSize ? List.of() : studentRepository.findIdsAfter(chunk.getLast(), Limit.of(chunkSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ledger reconciliation was interrupted", e);
+        }
+
+        LedgerReconciliationResult result = new LedgerReconciliationResult(reconciledAt, studentsChecked.get(),
+                discrepancies.get(), failedChunks.get());
+        log.info("Ledger reconciliation checked {} students, {} discrepancies, {} failed chunk(s).",
+                result.studentsChecked(), result.discrepancies(), result.failedChunks());
+        return result;
+    }
+
+    // Returns the number of discrepancies found and saved for the students
+    int reconcileChunk(List<Long> studentIds, LocalDateTime reconciledAt) {
+        List<LedgerDiscrepancy> found = balanceTransactionRepository.sumLedgerAndSourcesOfStudents(studentIds).stream()
+                .filter(totals -> totals.getLedgerBalance()
+                        .compareTo(totals.getPayments().subtract(totals.getLessonCharges())) != 0)
+                .map(totals -> new LedgerDiscrepancy(reconciledAt, totals.getStudentId(), Currency.valueOf(totals.getCurrency()),
+                        totals.getLedgerBalance(), totals.getLessonCharges(), totals.getPayments()))
+                .toList();
+        if (found.isEmpty()) {
+            return 0;
+        }
+        ledgerDiscrepancyRepository.saveAll(found);
+        found.forEach(discrepancy -> log.warn("Ledger discrepancy for student {} in {}: ledger={}, expected={}",
+                discrepancy.getStudentId(), discrepancy.getCurrency(), discrepancy.getLedgerBalance(),
+                discrepancy.getExpectedBalance()));
+        return found.size();
+    }
+}
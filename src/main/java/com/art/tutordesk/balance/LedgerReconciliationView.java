@@ -0,0 +1,19 @@
+package com.art.tutordesk.balance;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of {@link BalanceTransactionRepository#sumLedgerAndSourcesOfStudents}.
+ */
+public interface LedgerReconciliationView {
+
+    Long getStudentId();
+
+    String getCurrency();
+
+    BigDecimal getLedgerBalance();
+
+    BigDecimal getLessonCharges();
+
+    BigDecimal getPayments();
+}
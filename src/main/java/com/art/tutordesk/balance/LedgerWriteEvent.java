@@ -0,0 +1,36 @@
+package com.art.tutordesk.balance;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one ledger write, including the locked snapshot update.
+ * Disabled unless a recording asks for it, e.g. {@code jcmd <pid> JFR.start +com.art.tutordesk.LedgerWrite#enabled=true}.
+ */
+@Name(LedgerWriteEvent.NAME)
+@Label("Ledger Write")
+@Category({"TutorDesk", "Ledger"})
+@Description("A balance transaction written to the ledger together with its student balance snapshot")
+@Enabled(false)
+@StackTrace(false)
+class LedgerWriteEvent extends Event {
+
+    static final String NAME = "com.art.tutordesk.LedgerWrite";
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Student Id")
+    long studentId;
+
+    @Label("Currency")
+    String currency;
+
+    @Label("Amount")
+    double amount;
+}
@@ -0,0 +1,43 @@
+package com.art.tutordesk.balance;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of the running balance of a student in a single currency.
+ * It is kept in sync with the ledger by {@link BalanceTransactionService} so that reads
+ * do not have to fold the whole {@link BalanceTransaction} history.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "student_balances")
+@EntityListeners(AuditingEntityListener.class)
+public class StudentBalance {
+
+    @EmbeddedId
+    private StudentBalanceId id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public StudentBalance(StudentBalanceId id) {
+        this.id = id;
+    }
+}
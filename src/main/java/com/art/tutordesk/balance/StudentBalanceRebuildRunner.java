@@ -0,0 +1,29 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the balance snapshot on startup when the application is launched with {@code --rebuild-balances}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentBalanceRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-balances";
+
+    private final StudentBalanceRebuildService studentBalanceRebuildService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(REBUILD_OPTION)) {
+            return;
+        }
+        log.info("Rebuilding student balances from the ledger as requested by --{}", REBUILD_OPTION);
+        studentBalanceRebuildService.rebuild();
+    }
+}
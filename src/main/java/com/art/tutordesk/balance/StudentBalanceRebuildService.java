@@ -0,0 +1,62 @@
+package com.art.tutordesk.balance;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentBalanceRebuildService {
+
+    private final BalanceTransactionRepository balanceTransactionRepository;
+    private final StudentBalanceRepository studentBalanceRepository;
+
+    /**
+     * Recomputes the student_balances snapshot from the balance_transactions ledger.
+     * Logic:
+     * 1. Sums the ledger per (student, currency).
+     * 2. Compares every sum with the stored snapshot, creating missing rows and correcting wrong ones.
+     * 3. Removes snapshot rows that have no ledger entries at all.
+     * Returns every detected drift so the caller can report it.
+     */
+    @Transactional
+    public List<BalanceDrift> rebuild() {
+        Map<StudentBalanceId, StudentBalance> snapshots = studentBalanceRepository.findAll().stream()
+                .collect(Collectors.toMap(StudentBalance::getId, Function.identity()));
+        List<BalanceDrift> drifts = new ArrayList<>();
+
+        for (StudentCurrencyTotal total : balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency()) {
+            StudentBalanceId id = new StudentBalanceId(total.studentId(), total.currency());
+            StudentBalance snapshot = snapshots.remove(id);
+
+            if (snapshot == null) {
+                drifts.add(new BalanceDrift(total.studentId(), total.currency(), null, total.total()));
+                snapshot = new StudentBalance(id);
+            } else if (snapshot.getBalance().compareTo(total.total()) != 0) {
+                drifts.add(new BalanceDrift(total.studentId(), total.currency(), snapshot.getBalance(), total.total()));
+            } else {
+                continue;
+            }
+            snapshot.setBalance(total.total());
+            studentBalanceRepository.save(snapshot);
+        }
+
+        for (StudentBalance orphan : snapshots.values()) {
+            drifts.add(new BalanceDrift(orphan.getId().getStudentId(), orphan.getId().getCurrency(), orphan.getBalance(), null));
+            studentBalanceRepository.delete(orphan);
+        }
+
+        drifts.forEach(drift -> log.warn("Balance drift for student {} in {}: snapshot={}, ledger={}",
+                drift.studentId(), drift.currency(), drift.snapshotBalance(), drift.ledgerBalance()));
+        log.info("Student balances rebuilt from ledger, {} drift(s) corrected.", drifts.size());
+        return drifts;
+    }
+}
@@ -0,0 +1,47 @@
+package com.art.tutordesk.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StudentBalanceRepository extends JpaRepository<StudentBalance, StudentBalanceId> {
+
+    List<StudentBalance> findByIdStudentId(Long studentId);
+
+    @Query("""
+            SELECT sb FROM StudentBalance sb
+            JOIN Student s ON s.id = sb.id.studentId
+            WHERE s.active = true
+            """)
+    List<StudentBalance> findAllOfActiveStudents();
+
+    // The row lock taken by the update serializes concurrent ledger writes for the same student and currency
+    @Modifying
+    @Query("""
+            UPDATE StudentBalance sb SET sb.balance = sb.balance + :amount, sb.updatedAt = :updatedAt
+            WHERE sb.id = :id
+            """)
+    int addToBalance(@Param("id") StudentBalanceId id, @Param("amount") BigDecimal amount,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    // An uncommitted insert of the same row makes this one wait for it and then insert nothing
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO student_balances (student_id, currency, balance, updated_at)
+            VALUES (:studentId, :currency, :amount, :updatedAt)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId, @Param("currency") String currency,
+                       @Param("amount") BigDecimal amount, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM StudentBalance sb WHERE sb.id.studentId = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+}
@@ -0,0 +1,8 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+
+public record StudentCurrencyTotal(Long studentId, Currency currency, BigDecimal total) {
+}
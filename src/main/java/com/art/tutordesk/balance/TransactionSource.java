@@ -4,5 +4,7 @@ public enum TransactionSource {
     LESSON,
     PAYMENT,
     STUDENT,
-    SYSTEM
+    SYSTEM,
+    // Opening balances that replace the entries moved to balance_transactions_archive
+    LEDGER_ARCHIVE
 }
\ No newline at end of file
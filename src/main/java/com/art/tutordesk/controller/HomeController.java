@@ -1,13 +1,20 @@
 package com.art.tutordesk.controller;
 
+import com.art.tutordesk.report.ReportService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @Controller
+@RequiredArgsConstructor
 public class HomeController {
 
+    private final ReportService reportService;
+
     @GetMapping("/")
-    public String home() {
+    public String home(Model model) {
+        model.addAttribute("metrics", reportService.getMetricsThisMonth());
         return "index";
     }
 }
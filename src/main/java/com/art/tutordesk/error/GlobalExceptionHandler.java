@@ -5,11 +5,26 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
 
 @Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    // A request the application rejects, e.g. with an unsupported parameter value, keeps its status and reason
+    @ExceptionHandler(ResponseStatusException.class)
+    public String handleResponseStatusException(ResponseStatusException ex, Model model, HttpServletResponse response) {
+        log.warn("Request rejected with status {}: {}", ex.getStatusCode().value(), ex.getReason());
+
+        if (response.isCommitted()) {
+            return null;
+        }
+
+        response.setStatus(ex.getStatusCode().value());
+        model.addAttribute("errorMessage", ex.getReason());
+        return "error/custom-error";
+    }
+
     @ExceptionHandler(Exception.class)
     public String handleException(Exception ex, Model model, HttpServletResponse response) {
         log.error("Unhandled exception occurred", ex);
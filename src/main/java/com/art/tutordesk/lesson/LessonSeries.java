@@ -0,0 +1,60 @@
+package com.art.tutordesk.lesson;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Recurrence rule of a group of lessons created together. The lessons refer to it through {@link Lesson#getSeriesId()}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "lesson_series")
+@NoArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class LessonSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lesson_series_seq")
+    @SequenceGenerator(name = "lesson_series_seq", sequenceName = "lesson_series_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RecurrenceFrequency frequency;
+
+    @Column(nullable = false)
+    @Convert(converter = DayOfWeekSetConverter.class)
+    private Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private Integer occurrences;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
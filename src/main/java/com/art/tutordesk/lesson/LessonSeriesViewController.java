@@ -0,0 +1,94 @@
+package com.art.tutordesk.lesson;
+
+import com.art.tutordesk.lesson.dto.LessonSeriesForm;
+import com.art.tutordesk.lesson.service.LessonSeriesService;
+import com.art.tutordesk.student.service.StudentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.CollectionUtils;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Controller
+@RequestMapping("/lessons/series")
+@RequiredArgsConstructor
+public class LessonSeriesViewController {
+
+    private final LessonSeriesService lessonSeriesService;
+    private final StudentService studentService;
+
+    @GetMapping("/new")
+    public String newSeriesForm(Model model) {
+        model.addAttribute("series", new LessonSeriesForm());
+        addFormOptions(model);
+        return "lesson/add-series";
+    }
+
+    @PostMapping("/create")
+    public String createSeries(@ModelAttribute("series") LessonSeriesForm form,
+                               BindingResult bindingResult,
+                               Model model,
+                               RedirectAttributes redirectAttributes) {
+        if (CollectionUtils.isEmpty(form.getStudentIds())) {
+            bindingResult.reject("series.students.empty", "At least one student must be selected for the lesson series.");
+        }
+
+        LessonSeries series = null;
+        if (!bindingResult.hasErrors()) {
+            try {
+                series = lessonSeriesService.createSeries(form);
+            } catch (IllegalArgumentException e) {
+                bindingResult.reject("series.invalid", e.getMessage());
+            }
+        }
+
+        if (bindingResult.hasErrors()) {
+            addFormOptions(model);
+            return "lesson/add-series";
+        }
+        redirectAttributes.addFlashAttribute("message", "Lesson series created successfully!");
+        redirectAttributes.addAttribute("startDate", series.getStartDate().toString());
+        return "redirect:/lessons/list";
+    }
+
+    @PostMapping("/{seriesId}/cancel")
+    public String cancelRemaining(@PathVariable Long seriesId,
+                                  @RequestParam("fromDate") LocalDate fromDate,
+                                  @RequestParam("lessonId") Long lessonId,
+                                  RedirectAttributes redirectAttributes) {
+        int canceled = lessonSeriesService.cancelRemaining(seriesId, fromDate);
+        redirectAttributes.addFlashAttribute("message", canceled + " scheduled lesson student(s) of the series canceled.");
+        redirectAttributes.addAttribute("lessonId", lessonId);
+        return "redirect:/lessons/profile/{lessonId}";
+    }
+
+    @PostMapping("/{seriesId}/price")
+    public String updateRemainingPrice(@PathVariable Long seriesId,
+                                       @RequestParam("fromDate") LocalDate fromDate,
+                                       @RequestParam("lessonId") Long lessonId,
+                                       @RequestParam("studentId") Long studentId,
+                                       @RequestParam("price") BigDecimal price,
+                                       RedirectAttributes redirectAttributes) {
+        int updated = lessonSeriesService.updateRemainingPrice(seriesId, fromDate, studentId, price);
+        redirectAttributes.addFlashAttribute("message", "Price updated in " + updated + " scheduled lesson(s) of the series.");
+        redirectAttributes.addAttribute("lessonId", lessonId);
+        return "redirect:/lessons/profile/{lessonId}";
+    }
+
+    private void addFormOptions(Model model) {
+        model.addAttribute("allStudents", studentService.getAllActiveStudents());
+        model.addAttribute("frequencies", RecurrenceFrequency.values());
+        model.addAttribute("weekdays", DayOfWeek.values());
+    }
+}
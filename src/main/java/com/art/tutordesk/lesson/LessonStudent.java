@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,7 +28,8 @@ import java.math.BigDecimal;
 public class LessonStudent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lesson_student_seq")
+    @SequenceGenerator(name = "lesson_student_seq", sequenceName = "lesson_student_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -46,4 +48,8 @@ public class LessonStudent {
 
     @Enumerated(EnumType.STRING)
     private Currency currency;
+
+    // Incremented by every charge, the ledger key of the latest charge and of its reversal
+    @Column(name = "charge_version", nullable = false)
+    private int chargeVersion;
 }
@@ -1,6 +1,7 @@
 package com.art.tutordesk.lesson;
 
-import com.art.tutordesk.lesson.dto.LessonListDTO;
+import com.art.tutordesk.lesson.dto.LessonListFilter;
+import com.art.tutordesk.lesson.dto.LessonListPage;
 import com.art.tutordesk.lesson.dto.LessonProfileDTO;
 import com.art.tutordesk.lesson.dto.LessonStudentDto;
 import com.art.tutordesk.lesson.dto.LessonUpdateForm;
@@ -39,14 +40,30 @@ public class LessonViewController {
     @GetMapping("/list")
     public String listLessons(@RequestParam(value = "startDate", required = false) LocalDate startDate,
                               @RequestParam(value = "endDate", required = false) LocalDate endDate,
+                              @RequestParam(value = "studentId", required = false) Long studentId,
+                              @RequestParam(value = "status", required = false) LessonStudentStatus status,
+                              @RequestParam(value = "paymentStatus", required = false) PaymentStatus paymentStatus,
+                              @RequestParam(value = "afterDate", required = false) LocalDate afterDate,
+                              @RequestParam(value = "afterId", required = false) Long afterId,
+                              @RequestParam(value = "size", defaultValue = "${app.lessons.page-size:50}") int size,
                               Model model) {
         LocalDate start = (startDate != null) ? startDate : LocalDate.now().with(TemporalAdjusters.firstDayOfMonth());
         LocalDate end = (endDate != null) ? endDate : LocalDate.now().with(TemporalAdjusters.lastDayOfMonth());
 
-        List<LessonListDTO> lessons = lessonService.getLessonsByDateRange(start, end);
-        model.addAttribute("lessons", lessons);
+        LessonListFilter filter = new LessonListFilter(start, end, studentId, status, paymentStatus);
+        LessonListPage page = lessonService.getLessonPage(filter, afterDate, afterId, size);
+        model.addAttribute("lessons", page.lessons());
+        model.addAttribute("page", page);
+        model.addAttribute("firstPage", afterDate == null);
         model.addAttribute("startDate", start);
         model.addAttribute("endDate", end);
+        model.addAttribute("studentId", studentId);
+        model.addAttribute("status", status);
+        model.addAttribute("paymentStatus", paymentStatus);
+        model.addAttribute("size", size);
+        model.addAttribute("allStudents", studentService.getAllActiveStudents());
+        model.addAttribute("lessonStatuses", LessonStudentStatus.values());
+        model.addAttribute("paymentStatuses", PaymentStatus.values());
         return "lesson/list-lessons";
     }
 
@@ -137,6 +154,18 @@ public class LessonViewController {
         return "redirect:/lessons/profile/{id}";
     }
 
+    @PostMapping("/complete-day")
+    public String completeDay(@RequestParam("lessonDate") LocalDate lessonDate,
+                              @RequestParam(value = "fromStatus", defaultValue = "SCHEDULED") LessonStudentStatus fromStatus,
+                              @RequestParam(value = "toStatus", defaultValue = "COMPLETED") LessonStudentStatus toStatus,
+                              RedirectAttributes redirectAttributes) {
+        int updated = lessonService.updateStatusesForDate(lessonDate, fromStatus, toStatus);
+        redirectAttributes.addFlashAttribute("message", updated + " lesson student(s) on " + lessonDate + " marked as " + toStatus + ".");
+        redirectAttributes.addAttribute("startDate", lessonDate.toString());
+        redirectAttributes.addAttribute("endDate", lessonDate.toString());
+        return "redirect:/lessons/list";
+    }
+
     @PostMapping("/delete/{id}")
     public String deleteLesson(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         lessonService.deleteLesson(id);
@@ -0,0 +1,33 @@
+package com.art.tutordesk.lesson;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one in-memory payment status calculation; the sizes explain its duration.
+ * Off by default, enabled by name in the recording settings.
+ */
+@Name(PaymentStatusCalculationEvent.NAME)
+@Label("Payment Status Calculation")
+@Category({"TutorDesk", "Lessons"})
+@Description("Payment statuses calculated from a student's chargeable lessons and payments")
+@Enabled(false)
+@StackTrace(false)
+class PaymentStatusCalculationEvent extends Event {
+
+    static final String NAME = "com.art.tutordesk.PaymentStatusCalculation";
+
+    @Label("Lessons")
+    int lessonCount;
+
+    @Label("Payments")
+    int paymentCount;
+
+    @Label("Statuses")
+    int statusCount;
+}
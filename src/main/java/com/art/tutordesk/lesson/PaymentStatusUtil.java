@@ -25,6 +25,20 @@ public class PaymentStatusUtil {
      * 4. Marks lessons as PAID if the remaining balance covers the price. 0.00 price is FREE.
      */
     public Map<Long, PaymentStatus> calculatePaymentStatuses(List<LessonStudent> lessons, List<Payment> payments) {
+        PaymentStatusCalculationEvent event = new PaymentStatusCalculationEvent();
+        event.begin();
+        Map<Long, PaymentStatus> result = calculate(lessons, payments);
+        event.end();
+        if (event.shouldCommit()) {
+            event.lessonCount = lessons == null ? 0 : lessons.size();
+            event.paymentCount = payments == null ? 0 : payments.size();
+            event.statusCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    private Map<Long, PaymentStatus> calculate(List<LessonStudent> lessons, List<Payment> payments) {
         if (CollectionUtils.isEmpty(lessons)) {
             return Map.of();
         }
@@ -76,6 +90,27 @@ public class PaymentStatusUtil {
         return result;
     }
 
+    /**
+     * Calculates payment statuses for the lessons of several students in one pass.
+     * Lessons and payments are grouped by student and every group is resolved with
+     * {@link #calculatePaymentStatuses(List, List)}, so each list must contain the full history of its students.
+     */
+    public Map<Long, PaymentStatus> calculatePaymentStatusesForStudents(List<LessonStudent> lessons, List<Payment> payments) {
+        if (CollectionUtils.isEmpty(lessons)) {
+            return Map.of();
+        }
+
+        Map<Long, List<LessonStudent>> lessonsByStudent = lessons.stream()
+                .collect(Collectors.groupingBy(ls -> ls.getStudent().getId()));
+        Map<Long, List<Payment>> paymentsByStudent = payments.stream()
+                .collect(Collectors.groupingBy(p -> p.getStudent().getId()));
+
+        Map<Long, PaymentStatus> result = new HashMap<>();
+        lessonsByStudent.forEach((studentId, studentLessons) -> result.putAll(
+                calculatePaymentStatuses(studentLessons, paymentsByStudent.getOrDefault(studentId, List.of()))));
+        return result;
+    }
+
     /**
      * Calculates the overall payment status of a lesson based on individual student payment statuses.
      */
@@ -0,0 +1,15 @@
+package com.art.tutordesk.lesson;
+
+import lombok.Getter;
+
+@Getter
+public enum RecurrenceFrequency {
+    WEEKLY(1),
+    BI_WEEKLY(2);
+
+    private final int weekInterval;
+
+    RecurrenceFrequency(int weekInterval) {
+        this.weekInterval = weekInterval;
+    }
+}
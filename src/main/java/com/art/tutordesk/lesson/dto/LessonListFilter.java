@@ -0,0 +1,14 @@
+package com.art.tutordesk.lesson.dto;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the lesson list. A lesson matches when one of its students matches the student and status filters, and
+ * when its overall payment status, as shown in the list, is the payment status filter.
+ */
+public record LessonListFilter(LocalDate startDate, LocalDate endDate, Long studentId,
+                               LessonStudentStatus status, PaymentStatus paymentStatus) {
+}
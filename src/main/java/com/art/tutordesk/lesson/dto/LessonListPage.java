@@ -0,0 +1,14 @@
+package com.art.tutordesk.lesson.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of the lesson list. The next page starts after (nextAfterDate, nextAfterId), both are null on the last page.
+ */
+public record LessonListPage(List<LessonListDTO> lessons, LocalDate nextAfterDate, Long nextAfterId) {
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
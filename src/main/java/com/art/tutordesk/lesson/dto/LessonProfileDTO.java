@@ -17,4 +17,5 @@ public class LessonProfileDTO {
     private LocalDate lessonDate;
     private List<LessonStudentDto> studentAssociations;
     private PaymentStatus paymentStatus;
+    private Long seriesId;
 }
@@ -0,0 +1,32 @@
+package com.art.tutordesk.lesson.dto;
+
+import com.art.tutordesk.lesson.RecurrenceFrequency;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recurrence rule and students of a new lesson series. The series ends at endDate or after the given number of
+ * occurrences, whichever comes first; at least one of them is required.
+ */
+@Data
+public class LessonSeriesForm {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    private RecurrenceFrequency frequency = RecurrenceFrequency.WEEKLY;
+
+    // Defaults to the weekday of the start date when empty
+    private List<DayOfWeek> weekdays = new ArrayList<>();
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    private Integer occurrences;
+
+    private List<Long> studentIds = new ArrayList<>();
+}
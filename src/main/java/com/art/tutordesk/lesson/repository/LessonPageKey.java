@@ -0,0 +1,9 @@
+package com.art.tutordesk.lesson.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Keyset position of a lesson in the lesson list, row of {@link LessonRepository#findPageKeys}.
+ */
+public record LessonPageKey(Long id, LocalDate lessonDate) {
+}
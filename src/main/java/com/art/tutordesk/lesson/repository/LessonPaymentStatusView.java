@@ -0,0 +1,14 @@
+package com.art.tutordesk.lesson.repository;
+
+/**
+ * Chargeable lesson of a student, row of {@link LessonStudentRepository#findPaymentStatusesInWindow}.
+ * The payment status is null when the running sum cannot decide it, see the query.
+ */
+public interface LessonPaymentStatusView {
+
+    Long getLessonStudentId();
+
+    Long getStudentId();
+
+    String getPaymentStatus();
+}
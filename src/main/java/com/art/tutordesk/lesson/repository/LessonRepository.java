@@ -1,6 +1,9 @@
 package com.art.tutordesk.lesson.repository;
 
 import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,8 +16,46 @@ import java.util.List;
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
-    long countByLessonDateGreaterThanEqual(LocalDate startDate);
-
-    @Query("SELECT l FROM Lesson l LEFT JOIN FETCH l.lessonStudents ls LEFT JOIN FETCH ls.student WHERE l.lessonDate BETWEEN :startDate AND :endDate ORDER BY l.lessonDate ASC")
-    List<Lesson> findByLessonDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    /**
+     * Keys of the lessons in the date range that come after (afterDate, afterId) in (lessonDate, id) order.
+     * With the student or status filter set, only lessons that have a student matching both are returned.
+     * The payment status filter is matched against the overall status of the lesson, derived from its chargeable
+     * students as in PaymentStatusUtil.calculateOverallLessonPaymentStatus; a charge without an allocation counts as
+     * UNPAID, and a lesson without chargeable students has no payment status.
+     */
+    @Query("""
+            SELECT new com.art.tutordesk.lesson.repository.LessonPageKey(l.id, l.lessonDate)
+            FROM Lesson l
+            WHERE l.lessonDate BETWEEN :startDate AND :endDate
+            AND (:afterDate IS NULL OR l.lessonDate > :afterDate OR (l.lessonDate = :afterDate AND l.id > :afterId))
+            AND ((:studentId IS NULL AND :status IS NULL) OR EXISTS (
+                SELECT 1 FROM LessonStudent ls
+                WHERE ls.lesson = l
+                AND (:studentId IS NULL OR ls.student.id = :studentId)
+                AND (:status IS NULL OR ls.status = :status)))
+            AND (:paymentStatus IS NULL OR EXISTS (
+                SELECT 1 FROM LessonStudent c
+                LEFT JOIN LessonChargeAllocation a ON a.lessonStudentId = c.id
+                WHERE c.lesson = l
+                AND c.status IN (com.art.tutordesk.lesson.LessonStudentStatus.COMPLETED,
+                                 com.art.tutordesk.lesson.LessonStudentStatus.NOT_ATTENDED)
+                HAVING COUNT(c) > 0 AND :paymentStatus = CASE
+                    WHEN SUM(CASE WHEN a.status = com.art.tutordesk.lesson.PaymentStatus.FREE THEN 0 ELSE 1 END) = 0
+                        THEN com.art.tutordesk.lesson.PaymentStatus.FREE
+                    WHEN SUM(CASE WHEN a.status IN (com.art.tutordesk.lesson.PaymentStatus.PAID,
+                                                    com.art.tutordesk.lesson.PaymentStatus.FREE) THEN 0 ELSE 1 END) = 0
+                        THEN com.art.tutordesk.lesson.PaymentStatus.PAID
+                    WHEN SUM(CASE WHEN a.status = com.art.tutordesk.lesson.PaymentStatus.PAID THEN 1 ELSE 0 END) = 0
+                        THEN com.art.tutordesk.lesson.PaymentStatus.UNPAID
+                    ELSE com.art.tutordesk.lesson.PaymentStatus.PARTIALLY_PAID END))
+            ORDER BY l.lessonDate ASC, l.id ASC
+            """)
+    List<LessonPageKey> findPageKeys(@Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate,
+                                     @Param("afterDate") LocalDate afterDate,
+                                     @Param("afterId") Long afterId,
+                                     @Param("studentId") Long studentId,
+                                     @Param("status") LessonStudentStatus status,
+                                     @Param("paymentStatus") PaymentStatus paymentStatus,
+                                     Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.art.tutordesk.lesson.repository;
+
+import com.art.tutordesk.lesson.LessonSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LessonSeriesRepository extends JpaRepository<LessonSeries, Long> {
+}
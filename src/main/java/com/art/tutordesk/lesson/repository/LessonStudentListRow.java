@@ -0,0 +1,12 @@
+package com.art.tutordesk.lesson.repository;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+
+/**
+ * Student of a lesson in the lesson list, row of {@link LessonStudentRepository#findListRowsByLessonIds}.
+ * The payment status is null when the charge has no allocation.
+ */
+public record LessonStudentListRow(Long lessonId, String firstName, String lastName,
+                                   LessonStudentStatus status, PaymentStatus paymentStatus) {
+}
@@ -1,22 +1,30 @@
 package com.art.tutordesk.lesson.repository;
 
 import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.report.ReportLessonRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface LessonStudentRepository extends JpaRepository<LessonStudent, Long> {
 
-    @Query("SELECT ls FROM LessonStudent ls JOIN ls.lesson l " +
+    @Query("SELECT ls FROM LessonStudent ls JOIN FETCH ls.lesson l JOIN FETCH ls.student " +
            "WHERE l.lessonDate BETWEEN :startDate AND :endDate " +
            "AND (:studentIds IS NULL OR ls.student.id IN :studentIds)")
     List<LessonStudent> findByLessonDateBetweenAndStudentIds(
@@ -34,4 +42,143 @@ public interface LessonStudentRepository extends JpaRepository<LessonStudent, Lo
     Optional<LessonStudent> findByLessonIdAndStudentId(Long lessonId, Long studentId);
 
     List<LessonStudent> findAllByStudentId(Long studentId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE LessonStudent ls SET ls.status = :newStatus
+            WHERE ls.status = :currentStatus
+            AND ls.lesson.id IN (SELECT l.id FROM Lesson l WHERE l.seriesId = :seriesId AND l.lessonDate >= :fromDate)
+            """)
+    int updateStatusInSeries(@Param("seriesId") Long seriesId,
+                             @Param("fromDate") LocalDate fromDate,
+                             @Param("currentStatus") LessonStudentStatus currentStatus,
+                             @Param("newStatus") LessonStudentStatus newStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE LessonStudent ls SET ls.price = :price
+            WHERE ls.status = :status AND ls.student.id = :studentId
+            AND ls.lesson.id IN (SELECT l.id FROM Lesson l WHERE l.seriesId = :seriesId AND l.lessonDate >= :fromDate)
+            """)
+    int updatePriceInSeries(@Param("seriesId") Long seriesId,
+                            @Param("fromDate") LocalDate fromDate,
+                            @Param("studentId") Long studentId,
+                            @Param("status") LessonStudentStatus status,
+                            @Param("price") BigDecimal price);
+
+    @Query("""
+            SELECT ls FROM LessonStudent ls JOIN FETCH ls.lesson l JOIN FETCH ls.student
+            WHERE l.lessonDate = :lessonDate AND ls.status = :status
+            ORDER BY l.id ASC, ls.id ASC
+            """)
+    List<LessonStudent> findByLessonDateAndStatus(@Param("lessonDate") LocalDate lessonDate,
+                                                  @Param("status") LessonStudentStatus status);
+
+    @Query("SELECT ls FROM LessonStudent ls JOIN FETCH ls.lesson JOIN FETCH ls.student WHERE ls.student.id IN :studentIds")
+    List<LessonStudent> findAllByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("""
+            SELECT ls FROM LessonStudent ls JOIN FETCH ls.lesson l
+            WHERE ls.student.id = :studentId AND ls.currency = :currency AND ls.status IN :statuses
+            ORDER BY l.lessonDate ASC, ls.id ASC
+            """)
+    List<LessonStudent> findChargesInOrder(@Param("studentId") Long studentId,
+                                           @Param("currency") Currency currency,
+                                           @Param("statuses") Collection<LessonStudentStatus> statuses);
+
+    @Query("""
+            SELECT ls FROM LessonStudent ls JOIN FETCH ls.lesson l
+            WHERE ls.student.id = :studentId AND ls.currency = :currency AND ls.status IN :statuses
+            AND (l.lessonDate > :lessonDate OR (l.lessonDate = :lessonDate AND ls.id >= :lessonStudentId))
+            ORDER BY l.lessonDate ASC, ls.id ASC
+            """)
+    List<LessonStudent> findChargesInOrderFromPosition(@Param("studentId") Long studentId,
+                                                       @Param("currency") Currency currency,
+                                                       @Param("statuses") Collection<LessonStudentStatus> statuses,
+                                                       @Param("lessonDate") LocalDate lessonDate,
+                                                       @Param("lessonStudentId") Long lessonStudentId);
+
+    /**
+     * Resolves payment statuses of chargeable lessons dated within the window with a running sum per (student, currency).
+     * Logic:
+     * 1. Charges up to the end of the window are summed by lesson_date and id with SUM() OVER; charges after the
+     *    window cannot affect statuses inside it and are not read.
+     * 2. A charge whose running sum is covered by the total paid is PAID, a zero price is FREE.
+     * 3. The first charge that is not covered is UNPAID, and so is every later one priced above the credit left
+     *    at that point.
+     * 4. A later, cheaper charge may still be PAID by PaymentStatusUtil, because an UNPAID charge consumes nothing.
+     *    Its status is null and has to be resolved from the full history.
+     */
+    @Query(value = """
+            WITH charges AS (
+                SELECT ls.id, ls.student_id, ls.currency, l.lesson_date,
+                       COALESCE(ls.price, 0) AS price,
+                       SUM(COALESCE(ls.price, 0)) OVER (PARTITION BY ls.student_id, ls.currency
+                                                        ORDER BY l.lesson_date, ls.id) AS running_total
+                FROM lesson_student ls
+                JOIN lessons l ON l.id = ls.lesson_id
+                WHERE ls.student_id IN (:studentIds)
+                  AND ls.status IN ('COMPLETED', 'NOT_ATTENDED')
+                  AND l.lesson_date <= :endDate
+            ),
+            paid AS (
+                SELECT p.student_id, p.currency, SUM(p.amount) AS total
+                FROM payments p
+                WHERE p.student_id IN (:studentIds)
+                GROUP BY p.student_id, p.currency
+            ),
+            covered AS (
+                SELECT c.id, c.student_id, c.lesson_date, c.price, c.running_total,
+                       COALESCE(pd.total, 0) AS total_paid,
+                       MIN(CASE WHEN c.running_total > COALESCE(pd.total, 0) THEN c.running_total - c.price END)
+                           OVER (PARTITION BY c.student_id, c.currency) AS consumed_before_unpaid
+                FROM charges c
+                LEFT JOIN paid pd ON pd.student_id = c.student_id AND pd.currency = c.currency
+            )
+            SELECT cv.id AS "lessonStudentId", cv.student_id AS "studentId",
+                   CASE WHEN cv.price = 0 THEN 'FREE'
+                        WHEN cv.running_total <= cv.total_paid THEN 'PAID'
+                        WHEN cv.price > cv.total_paid - cv.consumed_before_unpaid THEN 'UNPAID'
+                   END AS "paymentStatus"
+            FROM covered cv
+            WHERE cv.lesson_date >= :startDate
+            """, nativeQuery = true)
+    List<LessonPaymentStatusView> findPaymentStatusesInWindow(@Param("studentIds") Collection<Long> studentIds,
+                                                              @Param("startDate") LocalDate startDate,
+                                                              @Param("endDate") LocalDate endDate);
+
+    @Query("""
+            SELECT new com.art.tutordesk.lesson.repository.LessonStudentListRow(ls.lesson.id, s.firstName, s.lastName,
+                   ls.status, a.status)
+            FROM LessonStudent ls
+            JOIN ls.student s
+            LEFT JOIN LessonChargeAllocation a ON a.lessonStudentId = ls.id
+            WHERE ls.lesson.id IN :lessonIds
+            ORDER BY ls.id ASC
+            """)
+    List<LessonStudentListRow> findListRowsByLessonIds(@Param("lessonIds") Collection<Long> lessonIds);
+
+    @Query("""
+            SELECT DISTINCT ls.student.id FROM LessonStudent ls
+            WHERE ls.lesson.lessonDate BETWEEN :startDate AND :endDate
+            AND (:studentIds IS NULL OR ls.student.id IN :studentIds)
+            """)
+    Set<Long> findReportStudentIds(@Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate,
+                                   @Param("studentIds") List<Long> studentIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.art.tutordesk.report.ReportLessonRow(ls.id, s.firstName, s.lastName, ls.currency, ls.price,
+                   l.lessonDate, ls.status)
+            FROM LessonStudent ls
+            JOIN ls.lesson l
+            JOIN ls.student s
+            WHERE l.lessonDate BETWEEN :startDate AND :endDate
+            AND (:studentIds IS NULL OR s.id IN :studentIds)
+            ORDER BY l.lessonDate ASC, ls.id ASC
+            """)
+    Stream<ReportLessonRow> streamReportLessons(@Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate,
+                                                @Param("studentIds") List<Long> studentIds);
 }
@@ -1,6 +1,8 @@
 package com.art.tutordesk.lesson.service;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
 import com.art.tutordesk.lesson.LessonStudent;
@@ -12,6 +14,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -19,6 +25,7 @@ import java.math.BigDecimal;
 public class LessonBalanceService {
 
     private final BalanceTransactionService balanceTransactionService;
+    private final PaymentAllocationService paymentAllocationService;
 
     /**
      * Handles balance adjustments when a student's price or status in a lesson changes.
@@ -26,15 +33,74 @@ public class LessonBalanceService {
      * 1. If the student was already in a chargeable state (COMPLETED/NOT_ATTENDED), and the status
      *    is changing to a non-chargeable state OR the price is changing, reverse the old charge.
      * 2. If the student is moving into a chargeable state (or staying in one with a new price), apply the charge.
+     * 3. If the charge was or becomes chargeable, re-allocate payment credit from its position onwards.
+     * Every new charge increments the charge version of the LessonStudent; the charge and its later reversal are
+     * recorded under that version, so replaying the same change writes nothing twice.
      */
     public void adjustBalanceForPriceAndStatusChange(LessonStudent lessonStudent, BigDecimal newPrice, LessonStudentStatus newStatus) {
+        boolean chargeChanged = applyChange(lessonStudent, newPrice, newStatus, entry ->
+                balanceTransactionService.createBalanceTransaction(entry.student(), entry.type(), entry.currency(),
+                        entry.source(), entry.amount(), entry.sourceId(), entry.operation()));
+        if (chargeChanged) {
+            paymentAllocationService.onChargeChanged(lessonStudent);
+        }
+    }
+
+    /**
+     * Moves many LessonStudent records to a new status at their current price, with the same charge rules as
+     * adjustBalanceForPriceAndStatusChange.
+     * Logic:
+     * 1. The ledger entries of all records are collected and written as one batch.
+     * 2. Payment credit is re-allocated once per student and currency.
+     * Returns the number of records whose status changed.
+     */
+    public int adjustBalancesForStatusChange(Collection<LessonStudent> lessonStudents, LessonStudentStatus newStatus) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<LessonStudent> changedCharges = new ArrayList<>();
+        int changed = 0;
+        for (LessonStudent lessonStudent : lessonStudents) {
+            if (lessonStudent.getStatus() == newStatus) {
+                continue;
+            }
+            changed++;
+            if (applyChange(lessonStudent, lessonStudent.getPrice(), newStatus, entries::add)) {
+                changedCharges.add(lessonStudent);
+            }
+        }
+        balanceTransactionService.createBalanceTransactions(entries);
+        paymentAllocationService.onChargesChanged(changedCharges);
+        return changed;
+    }
+
+    /**
+     * Applies the price and status changes of several LessonStudent records, e.g. all students of an edited lesson,
+     * with the same charge rules as adjustBalanceForPriceAndStatusChange.
+     * Logic:
+     * 1. The ledger entries of all changes are collected and written as one batch.
+     * 2. Payment credit is re-allocated once per student and currency.
+     */
+    public void adjustBalancesForPriceAndStatusChanges(Collection<LessonStudentChange> changes) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<LessonStudent> changedCharges = new ArrayList<>();
+        for (LessonStudentChange change : changes) {
+            if (applyChange(change.lessonStudent(), change.newPrice(), change.newStatus(), entries::add)) {
+                changedCharges.add(change.lessonStudent());
+            }
+        }
+        balanceTransactionService.createBalanceTransactions(entries);
+        paymentAllocationService.onChargesChanged(changedCharges);
+    }
+
+    // Records the ledger entries of the change and updates the fields; returns whether a charge was or becomes chargeable
+    private boolean applyChange(LessonStudent lessonStudent, BigDecimal newPrice, LessonStudentStatus newStatus,
+                                Consumer<LedgerEntry> ledger) {
         LessonStudentStatus oldStatus = lessonStudent.getStatus();
         BigDecimal oldPrice = lessonStudent.getPrice();
         boolean priceChanged = (oldPrice == null) || (oldPrice.compareTo(newPrice) != 0);
         boolean statusChanged = oldStatus != newStatus;
 
         if (!priceChanged && !statusChanged) {
-            return;
+            return false;
         }
 
         Student student = lessonStudent.getStudent();
@@ -48,26 +114,33 @@ public class LessonBalanceService {
         if (isChargeable(oldStatus)) {
             // If exiting chargeable state OR price changed, we must reverse the old charge
             if (!isChargeable(newStatus) || priceChanged) {
-                balanceTransactionService.createBalanceTransaction(student, TransactionType.LESSON_CHARGE_REVERSAL,
-                        currency, TransactionSource.LESSON, oldPrice, lessonStudentId);
+                ledger.accept(new LedgerEntry(student, TransactionType.LESSON_CHARGE_REVERSAL,
+                        currency, TransactionSource.LESSON, oldPrice, lessonStudentId, lessonStudent.getChargeVersion()));
                 log.info("Recorded LESSON_CHARGE_REVERSAL for student {} (old price {})", student.getId(), oldPrice);
             }
             // If staying in chargeable state AND price changed, apply new charge
             if (isChargeable(newStatus) && priceChanged) {
-                balanceTransactionService.createBalanceTransaction(student, TransactionType.LESSON_CHARGE,
-                        currency, TransactionSource.LESSON, newPrice.negate(), lessonStudentId);
+                ledger.accept(new LedgerEntry(student, TransactionType.LESSON_CHARGE,
+                        currency, TransactionSource.LESSON, newPrice.negate(), lessonStudentId, nextChargeVersion(lessonStudent)));
                 log.info("Recorded LESSON_CHARGE for student {} with NEW price {}", student.getId(), newPrice);
             }
         }
         // Case 2: Status was NOT chargeable, but now it IS
         else if (isChargeable(newStatus)) {
-            balanceTransactionService.createBalanceTransaction(student, TransactionType.LESSON_CHARGE,
-                    currency, TransactionSource.LESSON, newPrice.negate(), lessonStudentId);
+            ledger.accept(new LedgerEntry(student, TransactionType.LESSON_CHARGE,
+                    currency, TransactionSource.LESSON, newPrice.negate(), lessonStudentId, nextChargeVersion(lessonStudent)));
             log.info("Recorded LESSON_CHARGE for student {} with price {}", student.getId(), newPrice);
         }
 
         lessonStudent.setPrice(newPrice);
         lessonStudent.setStatus(newStatus);
+
+        return isChargeable(oldStatus) || isChargeable(newStatus);
+    }
+
+    private static int nextChargeVersion(LessonStudent lessonStudent) {
+        lessonStudent.setChargeVersion(lessonStudent.getChargeVersion() + 1);
+        return lessonStudent.getChargeVersion();
     }
 
     public boolean isChargeable(LessonStudentStatus status) {
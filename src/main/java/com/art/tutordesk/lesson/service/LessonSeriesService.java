@@ -0,0 +1,164 @@
+package com.art.tutordesk.lesson.service;
+
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonSeries;
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.RecurrenceFrequency;
+import com.art.tutordesk.lesson.dto.LessonSeriesForm;
+import com.art.tutordesk.lesson.repository.LessonRepository;
+import com.art.tutordesk.lesson.repository.LessonSeriesRepository;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.report.MonthlyRollupService;
+import com.art.tutordesk.student.Student;
+import com.art.tutordesk.student.service.StudentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LessonSeriesService {
+
+    static final int MAX_OCCURRENCES = 500;
+
+    private final LessonSeriesRepository lessonSeriesRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonStudentRepository lessonStudentRepository;
+    private final LessonStudentService lessonStudentService;
+    private final StudentService studentService;
+    private final MonthlyRollupService monthlyRollupService;
+
+    /**
+     * Creates every lesson of a recurring series for the selected students.
+     * Logic:
+     * 1. The lesson dates are generated from the recurrence rule.
+     * 2. All lessons and their SCHEDULED students are saved together, so they are sent as JDBC batches.
+     * 3. The lesson counts are added to the monthly rollups once per month.
+     * Scheduled lessons are not chargeable, so no ledger entries are written.
+     */
+    @Transactional
+    public LessonSeries createSeries(LessonSeriesForm form) {
+        Set<DayOfWeek> weekdays = form.getWeekdays().isEmpty()
+                ? EnumSet.noneOf(DayOfWeek.class)
+                : EnumSet.copyOf(form.getWeekdays());
+        List<LocalDate> dates = occurrenceDates(form.getStartDate(), form.getFrequency(), weekdays,
+                form.getEndDate(), form.getOccurrences());
+        List<Student> students = studentService.getStudentsByIds(form.getStudentIds());
+        if (students.isEmpty()) {
+            throw new IllegalArgumentException("At least one student must be selected for the lesson series.");
+        }
+
+        LessonSeries series = new LessonSeries();
+        series.setFrequency(form.getFrequency());
+        series.setWeekdays(weekdays.isEmpty() ? EnumSet.of(form.getStartDate().getDayOfWeek()) : weekdays);
+        series.setStartDate(form.getStartDate());
+        series.setEndDate(form.getEndDate());
+        series.setOccurrences(form.getOccurrences());
+        lessonSeriesRepository.save(series);
+
+        boolean isGroupLesson = students.size() > 1;
+        List<Lesson> lessons = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            Lesson lesson = new Lesson();
+            lesson.setLessonDate(date);
+            lesson.setSeriesId(series.getId());
+            for (Student student : students) {
+                LessonStudent lessonStudent = lessonStudentService.buildLessonStudent(student, lesson);
+                lessonStudent.setPrice(isGroupLesson ? student.getPriceGroup() : student.getPriceIndividual());
+                lessonStudent.setStatus(LessonStudentStatus.SCHEDULED);
+                lesson.getLessonStudents().add(lessonStudent);
+            }
+            lessons.add(lesson);
+        }
+        // Lesson students are persisted by cascade
+        lessonRepository.saveAll(lessons);
+        monthlyRollupService.addLessons(dates);
+        log.info("Lesson series {} created: {} lessons from {} with {} students.",
+                series.getId(), lessons.size(), form.getStartDate(), students.size());
+        return series;
+    }
+
+    /**
+     * Cancels the SCHEDULED students of the series lessons dated fromDate or later with one update statement.
+     * Moving between non-chargeable statuses never touches the ledger or the payment allocations.
+     */
+    @Transactional
+    public int cancelRemaining(Long seriesId, LocalDate fromDate) {
+        getSeries(seriesId);
+        int canceled = lessonStudentRepository.updateStatusInSeries(seriesId, fromDate,
+                LessonStudentStatus.SCHEDULED, LessonStudentStatus.CANCELED);
+        log.info("Lesson series {}: {} scheduled lesson students from {} canceled.", seriesId, canceled, fromDate);
+        return canceled;
+    }
+
+    /**
+     * Changes the price of one student in the SCHEDULED series lessons dated fromDate or later with one update statement.
+     * Completed lessons keep the price they were charged with.
+     */
+    @Transactional
+    public int updateRemainingPrice(Long seriesId, LocalDate fromDate, Long studentId, BigDecimal price) {
+        getSeries(seriesId);
+        int updated = lessonStudentRepository.updatePriceInSeries(seriesId, fromDate, studentId,
+                LessonStudentStatus.SCHEDULED, price);
+        log.info("Lesson series {}: price of student {} set to {} in {} lessons from {}.",
+                seriesId, studentId, price, updated, fromDate);
+        return updated;
+    }
+
+    private LessonSeries getSeries(Long seriesId) {
+        return lessonSeriesRepository.findById(seriesId)
+                .orElseThrow(() -> new RuntimeException("Lesson series not found with id: " + seriesId));
+    }
+
+    /**
+     * Generates the dates of a series: the selected weekdays (the weekday of the start date when none) of every
+     * week, or of every other week, counted from the week of the start date.
+     * The series ends at endDate or after the given number of occurrences, whichever comes first.
+     */
+    static List<LocalDate> occurrenceDates(LocalDate startDate, RecurrenceFrequency frequency, Set<DayOfWeek> weekdays,
+                                           LocalDate endDate, Integer occurrences) {
+        if (startDate == null) {
+            throw new IllegalArgumentException("A lesson series needs a start date.");
+        }
+        if (endDate == null && occurrences == null) {
+            throw new IllegalArgumentException("A lesson series needs an end date or a number of lessons.");
+        }
+        if (occurrences != null && occurrences < 1) {
+            throw new IllegalArgumentException("A lesson series must have at least one lesson.");
+        }
+
+        Set<DayOfWeek> days = weekdays.isEmpty() ? EnumSet.of(startDate.getDayOfWeek()) : weekdays;
+        LocalDate firstWeek = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; endDate == null || !date.isAfter(endDate); date = date.plusDays(1)) {
+            long week = ChronoUnit.WEEKS.between(firstWeek, date);
+            if (week % frequency.getWeekInterval() != 0 || !days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            if (dates.size() == MAX_OCCURRENCES) {
+                throw new IllegalArgumentException("A lesson series can have at most " + MAX_OCCURRENCES + " lessons.");
+            }
+            dates.add(date);
+            if (occurrences != null && dates.size() == occurrences) {
+                break;
+            }
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("A lesson series must have at least one lesson.");
+        }
+        return dates;
+    }
+}
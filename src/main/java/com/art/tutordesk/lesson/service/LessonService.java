@@ -1,76 +1,116 @@
 package com.art.tutordesk.lesson.service;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.lesson.Lesson;
 import com.art.tutordesk.lesson.LessonStudent;
 import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.lesson.PaymentStatus;
 import com.art.tutordesk.lesson.PaymentStatusUtil;
 import com.art.tutordesk.lesson.dto.LessonListDTO;
+import com.art.tutordesk.lesson.dto.LessonListFilter;
+import com.art.tutordesk.lesson.dto.LessonListPage;
 import com.art.tutordesk.lesson.dto.LessonProfileDTO;
 import com.art.tutordesk.lesson.dto.LessonStudentUpdateDTO;
 import com.art.tutordesk.lesson.dto.LessonUpdateForm;
 import com.art.tutordesk.lesson.mapper.LessonMapper;
+import com.art.tutordesk.lesson.repository.LessonPageKey;
 import com.art.tutordesk.lesson.repository.LessonRepository;
+import com.art.tutordesk.lesson.repository.LessonStudentListRow;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
-import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.service.StudentService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "tutordesk.service", histogram = true)
 public class LessonService {
 
+    static final int MAX_PAGE_SIZE = 200;
+
     private final LessonRepository lessonRepository;
+    private final LessonStudentRepository lessonStudentRepository;
     private final StudentService studentService;
     private final LessonStudentService lessonStudentService;
     private final LessonMapper lessonMapper;
     private final LessonBalanceService lessonBalanceService;
-    private final PaymentRepository paymentRepository;
-    private final LessonStudentRepository lessonStudentRepository;
+    private final PaymentAllocationService paymentAllocationService;
     private final PaymentStatusUtil paymentStatusUtil;
+    private final MonthlyRollupService monthlyRollupService;
 
-    public List<LessonListDTO> getLessonsByDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
-        
-        if (CollectionUtils.isEmpty(lessons)) {
-            return List.of();
+    /**
+     * Returns one page of the lesson list in (lessonDate, id) order, starting after (afterDate, afterId).
+     * Logic:
+     * 1. A keyset query selects up to size + 1 matching lesson keys; the extra key only tells that a next page exists.
+     * 2. The students and allocation statuses of the page are loaded with one projection query.
+     * Both queries are bounded by the page size, no matter how long the date range is.
+     */
+    public LessonListPage getLessonPage(LessonListFilter filter, LocalDate afterDate, Long afterId, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<LessonPageKey> keys = lessonRepository.findPageKeys(filter.startDate(), filter.endDate(), afterDate, afterId,
+                filter.studentId(), filter.status(), filter.paymentStatus(), PageRequest.of(0, pageSize + 1));
+
+        if (keys.isEmpty()) {
+            return new LessonListPage(List.of(), null, null);
         }
+        boolean hasNext = keys.size() > pageSize;
+        List<LessonPageKey> pageKeys = hasNext ? keys.subList(0, pageSize) : keys;
+
+        Map<Long, List<LessonStudentListRow>> rowsByLesson = lessonStudentRepository
+                .findListRowsByLessonIds(pageKeys.stream().map(LessonPageKey::id).toList()).stream()
+                .collect(Collectors.groupingBy(LessonStudentListRow::lessonId));
+
+        List<LessonListDTO> lessons = pageKeys.stream()
+                .map(key -> toLessonListDTO(key, rowsByLesson.getOrDefault(key.id(), List.of())))
+                .collect(Collectors.toList());
+
+        LessonPageKey last = pageKeys.getLast();
+        return hasNext ? new LessonListPage(lessons, last.lessonDate(), last.id()) : new LessonListPage(lessons, null, null);
+    }
+
+    private LessonListDTO toLessonListDTO(LessonPageKey key, List<LessonStudentListRow> rows) {
+        LessonListDTO dto = new LessonListDTO();
+        dto.setId(key.id());
+        dto.setLessonDate(key.lessonDate());
+        dto.setStudentNames(rows.stream()
+                .map(row -> row.firstName() + " " + row.lastName())
+                .collect(Collectors.toList()));
 
-        return lessons.stream()
-                .map(lesson -> {
-                    LessonListDTO dto = lessonMapper.toLessonListDTO(lesson);
-                    dto.setPaymentStatus(calculateOverallPaymentStatus(lesson));
-                    return dto;
-                })
+        List<PaymentStatus> statuses = rows.stream()
+                .filter(row -> row.status() == LessonStudentStatus.COMPLETED || row.status() == LessonStudentStatus.NOT_ATTENDED)
+                .map(row -> row.paymentStatus() != null ? row.paymentStatus() : PaymentStatus.UNPAID)
                 .collect(Collectors.toList());
+        dto.setPaymentStatus(statuses.isEmpty() ? null : paymentStatusUtil.calculateOverallLessonPaymentStatus(statuses));
+        return dto;
     }
 
     public LessonProfileDTO getLessonById(Long id) {
         Lesson lesson = lessonRepository.findById(id).orElseThrow(() -> new RuntimeException("Lesson not found with id: " + id));
         LessonProfileDTO dto = lessonMapper.toLessonProfileDTO(lesson);
         
-        Map<Long, PaymentStatus> studentPaymentStatusMap = calculateStudentPaymentStatuses(lesson);
+        Map<Long, PaymentStatus> studentPaymentStatusMap = calculateStudentPaymentStatuses(List.of(lesson));
         
         // Fill overall status
-        List<PaymentStatus> statuses = lesson.getLessonStudents().stream()
-                .filter(ls -> ls.getStatus() == LessonStudentStatus.COMPLETED || ls.getStatus() == LessonStudentStatus.NOT_ATTENDED)
-                .map(ls -> studentPaymentStatusMap.getOrDefault(ls.getId(), PaymentStatus.UNPAID))
-                .collect(Collectors.toList());
-        dto.setPaymentStatus(statuses.isEmpty() ? null : paymentStatusUtil.calculateOverallLessonPaymentStatus(statuses));
+        dto.setPaymentStatus(calculateOverallPaymentStatus(lesson, studentPaymentStatusMap));
 
         // Fill individual statuses for the profile view
         if (!CollectionUtils.isEmpty(dto.getStudentAssociations())) {
@@ -87,25 +127,15 @@ public class LessonService {
         return dto;
     }
 
-    private Map<Long, PaymentStatus> calculateStudentPaymentStatuses(Lesson lesson) {
-        if (CollectionUtils.isEmpty(lesson.getLessonStudents())) {
-            return Map.of();
-        }
-
-        Map<Long, PaymentStatus> studentPaymentStatusMap = new HashMap<>();
-        for (LessonStudent ls : lesson.getLessonStudents()) {
-            Long studentId = ls.getStudent().getId();
-            studentPaymentStatusMap.putAll(paymentStatusUtil.calculatePaymentStatuses(
-                    lessonStudentRepository.findAllByStudentId(studentId),
-                    paymentRepository.findAllByStudentId(studentId)
-            ));
-        }
-        return studentPaymentStatusMap;
+    private Map<Long, PaymentStatus> calculateStudentPaymentStatuses(Collection<Lesson> lessons) {
+        Set<Long> lessonStudentIds = lessons.stream()
+                .flatMap(lesson -> lesson.getLessonStudents().stream())
+                .map(LessonStudent::getId)
+                .collect(Collectors.toSet());
+        return paymentAllocationService.getPaymentStatuses(lessonStudentIds);
     }
 
-    private PaymentStatus calculateOverallPaymentStatus(Lesson lesson) {
-        Map<Long, PaymentStatus> studentPaymentStatusMap = calculateStudentPaymentStatuses(lesson);
-
+    private PaymentStatus calculateOverallPaymentStatus(Lesson lesson, Map<Long, PaymentStatus> studentPaymentStatusMap) {
         List<PaymentStatus> statuses = lesson.getLessonStudents().stream()
                 .filter(ls -> ls.getStatus() == LessonStudentStatus.COMPLETED || ls.getStatus() == LessonStudentStatus.NOT_ATTENDED)
                 .map(ls -> studentPaymentStatusMap.getOrDefault(ls.getId(), PaymentStatus.UNPAID))
@@ -120,14 +150,20 @@ public class LessonService {
         log.info("Lesson created: {id={}, date={}} with {} students.",
                 savedLesson.getId(), savedLesson.getLessonDate(), selectedStudentIds != null ? selectedStudentIds.size() : 0);
         associateStudentsWithLesson(savedLesson, selectedStudentIds);
+        monthlyRollupService.addLesson(savedLesson.getLessonDate(), MonthlyRollupService.chargesOf(savedLesson.getLessonStudents()));
         return savedLesson;
     }
 
     @Transactional
     public void updateLesson(Long lessonId, LessonUpdateForm form) {
+        LessonUpdateEvent event = new LessonUpdateEvent();
+        event.begin();
         Lesson existingLesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Lesson not found for update with id: " + lessonId));
 
+        LocalDate oldDate = existingLesson.getLessonDate();
+        Map<Currency, BigDecimal> oldCharges = MonthlyRollupService.chargesOf(existingLesson.getLessonStudents());
+        boolean dateChanged = !Objects.equals(oldDate, form.getLessonDate());
         existingLesson.setLessonDate(form.getLessonDate());
 
         Map<Long, LessonStudent> existingAssociations = existingLesson.getLessonStudents().stream()
@@ -141,12 +177,13 @@ public class LessonService {
                 .filter(studentId -> !updates.containsKey(studentId))
                 .collect(Collectors.toSet());
 
+        // Treat removal as cancellation
+        List<LessonStudentChange> changes = new ArrayList<>();
+        List<LessonStudent> removedStudents = new ArrayList<>();
         for (Long studentId : studentsToRemove) {
             LessonStudent ls = existingAssociations.get(studentId);
-            lessonBalanceService.adjustBalanceForPriceAndStatusChange(ls, ls.getPrice(), LessonStudentStatus.CANCELED); // Treat removal as cancellation
-            existingLesson.getLessonStudents().remove(ls);
-            lessonStudentService.delete(ls);
-            log.info("Removed student {} from lesson {}", studentId, lessonId);
+            changes.add(new LessonStudentChange(ls, ls.getPrice(), LessonStudentStatus.CANCELED));
+            removedStudents.add(ls);
         }
 
         // Update existing students and add new ones
@@ -157,14 +194,42 @@ public class LessonService {
             if (existingLs != null) {
                 // Student already in lesson, update price and status if changed
                 BigDecimal newPrice = isGroupLesson ? existingLs.getStudent().getPriceGroup() : existingLs.getStudent().getPriceIndividual();
-                lessonBalanceService.adjustBalanceForPriceAndStatusChange(existingLs, newPrice, update.getStatus());
+                changes.add(new LessonStudentChange(existingLs, newPrice, update.getStatus()));
             } else {
                 // New student for this lesson
                 Student student = studentService.getStudentEntityById(update.getStudentId());
-                addNewStudentToLesson(existingLesson, student, update.getStatus(), isGroupLesson);
+                LessonStudent newLs = addNewStudentToLesson(existingLesson, student, isGroupLesson);
+                changes.add(new LessonStudentChange(newLs, newLs.getPrice(), update.getStatus()));
+                log.info("Added student {} to lesson {} with status {}", student.getId(), lessonId, update.getStatus());
             }
         }
+
+        // The ledger entries of all students are written as one batch
+        lessonBalanceService.adjustBalancesForPriceAndStatusChanges(changes);
+        for (LessonStudent ls : removedStudents) {
+            existingLesson.getLessonStudents().remove(ls);
+            lessonStudentService.delete(ls);
+            log.info("Removed student {} from lesson {}", ls.getStudent().getId(), lessonId);
+        }
+
+        // Moving the lesson changes the chronological position of its charges
+        if (dateChanged) {
+            paymentAllocationService.onChargesChanged(existingLesson.getLessonStudents().stream()
+                    .filter(ls -> lessonBalanceService.isChargeable(ls.getStatus()))
+                    .toList());
+        }
+        monthlyRollupService.updateLesson(oldDate, oldCharges,
+                existingLesson.getLessonDate(), MonthlyRollupService.chargesOf(existingLesson.getLessonStudents()));
         lessonRepository.save(existingLesson);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.lessonId = lessonId;
+            event.studentCount = updates.size();
+            event.removedStudentCount = studentsToRemove.size();
+            event.dateChanged = dateChanged;
+            event.commit();
+        }
     }
 
     private void associateStudentsWithLesson(Lesson lesson, List<Long> studentIds) {
@@ -175,30 +240,53 @@ public class LessonService {
         boolean isGroupLesson = selectedStudents.size() > 1;
 
         for (Student student : selectedStudents) {
-            addNewStudentToLesson(lesson, student, LessonStudentStatus.SCHEDULED, isGroupLesson);
+            addNewStudentToLesson(lesson, student, isGroupLesson);
+            log.info("Added student {} to lesson {} with status {}", student.getId(), lesson.getId(), LessonStudentStatus.SCHEDULED);
         }
     }
 
-    private void addNewStudentToLesson(Lesson lesson, Student student, LessonStudentStatus status, boolean isGroupLesson) {
+    // Starts with SCHEDULED, so the charge rules apply the initial charge when the student is added with a chargeable status
+    private LessonStudent addNewStudentToLesson(Lesson lesson, Student student, boolean isGroupLesson) {
         LessonStudent lessonStudent = lessonStudentService.buildLessonStudent(student, lesson);
 
         BigDecimal price = isGroupLesson ? student.getPriceGroup() : student.getPriceIndividual();
         lessonStudent.setPrice(price);
         lessonStudent.setCurrency(student.getCurrency());
-        // Start with SCHEDULED so handlePriceAndStatusChange correctly applies initial charges if needed
         lessonStudent.setStatus(LessonStudentStatus.SCHEDULED);
 
         lessonStudentService.save(lessonStudent);
         lesson.getLessonStudents().add(lessonStudent);
+        return lessonStudent;
+    }
 
-        // Immediately handle charge if added with a chargeable status
-        lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price, status);
-        log.info("Added student {} to lesson {} with status {}", student.getId(), lesson.getId(), status);
+    /**
+     * Moves every student of the lessons on the given date from one status to another, e.g. all SCHEDULED to COMPLETED.
+     * Logic:
+     * 1. The matching LessonStudent records of all lessons of the day are loaded with one query.
+     * 2. LessonBalanceService applies the charge rules to all of them, writing the ledger entries as one batch.
+     * 3. The charge difference of the day is applied to its monthly rollup.
+     * 4. The status changes are flushed as batched updates when the single transaction commits.
+     */
+    @Transactional
+    public int updateStatusesForDate(LocalDate lessonDate, LessonStudentStatus fromStatus, LessonStudentStatus toStatus) {
+        List<LessonStudent> lessonStudents = lessonStudentRepository.findByLessonDateAndStatus(lessonDate, fromStatus);
+        Map<Currency, BigDecimal> oldCharges = MonthlyRollupService.chargesOf(lessonStudents);
+        int updated = lessonBalanceService.adjustBalancesForStatusChange(lessonStudents, toStatus);
+        monthlyRollupService.updateCharges(lessonDate, oldCharges, MonthlyRollupService.chargesOf(lessonStudents));
+        log.info("Lesson students on {} moved from {} to {}: {}", lessonDate, fromStatus, toStatus, updated);
+        return updated;
     }
 
     @Transactional
     public void deleteLesson(Long id) {
-        lessonRepository.deleteById(id);
+        Lesson lesson = lessonRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Lesson not found for deletion with id: " + id));
+        monthlyRollupService.removeLesson(lesson.getLessonDate(), MonthlyRollupService.chargesOf(lesson.getLessonStudents()));
+        // The credit consumed by the deleted charges goes to the later charges of the same students
+        paymentAllocationService.onChargesRemoved(lesson.getLessonStudents().stream()
+                .filter(ls -> lessonBalanceService.isChargeable(ls.getStatus()))
+                .toList());
+        lessonRepository.delete(lesson);
         log.info("Lesson with ID {} deleted.", id);
     }
 }
\ No newline at end of file
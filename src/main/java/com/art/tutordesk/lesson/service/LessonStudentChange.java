@@ -0,0 +1,12 @@
+package com.art.tutordesk.lesson.service;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * New price and status of a LessonStudent, input of {@link LessonBalanceService#adjustBalancesForPriceAndStatusChanges}.
+ */
+public record LessonStudentChange(LessonStudent lessonStudent, BigDecimal newPrice, LessonStudentStatus newStatus) {
+}
@@ -0,0 +1,36 @@
+package com.art.tutordesk.lesson.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for an edit of a lesson. The duration ends before the transaction commits,
+ * so the flush of the changed rows shows up in the JDBC events that follow it. Off by default.
+ */
+@Name(LessonUpdateEvent.NAME)
+@Label("Lesson Update")
+@Category({"TutorDesk", "Lessons"})
+@Description("A lesson edited with its students' statuses, balances, allocations and monthly rollups")
+@Enabled(false)
+@StackTrace(false)
+class LessonUpdateEvent extends Event {
+
+    static final String NAME = "com.art.tutordesk.LessonUpdate";
+
+    @Label("Lesson Id")
+    long lessonId;
+
+    @Label("Students")
+    int studentCount;
+
+    @Label("Removed Students")
+    int removedStudentCount;
+
+    @Label("Date Changed")
+    boolean dateChanged;
+}
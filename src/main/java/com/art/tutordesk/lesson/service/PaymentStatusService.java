@@ -0,0 +1,43 @@
+package com.art.tutordesk.lesson.service;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.PaymentStatusUtil;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Payment;
+import com.art.tutordesk.payment.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentStatusService {
+
+    private final LessonStudentRepository lessonStudentRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusUtil paymentStatusUtil;
+
+    /**
+     * Returns the payment status of every chargeable LessonStudent of the given students, keyed by LessonStudent ID.
+     * The whole history of all students is loaded with two queries regardless of how many students are requested.
+     */
+    public Map<Long, PaymentStatus> getPaymentStatuses(Collection<Long> studentIds) {
+        if (CollectionUtils.isEmpty(studentIds)) {
+            return Map.of();
+        }
+
+        List<LessonStudent> lessons = lessonStudentRepository.findAllByStudentIdIn(studentIds);
+        List<Payment> payments = paymentRepository.findAllByStudentIdIn(studentIds);
+        log.debug("Calculating payment statuses for {} students: {} lessons, {} payments.",
+                studentIds.size(), lessons.size(), payments.size());
+
+        return paymentStatusUtil.calculatePaymentStatusesForStudents(lessons, payments);
+    }
+}
@@ -0,0 +1,10 @@
+package com.art.tutordesk.payment;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of the payment list, a null value does not restrict the list.
+ */
+public record PaymentListFilter(LocalDate startDate, LocalDate endDate, Long studentId,
+                                PaymentMethod paymentMethod, Currency currency) {
+}
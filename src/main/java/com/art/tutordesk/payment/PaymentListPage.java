@@ -0,0 +1,15 @@
+package com.art.tutordesk.payment;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One page of the payment list, newest first. The next page starts before (nextBeforeDate, nextBeforeId),
+ * both are null on the last page.
+ */
+public record PaymentListPage(List<PaymentDto> payments, LocalDate nextBeforeDate, Long nextBeforeId) {
+
+    public boolean hasNext() {
+        return nextBeforeId != null;
+    }
+}
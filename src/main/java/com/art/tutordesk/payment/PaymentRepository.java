@@ -1,23 +1,63 @@
 package com.art.tutordesk.payment;
 
+import com.art.tutordesk.balance.StudentCurrencyTotal;
+import com.art.tutordesk.report.ReportPaymentRow;
 import com.art.tutordesk.student.Student;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
-    List<Payment> findByPaymentDateGreaterThanEqual(LocalDate startDate);
+    // Concurrent updates of the same payment take turns, so each one gets its own revision
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
 
+    /**
+     * Payments matching the filters that come before (beforeDate, beforeId) in (paymentDate, id) descending order,
+     * read as list rows together with the student names.
+     */
     @Query("""
-            SELECT p FROM Payment p
+            SELECT new com.art.tutordesk.payment.PaymentDto(p.id, p.paymentDate, s.id, s.firstName, s.lastName,
+                   p.paymentMethod, p.amount, p.currency)
+            FROM Payment p
+            JOIN p.student s
+            WHERE (:startDate IS NULL OR p.paymentDate >= :startDate)
+            AND (:endDate IS NULL OR p.paymentDate <= :endDate)
+            AND (:studentId IS NULL OR s.id = :studentId)
+            AND (:paymentMethod IS NULL OR p.paymentMethod = :paymentMethod)
+            AND (:currency IS NULL OR p.currency = :currency)
+            AND (:beforeDate IS NULL OR p.paymentDate < :beforeDate OR (p.paymentDate = :beforeDate AND p.id < :beforeId))
+            ORDER BY p.paymentDate DESC, p.id DESC
+            """)
+    List<PaymentDto> findPage(@Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("studentId") Long studentId,
+                              @Param("paymentMethod") PaymentMethod paymentMethod,
+                              @Param("currency") Currency currency,
+                              @Param("beforeDate") LocalDate beforeDate,
+                              @Param("beforeId") Long beforeId,
+                              Pageable pageable);
+
+    @Query("""
+            SELECT p FROM Payment p JOIN FETCH p.student
             WHERE p.paymentDate BETWEEN :startDate AND :endDate
             AND (:studentIds IS NULL OR p.student.id IN :studentIds)
             """)
@@ -25,6 +65,19 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
                                 @Param("endDate") LocalDate endDate,
                                 @Param("studentIds") List<Long> studentIds);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.art.tutordesk.report.ReportPaymentRow(p.id, s.firstName, s.lastName, p.currency, p.amount, p.paymentDate)
+            FROM Payment p
+            JOIN p.student s
+            WHERE p.paymentDate BETWEEN :startDate AND :endDate
+            AND (:studentIds IS NULL OR s.id IN :studentIds)
+            ORDER BY p.paymentDate ASC, p.id ASC
+            """)
+    Stream<ReportPaymentRow> streamReportPayments(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate,
+                                                  @Param("studentIds") List<Long> studentIds);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("DELETE FROM Payment p WHERE p.student.id = :studentId")
     void deleteAllByStudentId(@Param("studentId") Long studentId);
@@ -37,4 +90,14 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     BigDecimal sumPayments(@Param("student") Student student, @Param("currency") Currency currency);
 
     List<Payment> findAllByStudentId(Long studentId);
+
+    @Query("SELECT p FROM Payment p JOIN FETCH p.student WHERE p.student.id IN :studentIds")
+    List<Payment> findAllByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("""
+            SELECT new com.art.tutordesk.balance.StudentCurrencyTotal(p.student.id, p.currency, SUM(p.amount))
+            FROM Payment p
+            GROUP BY p.student.id, p.currency
+            """)
+    List<StudentCurrencyTotal> sumAmountsGroupedByStudentAndCurrency();
 }
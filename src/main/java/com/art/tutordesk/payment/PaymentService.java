@@ -1,35 +1,55 @@
 package com.art.tutordesk.payment;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.service.StudentService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "tutordesk.service", histogram = true)
 public class PaymentService {
 
+    static final int MAX_PAGE_SIZE = 200;
+
     private final PaymentRepository paymentRepository;
     private final BalanceTransactionService balanceTransactionService;
     private final PaymentMapper paymentMapper;
     private final StudentService studentService;
-
-    public List<PaymentDto> getAllPayments() {
-        log.debug("Fetching all payments.");
-        List<Payment> payments = paymentRepository.findAll();
-        return payments.stream()
-                .map(paymentMapper::toPaymentDto)
-                .collect(Collectors.toList());
+    private final PaymentAllocationService paymentAllocationService;
+    private final MonthlyRollupService monthlyRollupService;
+
+    /**
+     * Returns one page of the payment list, newest first, starting before (beforeDate, beforeId).
+     * Reads size + 1 projection rows with a single query; the extra row only tells that a next page exists.
+     */
+    public PaymentListPage getPaymentPage(PaymentListFilter filter, LocalDate beforeDate, Long beforeId, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        log.debug("Fetching payment page of {} before ({}, {}) with filter {}", pageSize, beforeDate, beforeId, filter);
+        List<PaymentDto> rows = paymentRepository.findPage(filter.startDate(), filter.endDate(), filter.studentId(),
+                filter.paymentMethod(), filter.currency(), beforeDate, beforeId, PageRequest.of(0, pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new PaymentListPage(rows, null, null);
+        }
+        List<PaymentDto> payments = rows.subList(0, pageSize);
+        PaymentDto last = payments.getLast();
+        return new PaymentListPage(payments, last.getPaymentDate(), last.getId());
     }
 
     public PaymentDto getPaymentById(Long id) {
@@ -54,7 +74,10 @@ public class PaymentService {
                 savedPayment.getId(), student.getId(), savedPayment.getAmount(), savedPayment.getCurrency());
 
         balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_RECEIVED,
-                savedPayment.getCurrency(), TransactionSource.PAYMENT, savedPayment.getAmount(), savedPayment.getId());
+                savedPayment.getCurrency(), TransactionSource.PAYMENT, savedPayment.getAmount(), savedPayment.getId(),
+                LedgerEntry.SINGLE_OPERATION);
+        paymentAllocationService.onPaymentChanged(student.getId(), savedPayment.getCurrency(), savedPayment.getAmount());
+        monthlyRollupService.addPayment(savedPayment.getPaymentDate(), savedPayment.getCurrency(), savedPayment.getAmount());
 
         return paymentMapper.toPaymentDto(savedPayment);
     }
@@ -62,18 +85,22 @@ public class PaymentService {
     @Transactional
     public PaymentDto updatePayment(PaymentDto paymentDto) {
         log.info("Attempting to update payment from DTO: {}", paymentDto);
-        Payment existingPayment = paymentRepository.findById(paymentDto.getId())
+        Payment existingPayment = paymentRepository.findByIdForUpdate(paymentDto.getId())
                 .orElseThrow(() -> {
                     log.warn("Payment not found for update with id: {}", paymentDto.getId());
                     return new RuntimeException("Payment not found for update with id: " + paymentDto.getId());
                 });
 
         BigDecimal oldAmount = existingPayment.getAmount();
+        Long oldStudentId = existingPayment.getStudent().getId();
+        Currency oldCurrency = existingPayment.getCurrency();
+        LocalDate oldPaymentDate = existingPayment.getPaymentDate();
 
         Student student = studentService.getStudentEntityById(paymentDto.getStudentId());
 
         paymentMapper.updatePaymentFromDto(paymentDto, existingPayment);
         existingPayment.setStudent(student);
+        existingPayment.setRevision(existingPayment.getRevision() + 1);
 
         Payment updatedPayment = paymentRepository.save(existingPayment);
         log.info("Payment updated: {id={}, studentId={}, oldAmount={}, newAmount={}, currency={}}",
@@ -81,7 +108,17 @@ public class PaymentService {
 
         BigDecimal amountDifference = paymentDto.getAmount().subtract(oldAmount);
         balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_UPDATED,
-                updatedPayment.getCurrency(), TransactionSource.PAYMENT, amountDifference, updatedPayment.getId());
+                updatedPayment.getCurrency(), TransactionSource.PAYMENT, amountDifference, updatedPayment.getId(),
+                updatedPayment.getRevision());
+
+        if (oldStudentId.equals(student.getId()) && oldCurrency == updatedPayment.getCurrency()) {
+            paymentAllocationService.onPaymentChanged(student.getId(), oldCurrency, amountDifference);
+        } else {
+            paymentAllocationService.onPaymentChanged(oldStudentId, oldCurrency, oldAmount.negate());
+            paymentAllocationService.onPaymentChanged(student.getId(), updatedPayment.getCurrency(), updatedPayment.getAmount());
+        }
+        monthlyRollupService.updatePayment(oldPaymentDate, oldCurrency, oldAmount,
+                updatedPayment.getPaymentDate(), updatedPayment.getCurrency(), updatedPayment.getAmount());
 
         return paymentMapper.toPaymentDto(updatedPayment);
     }
@@ -100,7 +137,10 @@ public class PaymentService {
         paymentRepository.deleteById(id);
         // Record a negative transaction for deleted payment
         balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_DELETED,
-                payment.getCurrency(), TransactionSource.PAYMENT, payment.getAmount().negate(), payment.getId());
+                payment.getCurrency(), TransactionSource.PAYMENT, payment.getAmount().negate(), payment.getId(),
+                LedgerEntry.SINGLE_OPERATION);
+        paymentAllocationService.onPaymentChanged(student.getId(), payment.getCurrency(), payment.getAmount().negate());
+        monthlyRollupService.addPayment(payment.getPaymentDate(), payment.getCurrency(), payment.getAmount().negate());
 
         log.info("Payment with ID {} deleted successfully.", id);
     }
@@ -12,7 +12,9 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Controller
@@ -24,8 +26,29 @@ public class PaymentViewController {
     private final StudentService studentService;
 
     @GetMapping("/list")
-    public String listPayments(Model model) {
-        model.addAttribute("payments", paymentService.getAllPayments());
+    public String listPayments(@RequestParam(value = "startDate", required = false) LocalDate startDate,
+                               @RequestParam(value = "endDate", required = false) LocalDate endDate,
+                               @RequestParam(value = "studentId", required = false) Long studentId,
+                               @RequestParam(value = "paymentMethod", required = false) PaymentMethod paymentMethod,
+                               @RequestParam(value = "currency", required = false) Currency currency,
+                               @RequestParam(value = "beforeDate", required = false) LocalDate beforeDate,
+                               @RequestParam(value = "beforeId", required = false) Long beforeId,
+                               @RequestParam(value = "size", defaultValue = "${app.payments.page-size:50}") int size,
+                               Model model) {
+        PaymentListFilter filter = new PaymentListFilter(startDate, endDate, studentId, paymentMethod, currency);
+        PaymentListPage page = paymentService.getPaymentPage(filter, beforeDate, beforeId, size);
+        model.addAttribute("payments", page.payments());
+        model.addAttribute("page", page);
+        model.addAttribute("firstPage", beforeDate == null);
+        model.addAttribute("startDate", startDate);
+        model.addAttribute("endDate", endDate);
+        model.addAttribute("studentId", studentId);
+        model.addAttribute("paymentMethod", paymentMethod);
+        model.addAttribute("currency", currency);
+        model.addAttribute("size", size);
+        model.addAttribute("students", studentService.getAllStudentsIncludingInactive());
+        model.addAttribute("paymentMethods", PaymentMethod.values());
+        model.addAttribute("currencies", Currency.values());
         return "payment/list-payments";
     }
 
@@ -0,0 +1,10 @@
+package com.art.tutordesk.perf;
+
+public record EndpointTimingStats(String endpoint,
+                                  int count,
+                                  double p50Millis,
+                                  double p95Millis,
+                                  double p99Millis,
+                                  double maxMillis,
+                                  double avgQueryCount) {
+}
@@ -0,0 +1,255 @@
+package com.art.tutordesk.perf;
+
+import com.art.tutordesk.balance.TransactionSource;
+import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentMethod;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk-seeds a synthetic dataset into an empty database when the application runs with the {@code perf} profile.
+ * Logic:
+ * 1. Students, lessons with their students and payments are generated from a fixed seed, so every run is identical.
+ * 2. Every row is written with JDBC batch inserts and an explicit ID, together with its balance_transactions entry.
+ * 3. The student_balances snapshot is summed from the ledger; the identity columns and the ID sequences are moved
+ * past the seeded IDs.
+ * Runs before the other startup runners, so payment allocations are initialised from the seeded history.
+ */
+@Slf4j
+@Component
+@Profile("perf")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PerfDataSeeder implements ApplicationRunner {
+
+    private static final long RANDOM_SEED = 20260516L;
+    private static final int HISTORY_DAYS = 730;
+    private static final int FUTURE_DAYS = 30;
+    // allocationSize of the entity sequence generators
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_STUDENT = """
+            INSERT INTO students (id, first_name, last_name, knowledge_level, age, price_individual, price_group,
+                                  currency, active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_LESSON = "INSERT INTO lessons (id, lesson_date) VALUES (?, ?)";
+    private static final String INSERT_LESSON_STUDENT = """
+            INSERT INTO lesson_student (id, lesson_id, student_id, price, currency, status, charge_version)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_PAYMENT = """
+            INSERT INTO payments (id, payment_date, student_id, payment_method, amount, currency, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    // Every seeded entry is the first operation of its source
+    private static final String INSERT_TRANSACTION = """
+            INSERT INTO balance_transactions (id, student_id, transaction_datetime, type, amount, currency, source_entity, source_id,
+                                              operation_seq)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1)
+            """;
+    private static final String INSERT_BALANCES = """
+            INSERT INTO student_balances (student_id, currency, balance, updated_at)
+            SELECT bt.student_id, bt.currency, SUM(bt.amount), CURRENT_TIMESTAMP
+            FROM balance_transactions bt
+            GROUP BY bt.student_id, bt.currency
+            """;
+
+    private static final String[] KNOWLEDGE_LEVELS = {"A1", "A2", "B1", "B2", "C1", "C2"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int studentCount;
+    private final int lessonCount;
+    private final int paymentCount;
+    private final int batchSize;
+
+    public PerfDataSeeder(JdbcTemplate jdbcTemplate,
+                          @Value("${app.perf.seed.students:5000}") int studentCount,
+                          @Value("${app.perf.seed.lessons:500000}") int lessonCount,
+                          @Value("${app.perf.seed.payments:200000}") int paymentCount,
+                          @Value("${app.perf.seed.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.studentCount = studentCount;
+        this.lessonCount = lessonCount;
+        this.paymentCount = paymentCount;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existingStudents = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Long.class);
+        if (existingStudents != null && existingStudents > 0) {
+            log.info("Skipping perf data seeding, the database already contains {} students", existingStudents);
+            return;
+        }
+        log.info("Seeding perf dataset: {} students, {} lessons, {} payments (batch size {})",
+                studentCount, lessonCount, paymentCount, batchSize);
+        long startedAt = System.currentTimeMillis();
+
+        Random random = new Random(RANDOM_SEED);
+        LocalDate today = LocalDate.now();
+        LedgerIds ids = new LedgerIds();
+
+        SeededStudent[] students = seedStudents(random, today, ids);
+        seedLessons(random, today, students, ids);
+        seedPayments(random, today, students, ids);
+        jdbcTemplate.update(INSERT_BALANCES);
+
+        restartIds("students", studentCount);
+        restartIds("lessons", lessonCount);
+        restartIds("lesson_student", ids.lessonStudent);
+        restartIds("payments", paymentCount);
+        restartIds("balance_transactions", ids.transaction);
+
+        log.info("Perf dataset seeded in {} ms: {} lesson students, {} ledger entries",
+                System.currentTimeMillis() - startedAt, ids.lessonStudent, ids.transaction);
+    }
+
+    private SeededStudent[] seedStudents(Random random, LocalDate today, LedgerIds ids) {
+        SeededStudent[] students = new SeededStudent[studentCount];
+        LocalDateTime createdAt = today.minusDays(HISTORY_DAYS).atStartOfDay();
+        List<Object[]> studentRows = new ArrayList<>(batchSize);
+        List<Object[]> transactionRows = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < studentCount; i++) {
+            long id = i + 1L;
+            BigDecimal priceIndividual = BigDecimal.valueOf(20 + 5L * random.nextInt(7));
+            BigDecimal priceGroup = priceIndividual.subtract(BigDecimal.valueOf(5));
+            Currency currency = Currency.values()[random.nextInt(Currency.values().length)];
+            students[i] = new SeededStudent(id, priceIndividual, priceGroup, currency);
+
+            studentRows.add(new Object[]{id, "Student", "Perf" + id, KNOWLEDGE_LEVELS[random.nextInt(KNOWLEDGE_LEVELS.length)],
+                    16 + random.nextInt(50), priceIndividual, priceGroup, currency.name(), random.nextInt(20) != 0,
+                    createdAt, createdAt});
+            transactionRows.add(transaction(ids, id, createdAt, TransactionType.STUDENT_CREATED, BigDecimal.ZERO,
+                    currency, TransactionSource.STUDENT, id));
+
+            if (studentRows.size() == batchSize) {
+                flush(INSERT_STUDENT, studentRows);
+                flush(INSERT_TRANSACTION, transactionRows);
+            }
+        }
+        flush(INSERT_STUDENT, studentRows);
+        flush(INSERT_TRANSACTION, transactionRows);
+        return students;
+    }
+
+    // About one lesson in six is a group lesson of two or three students
+    private void seedLessons(Random random, LocalDate today, SeededStudent[] students, LedgerIds ids) {
+        List<Object[]> lessonRows = new ArrayList<>(batchSize);
+        List<Object[]> lessonStudentRows = new ArrayList<>();
+        List<Object[]> transactionRows = new ArrayList<>();
+
+        for (int i = 0; i < lessonCount; i++) {
+            long lessonId = i + 1L;
+            LocalDate lessonDate = today.minusDays(HISTORY_DAYS).plusDays(random.nextInt(HISTORY_DAYS + FUTURE_DAYS));
+            lessonRows.add(new Object[]{lessonId, lessonDate});
+
+            int groupSize = random.nextInt(6) == 0 ? Math.min(2 + random.nextInt(2), students.length) : 1;
+            int first = random.nextInt(students.length);
+            for (int k = 0; k < groupSize; k++) {
+                SeededStudent student = students[(first + k) % students.length];
+                BigDecimal price = groupSize > 1 ? student.priceGroup() : student.priceIndividual();
+                LessonStudentStatus status = lessonDate.isAfter(today) ? LessonStudentStatus.SCHEDULED : pastStatus(random);
+                boolean chargeable = status == LessonStudentStatus.COMPLETED || status == LessonStudentStatus.NOT_ATTENDED;
+                long lessonStudentId = ++ids.lessonStudent;
+                lessonStudentRows.add(new Object[]{lessonStudentId, lessonId, student.id(), price,
+                        student.currency().name(), status.name(), chargeable ? 1 : 0});
+
+                if (chargeable) {
+                    transactionRows.add(transaction(ids, student.id(), lessonDate.atTime(12, 0), TransactionType.LESSON_CHARGE,
+                            price.negate(), student.currency(), TransactionSource.LESSON, lessonStudentId));
+                }
+            }
+
+            if (lessonRows.size() == batchSize) {
+                flush(INSERT_LESSON, lessonRows);
+                flush(INSERT_LESSON_STUDENT, lessonStudentRows);
+                flush(INSERT_TRANSACTION, transactionRows);
+            }
+        }
+        flush(INSERT_LESSON, lessonRows);
+        flush(INSERT_LESSON_STUDENT, lessonStudentRows);
+        flush(INSERT_TRANSACTION, transactionRows);
+    }
+
+    private void seedPayments(Random random, LocalDate today, SeededStudent[] students, LedgerIds ids) {
+        List<Object[]> paymentRows = new ArrayList<>(batchSize);
+        List<Object[]> transactionRows = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < paymentCount; i++) {
+            long paymentId = i + 1L;
+            SeededStudent student = students[random.nextInt(students.length)];
+            BigDecimal amount = student.priceIndividual().multiply(BigDecimal.valueOf(1 + random.nextInt(8)));
+            LocalDate paymentDate = today.minusDays(random.nextInt(HISTORY_DAYS));
+            LocalDateTime createdAt = paymentDate.atTime(9, 0);
+            PaymentMethod method = PaymentMethod.values()[random.nextInt(PaymentMethod.values().length)];
+
+            paymentRows.add(new Object[]{paymentId, paymentDate, student.id(), method.name(), amount,
+                    student.currency().name(), createdAt, createdAt});
+            transactionRows.add(transaction(ids, student.id(), createdAt, TransactionType.PAYMENT_RECEIVED, amount,
+                    student.currency(), TransactionSource.PAYMENT, paymentId));
+
+            if (paymentRows.size() == batchSize) {
+                flush(INSERT_PAYMENT, paymentRows);
+                flush(INSERT_TRANSACTION, transactionRows);
+            }
+        }
+        flush(INSERT_PAYMENT, paymentRows);
+        flush(INSERT_TRANSACTION, transactionRows);
+    }
+
+    private LessonStudentStatus pastStatus(Random random) {
+        int roll = random.nextInt(20);
+        if (roll < 16) {
+            return LessonStudentStatus.COMPLETED;
+        }
+        if (roll < 18) {
+            return LessonStudentStatus.CANCELED;
+        }
+        return roll == 18 ? LessonStudentStatus.NOT_ATTENDED : LessonStudentStatus.SCHEDULED;
+    }
+
+    private Object[] transaction(LedgerIds ids, long studentId, LocalDateTime dateTime, TransactionType type,
+                                 BigDecimal amount, Currency currency, TransactionSource source, long sourceId) {
+        return new Object[]{++ids.transaction, studentId, dateTime, type.name(), amount, currency.name(), source.name(), sourceId};
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+    }
+
+    // Hibernate takes the first value of a pooled sequence as the upper end of its block of IDs
+    private void restartIds(String table, long lastId) {
+        jdbcTemplate.execute("ALTER TABLE %s ALTER COLUMN id RESTART WITH %d".formatted(table, lastId + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE %s_seq RESTART WITH %d".formatted(table, lastId + ID_ALLOCATION_SIZE));
+    }
+
+    private record SeededStudent(long id, BigDecimal priceIndividual, BigDecimal priceGroup, Currency currency) {
+    }
+
+    // Running IDs of the tables whose row count is only known once the generation is done
+    private static final class LedgerIds {
+        private long lessonStudent;
+        private long transaction;
+    }
+}
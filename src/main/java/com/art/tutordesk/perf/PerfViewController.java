@@ -0,0 +1,25 @@
+package com.art.tutordesk.perf;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Controller
+@RequestMapping("/admin/perf")
+@RequiredArgsConstructor
+public class PerfViewController {
+
+    static final int SLOWEST_LIMIT = 50;
+
+    private final RequestTimingService requestTimingService;
+
+    @GetMapping
+    public String showTimings(Model model) {
+        model.addAttribute("slowest", requestTimingService.getSlowestRecent(SLOWEST_LIMIT));
+        model.addAttribute("endpoints", requestTimingService.getEndpointStats());
+        model.addAttribute("capacity", requestTimingService.getCapacity());
+        return "admin/perf";
+    }
+}
@@ -0,0 +1,36 @@
+package com.art.tutordesk.perf;
+
+import java.time.Instant;
+
+/**
+ * Where the time of one request went. The service, SQL and view parts do not overlap and add up to the total:
+ * SQL issued while the view renders (lazy loading) counts as SQL, not as view time.
+ */
+public record RequestTiming(Instant startedAt,
+                            String endpoint,
+                            String path,
+                            int status,
+                            int queryCount,
+                            long totalNanos,
+                            long serviceNanos,
+                            long sqlNanos,
+                            long viewNanos) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    public double totalMillis() {
+        return totalNanos / NANOS_PER_MILLI;
+    }
+
+    public double serviceMillis() {
+        return serviceNanos / NANOS_PER_MILLI;
+    }
+
+    public double sqlMillis() {
+        return sqlNanos / NANOS_PER_MILLI;
+    }
+
+    public double viewMillis() {
+        return viewNanos / NANOS_PER_MILLI;
+    }
+}
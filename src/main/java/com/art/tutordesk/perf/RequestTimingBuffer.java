@@ -0,0 +1,50 @@
+package com.art.tutordesk.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the timings of the most recent requests in a fixed-size ring.
+ * Writers claim a slot with one atomic increment and overwrite the oldest entry, so recording never blocks
+ * a request thread. A snapshot may miss an entry that is being overwritten at the same moment, which is fine
+ * for a diagnostics page.
+ */
+public class RequestTimingBuffer {
+
+    private final AtomicReferenceArray<RequestTiming> slots;
+    private final AtomicLong writeCount = new AtomicLong();
+
+    public RequestTimingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Request timing buffer capacity must be positive, got: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void record(RequestTiming timing) {
+        long sequence = writeCount.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), timing);
+    }
+
+    /**
+     * Returns the recorded timings, oldest first.
+     */
+    public List<RequestTiming> snapshot() {
+        long written = writeCount.get();
+        int size = (int) Math.min(written, slots.length());
+        List<RequestTiming> timings = new ArrayList<>(size);
+        for (long sequence = written - size; sequence < written; sequence++) {
+            RequestTiming timing = slots.get((int) (sequence % slots.length()));
+            if (timing != null) {
+                timings.add(timing);
+            }
+        }
+        return timings;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,36 @@
+package com.art.tutordesk.perf;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires the per-request timing shown on /admin/perf. The Hibernate side is registered in application.properties
+ * ({@code hibernate.session.events.auto}), since Hibernate creates its session listeners itself.
+ */
+@Configuration
+public class RequestTimingConfig implements WebMvcConfigurer {
+
+    @Bean
+    public RequestTimingBuffer requestTimingBuffer(@Value("${app.perf.timing.capacity:2000}") int capacity) {
+        return new RequestTimingBuffer(capacity);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(RequestTimingBuffer requestTimingBuffer) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(requestTimingBuffer));
+        // Outermost, so the total includes the security filter chain
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestTimingInterceptor());
+    }
+}
@@ -0,0 +1,77 @@
+package com.art.tutordesk.perf;
+
+/**
+ * Accumulates the timings of the request handled by the current thread.
+ * Started and finished by {@link RequestTimingFilter}; outside a request {@link #current()} is null,
+ * so SQL from startup runners and background jobs is not attributed to anything.
+ */
+final class RequestTimingContext {
+
+    private static final ThreadLocal<RequestTimingContext> CURRENT = new ThreadLocal<>();
+
+    private final long startedNanos = System.nanoTime();
+    private int queryCount;
+    private long sqlNanos;
+    private boolean handled;
+    private long renderStartedNanos;
+    private long sqlNanosAtRenderStart;
+    private long viewNanos;
+
+    static RequestTimingContext start() {
+        RequestTimingContext context = new RequestTimingContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static RequestTimingContext current() {
+        return CURRENT.get();
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    void statementPrepared() {
+        queryCount++;
+    }
+
+    void sqlExecuted(long nanos) {
+        sqlNanos += nanos;
+    }
+
+    // The handler returned and the view is about to render
+    void handlerCompleted() {
+        renderStartedNanos = System.nanoTime();
+        sqlNanosAtRenderStart = sqlNanos;
+    }
+
+    void requestCompleted() {
+        if (renderStartedNanos > 0) {
+            viewNanos = System.nanoTime() - renderStartedNanos - (sqlNanos - sqlNanosAtRenderStart);
+        }
+    }
+
+    void markHandled() {
+        handled = true;
+    }
+
+    boolean isHandled() {
+        return handled;
+    }
+
+    long getStartedNanos() {
+        return startedNanos;
+    }
+
+    int getQueryCount() {
+        return queryCount;
+    }
+
+    long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    long getViewNanos() {
+        return viewNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.art.tutordesk.perf;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Times every request that reaches a controller and records it in the {@link RequestTimingBuffer}.
+ * Logic:
+ * 1. A {@link RequestTimingContext} is opened for the thread; Hibernate adds the SQL time to it
+ * ({@link RequestTimingSessionListener}) and {@link RequestTimingInterceptor} marks where rendering starts.
+ * 2. Once the response is complete, the service time is what remains after SQL and view rendering.
+ * Static resources, security redirects and asynchronous exports are not recorded.
+ */
+@RequiredArgsConstructor
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    private final RequestTimingBuffer requestTimingBuffer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Instant startedAt = Instant.now();
+        RequestTimingContext context = RequestTimingContext.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimingContext.finish();
+            if (context.isHandled() && !request.isAsyncStarted()) {
+                requestTimingBuffer.record(toTiming(context, startedAt, request, response));
+            }
+        }
+    }
+
+    private RequestTiming toTiming(RequestTimingContext context, Instant startedAt,
+                                   HttpServletRequest request, HttpServletResponse response) {
+        long totalNanos = System.nanoTime() - context.getStartedNanos();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        long serviceNanos = Math.max(0, totalNanos - context.getSqlNanos() - context.getViewNanos());
+        return new RequestTiming(startedAt, endpoint, request.getRequestURI(), response.getStatus(),
+                context.getQueryCount(), totalNanos, serviceNanos, context.getSqlNanos(), context.getViewNanos());
+    }
+}
@@ -0,0 +1,40 @@
+package com.art.tutordesk.perf;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Splits the handler from the view rendering for {@link RequestTimingFilter}:
+ * postHandle runs after the controller returned, afterCompletion after the view was rendered.
+ */
+class RequestTimingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimingContext context = RequestTimingContext.current();
+        if (context != null && handler instanceof HandlerMethod) {
+            context.markHandled();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        RequestTimingContext context = RequestTimingContext.current();
+        if (context != null) {
+            context.handlerCompleted();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTimingContext context = RequestTimingContext.current();
+        if (context != null) {
+            context.requestCompleted();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.art.tutordesk.perf;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RequestTimingService {
+
+    private final RequestTimingBuffer requestTimingBuffer;
+
+    public List<RequestTiming> getSlowestRecent(int limit) {
+        return requestTimingBuffer.snapshot().stream()
+                .sorted(Comparator.comparingLong(RequestTiming::totalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Summarises the recent requests per endpoint, slowest p95 first.
+     * Percentiles use the nearest-rank method over the requests still in the buffer.
+     */
+    public List<EndpointTimingStats> getEndpointStats() {
+        Map<String, List<RequestTiming>> byEndpoint = requestTimingBuffer.snapshot().stream()
+                .collect(Collectors.groupingBy(RequestTiming::endpoint));
+        return byEndpoint.entrySet().stream()
+                .map(entry -> toStats(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(EndpointTimingStats::p95Millis).reversed())
+                .toList();
+    }
+
+    public int getCapacity() {
+        return requestTimingBuffer.capacity();
+    }
+
+    private EndpointTimingStats toStats(String endpoint, List<RequestTiming> timings) {
+        double[] totals = timings.stream().mapToDouble(RequestTiming::totalMillis).sorted().toArray();
+        double avgQueryCount = timings.stream().mapToInt(RequestTiming::queryCount).average().orElse(0);
+        return new EndpointTimingStats(endpoint, totals.length, percentile(totals, 50), percentile(totals, 95),
+                percentile(totals, 99), Arrays.stream(totals).max().orElse(0), avgQueryCount);
+    }
+
+    static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100d * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
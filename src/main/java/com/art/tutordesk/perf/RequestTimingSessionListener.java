@@ -0,0 +1,48 @@
+package com.art.tutordesk.perf;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the statements and JDBC execution time of every Hibernate session to the current request's timings.
+ * Registered for all sessions with {@code hibernate.session.events.auto}, so Hibernate instantiates it
+ * (one instance per session) and it must stay public with a no-arg constructor.
+ */
+public class RequestTimingSessionListener implements SessionEventListener {
+
+    private long executionStartedNanos;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        RequestTimingContext context = RequestTimingContext.current();
+        if (context != null) {
+            context.statementPrepared();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStartedNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executionEnded();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStartedNanos = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executionEnded();
+    }
+
+    private void executionEnded() {
+        RequestTimingContext context = RequestTimingContext.current();
+        if (context != null) {
+            context.sqlExecuted(System.nanoTime() - executionStartedNanos);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.art.tutordesk.report;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Embeddable
+@NoArgsConstructor
+public class CurrencyTotals {
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal paymentTotal = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal chargeTotal = BigDecimal.ZERO;
+}
@@ -0,0 +1,27 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.service.PaymentStatusService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Loads the full lesson and payment history of the students and applies PaymentStatusUtil in the JVM.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = LessonPaymentStatusStrategy.PROPERTY, havingValue = "java", matchIfMissing = true)
+public class JavaLessonPaymentStatusStrategy implements LessonPaymentStatusStrategy {
+
+    private final PaymentStatusService paymentStatusService;
+
+    @Override
+    public Map<Long, PaymentStatus> getPaymentStatuses(Collection<Long> studentIds, LocalDate startDate, LocalDate endDate) {
+        return paymentStatusService.getPaymentStatuses(studentIds);
+    }
+}
@@ -0,0 +1,22 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.PaymentStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Resolves payment statuses of report lessons.
+ * Selected with {@code app.reports.payment-status-strategy}: {@code java} (default) or {@code native}.
+ */
+public interface LessonPaymentStatusStrategy {
+
+    String PROPERTY = "app.reports.payment-status-strategy";
+
+    /**
+     * Returns the payment status of the chargeable lessons of the given students, keyed by LessonStudent ID.
+     * Every lesson dated within the window is present; statuses of lessons outside of it may be included as well.
+     */
+    Map<Long, PaymentStatus> getPaymentStatuses(Collection<Long> studentIds, LocalDate startDate, LocalDate endDate);
+}
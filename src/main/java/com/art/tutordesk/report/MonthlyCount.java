@@ -0,0 +1,4 @@
+package com.art.tutordesk.report;
+
+public record MonthlyCount(Integer year, Integer month, Long count) {
+}
@@ -0,0 +1,8 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+
+public record MonthlyCurrencyTotal(Integer year, Integer month, Currency currency, BigDecimal total) {
+}
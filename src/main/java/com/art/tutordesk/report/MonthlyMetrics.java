@@ -0,0 +1,13 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+public record MonthlyMetrics(YearMonth month,
+                             long lessonCount,
+                             Map<Currency, BigDecimal> payments,
+                             Map<Currency, BigDecimal> charges) {
+}
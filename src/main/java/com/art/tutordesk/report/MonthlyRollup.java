@@ -0,0 +1,55 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.payment.Currency;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.MapKeyEnumerated;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of a calendar month: the number of lessons, and the payments received and lesson charges
+ * per currency. It is kept in sync by {@link MonthlyRollupService} so that the dashboard metrics are a single
+ * primary key lookup instead of a scan over the month's lessons and payments.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "monthly_rollups")
+public class MonthlyRollup {
+
+    // The first day of the month
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private long lessonCount;
+
+    @ElementCollection
+    @CollectionTable(name = "monthly_rollup_currencies", joinColumns = @JoinColumn(name = "month_start"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "currency", length = 10)
+    private Map<Currency, CurrencyTotals> currencyTotals = new HashMap<>();
+
+    public MonthlyRollup(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public CurrencyTotals totalsFor(Currency currency) {
+        return currencyTotals.computeIfAbsent(currency, key -> new CurrencyTotals());
+    }
+}
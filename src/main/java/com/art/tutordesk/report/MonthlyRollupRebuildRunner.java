@@ -0,0 +1,33 @@
+package com.art.tutordesk.report;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Initialises the monthly rollups on the first start after the rollup tables were introduced,
+ * or rebuilds them when the application is launched with {@code --rebuild-rollups}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MonthlyRollupRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-rollups";
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final MonthlyRollupService monthlyRollupService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            log.info("Rebuilding monthly rollups as requested by --{}", REBUILD_OPTION);
+            monthlyRollupService.rebuildAll();
+        } else if (monthlyRollupRepository.count() == 0) {
+            log.info("No monthly rollups found, initialising them from lesson and payment history");
+            monthlyRollupService.rebuildAll();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, LocalDate> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM MonthlyRollup r WHERE r.monthStart = :monthStart")
+    Optional<MonthlyRollup> findByIdForUpdate(@Param("monthStart") LocalDate monthStart);
+
+    // An uncommitted insert of the same month makes this one wait for it and then insert nothing
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO monthly_rollups (month_start, lesson_count)
+            VALUES (:monthStart, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("monthStart") LocalDate monthStart);
+
+    @Query("SELECT r FROM MonthlyRollup r LEFT JOIN FETCH r.currencyTotals WHERE r.monthStart = :monthStart")
+    Optional<MonthlyRollup> findWithTotals(@Param("monthStart") LocalDate monthStart);
+
+    @Query("""
+            SELECT new com.art.tutordesk.report.MonthlyCount(YEAR(l.lessonDate), MONTH(l.lessonDate), COUNT(l))
+            FROM Lesson l
+            GROUP BY YEAR(l.lessonDate), MONTH(l.lessonDate)
+            """)
+    List<MonthlyCount> countLessonsByMonth();
+
+    @Query("""
+            SELECT new com.art.tutordesk.report.MonthlyCurrencyTotal(YEAR(p.paymentDate), MONTH(p.paymentDate), p.currency, SUM(p.amount))
+            FROM Payment p
+            GROUP BY YEAR(p.paymentDate), MONTH(p.paymentDate), p.currency
+            """)
+    List<MonthlyCurrencyTotal> sumPaymentsByMonth();
+
+    @Query("""
+            SELECT new com.art.tutordesk.report.MonthlyCurrencyTotal(YEAR(l.lessonDate), MONTH(l.lessonDate), ls.currency, SUM(ls.price))
+            FROM LessonStudent ls JOIN ls.lesson l
+            WHERE ls.status IN :statuses
+            GROUP BY YEAR(l.lessonDate), MONTH(l.lessonDate), ls.currency
+            """)
+    List<MonthlyCurrencyTotal> sumChargesByMonth(@Param("statuses") Collection<LessonStudentStatus> statuses);
+
+    @Query("""
+            SELECT new com.art.tutordesk.report.MonthlyCurrencyTotal(YEAR(p.paymentDate), MONTH(p.paymentDate), p.currency, SUM(p.amount))
+            FROM Payment p
+            WHERE p.student.id = :studentId
+            GROUP BY YEAR(p.paymentDate), MONTH(p.paymentDate), p.currency
+            """)
+    List<MonthlyCurrencyTotal> sumPaymentsByMonthOfStudent(@Param("studentId") Long studentId);
+
+    @Query("""
+            SELECT new com.art.tutordesk.report.MonthlyCurrencyTotal(YEAR(l.lessonDate), MONTH(l.lessonDate), ls.currency, SUM(ls.price))
+            FROM LessonStudent ls JOIN ls.lesson l
+            WHERE ls.student.id = :studentId AND ls.status IN :statuses
+            GROUP BY YEAR(l.lessonDate), MONTH(l.lessonDate), ls.currency
+            """)
+    List<MonthlyCurrencyTotal> sumChargesByMonthOfStudent(@Param("studentId") Long studentId,
+                                                          @Param("statuses") Collection<LessonStudentStatus> statuses);
+}
@@ -0,0 +1,242 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.payment.Currency;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonthlyRollupService {
+
+    static final Set<LessonStudentStatus> CHARGEABLE_STATUSES = EnumSet.of(LessonStudentStatus.COMPLETED, LessonStudentStatus.NOT_ATTENDED);
+
+    private final MonthlyRollupRepository monthlyRollupRepository;
+
+    /**
+     * Reads the metrics of a month with one primary key lookup.
+     * Currencies without payments (or without charges) are left out of the respective map.
+     */
+    @Transactional(readOnly = true)
+    public MonthlyMetrics getMonthlyMetrics(YearMonth month) {
+        Map<Currency, BigDecimal> payments = new EnumMap<>(Currency.class);
+        Map<Currency, BigDecimal> charges = new EnumMap<>(Currency.class);
+        long lessonCount = monthlyRollupRepository.findWithTotals(month.atDay(1))
+                .map(rollup -> {
+                    rollup.getCurrencyTotals().forEach((currency, totals) -> {
+                        putIfNonZero(payments, currency, totals.getPaymentTotal());
+                        putIfNonZero(charges, currency, totals.getChargeTotal());
+                    });
+                    return rollup.getLessonCount();
+                })
+                .orElse(0L);
+        log.debug("Metrics of {}: {} lessons, payments {}, charges {}", month, lessonCount, payments, charges);
+        return new MonthlyMetrics(month, lessonCount, payments, charges);
+    }
+
+    /**
+     * Sums the prices of the chargeable (COMPLETED/NOT_ATTENDED) lesson students per currency.
+     */
+    public static Map<Currency, BigDecimal> chargesOf(Collection<LessonStudent> lessonStudents) {
+        Map<Currency, BigDecimal> charges = new EnumMap<>(Currency.class);
+        lessonStudents.stream()
+                .filter(ls -> CHARGEABLE_STATUSES.contains(ls.getStatus()))
+                .forEach(ls -> charges.merge(ls.getCurrency(), ls.getPrice(), BigDecimal::add));
+        return charges;
+    }
+
+    @Transactional
+    public void addLesson(LocalDate lessonDate, Map<Currency, BigDecimal> charges) {
+        apply(new RollupChanges().lessons(lessonDate, 1).charges(lessonDate, charges, false));
+    }
+
+    @Transactional
+    public void addLessons(Collection<LocalDate> lessonDates) {
+        RollupChanges changes = new RollupChanges();
+        lessonDates.forEach(lessonDate -> changes.lessons(lessonDate, 1));
+        apply(changes);
+    }
+
+    @Transactional
+    public void removeLesson(LocalDate lessonDate, Map<Currency, BigDecimal> charges) {
+        apply(new RollupChanges().lessons(lessonDate, -1).charges(lessonDate, charges, true));
+    }
+
+    /**
+     * Moves a lesson and its charges from the state before an edit to the state after it.
+     * Within the same month only the difference of the charges is applied.
+     */
+    @Transactional
+    public void updateLesson(LocalDate oldDate, Map<Currency, BigDecimal> oldCharges,
+                             LocalDate newDate, Map<Currency, BigDecimal> newCharges) {
+        apply(new RollupChanges()
+                .lessons(oldDate, -1).charges(oldDate, oldCharges, true)
+                .lessons(newDate, 1).charges(newDate, newCharges, false));
+    }
+
+    @Transactional
+    public void updateCharges(LocalDate lessonDate, Map<Currency, BigDecimal> oldCharges, Map<Currency, BigDecimal> newCharges) {
+        apply(new RollupChanges().charges(lessonDate, oldCharges, true).charges(lessonDate, newCharges, false));
+    }
+
+    @Transactional
+    public void addPayment(LocalDate paymentDate, Currency currency, BigDecimal amount) {
+        apply(new RollupChanges().payment(paymentDate, currency, amount));
+    }
+
+    @Transactional
+    public void updatePayment(LocalDate oldDate, Currency oldCurrency, BigDecimal oldAmount,
+                              LocalDate newDate, Currency newCurrency, BigDecimal newAmount) {
+        apply(new RollupChanges()
+                .payment(oldDate, oldCurrency, oldAmount.negate())
+                .payment(newDate, newCurrency, newAmount));
+    }
+
+    /**
+     * Takes the payments and charges of a student out of the rollups before the student's records are deleted in bulk.
+     */
+    @Transactional
+    public void removeStudent(Long studentId) {
+        RollupChanges changes = new RollupChanges();
+        monthlyRollupRepository.sumPaymentsByMonthOfStudent(studentId).forEach(total ->
+                changes.payment(monthStart(total), total.currency(), total.total().negate()));
+        monthlyRollupRepository.sumChargesByMonthOfStudent(studentId, CHARGEABLE_STATUSES).forEach(total ->
+                changes.charges(monthStart(total), Map.of(total.currency(), total.total()), true));
+        apply(changes);
+        log.info("Payments and charges of student {} removed from the monthly rollups.", studentId);
+    }
+
+    /**
+     * Recomputes every monthly rollup from the lessons, lesson students and payments.
+     * Logic:
+     * 1. All existing rollups are reset to zero.
+     * 2. The lesson counts, payment totals and charge totals are aggregated per month with one query each.
+     * Returns the number of months that have a rollup.
+     */
+    @Transactional
+    public int rebuildAll() {
+        Map<LocalDate, MonthlyRollup> rollups = monthlyRollupRepository.findAll().stream()
+                .collect(Collectors.toMap(MonthlyRollup::getMonthStart, Function.identity()));
+        rollups.values().forEach(rollup -> {
+            rollup.setLessonCount(0);
+            rollup.getCurrencyTotals().clear();
+        });
+        Function<LocalDate, MonthlyRollup> rollupOf = monthStart -> rollups.computeIfAbsent(monthStart, MonthlyRollup::new);
+
+        monthlyRollupRepository.countLessonsByMonth().forEach(count ->
+                rollupOf.apply(LocalDate.of(count.year(), count.month(), 1)).setLessonCount(count.count()));
+        monthlyRollupRepository.sumPaymentsByMonth().forEach(total ->
+                rollupOf.apply(monthStart(total)).totalsFor(total.currency()).setPaymentTotal(total.total()));
+        monthlyRollupRepository.sumChargesByMonth(CHARGEABLE_STATUSES).forEach(total ->
+                rollupOf.apply(monthStart(total)).totalsFor(total.currency()).setChargeTotal(total.total()));
+
+        monthlyRollupRepository.saveAll(rollups.values());
+        log.info("Monthly rollups rebuilt for {} months.", rollups.size());
+        return rollups.size();
+    }
+
+    /**
+     * Applies the collected changes to their month rows.
+     * Logic:
+     * 1. A missing month row is inserted with ON CONFLICT DO NOTHING, so concurrent first writes of a month cannot
+     *    collide on the primary key.
+     * 2. The row is then locked; month rows are locked in month order, so concurrent writers touching two months
+     *    cannot deadlock.
+     */
+    private void apply(RollupChanges changes) {
+        changes.months.forEach((monthStart, change) -> {
+            if (change.isEmpty()) {
+                return;
+            }
+            monthlyRollupRepository.insertIfAbsent(monthStart);
+            MonthlyRollup rollup = monthlyRollupRepository.findByIdForUpdate(monthStart)
+                    .orElseThrow(() -> new IllegalStateException("Monthly rollup not found: " + monthStart));
+            rollup.setLessonCount(rollup.getLessonCount() + change.lessons);
+            change.payments.forEach((currency, amount) -> {
+                CurrencyTotals totals = rollup.totalsFor(currency);
+                totals.setPaymentTotal(totals.getPaymentTotal().add(amount));
+            });
+            change.charges.forEach((currency, amount) -> {
+                CurrencyTotals totals = rollup.totalsFor(currency);
+                totals.setChargeTotal(totals.getChargeTotal().add(amount));
+            });
+            monthlyRollupRepository.save(rollup);
+            log.debug("Monthly rollup {} changed: lessons {}, payments {}, charges {}",
+                    monthStart, change.lessons, change.payments, change.charges);
+        });
+    }
+
+    private static LocalDate monthStart(MonthlyCurrencyTotal total) {
+        return LocalDate.of(total.year(), total.month(), 1);
+    }
+
+    private static void putIfNonZero(Map<Currency, BigDecimal> target, Currency currency, BigDecimal amount) {
+        if (amount.signum() != 0) {
+            target.put(currency, amount);
+        }
+    }
+
+    /**
+     * Collects the changes of one write per month, so that each month row is read and locked once.
+     */
+    private static final class RollupChanges {
+
+        private final Map<LocalDate, MonthChange> months = new TreeMap<>();
+
+        RollupChanges lessons(LocalDate date, long delta) {
+            monthOf(date).lessons += delta;
+            return this;
+        }
+
+        RollupChanges payment(LocalDate date, Currency currency, BigDecimal amount) {
+            add(monthOf(date).payments, currency, amount);
+            return this;
+        }
+
+        RollupChanges charges(LocalDate date, Map<Currency, BigDecimal> charges, boolean negate) {
+            MonthChange change = monthOf(date);
+            charges.forEach((currency, amount) -> add(change.charges, currency, negate ? amount.negate() : amount));
+            return this;
+        }
+
+        private MonthChange monthOf(LocalDate date) {
+            return months.computeIfAbsent(date.withDayOfMonth(1), key -> new MonthChange());
+        }
+
+        private static void add(Map<Currency, BigDecimal> target, Currency currency, BigDecimal amount) {
+            BigDecimal sum = target.getOrDefault(currency, BigDecimal.ZERO).add(amount);
+            if (sum.signum() == 0) {
+                target.remove(currency);
+            } else {
+                target.put(currency, sum);
+            }
+        }
+    }
+
+    private static final class MonthChange {
+
+        private long lessons;
+        private final Map<Currency, BigDecimal> payments = new EnumMap<>(Currency.class);
+        private final Map<Currency, BigDecimal> charges = new EnumMap<>(Currency.class);
+
+        boolean isEmpty() {
+            return lessons == 0 && payments.isEmpty() && charges.isEmpty();
+        }
+    }
+}
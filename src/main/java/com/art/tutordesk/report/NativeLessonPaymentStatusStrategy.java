@@ -0,0 +1,59 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.repository.LessonPaymentStatusView;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.lesson.service.PaymentStatusService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves statuses inside the database with a running sum of the charges against the total paid and only returns
+ * lessons dated within the window. Students with a charge in the window the running sum cannot decide are resolved
+ * from their full history in the JVM instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = LessonPaymentStatusStrategy.PROPERTY, havingValue = "native")
+public class NativeLessonPaymentStatusStrategy implements LessonPaymentStatusStrategy {
+
+    private final LessonStudentRepository lessonStudentRepository;
+    private final PaymentStatusService paymentStatusService;
+
+    @Override
+    public Map<Long, PaymentStatus> getPaymentStatuses(Collection<Long> studentIds, LocalDate startDate, LocalDate endDate) {
+        if (CollectionUtils.isEmpty(studentIds)) {
+            return Map.of();
+        }
+        List<LessonPaymentStatusView> rows = lessonStudentRepository.findPaymentStatusesInWindow(studentIds, startDate, endDate);
+
+        Map<Long, PaymentStatus> statuses = new HashMap<>();
+        Set<Long> undecidedStudentIds = new HashSet<>();
+        for (LessonPaymentStatusView row : rows) {
+            if (row.getPaymentStatus() == null) {
+                undecidedStudentIds.add(row.getStudentId());
+            } else {
+                statuses.put(row.getLessonStudentId(), PaymentStatus.valueOf(row.getPaymentStatus()));
+            }
+        }
+        if (!undecidedStudentIds.isEmpty()) {
+            log.debug("{} students have a cheaper charge after an unpaid one, resolving their statuses from the full history.",
+                    undecidedStudentIds.size());
+            statuses.putAll(paymentStatusService.getPaymentStatuses(undecidedStudentIds));
+        }
+        log.debug("Resolved {} lesson payment statuses in the database for {} students.", rows.size(), studentIds.size());
+        return statuses;
+    }
+}
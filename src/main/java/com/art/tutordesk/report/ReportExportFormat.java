@@ -0,0 +1,32 @@
+package com.art.tutordesk.report;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Getter
+@RequiredArgsConstructor
+public enum ReportExportFormat {
+    CSV(false),
+    // Excel only detects UTF-8 in CSV files that start with a byte order mark
+    EXCEL(true);
+
+    private final boolean byteOrderMark;
+
+    public static Optional<ReportExportFormat> fromParameter(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equalsIgnoreCase(value.trim()))
+                .findFirst();
+    }
+
+    // Accepted values of the format parameter, e.g. "csv, excel"
+    public static String parameterValues() {
+        return Arrays.stream(values())
+                .map(format -> format.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,165 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.StringEscapeUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportExportService {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final List<String> HEADER = List.of("Date", "Student", "Type", "Currency", "Amount", "Payment Status");
+    // Leading characters that make Excel evaluate a cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private final LessonStudentRepository lessonStudentRepository;
+    private final PaymentRepository paymentRepository;
+    private final LessonPaymentStatusStrategy lessonPaymentStatusStrategy;
+
+    /**
+     * Writes the report as CSV and returns the number of data rows.
+     * Logic:
+     * 1. Payment statuses of the lessons are resolved up front by the configured LessonPaymentStatusStrategy,
+     *    the same as in the generated report.
+     * 2. Lessons and payments are read as two date-ordered database cursors and merged row by row,
+     *    so apart from the statuses memory use does not depend on the size of the report.
+     * In the EXCEL format, cells that Excel would evaluate as a formula are written as text.
+     */
+    @Transactional(readOnly = true)
+    public long exportReport(LocalDate startDate, LocalDate endDate, List<Long> studentIds, boolean includeLessons,
+                             boolean includePayments, ReportExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting {} report from {} to {} for students {}. Include lessons: {}, include payments: {}",
+                format, startDate, endDate, studentIds, includeLessons, includePayments);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format.isByteOrderMark()) {
+            writer.write('\uFEFF');
+        }
+        writeRow(writer, HEADER, format);
+
+        Map<Long, PaymentStatus> lessonPaymentStatuses = includeLessons ?
+                getLessonPaymentStatuses(startDate, endDate, studentIds) :
+                Collections.emptyMap();
+
+        long rows = 0;
+        try (Stream<ReportItemDto> lessons = includeLessons ?
+                lessonStudentRepository.streamReportLessons(startDate, endDate, studentIds)
+                        .map(row -> toReportItem(row, lessonPaymentStatuses)) :
+                Stream.empty();
+             Stream<ReportItemDto> payments = includePayments ?
+                     paymentRepository.streamReportPayments(startDate, endDate, studentIds).map(this::toReportItem) :
+                     Stream.empty()) {
+
+            Iterator<ReportItemDto> lessonIterator = lessons.iterator();
+            Iterator<ReportItemDto> paymentIterator = payments.iterator();
+            ReportItemDto nextLesson = next(lessonIterator);
+            ReportItemDto nextPayment = next(paymentIterator);
+
+            while (nextLesson != null || nextPayment != null) {
+                // On the same date lessons come first, as in the generated report
+                if (nextPayment == null || (nextLesson != null && !nextLesson.getDate().isAfter(nextPayment.getDate()))) {
+                    writeItem(writer, nextLesson, format);
+                    nextLesson = next(lessonIterator);
+                } else {
+                    writeItem(writer, nextPayment, format);
+                    nextPayment = next(paymentIterator);
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        log.info("Report export finished with {} rows.", rows);
+        return rows;
+    }
+
+    private Map<Long, PaymentStatus> getLessonPaymentStatuses(LocalDate startDate, LocalDate endDate, List<Long> studentIds) {
+        Set<Long> involvedStudentIds = lessonStudentRepository.findReportStudentIds(startDate, endDate, studentIds);
+        return involvedStudentIds.isEmpty() ?
+                Collections.emptyMap() :
+                lessonPaymentStatusStrategy.getPaymentStatuses(involvedStudentIds, startDate, endDate);
+    }
+
+    private ReportItemDto toReportItem(ReportLessonRow row, Map<Long, PaymentStatus> lessonPaymentStatuses) {
+        PaymentStatus paymentStatus = null;
+        if (row.status() == LessonStudentStatus.COMPLETED || row.status() == LessonStudentStatus.NOT_ATTENDED) {
+            paymentStatus = lessonPaymentStatuses.getOrDefault(row.lessonStudentId(), PaymentStatus.UNPAID);
+        }
+        return ReportItemDto.builder()
+                .studentName(row.firstName() + " " + row.lastName())
+                .itemType(ReportItemDto.ItemType.LESSON)
+                .currency(row.currency())
+                .amount(row.price())
+                .date(row.lessonDate())
+                .paymentStatus(paymentStatus)
+                .build();
+    }
+
+    private ReportItemDto toReportItem(ReportPaymentRow row) {
+        return ReportItemDto.builder()
+                .studentName(row.firstName() + " " + row.lastName())
+                .itemType(ReportItemDto.ItemType.PAYMENT)
+                .currency(row.currency())
+                .amount(row.amount())
+                .date(row.paymentDate())
+                .build();
+    }
+
+    private void writeItem(Writer writer, ReportItemDto item, ReportExportFormat format) throws IOException {
+        writeRow(writer, List.of(
+                item.getDate().toString(),
+                item.getStudentName(),
+                item.getItemType().name(),
+                item.getCurrency() != null ? item.getCurrency().name() : "",
+                formatAmount(item.getAmount()),
+                item.getPaymentStatus() != null ? item.getPaymentStatus().name() : ""), format);
+    }
+
+    private void writeRow(Writer writer, List<String> values, ReportExportFormat format) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (format == ReportExportFormat.EXCEL && isFormula(value)) {
+                value = "'" + value;
+            }
+            writer.write(StringEscapeUtils.escapeCsv(value));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private static boolean isFormula(String value) {
+        return !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0;
+    }
+
+    private String formatAmount(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
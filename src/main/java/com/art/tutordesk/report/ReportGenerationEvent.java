@@ -0,0 +1,36 @@
+package com.art.tutordesk.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering the loading, status calculation and assembly of one report. Off by default.
+ */
+@Name(ReportGenerationEvent.NAME)
+@Label("Report Generation")
+@Category({"TutorDesk", "Reports"})
+@Description("A lesson and payment report generated for a date range")
+@Enabled(false)
+@StackTrace(false)
+class ReportGenerationEvent extends Event {
+
+    static final String NAME = "com.art.tutordesk.ReportGeneration";
+
+    @Label("Start Date")
+    String startDate;
+
+    @Label("End Date")
+    String endDate;
+
+    @Label("Selected Students")
+    @Description("Number of students the report was restricted to, 0 for all students")
+    int studentCount;
+
+    @Label("Rows")
+    int rowCount;
+}
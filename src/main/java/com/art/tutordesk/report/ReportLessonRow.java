@@ -0,0 +1,19 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Lesson row of a streamed report. Its payment status is resolved by the {@link LessonPaymentStatusStrategy}.
+ */
+public record ReportLessonRow(Long lessonStudentId,
+                              String firstName,
+                              String lastName,
+                              Currency currency,
+                              BigDecimal price,
+                              LocalDate lessonDate,
+                              LessonStudentStatus status) {
+}
@@ -0,0 +1,17 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.payment.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Payment row of a streamed report.
+ */
+public record ReportPaymentRow(Long paymentId,
+                               String firstName,
+                               String lastName,
+                               Currency currency,
+                               BigDecimal amount,
+                               LocalDate paymentDate) {
+}
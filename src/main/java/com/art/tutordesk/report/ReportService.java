@@ -3,23 +3,20 @@ package com.art.tutordesk.report;
 import com.art.tutordesk.lesson.LessonStudent;
 import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.lesson.PaymentStatus;
-import com.art.tutordesk.lesson.PaymentStatusUtil;
-import com.art.tutordesk.lesson.repository.LessonRepository;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
-import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.payment.Payment;
 import com.art.tutordesk.payment.PaymentRepository;
 import com.art.tutordesk.student.StudentRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,17 +27,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReportService {
 
-    private final LessonRepository lessonRepository;
     private final StudentRepository studentRepository;
     private final PaymentRepository paymentRepository;
     private final LessonStudentRepository lessonStudentRepository;
-    private final PaymentStatusUtil paymentStatusUtil;
-
-    public long getLessonsThisMonthCount() {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        long count = lessonRepository.countByLessonDateGreaterThanEqual(startOfMonth);
-        log.debug("Lessons this month count (from {}): {}", startOfMonth, count);
-        return count;
+    private final LessonPaymentStatusStrategy lessonPaymentStatusStrategy;
+    private final MonthlyRollupService monthlyRollupService;
+
+    /**
+     * Lesson count, payments and charges of the current month, read from its monthly rollup.
+     */
+    public MonthlyMetrics getMetricsThisMonth() {
+        return monthlyRollupService.getMonthlyMetrics(YearMonth.now());
     }
 
     public long getActiveStudentsCount() {
@@ -49,22 +46,12 @@ public class ReportService {
         return count;
     }
 
-    public Map<Currency, BigDecimal> getTotalPaymentsThisMonth() {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        List<Payment> payments = paymentRepository.findByPaymentDateGreaterThanEqual(startOfMonth);
-
-        Map<Currency, BigDecimal> totalPayments = payments.stream()
-                .collect(Collectors.groupingBy(
-                        Payment::getCurrency,
-                        Collectors.mapping(Payment::getAmount, Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
-                ));
-        log.debug("Total payments this month (from {}): {}", startOfMonth, totalPayments);
-        return totalPayments;
-    }
-
+    @Timed(value = "tutordesk.service", histogram = true)
     public List<ReportItemDto> generateReport(LocalDate startDate, LocalDate endDate, List<Long> studentIds, boolean includeLessons, boolean includePayments) {
         log.info("Generating report from {} to {} for students {}. Include lessons: {}, include payments: {}",
                 startDate, endDate, studentIds, includeLessons, includePayments);
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.begin();
         List<ReportItemDto> reportItems = new ArrayList<>();
 
         List<LessonStudent> reportLessons = includeLessons ?
@@ -76,21 +63,12 @@ public class ReportService {
                 Collections.emptyList();
 
         // If we include lessons, we need to calculate their payment status
-        Map<Long, PaymentStatus> lessonPaymentStatusMap = new HashMap<>();
-        if (includeLessons && !reportLessons.isEmpty()) {
-            Set<Long> involvedStudentIds = reportLessons.stream()
-                    .map(ls -> ls.getStudent().getId())
-                    .collect(Collectors.toSet());
-
-            for (Long studentId : involvedStudentIds) {
-                // To calculate correctly, we need ALL historical lessons and payments for this student
-                List<LessonStudent> allStudentLessons = lessonStudentRepository.findAllByStudentId(studentId);
-                List<Payment> allStudentPayments = paymentRepository.findAllByStudentId(studentId);
-
-                Map<Long, PaymentStatus> studentLessonStatuses = paymentStatusUtil.calculatePaymentStatuses(allStudentLessons, allStudentPayments);
-                lessonPaymentStatusMap.putAll(studentLessonStatuses);
-            }
-        }
+        Set<Long> involvedStudentIds = reportLessons.stream()
+                .map(ls -> ls.getStudent().getId())
+                .collect(Collectors.toSet());
+        Map<Long, PaymentStatus> lessonPaymentStatusMap = involvedStudentIds.isEmpty() ?
+                Collections.emptyMap() :
+                lessonPaymentStatusStrategy.getPaymentStatuses(involvedStudentIds, startDate, endDate);
 
         if (includeLessons) {
             log.debug("Found {} lessons for report criteria.", reportLessons.size());
@@ -126,6 +104,15 @@ public class ReportService {
         }
 
         reportItems.sort(Comparator.comparing(ReportItemDto::getDate));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.startDate = String.valueOf(startDate);
+            event.endDate = String.valueOf(endDate);
+            event.studentCount = studentIds == null ? 0 : studentIds.size();
+            event.rowCount = reportItems.size();
+            event.commit();
+        }
         log.info("Report generated with {} items.", reportItems.size());
         return reportItems;
     }
@@ -3,12 +3,20 @@ package com.art.tutordesk.report;
 import com.art.tutordesk.student.StudentDto;
 import com.art.tutordesk.student.service.StudentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,6 +27,7 @@ public class ReportViewController {
 
     private final StudentService studentService;
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
 
     @GetMapping("/list")
     public String showReportPage(Model model) {
@@ -27,9 +36,11 @@ public class ReportViewController {
         model.addAttribute("students", students);
 
         // Get data for metrics from the service
-        model.addAttribute("lessonsThisMonth", reportService.getLessonsThisMonthCount());
+        MonthlyMetrics metrics = reportService.getMetricsThisMonth();
+        model.addAttribute("lessonsThisMonth", metrics.lessonCount());
         model.addAttribute("activeStudentsCount", reportService.getActiveStudentsCount());
-        model.addAttribute("totalPayments", reportService.getTotalPaymentsThisMonth());
+        model.addAttribute("totalPayments", metrics.payments());
+        model.addAttribute("totalCharges", metrics.charges());
 
         // Set default dates for the report filter
         LocalDate endDate = LocalDate.now();
@@ -54,4 +65,25 @@ public class ReportViewController {
         model.addAttribute("endDate", endDate);
         return "report/view-report";
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReport(@RequestParam("startDate") LocalDate startDate,
+                                                              @RequestParam("endDate") LocalDate endDate,
+                                                              @RequestParam(value = "selectedStudentIds", required = false) List<Long> selectedStudentIds,
+                                                              @RequestParam(value = "includeLessons", required = false) boolean includeLessons,
+                                                              @RequestParam(value = "includePayments", required = false) boolean includePayments,
+                                                              @RequestParam(value = "format", defaultValue = "csv") String format) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromParameter(format)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unsupported report format '%s'. Supported formats: %s.".formatted(format, ReportExportFormat.parameterValues())));
+        String fileName = "report_%s_%s.csv".formatted(startDate, endDate);
+
+        StreamingResponseBody body = outputStream -> reportExportService.exportReport(startDate, endDate,
+                selectedStudentIds, includeLessons, includePayments, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
 }
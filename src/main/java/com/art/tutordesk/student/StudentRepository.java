@@ -1,15 +1,32 @@
 package com.art.tutordesk.student;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
+    String ACTIVE_STUDENTS_CACHE_REGION = "active-students";
+
+    // Every student form renders this list; the cached result is dropped whenever a student is written
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ACTIVE_STUDENTS_CACHE_REGION)
+    })
     List<Student> findAllByActiveTrueOrderByIdAsc();
 
     long countByActiveTrue();
 
     List<Student> findAllByIdIn(List<Long> ids);
+
+    // Keyset pagination over all students, active or not
+    @Query("SELECT s.id FROM Student s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -42,13 +42,7 @@ public class StudentViewController {
 
     @GetMapping("/list")
     public String showStudentList(@RequestParam(value = "showInactive", defaultValue = "false") boolean showInactive, Model model) {
-        List<StudentDto> students;
-        if (showInactive) {
-            students = studentService.getAllStudentsIncludingInactive();
-        }
-        else {
-            students = studentService.getAllActiveStudents();
-        }
+        List<StudentDto> students = studentService.getStudentListWithBalances(showInactive);
         model.addAttribute("students", students);
         model.addAttribute("showInactive", showInactive);
         return "student/list-students";
@@ -1,8 +1,13 @@
 package com.art.tutordesk.student.service;
 
+import com.art.tutordesk.balance.BalanceCheckpointRepository;
+import com.art.tutordesk.balance.BalanceTransactionArchiveRepository;
 import com.art.tutordesk.balance.BalanceTransactionRepository;
+import com.art.tutordesk.balance.LedgerDiscrepancyRepository;
+import com.art.tutordesk.balance.StudentBalanceRepository;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
 import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +23,11 @@ public class StudentHardDeleteService {
     private final PaymentRepository paymentRepository;
     private final LessonStudentRepository lessonStudentRepository;
     private final BalanceTransactionRepository balanceTransactionRepository;
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+    private final LedgerDiscrepancyRepository ledgerDiscrepancyRepository;
+    private final MonthlyRollupService monthlyRollupService;
 
     @Transactional
     public void performHardDelete(Long studentId) {
@@ -29,6 +39,9 @@ public class StudentHardDeleteService {
                     return new RuntimeException("Student not found with id: " + studentId);
                 });
 
+        // The rollups are derived from the payments and lesson students, so they are corrected before those go
+        monthlyRollupService.removeStudent(studentId);
+
         // Delete dependent records in the correct order
         paymentRepository.deleteAllByStudentId(studentId);
         log.debug("Payments deleted for student ID: {}", studentId);
@@ -37,6 +50,10 @@ public class StudentHardDeleteService {
         log.debug("LessonStudents deleted for student ID: {}", studentId);
 
         balanceTransactionRepository.deleteByStudentId(studentId);
+        studentBalanceRepository.deleteByStudentId(studentId);
+        balanceCheckpointRepository.deleteByStudentId(studentId);
+        balanceTransactionArchiveRepository.deleteByStudentId(studentId);
+        ledgerDiscrepancyRepository.deleteByStudentId(studentId);
         log.debug("Balances deleted for student ID: {}", studentId);
 
         // Finally, delete the student
@@ -2,6 +2,7 @@ package com.art.tutordesk.student.service;
 
 import com.art.tutordesk.balance.BalanceQueryService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
 import com.art.tutordesk.payment.Currency;
@@ -17,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +35,8 @@ public class StudentService {
     @Transactional
     public StudentDto createStudent(StudentDto studentDto) {
         Student student = studentMapper.toStudent(studentDto);
-        Student savedStudent = studentRepository.save(student);
+        // The ledger entry is inserted with plain JDBC and references the student row
+        Student savedStudent = studentRepository.saveAndFlush(student);
         log.info("Student created: {id={}, firstName='{}', lastName='{}'}",
                 savedStudent.getId(), savedStudent.getFirstName(), savedStudent.getLastName());
 
@@ -43,7 +46,8 @@ public class StudentService {
                 savedStudent.getCurrency(),
                 TransactionSource.STUDENT,
                 BigDecimal.ZERO,
-                savedStudent.getId()
+                savedStudent.getId(),
+                LedgerEntry.SINGLE_OPERATION
         );
 
         return studentMapper.toStudentDto(savedStudent);
@@ -64,13 +68,15 @@ public class StudentService {
                 updatedStudent.getId(), updatedStudent.getFirstName(), updatedStudent.getLastName());
 
         if (oldCurrency != updatedStudent.getCurrency()) {
+            // A zero entry per currency switch; nothing identifies a replay, so it is not deduplicated
             balanceTransactionService.createBalanceTransaction(
                     updatedStudent,
                     TransactionType.STUDENT_UPDATED,
                     updatedStudent.getCurrency(),
                     TransactionSource.STUDENT,
                     BigDecimal.ZERO,
-                    updatedStudent.getId()
+                    updatedStudent.getId(),
+                    null
             );
             log.info("Initialized zero balance for student {} in new currency: {}", updatedStudent.getId(), updatedStudent.getCurrency());
         }
@@ -90,6 +96,19 @@ public class StudentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Students of the list page with their balances in every currency.
+     * Logic:
+     * 1. The students are read like for {@link #getAllActiveStudents()} / {@link #getAllStudentsIncludingInactive()}.
+     * 2. The balances of all of them come from the balance snapshots with a single query, not one per student.
+     */
+    public List<StudentDto> getStudentListWithBalances(boolean includeInactive) {
+        List<StudentDto> students = includeInactive ? getAllStudentsIncludingInactive() : getAllActiveStudents();
+        Map<Long, Map<Currency, BigDecimal>> balances = balanceQueryService.getBalancesByStudent(includeInactive);
+        students.forEach(student -> student.setBalances(balances.getOrDefault(student.getId(), Map.of())));
+        return students;
+    }
+
     @Transactional
     public void deactivateStudent(Long studentId) {
         Student student = getStudentEntityById(studentId);
@@ -0,0 +1,51 @@
+package com.art.tutordesk.allocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentAllocationRebuildRunnerTest {
+
+    @Mock
+    private PaymentAllocationCursorRepository cursorRepository;
+    @Mock
+    private PaymentAllocationService paymentAllocationService;
+
+    @InjectMocks
+    private PaymentAllocationRebuildRunner paymentAllocationRebuildRunner;
+
+    @Test
+    void run_withRebuildOption_shouldRebuildAllocations() {
+        paymentAllocationRebuildRunner.run(new DefaultApplicationArguments("--rebuild-allocations"));
+
+        verify(paymentAllocationService).rebuildAll();
+        verifyNoInteractions(cursorRepository);
+    }
+
+    @Test
+    void run_withoutAllocations_shouldInitialiseThem() {
+        when(cursorRepository.count()).thenReturn(0L);
+
+        paymentAllocationRebuildRunner.run(new DefaultApplicationArguments());
+
+        verify(paymentAllocationService).rebuildAll();
+    }
+
+    @Test
+    void run_withExistingAllocations_shouldDoNothing() {
+        when(cursorRepository.count()).thenReturn(3L);
+
+        paymentAllocationRebuildRunner.run(new DefaultApplicationArguments());
+
+        verify(paymentAllocationService, never()).rebuildAll();
+    }
+}
@@ -0,0 +1,126 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.PaymentStatusUtil;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+@Import({PaymentAllocationService.class, PaymentStatusUtil.class})
+public class PaymentAllocationServiceIT extends BaseIntegrationTest {
+
+    @Autowired
+    private PaymentAllocationService paymentAllocationService;
+
+    @Autowired
+    private PaymentAllocationCursorRepository cursorRepository;
+
+    @Autowired
+    private LessonStudentRepository lessonStudentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentStatusUtil paymentStatusUtil;
+
+    @BeforeEach
+    void setUp() {
+        paymentAllocationService.rebuildAll();
+    }
+
+    @Test
+    void rebuildAll_shouldAllocateSeededHistory() {
+        assertThat(cursorRepository.count()).isEqualTo(4);
+        assertThat(paymentAllocationService.getPaymentStatuses(Set.of(7L, 8L)))
+                .containsEntry(7L, PaymentStatus.PAID)
+                .containsEntry(8L, PaymentStatus.PAID);
+        assertThat(cursorRepository.findById(new AllocationCursorId(1L, Currency.USD)).orElseThrow().getTotalPaid())
+                .isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void insertIfAbsent_shouldOnlyInsertMissingCursor() {
+        assertThat(cursorRepository.insertIfAbsent(1L, "USD")).isZero();
+        assertThat(cursorRepository.insertIfAbsent(3L, "PLN")).isEqualTo(1);
+
+        assertThat(cursorRepository.findById(new AllocationCursorId(1L, Currency.USD)).orElseThrow().getTotalPaid())
+                .isEqualByComparingTo("30.00");
+        assertThat(cursorRepository.findByIdForUpdate(new AllocationCursorId(3L, Currency.PLN)).orElseThrow().getTotalPaid())
+                .isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void incrementalUpdates_shouldMatchFullRecalculation() {
+        // Student 1 USD paid 30: lesson 1 (25) is settled, lessons 3 (25) and 5 (20) are not
+        complete(1L);
+        complete(5L);
+        assertThat(statusesOfStudent(1L)).containsEntry(1L, PaymentStatus.PAID)
+                .containsEntry(5L, PaymentStatus.UNPAID)
+                .containsEntry(7L, PaymentStatus.UNPAID);
+        assertMatchesFullRecalculation(1L);
+
+        // Moving lesson 5 before all others settles it first
+        LessonStudent moved = lessonStudentRepository.findById(7L).orElseThrow();
+        moved.getLesson().setLessonDate(LocalDate.of(2024, 12, 1));
+        paymentAllocationService.onChargeChanged(moved);
+        assertThat(statusesOfStudent(1L)).containsEntry(7L, PaymentStatus.PAID)
+                .containsEntry(1L, PaymentStatus.UNPAID);
+        assertMatchesFullRecalculation(1L);
+
+        // Removing the 10 USD payment leaves 20, which still covers the moved lesson only
+        paymentRepository.deleteById(1L);
+        paymentAllocationService.onPaymentChanged(1L, Currency.USD, new BigDecimal("-10.00"));
+        assertMatchesFullRecalculation(1L);
+
+        // Cancelling the moved lesson drops its allocation, 20 still does not cover any 25 lesson
+        LessonStudent canceled = lessonStudentRepository.findById(7L).orElseThrow();
+        canceled.setStatus(LessonStudentStatus.CANCELED);
+        paymentAllocationService.onChargeChanged(canceled);
+        assertThat(statusesOfStudent(1L)).doesNotContainKey(7L);
+        assertMatchesFullRecalculation(1L);
+    }
+
+    private void complete(Long lessonStudentId) {
+        LessonStudent lessonStudent = lessonStudentRepository.findById(lessonStudentId).orElseThrow();
+        lessonStudent.setStatus(LessonStudentStatus.COMPLETED);
+        paymentAllocationService.onChargeChanged(lessonStudent);
+    }
+
+    private Map<Long, PaymentStatus> statusesOfStudent(Long studentId) {
+        Set<Long> lessonStudentIds = lessonStudentRepository.findAllByStudentIdIn(Set.of(studentId)).stream()
+                .map(LessonStudent::getId)
+                .collect(Collectors.toSet());
+        return paymentAllocationService.getPaymentStatuses(lessonStudentIds);
+    }
+
+    private void assertMatchesFullRecalculation(Long studentId) {
+        List<LessonStudent> lessons = lessonStudentRepository.findAllByStudentIdIn(Set.of(studentId));
+        Map<Long, PaymentStatus> expected = paymentStatusUtil.calculatePaymentStatuses(lessons,
+                paymentRepository.findAllByStudentIdIn(Set.of(studentId)));
+
+        assertThat(statusesOfStudent(studentId)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,359 @@
+package com.art.tutordesk.allocation;
+
+import com.art.tutordesk.balance.StudentCurrencyTotal;
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.student.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentAllocationServiceTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+    private static final LocalDate JAN_8 = LocalDate.of(2025, 1, 8);
+    private static final AllocationCursorId CURSOR_ID = new AllocationCursorId(1L, Currency.USD);
+
+    @Mock
+    private LessonChargeAllocationRepository allocationRepository;
+    @Mock
+    private PaymentAllocationCursorRepository cursorRepository;
+    @Mock
+    private LessonStudentRepository lessonStudentRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @InjectMocks
+    private PaymentAllocationService paymentAllocationService;
+
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        student = new Student();
+        student.setId(1L);
+        student.setCurrency(Currency.USD);
+    }
+
+    @Test
+    void getPaymentStatuses_EmptyInput_ReturnsEmptyMap() {
+        assertTrue(paymentAllocationService.getPaymentStatuses(Set.of()).isEmpty());
+        verifyNoInteractions(allocationRepository);
+    }
+
+    @Test
+    void getPaymentStatuses_ReturnsPersistedStatuses() {
+        LessonChargeAllocation allocation = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        when(allocationRepository.findAllById(Set.of(100L, 101L))).thenReturn(List.of(allocation));
+
+        Map<Long, PaymentStatus> result = paymentAllocationService.getPaymentStatuses(Set.of(100L, 101L));
+
+        assertEquals(Map.of(100L, PaymentStatus.PAID), result);
+    }
+
+    @Test
+    void onPaymentChanged_PositiveDelta_SettlesFromFirstUnpaidCharge() {
+        PaymentAllocationCursor cursor = cursor("25.00", JAN_8, 101L);
+        LessonChargeAllocation unpaid = allocation(101L, JAN_8, PaymentStatus.UNPAID, "0.00", "25.00");
+        LessonChargeAllocation paid = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        LessonStudent charge = charge(101L, JAN_8, "25.00");
+
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(allocationRepository.findFromPosition(1L, Currency.USD, JAN_8, 101L)).thenReturn(List.of(unpaid));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_8, 101L)).thenReturn(List.of(charge));
+        when(allocationRepository.findLastBeforePosition(any(), any(), any(), any(), any())).thenReturn(List.of(paid));
+
+        paymentAllocationService.onPaymentChanged(1L, Currency.USD, new BigDecimal("30.00"));
+
+        assertEquals(PaymentStatus.PAID, unpaid.getStatus());
+        assertEquals(new BigDecimal("25.00"), unpaid.getAllocatedAmount());
+        assertEquals(new BigDecimal("50.00"), unpaid.getConsumedCredit());
+        assertEquals(new BigDecimal("55.00"), cursor.getTotalPaid());
+        assertNull(cursor.getAllocatedUpToDate());
+        assertNull(cursor.getAllocatedUpToLessonStudentId());
+        verify(cursorRepository).save(cursor);
+    }
+
+    @Test
+    void onPaymentChanged_PositiveDelta_NothingUnpaid_OnlyUpdatesTotal() {
+        PaymentAllocationCursor cursor = cursor("25.00", null, null);
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+
+        paymentAllocationService.onPaymentChanged(1L, Currency.USD, new BigDecimal("10.00"));
+
+        assertEquals(new BigDecimal("35.00"), cursor.getTotalPaid());
+        verifyNoInteractions(lessonStudentRepository, allocationRepository);
+        verify(cursorRepository).save(cursor);
+    }
+
+    @Test
+    void onPaymentChanged_NegativeDelta_UnsettlesChargesBeyondNewTotal() {
+        PaymentAllocationCursor cursor = cursor("50.00", null, null);
+        LessonChargeAllocation first = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        LessonChargeAllocation second = allocation(101L, JAN_8, PaymentStatus.PAID, "25.00", "50.00");
+        LessonStudent charge = charge(101L, JAN_8, "25.00");
+
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(allocationRepository.findFirstConsumingMoreThan(any(), any(), any(), any())).thenReturn(List.of(second));
+        when(allocationRepository.findFromPosition(1L, Currency.USD, JAN_8, 101L)).thenReturn(List.of(second));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_8, 101L)).thenReturn(List.of(charge));
+        when(allocationRepository.findLastBeforePosition(any(), any(), any(), any(), any())).thenReturn(List.of(first));
+
+        paymentAllocationService.onPaymentChanged(1L, Currency.USD, new BigDecimal("-10.00"));
+
+        assertEquals(PaymentStatus.UNPAID, second.getStatus());
+        assertEquals(BigDecimal.ZERO, second.getAllocatedAmount());
+        assertEquals(new BigDecimal("25.00"), second.getConsumedCredit());
+        assertEquals(new BigDecimal("40.00"), cursor.getTotalPaid());
+        assertEquals(JAN_8, cursor.getAllocatedUpToDate());
+        assertEquals(101L, cursor.getAllocatedUpToLessonStudentId());
+    }
+
+    @Test
+    void onChargeChanged_NewCharge_CreatesAllocationAndCursor() {
+        LessonStudent charge = charge(100L, JAN_1, "25.00");
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(new PaymentAllocationCursor(CURSOR_ID)));
+        when(allocationRepository.findById(100L)).thenReturn(Optional.empty());
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 100L)).thenReturn(List.of(charge));
+
+        paymentAllocationService.onChargeChanged(charge);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LessonChargeAllocation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(allocationRepository).saveAll(captor.capture());
+        LessonChargeAllocation created = captor.getValue().getFirst();
+        assertTrue(created.isNew());
+        assertEquals(PaymentStatus.UNPAID, created.getStatus());
+        assertEquals(BigDecimal.ZERO, created.getConsumedCredit());
+
+        ArgumentCaptor<PaymentAllocationCursor> cursorCaptor = ArgumentCaptor.forClass(PaymentAllocationCursor.class);
+        InOrder inOrder = inOrder(cursorRepository);
+        inOrder.verify(cursorRepository).insertIfAbsent(1L, "USD");
+        inOrder.verify(cursorRepository).findByIdForUpdate(CURSOR_ID);
+        inOrder.verify(cursorRepository).save(cursorCaptor.capture());
+        assertEquals(JAN_1, cursorCaptor.getValue().getAllocatedUpToDate());
+        assertEquals(100L, cursorCaptor.getValue().getAllocatedUpToLessonStudentId());
+    }
+
+    @Test
+    void onChargeChanged_MovedToLaterDate_ReallocatesFromPreviousPosition() {
+        PaymentAllocationCursor cursor = cursor("25.00", null, null);
+        LessonChargeAllocation moved = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        LessonStudent charge = charge(100L, JAN_8, "25.00");
+
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(allocationRepository.findById(100L)).thenReturn(Optional.of(moved));
+        when(allocationRepository.findFromPosition(1L, Currency.USD, JAN_1, 100L)).thenReturn(List.of(moved));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 100L)).thenReturn(List.of(charge));
+
+        paymentAllocationService.onChargeChanged(charge);
+
+        assertEquals(JAN_8, moved.getLessonDate());
+        assertEquals(PaymentStatus.PAID, moved.getStatus());
+        assertThat(captureDeleted()).isEmpty();
+    }
+
+    @Test
+    void onChargeChanged_NoLongerChargeable_RemovesAllocation() {
+        PaymentAllocationCursor cursor = cursor("0.00", JAN_1, 100L);
+        LessonChargeAllocation removed = allocation(100L, JAN_1, PaymentStatus.UNPAID, "0.00", "0.00");
+        LessonStudent charge = charge(100L, JAN_1, "25.00");
+        charge.setStatus(LessonStudentStatus.CANCELED);
+
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(allocationRepository.findById(100L)).thenReturn(Optional.of(removed));
+        when(allocationRepository.findFromPosition(1L, Currency.USD, JAN_1, 100L)).thenReturn(List.of(removed));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 100L)).thenReturn(List.of());
+
+        paymentAllocationService.onChargeChanged(charge);
+
+        assertThat(captureDeleted()).containsExactly(removed);
+        assertNull(cursor.getAllocatedUpToDate());
+    }
+
+    @Test
+    void onChargeChanged_CurrencyChanged_ReallocatesPreviousCurrencyToo() {
+        AllocationCursorId eurCursorId = new AllocationCursorId(1L, Currency.EUR);
+        PaymentAllocationCursor usdCursor = cursor("25.00", null, null);
+        LessonChargeAllocation moved = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        LessonStudent charge = charge(100L, JAN_8, "25.00");
+        charge.setCurrency(Currency.EUR);
+
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(usdCursor));
+        when(cursorRepository.findByIdForUpdate(eurCursorId)).thenReturn(Optional.of(new PaymentAllocationCursor(eurCursorId)));
+        when(allocationRepository.findById(100L)).thenReturn(Optional.of(moved));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 100L)).thenReturn(List.of());
+        when(allocationRepository.findFromPosition(1L, Currency.EUR, JAN_8, 100L)).thenReturn(List.of(moved));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.EUR,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_8, 100L)).thenReturn(List.of(charge));
+
+        paymentAllocationService.onChargeChanged(charge);
+
+        assertEquals(Currency.EUR, moved.getCurrency());
+        assertEquals(PaymentStatus.UNPAID, moved.getStatus());
+        ArgumentCaptor<PaymentAllocationCursor> cursorCaptor = ArgumentCaptor.forClass(PaymentAllocationCursor.class);
+        verify(cursorRepository, times(2)).save(cursorCaptor.capture());
+        assertThat(cursorCaptor.getAllValues()).extracting(PaymentAllocationCursor::getId)
+                .containsExactly(CURSOR_ID, eurCursorId);
+        assertEquals(100L, cursorCaptor.getAllValues().get(1).getAllocatedUpToLessonStudentId());
+    }
+
+    @Test
+    void onChargesChanged_ManyChargesOfOneStudent_ReallocatesOnceFromEarliest() {
+        PaymentAllocationCursor cursor = cursor("25.00", null, null);
+        LessonStudent later = charge(100L, JAN_8, "25.00");
+        LessonStudent earlier = charge(101L, JAN_1, "25.00");
+        when(allocationRepository.findAllById(List.of(100L, 101L))).thenReturn(List.of());
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 101L)).thenReturn(List.of(earlier, later));
+
+        paymentAllocationService.onChargesChanged(List.of(later, earlier));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LessonChargeAllocation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(allocationRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(LessonChargeAllocation::getStatus)
+                .containsExactly(PaymentStatus.PAID, PaymentStatus.UNPAID);
+        verify(cursorRepository).save(cursor);
+        assertEquals(JAN_8, cursor.getAllocatedUpToDate());
+        assertEquals(100L, cursor.getAllocatedUpToLessonStudentId());
+    }
+
+    @Test
+    void onChargesChanged_EmptyInput_DoesNothing() {
+        paymentAllocationService.onChargesChanged(List.of());
+
+        verifyNoInteractions(allocationRepository, cursorRepository, lessonStudentRepository);
+    }
+
+    @Test
+    void onChargesRemoved_PaidChargeRemoved_SettlesLaterCharge() {
+        PaymentAllocationCursor cursor = cursor("25.00", JAN_8, 101L);
+        LessonChargeAllocation removed = allocation(100L, JAN_1, PaymentStatus.PAID, "25.00", "25.00");
+        LessonChargeAllocation later = allocation(101L, JAN_8, PaymentStatus.UNPAID, "0.00", "25.00");
+        LessonStudent removedCharge = charge(100L, JAN_1, "25.00");
+        LessonStudent laterCharge = charge(101L, JAN_8, "25.00");
+
+        when(allocationRepository.findAllById(Set.of(100L))).thenReturn(List.of(removed));
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(cursor));
+        when(allocationRepository.findFromPosition(1L, Currency.USD, JAN_1, 100L)).thenReturn(List.of(removed, later));
+        when(lessonStudentRepository.findChargesInOrderFromPosition(1L, Currency.USD,
+                PaymentAllocationService.CHARGEABLE_STATUSES, JAN_1, 100L)).thenReturn(List.of(removedCharge, laterCharge));
+
+        paymentAllocationService.onChargesRemoved(List.of(removedCharge));
+
+        assertEquals(PaymentStatus.PAID, later.getStatus());
+        assertThat(captureDeleted()).containsExactly(removed);
+        verify(cursorRepository).save(cursor);
+        assertNull(cursor.getAllocatedUpToDate());
+    }
+
+    @Test
+    void onChargesRemoved_EmptyInput_DoesNothing() {
+        paymentAllocationService.onChargesRemoved(List.of());
+
+        verifyNoInteractions(allocationRepository, cursorRepository, lessonStudentRepository);
+    }
+
+    @Test
+    void rebuildAll_ReallocatesEveryStudentCurrencyFromScratch() {
+        LessonStudent free = charge(100L, JAN_1, "0.00");
+        LessonStudent paid = charge(101L, JAN_8, "25.00");
+        when(paymentRepository.sumAmountsGroupedByStudentAndCurrency())
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("30.00"))));
+        when(cursorRepository.findStudentCurrenciesWithCharges(anyCollection())).thenReturn(List.of(CURSOR_ID));
+        when(cursorRepository.findByIdForUpdate(CURSOR_ID)).thenReturn(Optional.of(new PaymentAllocationCursor(CURSOR_ID)));
+        when(allocationRepository.findByStudentIdAndCurrency(1L, Currency.USD)).thenReturn(List.of());
+        when(lessonStudentRepository.findChargesInOrder(1L, Currency.USD, PaymentAllocationService.CHARGEABLE_STATUSES))
+                .thenReturn(List.of(free, paid));
+
+        int rebuilt = paymentAllocationService.rebuildAll();
+
+        assertEquals(1, rebuilt);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LessonChargeAllocation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(allocationRepository).saveAll(captor.capture());
+        assertEquals(PaymentStatus.FREE, captor.getValue().get(0).getStatus());
+        assertEquals(PaymentStatus.PAID, captor.getValue().get(1).getStatus());
+        verify(allocationRepository, never()).findFromPosition(any(), any(), any(), any());
+        verify(allocationRepository).deleteAll(anyIterable());
+    }
+
+    private Iterable<LessonChargeAllocation> captureDeleted() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<LessonChargeAllocation>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(allocationRepository).deleteAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private PaymentAllocationCursor cursor(String totalPaid, LocalDate upToDate, Long upToLessonStudentId) {
+        PaymentAllocationCursor cursor = new PaymentAllocationCursor(CURSOR_ID);
+        cursor.setTotalPaid(new BigDecimal(totalPaid));
+        cursor.setAllocatedUpToDate(upToDate);
+        cursor.setAllocatedUpToLessonStudentId(upToLessonStudentId);
+        return cursor;
+    }
+
+    private LessonChargeAllocation allocation(Long id, LocalDate date, PaymentStatus status, String allocated, String consumed) {
+        LessonChargeAllocation allocation = new LessonChargeAllocation(id);
+        allocation.setStudentId(1L);
+        allocation.setCurrency(Currency.USD);
+        allocation.setLessonDate(date);
+        allocation.setStatus(status);
+        allocation.setAllocatedAmount(new BigDecimal(allocated));
+        allocation.setConsumedCredit(new BigDecimal(consumed));
+        return allocation;
+    }
+
+    private LessonStudent charge(Long id, LocalDate date, String price) {
+        Lesson lesson = new Lesson();
+        lesson.setLessonDate(date);
+        LessonStudent ls = new LessonStudent();
+        ls.setId(id);
+        ls.setLesson(lesson);
+        ls.setStudent(student);
+        ls.setCurrency(Currency.USD);
+        ls.setPrice(new BigDecimal(price));
+        ls.setStatus(LessonStudentStatus.COMPLETED);
+        return ls;
+    }
+}
@@ -0,0 +1,28 @@
+package com.art.tutordesk.balance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCheckpointJobTest {
+
+    @Mock
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @InjectMocks
+    private BalanceCheckpointJob balanceCheckpointJob;
+
+    @Test
+    void writeCheckpoints_shouldWriteTheMonthsCompletedBeforeToday() {
+        balanceCheckpointJob.writeCheckpoints();
+
+        verify(balanceCheckpointService).writeMissingCheckpoints(LocalDate.now());
+    }
+}
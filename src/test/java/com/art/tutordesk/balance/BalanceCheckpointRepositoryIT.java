@@ -0,0 +1,88 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+public class BalanceCheckpointRepositoryIT extends BaseIntegrationTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FEB = JAN.plusMonths(1);
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private BalanceTransactionRepository balanceTransactionRepository;
+
+    @Test
+    void whenFindLatestOfStudent_thenReturnsTheNearestCheckpointAtOrBeforeTheMoment() {
+        balanceCheckpointRepository.saveAll(List.of(
+                checkpoint(1L, Currency.USD, FEB, "30.00"),
+                checkpoint(1L, Currency.USD, FEB.plusMonths(1), "50.00"),
+                checkpoint(2L, Currency.EUR, FEB, "40.00")));
+
+        List<BalanceCheckpoint> checkpoints = balanceCheckpointRepository.findLatestOfStudent(1L, FEB.plusDays(14));
+
+        assertThat(checkpoints).singleElement().satisfies(checkpoint -> {
+            assertThat(checkpoint.getId().getCheckpointAt()).isEqualTo(FEB);
+            assertThat(checkpoint.getBalance()).isEqualByComparingTo("30.00");
+        });
+        assertThat(balanceCheckpointRepository.findLatestOfStudent(1L, JAN)).isEmpty();
+        assertThat(balanceCheckpointRepository.findLatestCheckpointAt()).contains(FEB.plusMonths(1));
+    }
+
+    @Test
+    void whenSumAmountsBetween_thenOnlyEntriesOfTheRangeAreSummed() {
+        List<StudentCurrencyTotal> january = balanceTransactionRepository.sumAmountsBetween(JAN, FEB);
+
+        assertThat(january).hasSize(4);
+        assertThat(january).filteredOn(total -> total.studentId() == 1L).singleElement()
+                .satisfies(total -> assertThat(total.total()).isEqualByComparingTo("30.00"));
+        assertThat(balanceTransactionRepository.findFirstTransactionDateTime()).contains(JAN.plusHours(10));
+    }
+
+    @Test
+    void whenSumAmountsOfStudentFromCheckpoint_thenCheckpointPlusLaterEntriesMatchSnapshot() {
+        LocalDateTime asOf = FEB.plusDays(1);
+
+        List<StudentCurrencyTotal> afterCheckpoint = balanceTransactionRepository.sumAmountsOfStudentBetween(1L, FEB, asOf);
+        List<StudentCurrencyTotal> upTo = balanceTransactionRepository.sumAmountsOfStudentUpTo(1L, asOf);
+
+        assertThat(afterCheckpoint).singleElement()
+                .satisfies(total -> assertThat(total.total()).isEqualByComparingTo("20.00"));
+        assertThat(upTo).singleElement()
+                .satisfies(total -> assertThat(total.total()).isEqualByComparingTo("50.00"));
+        assertThat(balanceTransactionRepository.sumAmountsOfStudentUpTo(1L, JAN)).isEmpty();
+    }
+
+    @Test
+    void whenDeleteByStudentId_thenRemovesOnlyCheckpointsOfStudent() {
+        balanceCheckpointRepository.saveAll(List.of(
+                checkpoint(1L, Currency.USD, FEB, "30.00"),
+                checkpoint(2L, Currency.EUR, FEB, "40.00")));
+
+        balanceCheckpointRepository.deleteByStudentId(1L);
+
+        assertThat(balanceCheckpointRepository.findByIdCheckpointAt(FEB))
+                .extracting(checkpoint -> checkpoint.getId().getStudentId())
+                .containsExactly(2L);
+    }
+
+    private BalanceCheckpoint checkpoint(Long studentId, Currency currency, LocalDateTime checkpointAt, String balance) {
+        return new BalanceCheckpoint(new BalanceCheckpointId(studentId, currency, checkpointAt), new BigDecimal(balance));
+    }
+}
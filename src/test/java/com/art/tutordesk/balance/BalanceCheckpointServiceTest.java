@@ -0,0 +1,104 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceCheckpointServiceTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FEB = JAN.plusMonths(1);
+    private static final LocalDateTime MAR = JAN.plusMonths(2);
+
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    @Mock
+    private BalanceTransactionRepository balanceTransactionRepository;
+
+    @InjectMocks
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeMissingCheckpoints_withoutCheckpoints_shouldStartAtTheMonthOfTheFirstEntry() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.empty());
+        when(balanceTransactionRepository.findFirstTransactionDateTime()).thenReturn(Optional.of(JAN.plusDays(9).plusHours(10)));
+        when(balanceTransactionRepository.sumAmountsBetween(JAN, FEB))
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("30.00"))));
+        when(balanceTransactionRepository.sumAmountsBetween(FEB, MAR)).thenReturn(List.of(
+                new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("-20.00")),
+                new StudentCurrencyTotal(2L, Currency.EUR, new BigDecimal("15.00"))));
+
+        int months = balanceCheckpointService.writeMissingCheckpoints(LocalDate.of(2025, 3, 14));
+
+        assertEquals(2, months);
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(balanceCheckpointRepository, times(2)).saveAll(captor.capture());
+        assertThat(captor.getAllValues().get(0))
+                .extracting(c -> c.getId().getStudentId(), c -> c.getId().getCheckpointAt(), BalanceCheckpoint::getBalance)
+                .containsExactly(tuple(1L, FEB, new BigDecimal("30.00")));
+        assertThat(captor.getAllValues().get(1))
+                .extracting(c -> c.getId().getStudentId(), c -> c.getId().getCheckpointAt(), BalanceCheckpoint::getBalance)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, MAR, new BigDecimal("10.00")),
+                        tuple(2L, MAR, new BigDecimal("15.00")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeMissingCheckpoints_shouldCarryTheLatestCheckpointForward() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.of(FEB));
+        when(balanceCheckpointRepository.findByIdCheckpointAt(FEB)).thenReturn(List.of(
+                new BalanceCheckpoint(new BalanceCheckpointId(1L, Currency.USD, FEB), new BigDecimal("30.00"))));
+        when(balanceTransactionRepository.sumAmountsBetween(FEB, MAR)).thenReturn(List.of());
+
+        assertEquals(1, balanceCheckpointService.writeMissingCheckpoints(LocalDate.of(2025, 3, 1)));
+
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(balanceCheckpointRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                .satisfies(c -> {
+                    assertEquals(MAR, c.getId().getCheckpointAt());
+                    assertEquals(new BigDecimal("30.00"), c.getBalance());
+                });
+        verify(balanceTransactionRepository, never()).findFirstTransactionDateTime();
+    }
+
+    @Test
+    void writeMissingCheckpoints_currentMonthStillOpen_shouldWriteNothing() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.of(MAR));
+        when(balanceCheckpointRepository.findByIdCheckpointAt(MAR)).thenReturn(List.of());
+
+        assertEquals(0, balanceCheckpointService.writeMissingCheckpoints(LocalDate.of(2025, 3, 31)));
+        verify(balanceCheckpointRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void writeMissingCheckpoints_emptyLedger_shouldWriteNothing() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.empty());
+        when(balanceTransactionRepository.findFirstTransactionDateTime()).thenReturn(Optional.empty());
+
+        assertEquals(0, balanceCheckpointService.writeMissingCheckpoints(LocalDate.of(2025, 3, 14)));
+        verify(balanceCheckpointRepository, never()).saveAll(any());
+    }
+}
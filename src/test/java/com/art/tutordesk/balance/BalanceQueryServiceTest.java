@@ -0,0 +1,141 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceQueryServiceTest {
+
+    @Mock
+    private StudentBalanceRepository studentBalanceRepository;
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    @Mock
+    private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+
+    @InjectMocks
+    private BalanceQueryService balanceQueryService;
+
+    @Test
+    void getAllBalancesForStudent_shouldReadSnapshotRows() {
+        when(studentBalanceRepository.findByIdStudentId(1L)).thenReturn(List.of(
+                createSnapshot(1L, Currency.USD, "-25.00"),
+                createSnapshot(1L, Currency.EUR, "10.00")));
+
+        Map<Currency, BigDecimal> balances = balanceQueryService.getAllBalancesForStudent(1L);
+
+        assertEquals(2, balances.size());
+        assertEquals(new BigDecimal("-25.00"), balances.get(Currency.USD));
+        assertEquals(new BigDecimal("10.00"), balances.get(Currency.EUR));
+    }
+
+    @Test
+    void getAllBalancesForStudent_withoutSnapshot_shouldReturnEmptyMap() {
+        when(studentBalanceRepository.findByIdStudentId(2L)).thenReturn(List.of());
+
+        assertTrue(balanceQueryService.getAllBalancesForStudent(2L).isEmpty());
+    }
+
+    @Test
+    void getBalancesByStudent_includingInactive_shouldGroupAllSnapshotRowsByStudent() {
+        when(studentBalanceRepository.findAll()).thenReturn(List.of(
+                createSnapshot(1L, Currency.USD, "-25.00"),
+                createSnapshot(1L, Currency.EUR, "10.00"),
+                createSnapshot(2L, Currency.PLN, "0.00")));
+
+        Map<Long, Map<Currency, BigDecimal>> balances = balanceQueryService.getBalancesByStudent(true);
+
+        assertEquals(2, balances.size());
+        assertEquals(List.of(Currency.USD, Currency.EUR), List.copyOf(balances.get(1L).keySet()));
+        assertEquals(new BigDecimal("0.00"), balances.get(2L).get(Currency.PLN));
+        verify(studentBalanceRepository, never()).findAllOfActiveStudents();
+    }
+
+    @Test
+    void getBalancesByStudent_activeOnly_shouldReadSnapshotsOfActiveStudents() {
+        when(studentBalanceRepository.findAllOfActiveStudents()).thenReturn(List.of(createSnapshot(1L, Currency.USD, "5.00")));
+
+        Map<Long, Map<Currency, BigDecimal>> balances = balanceQueryService.getBalancesByStudent(false);
+
+        assertEquals(Map.of(1L, Map.of(Currency.USD, new BigDecimal("5.00"))), balances);
+        verify(studentBalanceRepository, never()).findAll();
+    }
+
+    @Test
+    void getBalancesAsOf_shouldAddEntriesAfterTheNearestCheckpoint() {
+        LocalDateTime checkpointAt = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime asOf = LocalDateTime.of(2025, 3, 14, 12, 0);
+        when(balanceCheckpointRepository.findLatestOfStudent(1L, asOf)).thenReturn(List.of(
+                new BalanceCheckpoint(new BalanceCheckpointId(1L, Currency.USD, checkpointAt), new BigDecimal("40.00")),
+                new BalanceCheckpoint(new BalanceCheckpointId(1L, Currency.EUR, checkpointAt), new BigDecimal("5.00"))));
+        when(balanceTransactionRepository.sumAmountsOfStudentBetween(1L, checkpointAt, asOf)).thenReturn(List.of(
+                new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("-25.00")),
+                new StudentCurrencyTotal(1L, Currency.PLN, new BigDecimal("100.00"))));
+
+        Map<Currency, BigDecimal> balances = balanceQueryService.getBalancesAsOf(1L, asOf);
+
+        assertEquals(Map.of(Currency.USD, new BigDecimal("15.00"), Currency.EUR, new BigDecimal("5.00"),
+                Currency.PLN, new BigDecimal("100.00")), balances);
+        verify(balanceTransactionRepository, never()).sumAmountsOfStudentUpTo(any(), any());
+    }
+
+    @Test
+    void getBalancesAsOf_withoutCheckpoint_shouldSumTheLedgerUpToTheMoment() {
+        LocalDateTime asOf = LocalDateTime.of(2025, 1, 20, 0, 0);
+        when(balanceCheckpointRepository.findLatestOfStudent(1L, asOf)).thenReturn(List.of());
+        when(balanceTransactionRepository.sumAmountsOfStudentUpTo(1L, asOf))
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("30.00"))));
+
+        assertEquals(Map.of(Currency.USD, new BigDecimal("30.00")), balanceQueryService.getBalancesAsOf(1L, asOf));
+    }
+
+    @Test
+    void getBalancesAsOf_beforeTheArchivalOpening_shouldSumTheArchivedEntries() {
+        LocalDateTime checkpointAt = LocalDateTime.of(2023, 3, 1, 0, 0);
+        LocalDateTime asOf = LocalDateTime.of(2023, 3, 10, 0, 0);
+        when(balanceCheckpointRepository.findLatestOfStudent(1L, asOf)).thenReturn(List.of(
+                new BalanceCheckpoint(new BalanceCheckpointId(1L, Currency.USD, checkpointAt), new BigDecimal("40.00"))));
+        when(balanceTransactionRepository.findOpeningDateTimeOfStudent(1L)).thenReturn(Optional.of(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        when(balanceTransactionArchiveRepository.sumAmountsOfStudentBetween(1L, checkpointAt, asOf))
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("-10.00"))));
+
+        assertEquals(Map.of(Currency.USD, new BigDecimal("30.00")), balanceQueryService.getBalancesAsOf(1L, asOf));
+        verify(balanceTransactionRepository, never()).sumAmountsOfStudentBetween(any(), any(), any());
+    }
+
+    @Test
+    void getBalancesAsOf_beforeTheArchivalOpeningWithoutCheckpoint_shouldSumTheArchiveUpToTheMoment() {
+        LocalDateTime asOf = LocalDateTime.of(2023, 1, 10, 0, 0);
+        when(balanceCheckpointRepository.findLatestOfStudent(1L, asOf)).thenReturn(List.of());
+        when(balanceTransactionRepository.findOpeningDateTimeOfStudent(1L)).thenReturn(Optional.of(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        when(balanceTransactionArchiveRepository.sumAmountsOfStudentUpTo(1L, asOf))
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.EUR, new BigDecimal("12.00"))));
+
+        assertEquals(Map.of(Currency.EUR, new BigDecimal("12.00")), balanceQueryService.getBalancesAsOf(1L, asOf));
+    }
+
+    private StudentBalance createSnapshot(Long studentId, Currency currency, String balance) {
+        StudentBalance snapshot = new StudentBalance(new StudentBalanceId(studentId, currency));
+        snapshot.setBalance(new BigDecimal(balance));
+        return snapshot;
+    }
+}
@@ -2,20 +2,31 @@ package com.art.tutordesk.balance;
 
 import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.student.Student;
+import com.art.tutordesk.test.FlightRecorderEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +34,12 @@ public class BalanceTransactionServiceTest {
 
     @Mock
     private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    @Mock
+    private StudentBalanceRepository studentBalanceRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private BalanceTransactionService balanceTransactionService;
@@ -45,20 +62,127 @@ public class BalanceTransactionServiceTest {
         TransactionSource source = TransactionSource.LESSON;
         BigDecimal amount = BigDecimal.TEN;
         Long sourceId = 100L;
+        Integer operation = 2;
+
+        when(ledgerEntryRepository.insert(any(LedgerEntry.class), any(LocalDateTime.class))).thenReturn(true);
+
+        balanceTransactionService.createBalanceTransaction(student, type, currency, source, amount, sourceId, operation);
+
+        verify(ledgerEntryRepository, times(1)).insert(eq(new LedgerEntry(student, type, currency, source, amount, sourceId, operation)),
+                any(LocalDateTime.class));
+        assertEquals(1, ledgerEntryCount(TransactionType.LESSON_CHARGE));
+    }
+
+    @Test
+    void createBalanceTransaction_shouldLeaveSnapshotAlone_whenEntryIsDuplicate() {
+        when(ledgerEntryRepository.insert(any(LedgerEntry.class), any(LocalDateTime.class))).thenReturn(false);
+
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.LESSON_CHARGE, Currency.USD,
+                TransactionSource.LESSON, new BigDecimal("-25.00"), 8L, 1);
+
+        verifyNoInteractions(studentBalanceRepository);
+        assertEquals(0, ledgerEntryCount(TransactionType.LESSON_CHARGE));
+    }
+
+    @Test
+    void createBalanceTransaction_shouldRecordFlightRecorderEvent_whenEnabled() {
+        List<RecordedEvent> events = FlightRecorderEvents.recordWhile(LedgerWriteEvent.NAME, () ->
+                balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_RECEIVED, Currency.USD,
+                        TransactionSource.PAYMENT, new BigDecimal("40.00"), 7L, 1));
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.getFirst();
+        assertEquals("PAYMENT_RECEIVED", event.getString("transactionType"));
+        assertEquals(1L, event.getLong("studentId"));
+        assertEquals("USD", event.getString("currency"));
+        assertEquals(40.0, event.getDouble("amount"));
+    }
+
+    @Test
+    void createBalanceTransaction_shouldCreateSnapshot_whenNoneExists() {
+        StudentBalanceId id = new StudentBalanceId(student.getId(), Currency.USD);
+        BigDecimal amount = new BigDecimal("40.00");
+        when(ledgerEntryRepository.insert(any(LedgerEntry.class), any(LocalDateTime.class))).thenReturn(true);
+        when(studentBalanceRepository.addToBalance(eq(id), eq(amount), any(LocalDateTime.class))).thenReturn(0);
+        when(studentBalanceRepository.insertIfAbsent(eq(1L), eq("USD"), eq(amount), any(LocalDateTime.class))).thenReturn(1);
+
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_RECEIVED, Currency.USD,
+                TransactionSource.PAYMENT, amount, 7L, 1);
+
+        verify(studentBalanceRepository, times(1)).addToBalance(eq(id), eq(amount), any(LocalDateTime.class));
+        verify(studentBalanceRepository).insertIfAbsent(eq(1L), eq("USD"), eq(amount), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createBalanceTransaction_shouldAddAmountToExistingSnapshot() {
+        StudentBalanceId id = new StudentBalanceId(student.getId(), Currency.USD);
+        BigDecimal amount = new BigDecimal("-25.00");
+        when(ledgerEntryRepository.insert(any(LedgerEntry.class), any(LocalDateTime.class))).thenReturn(true);
+        when(studentBalanceRepository.addToBalance(eq(id), eq(amount), any(LocalDateTime.class))).thenReturn(1);
+
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.LESSON_CHARGE, Currency.USD,
+                TransactionSource.LESSON, amount, 8L, 1);
+
+        verify(studentBalanceRepository, never()).insertIfAbsent(any(), any(), any(), any());
+    }
 
-        ArgumentCaptor<BalanceTransaction> transactionCaptor = ArgumentCaptor.forClass(BalanceTransaction.class);
-        when(balanceTransactionRepository.save(transactionCaptor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+    @Test
+    void createBalanceTransaction_shouldAddToSnapshot_whenConcurrentTransactionCreatedItFirst() {
+        StudentBalanceId id = new StudentBalanceId(student.getId(), Currency.USD);
+        BigDecimal amount = new BigDecimal("40.00");
+        when(ledgerEntryRepository.insert(any(LedgerEntry.class), any(LocalDateTime.class))).thenReturn(true);
+        when(studentBalanceRepository.addToBalance(eq(id), eq(amount), any(LocalDateTime.class))).thenReturn(0, 1);
+        when(studentBalanceRepository.insertIfAbsent(eq(1L), eq("USD"), eq(amount), any(LocalDateTime.class))).thenReturn(0);
 
-        balanceTransactionService.createBalanceTransaction(student, type, currency, source, amount, sourceId);
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_RECEIVED, Currency.USD,
+                TransactionSource.PAYMENT, amount, 7L, 1);
 
-        verify(balanceTransactionRepository, times(1)).save(any(BalanceTransaction.class));
-        BalanceTransaction savedTransaction = transactionCaptor.getValue();
-        assertEquals(student.getId(), savedTransaction.getStudent().getId());
-        assertEquals(type, savedTransaction.getType());
-        assertEquals(currency, savedTransaction.getCurrency());
-        assertEquals(source, savedTransaction.getSourceEntity());
-        assertEquals(amount, savedTransaction.getAmount());
-        assertEquals(sourceId, savedTransaction.getSourceId());
+        verify(studentBalanceRepository, times(2)).addToBalance(eq(id), eq(amount), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createBalanceTransactions_shouldSaveAllAndApplyOneDeltaPerStudentBalance() {
+        Student other = new Student();
+        other.setId(2L);
+        StudentBalanceId otherId = new StudentBalanceId(2L, Currency.EUR);
+        StudentBalanceId id = new StudentBalanceId(student.getId(), Currency.USD);
+        when(studentBalanceRepository.addToBalance(eq(id), any(BigDecimal.class), any(LocalDateTime.class))).thenReturn(1);
+        when(studentBalanceRepository.addToBalance(eq(otherId), any(BigDecimal.class), any(LocalDateTime.class))).thenReturn(1);
+        List<LedgerEntry> entries = List.of(
+                new LedgerEntry(other, TransactionType.LESSON_CHARGE, Currency.EUR, TransactionSource.LESSON, new BigDecimal("-15.00"), 3L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, new BigDecimal("-20.00"), 1L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, new BigDecimal("-25.00"), 2L, 1));
+        when(ledgerEntryRepository.insertAll(eq(entries), any(LocalDateTime.class))).thenReturn(new boolean[]{true, true, true});
+
+        balanceTransactionService.createBalanceTransactions(entries);
+
+        // Snapshots are updated (and locked) by ascending student ID, whatever the order of the entries
+        InOrder locks = inOrder(studentBalanceRepository);
+        locks.verify(studentBalanceRepository).addToBalance(eq(id), eq(new BigDecimal("-45.00")), any(LocalDateTime.class));
+        locks.verify(studentBalanceRepository).addToBalance(eq(otherId), eq(new BigDecimal("-15.00")), any(LocalDateTime.class));
+        assertEquals(3, ledgerEntryCount(TransactionType.LESSON_CHARGE));
+    }
+
+    @Test
+    void createBalanceTransactions_shouldApplyOnlyWrittenEntries() {
+        StudentBalanceId id = new StudentBalanceId(student.getId(), Currency.USD);
+        when(studentBalanceRepository.addToBalance(eq(id), any(BigDecimal.class), any(LocalDateTime.class))).thenReturn(1);
+        List<LedgerEntry> entries = List.of(
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, new BigDecimal("-20.00"), 1L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, new BigDecimal("-25.00"), 2L, 1));
+        when(ledgerEntryRepository.insertAll(eq(entries), any(LocalDateTime.class))).thenReturn(new boolean[]{false, true});
+
+        balanceTransactionService.createBalanceTransactions(entries);
+
+        verify(studentBalanceRepository).addToBalance(eq(id), eq(new BigDecimal("-25.00")), any(LocalDateTime.class));
+        assertEquals(1, ledgerEntryCount(TransactionType.LESSON_CHARGE));
+    }
+
+    @Test
+    void createBalanceTransactions_shouldDoNothing_whenNoEntries() {
+        balanceTransactionService.createBalanceTransactions(List.of());
+
+        verifyNoInteractions(ledgerEntryRepository, balanceTransactionRepository, studentBalanceRepository);
     }
 
     @Test
@@ -68,5 +192,10 @@ public class BalanceTransactionServiceTest {
         balanceTransactionService.deleteTransactionsByStudentId(studentIdToDelete);
 
         verify(balanceTransactionRepository, times(1)).deleteByStudentId(studentIdToDelete);
+        verify(studentBalanceRepository, times(1)).deleteByStudentId(studentIdToDelete);
+    }
+
+    private double ledgerEntryCount(TransactionType type) {
+        return meterRegistry.counter("tutordesk.ledger.entries", "type", type.name()).count();
     }
 }
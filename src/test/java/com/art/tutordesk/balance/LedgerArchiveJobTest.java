@@ -0,0 +1,30 @@
+package com.art.tutordesk.balance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerArchiveJobTest {
+
+    @Mock
+    private LedgerArchiveService ledgerArchiveService;
+
+    @Test
+    void archive_shouldArchiveWithTheConfiguredRetention() {
+        when(ledgerArchiveService.archive(LocalDate.now(), 24))
+                .thenReturn(Optional.of(new LedgerArchiveResult(LocalDateTime.of(2023, 6, 1, 0, 0), 10, 2)));
+
+        new LedgerArchiveJob(ledgerArchiveService, 24).archive();
+
+        verify(ledgerArchiveService).archive(LocalDate.now(), 24);
+    }
+}
@@ -0,0 +1,123 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+@Import({LedgerArchiveService.class, BalanceQueryService.class})
+public class LedgerArchiveServiceIT extends BaseIntegrationTest {
+
+    private static final LocalDateTime FEB = LocalDateTime.of(2025, 2, 1, 0, 0);
+    // One month of retention on 2025-03-15 puts the horizon at 2025-02-01
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+
+    @Autowired
+    private LedgerArchiveService ledgerArchiveService;
+
+    @Autowired
+    private BalanceQueryService balanceQueryService;
+
+    @Autowired
+    private BalanceTransactionRepository balanceTransactionRepository;
+
+    @Autowired
+    private BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        balanceCheckpointRepository.saveAll(List.of(
+                checkpoint(1L, Currency.USD, "30.00"),
+                checkpoint(2L, Currency.EUR, "40.00"),
+                checkpoint(4L, Currency.USD, "10.00"),
+                checkpoint(5L, Currency.EUR, "30.00")));
+    }
+
+    @Test
+    void archive_shouldReplaceOldEntriesWithOpeningBalancesAndKeepTotals() {
+        List<StudentCurrencyTotal> totalsBefore = balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency();
+
+        LedgerArchiveResult result = ledgerArchiveService.archive(TODAY, 1).orElseThrow();
+
+        assertThat(result).isEqualTo(new LedgerArchiveResult(FEB, 6, 4));
+        assertThat(balanceTransactionArchiveRepository.count()).isEqualTo(6);
+        List<BalanceTransaction> live = balanceTransactionRepository.findAll();
+        assertThat(live).hasSize(6);
+        assertThat(live).filteredOn(bt -> bt.getSourceEntity() == TransactionSource.LEDGER_ARCHIVE)
+                .hasSize(4)
+                .allMatch(bt -> bt.getType() == TransactionType.BALANCE_MIGRATION && bt.getTransactionDateTime().isBefore(FEB));
+        assertThat(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency())
+                .usingRecursiveFieldByFieldElementComparator()
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactlyInAnyOrderElementsOf(totalsBefore);
+    }
+
+    @Test
+    void archive_shouldKeepTheOperationKeyOfArchivedEntries() {
+        jdbcTemplate.update("UPDATE balance_transactions SET operation_seq = ? WHERE id = 1", LedgerEntry.SINGLE_OPERATION);
+
+        ledgerArchiveService.archive(TODAY, 1);
+
+        assertThat(balanceTransactionArchiveRepository.findById(1L).orElseThrow().getOperationSeq())
+                .isEqualTo(LedgerEntry.SINGLE_OPERATION);
+        assertThat(balanceTransactionArchiveRepository.findById(2L).orElseThrow().getOperationSeq()).isNull();
+    }
+
+    @Test
+    void archive_secondRunWithTheSameHorizon_shouldDoNothing() {
+        ledgerArchiveService.archive(TODAY, 1);
+
+        assertThat(ledgerArchiveService.archive(TODAY, 1)).isEmpty();
+        assertThat(balanceTransactionRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void archive_withoutCheckpoints_shouldDoNothing() {
+        balanceCheckpointRepository.deleteAll();
+
+        assertThat(ledgerArchiveService.archive(TODAY, 1)).isEmpty();
+        assertThat(balanceTransactionArchiveRepository.count()).isZero();
+    }
+
+    @Test
+    void getBalancesAsOf_shouldGiveTheSameAnswersAfterTheArchival() {
+        LocalDateTime january = LocalDateTime.of(2025, 1, 15, 0, 0);
+        LocalDateTime february = LocalDateTime.of(2025, 2, 15, 0, 0);
+        Map<Currency, BigDecimal> januaryBefore = balanceQueryService.getBalancesAsOf(1L, january);
+        Map<Currency, BigDecimal> februaryBefore = balanceQueryService.getBalancesAsOf(1L, february);
+
+        ledgerArchiveService.archive(TODAY, 1);
+
+        assertThat(balanceQueryService.getBalancesAsOf(1L, january).get(Currency.USD))
+                .isEqualByComparingTo(januaryBefore.get(Currency.USD)).isEqualByComparingTo("30.00");
+        assertThat(balanceQueryService.getBalancesAsOf(1L, february).get(Currency.USD))
+                .isEqualByComparingTo(februaryBefore.get(Currency.USD)).isEqualByComparingTo("50.00");
+    }
+
+    private BalanceCheckpoint checkpoint(Long studentId, Currency currency, String balance) {
+        return new BalanceCheckpoint(new BalanceCheckpointId(studentId, currency, FEB), new BigDecimal(balance));
+    }
+}
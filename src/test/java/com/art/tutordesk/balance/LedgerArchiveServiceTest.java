@@ -0,0 +1,86 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerArchiveServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+    private static final LocalDateTime MAR = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime MAY = LocalDateTime.of(2025, 5, 1, 0, 0);
+
+    @Mock
+    private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @InjectMocks
+    private LedgerArchiveService ledgerArchiveService;
+
+    @Test
+    void archive_horizonIsCappedAtTheLatestCheckpoint() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.of(MAR));
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency()).thenReturn(List.of(total("30.00")));
+        when(balanceTransactionArchiveRepository.copyEntriesBefore(eq(MAR), any())).thenReturn(12);
+        when(balanceTransactionRepository.insertOpeningBalances(MAR, MAR.minusNanos(1_000))).thenReturn(1);
+
+        // Two months of retention would allow 2025-04-01, but March is the last checkpointed month
+        LedgerArchiveResult result = ledgerArchiveService.archive(TODAY, 2).orElseThrow();
+
+        assertEquals(new LedgerArchiveResult(MAR, 12, 1), result);
+        verify(balanceTransactionRepository).deleteEntriesBefore(MAR, MAR.minusNanos(1_000));
+    }
+
+    @Test
+    void archive_totalsChanged_shouldThrowSoTheTransactionRollsBack() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.of(MAY));
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency())
+                .thenReturn(List.of(total("30.00")))
+                .thenReturn(List.of(total("25.00")));
+
+        assertThrows(IllegalStateException.class, () -> ledgerArchiveService.archive(TODAY, 2));
+    }
+
+    @Test
+    void archive_alreadyArchivedUpToTheHorizon_shouldDoNothing() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.of(MAY));
+        when(balanceTransactionRepository.findLatestOpeningDateTime()).thenReturn(Optional.of(MAY.minusMonths(1).minusNanos(1_000)));
+
+        assertTrue(ledgerArchiveService.archive(TODAY, 2).isEmpty());
+        verify(balanceTransactionArchiveRepository, never()).copyEntriesBefore(any(), any());
+    }
+
+    @Test
+    void archive_withoutCheckpoints_shouldDoNothing() {
+        when(balanceCheckpointRepository.findLatestCheckpointAt()).thenReturn(Optional.empty());
+
+        assertTrue(ledgerArchiveService.archive(TODAY, 2).isEmpty());
+        verify(balanceTransactionRepository, never()).insertOpeningBalances(any(), any());
+    }
+
+    private StudentCurrencyTotal total(String amount) {
+        return new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,43 @@
+package com.art.tutordesk.balance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReconciliationJobTest {
+
+    @Mock
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @InjectMocks
+    private LedgerReconciliationJob ledgerReconciliationJob;
+
+    @Test
+    void reconcile_shouldReconcileAllStudents() {
+        when(ledgerReconciliationService.reconcile(any(LocalDateTime.class)))
+                .thenReturn(new LedgerReconciliationResult(LocalDateTime.now(), 100, 0, 0));
+
+        ledgerReconciliationJob.reconcile();
+
+        verify(ledgerReconciliationService).reconcile(any(LocalDateTime.class));
+    }
+
+    @Test
+    void reconcile_shouldCompleteWhenDiscrepanciesAreFound() {
+        when(ledgerReconciliationService.reconcile(any(LocalDateTime.class)))
+                .thenReturn(new LedgerReconciliationResult(LocalDateTime.now(), 100, 2, 1));
+
+        ledgerReconciliationJob.reconcile();
+
+        verify(ledgerReconciliationService).reconcile(any(LocalDateTime.class));
+    }
+}
@@ -0,0 +1,80 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the chunk check against PostgreSQL. The chunks of a full run are checked on other connections, which do not
+ * see the uncommitted test data, so the parallel driver is covered by {@link LedgerReconciliationServiceTest}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+@Import(LedgerReconciliationService.class)
+public class LedgerReconciliationServiceIT extends BaseIntegrationTest {
+
+    private static final LocalDateTime RECONCILED_AT = LocalDateTime.of(2025, 3, 1, 3, 0);
+    private static final List<Long> ALL_STUDENTS = List.of(1L, 2L, 3L, 4L, 5L);
+
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @Autowired
+    private LedgerDiscrepancyRepository ledgerDiscrepancyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcileChunk_shouldReportLedgersThatDoNotMatchLessonsAndPayments() {
+        // The test ledger records the completed lessons of students 1 and 2 with a positive amount instead of a charge
+        int found = ledgerReconciliationService.reconcileChunk(ALL_STUDENTS, RECONCILED_AT);
+
+        assertThat(found).isEqualTo(2);
+        List<LedgerDiscrepancy> discrepancies = ledgerDiscrepancyRepository
+                .findByReconciledAtOrderByStudentIdAscCurrencyAsc(RECONCILED_AT);
+        assertThat(discrepancies).extracting(LedgerDiscrepancy::getStudentId, LedgerDiscrepancy::getCurrency)
+                .containsExactly(tuple(1L, Currency.USD), tuple(2L, Currency.EUR));
+        LedgerDiscrepancy first = discrepancies.getFirst();
+        assertThat(first.getLedgerBalance()).isEqualByComparingTo("50.00");
+        assertThat(first.getLessonCharges()).isEqualByComparingTo("20.00");
+        assertThat(first.getPayments()).isEqualByComparingTo("30.00");
+        assertThat(first.getExpectedBalance()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void reconcileChunk_shouldFindNothing_whenLedgerMatchesSources() {
+        jdbcTemplate.update("UPDATE balance_transactions SET amount = -amount WHERE type = 'LESSON_CHARGE'");
+
+        assertThat(ledgerReconciliationService.reconcileChunk(ALL_STUDENTS, RECONCILED_AT)).isZero();
+        assertThat(ledgerDiscrepancyRepository.findByReconciledAtOrderByStudentIdAscCurrencyAsc(RECONCILED_AT)).isEmpty();
+    }
+
+    @Test
+    void reconcileChunk_shouldReportChargesMissingFromTheLedger() {
+        jdbcTemplate.update("UPDATE balance_transactions SET amount = -amount WHERE type = 'LESSON_CHARGE'");
+        jdbcTemplate.update("UPDATE lesson_student SET status = 'NOT_ATTENDED' WHERE id = 4");
+
+        assertThat(ledgerReconciliationService.reconcileChunk(ALL_STUDENTS, RECONCILED_AT)).isEqualTo(1);
+
+        LedgerDiscrepancy discrepancy = ledgerDiscrepancyRepository.findByReconciledAtOrderByStudentIdAscCurrencyAsc(RECONCILED_AT)
+                .getFirst();
+        assertThat(discrepancy.getStudentId()).isEqualTo(4L);
+        assertThat(discrepancy.getLedgerBalance()).isEqualByComparingTo("10.00");
+        assertThat(discrepancy.getExpectedBalance()).isEqualByComparingTo(new BigDecimal("-10.00"));
+    }
+}
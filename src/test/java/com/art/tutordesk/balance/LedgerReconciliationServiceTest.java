@@ -0,0 +1,152 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReconciliationServiceTest {
+
+    private static final LocalDateTime RECONCILED_AT = LocalDateTime.of(2025, 9, 2, 3, 0);
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private LedgerDiscrepancyRepository ledgerDiscrepancyRepository;
+
+    private LedgerReconciliationService ledgerReconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerReconciliationService = new LedgerReconciliationService(studentRepository, balanceTransactionRepository,
+                ledgerDiscrepancyRepository, CHUNK_SIZE, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_shouldCheckEveryChunkAndSaveDiscrepancies() {
+        when(studentRepository.findIdsAfter(0L, Limit.of(CHUNK_SIZE))).thenReturn(List.of(1L, 2L));
+        when(studentRepository.findIdsAfter(2L, Limit.of(CHUNK_SIZE))).thenReturn(List.of(3L));
+        when(balanceTransactionRepository.sumLedgerAndSourcesOfStudents(List.of(1L, 2L))).thenReturn(List.of(
+                totals(1L, "USD", "10.00", "20.00", "30.00"),
+                totals(2L, "EUR", "64.00", "24.00", "40.00")));
+        when(balanceTransactionRepository.sumLedgerAndSourcesOfStudents(List.of(3L))).thenReturn(List.of(
+                totals(3L, "PLN", "0.00", "0.00", "0.00")));
+
+        LedgerReconciliationResult result = ledgerReconciliationService.reconcile(RECONCILED_AT);
+
+        assertEquals(new LedgerReconciliationResult(RECONCILED_AT, 3, 1, 0), result);
+        ArgumentCaptor<List<LedgerDiscrepancy>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerDiscrepancyRepository).saveAll(captor.capture());
+        LedgerDiscrepancy discrepancy = captor.getValue().getFirst();
+        assertEquals(RECONCILED_AT, discrepancy.getReconciledAt());
+        assertEquals(2L, discrepancy.getStudentId());
+        assertEquals(Currency.EUR, discrepancy.getCurrency());
+        assertEquals(new BigDecimal("64.00"), discrepancy.getLedgerBalance());
+        assertEquals(new BigDecimal("16.00"), discrepancy.getExpectedBalance());
+    }
+
+    @Test
+    void reconcile_shouldKeepCheckingOtherChunks_whenOneFails() {
+        when(studentRepository.findIdsAfter(0L, Limit.of(CHUNK_SIZE))).thenReturn(List.of(1L, 2L));
+        when(studentRepository.findIdsAfter(2L, Limit.of(CHUNK_SIZE))).thenReturn(List.of(3L, 4L));
+        when(studentRepository.findIdsAfter(4L, Limit.of(CHUNK_SIZE))).thenReturn(List.of());
+        when(balanceTransactionRepository.sumLedgerAndSourcesOfStudents(List.of(1L, 2L)))
+                .thenThrow(new IllegalStateException("Connection lost"));
+        when(balanceTransactionRepository.sumLedgerAndSourcesOfStudents(List.of(3L, 4L))).thenReturn(List.of(
+                totals(3L, "USD", "5.00", "0.00", "5.00")));
+
+        LedgerReconciliationResult result = ledgerReconciliationService.reconcile(RECONCILED_AT);
+
+        assertEquals(new LedgerReconciliationResult(RECONCILED_AT, 2, 0, 1), result);
+        verify(ledgerDiscrepancyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reconcile_shouldDoNothing_whenThereAreNoStudents() {
+        when(studentRepository.findIdsAfter(0L, Limit.of(CHUNK_SIZE))).thenReturn(List.of());
+
+        LedgerReconciliationResult result = ledgerReconciliationService.reconcile(RECONCILED_AT);
+
+        assertEquals(new LedgerReconciliationResult(RECONCILED_AT, 0, 0, 0), result);
+        verifyNoInteractions(balanceTransactionRepository, ledgerDiscrepancyRepository);
+    }
+
+    @Test
+    void reconcile_shouldThrow_whenInterrupted() {
+        when(studentRepository.findIdsAfter(0L, Limit.of(CHUNK_SIZE))).thenReturn(List.of(1L));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IllegalStateException.class, () -> ledgerReconciliationService.reconcile(RECONCILED_AT));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void reconcileChunk_shouldReportSourcesMissingFromTheLedger() {
+        when(balanceTransactionRepository.sumLedgerAndSourcesOfStudents(List.of(1L))).thenReturn(List.of(
+                totals(1L, "USD", "0.00", "25.00", "0.00")));
+
+        assertEquals(1, ledgerReconciliationService.reconcileChunk(List.of(1L), RECONCILED_AT));
+
+        verify(ledgerDiscrepancyRepository).saveAll(any());
+    }
+
+    private static LedgerReconciliationView totals(Long studentId, String currency, String ledger, String charges, String payments) {
+        return new Totals(studentId, currency, new BigDecimal(ledger), new BigDecimal(charges), new BigDecimal(payments));
+    }
+
+    private record Totals(Long studentId, String currency, BigDecimal ledgerBalance, BigDecimal lessonCharges,
+                          BigDecimal payments) implements LedgerReconciliationView {
+
+        @Override
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        @Override
+        public String getCurrency() {
+            return currency;
+        }
+
+        @Override
+        public BigDecimal getLedgerBalance() {
+            return ledgerBalance;
+        }
+
+        @Override
+        public BigDecimal getLessonCharges() {
+            return lessonCharges;
+        }
+
+        @Override
+        public BigDecimal getPayments() {
+            return payments;
+        }
+    }
+}
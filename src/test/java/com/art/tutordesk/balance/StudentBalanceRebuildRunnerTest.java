@@ -0,0 +1,35 @@
+package com.art.tutordesk.balance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StudentBalanceRebuildRunnerTest {
+
+    @Mock
+    private StudentBalanceRebuildService studentBalanceRebuildService;
+
+    @InjectMocks
+    private StudentBalanceRebuildRunner studentBalanceRebuildRunner;
+
+    @Test
+    void run_withRebuildOption_shouldRebuildBalances() {
+        studentBalanceRebuildRunner.run(new DefaultApplicationArguments("--rebuild-balances"));
+
+        verify(studentBalanceRebuildService).rebuild();
+    }
+
+    @Test
+    void run_withoutRebuildOption_shouldDoNothing() {
+        studentBalanceRebuildRunner.run(new DefaultApplicationArguments());
+
+        verify(studentBalanceRebuildService, never()).rebuild();
+    }
+}
@@ -0,0 +1,92 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StudentBalanceRebuildServiceTest {
+
+    @Mock
+    private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private StudentBalanceRepository studentBalanceRepository;
+
+    @InjectMocks
+    private StudentBalanceRebuildService studentBalanceRebuildService;
+
+    @Test
+    void rebuild_whenSnapshotMatchesLedger_shouldReportNoDrift() {
+        when(studentBalanceRepository.findAll()).thenReturn(List.of(createSnapshot(1L, Currency.USD, "50.00")));
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency())
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("50.00"))));
+
+        List<BalanceDrift> drifts = studentBalanceRebuildService.rebuild();
+
+        assertThat(drifts).isEmpty();
+        verify(studentBalanceRepository, never()).save(any());
+        verify(studentBalanceRepository, never()).delete(any());
+    }
+
+    @Test
+    void rebuild_shouldCorrectWrongSnapshot() {
+        StudentBalance snapshot = createSnapshot(1L, Currency.USD, "40.00");
+        when(studentBalanceRepository.findAll()).thenReturn(List.of(snapshot));
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency())
+                .thenReturn(List.of(new StudentCurrencyTotal(1L, Currency.USD, new BigDecimal("50.00"))));
+
+        List<BalanceDrift> drifts = studentBalanceRebuildService.rebuild();
+
+        assertThat(drifts).containsExactly(new BalanceDrift(1L, Currency.USD, new BigDecimal("40.00"), new BigDecimal("50.00")));
+        assertEquals(new BigDecimal("50.00"), snapshot.getBalance());
+        verify(studentBalanceRepository, times(1)).save(snapshot);
+    }
+
+    @Test
+    void rebuild_shouldCreateMissingSnapshot() {
+        when(studentBalanceRepository.findAll()).thenReturn(List.of());
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency())
+                .thenReturn(List.of(new StudentCurrencyTotal(2L, Currency.EUR, new BigDecimal("-24.00"))));
+
+        List<BalanceDrift> drifts = studentBalanceRebuildService.rebuild();
+
+        assertThat(drifts).containsExactly(new BalanceDrift(2L, Currency.EUR, null, new BigDecimal("-24.00")));
+        ArgumentCaptor<StudentBalance> captor = ArgumentCaptor.forClass(StudentBalance.class);
+        verify(studentBalanceRepository).save(captor.capture());
+        assertEquals(new StudentBalanceId(2L, Currency.EUR), captor.getValue().getId());
+        assertEquals(new BigDecimal("-24.00"), captor.getValue().getBalance());
+    }
+
+    @Test
+    void rebuild_shouldDeleteSnapshotWithoutLedgerEntries() {
+        StudentBalance orphan = createSnapshot(3L, Currency.PLN, "5.00");
+        when(studentBalanceRepository.findAll()).thenReturn(List.of(orphan));
+        when(balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency()).thenReturn(List.of());
+
+        List<BalanceDrift> drifts = studentBalanceRebuildService.rebuild();
+
+        assertThat(drifts).containsExactly(new BalanceDrift(3L, Currency.PLN, new BigDecimal("5.00"), null));
+        verify(studentBalanceRepository).delete(orphan);
+    }
+
+    private StudentBalance createSnapshot(Long studentId, Currency currency, String balance) {
+        StudentBalance snapshot = new StudentBalance(new StudentBalanceId(studentId, currency));
+        snapshot.setBalance(new BigDecimal(balance));
+        return snapshot;
+    }
+}
@@ -0,0 +1,97 @@
+package com.art.tutordesk.balance;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+public class StudentBalanceRepositoryIT extends BaseIntegrationTest {
+
+    @Autowired
+    private StudentBalanceRepository studentBalanceRepository;
+
+    @Autowired
+    private BalanceTransactionRepository balanceTransactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void whenFindByIdStudentId_thenReturnsSnapshotRowsOfStudent() {
+        List<StudentBalance> balances = studentBalanceRepository.findByIdStudentId(1L);
+
+        assertThat(balances).hasSize(1);
+        assertThat(balances.getFirst().getId().getCurrency()).isEqualTo(Currency.USD);
+        assertThat(balances.getFirst().getBalance()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void whenFindAllOfActiveStudents_thenSkipsSnapshotsOfInactiveStudents() {
+        List<StudentBalance> balances = studentBalanceRepository.findAllOfActiveStudents();
+
+        assertThat(balances).extracting(sb -> sb.getId().getStudentId()).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void whenAddToBalance_thenUpdatesExistingRow() {
+        int updated = studentBalanceRepository.addToBalance(new StudentBalanceId(2L, Currency.EUR),
+                new BigDecimal("10.00"), LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(studentBalanceRepository.findById(new StudentBalanceId(2L, Currency.EUR)).orElseThrow().getBalance())
+                .isEqualByComparingTo("74.00");
+    }
+
+    @Test
+    void whenAddToBalanceOfMissingRow_thenUpdatesNothing() {
+        assertThat(studentBalanceRepository.addToBalance(new StudentBalanceId(3L, Currency.PLN),
+                new BigDecimal("10.00"), LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void whenInsertIfAbsent_thenInsertsOnlyMissingRow() {
+        assertThat(studentBalanceRepository.insertIfAbsent(2L, "EUR", new BigDecimal("10.00"), LocalDateTime.now())).isZero();
+        assertThat(studentBalanceRepository.insertIfAbsent(3L, "PLN", new BigDecimal("10.00"), LocalDateTime.now())).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(studentBalanceRepository.findById(new StudentBalanceId(2L, Currency.EUR)).orElseThrow().getBalance())
+                .isEqualByComparingTo("64.00");
+        assertThat(studentBalanceRepository.findById(new StudentBalanceId(3L, Currency.PLN)).orElseThrow().getBalance())
+                .isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void whenDeleteByStudentId_thenRemovesOnlyRowsOfStudent() {
+        studentBalanceRepository.deleteByStudentId(1L);
+
+        assertThat(studentBalanceRepository.findByIdStudentId(1L)).isEmpty();
+        assertThat(studentBalanceRepository.findByIdStudentId(2L)).hasSize(1);
+    }
+
+    @Test
+    void whenSumAmountsGroupedByStudentAndCurrency_thenSeededSnapshotMatchesLedger() {
+        List<StudentCurrencyTotal> totals = balanceTransactionRepository.sumAmountsGroupedByStudentAndCurrency();
+
+        assertThat(totals).hasSize(4);
+        for (StudentCurrencyTotal total : totals) {
+            StudentBalance snapshot = studentBalanceRepository
+                    .findById(new StudentBalanceId(total.studentId(), total.currency()))
+                    .orElseThrow();
+            assertThat(snapshot.getBalance()).isEqualByComparingTo(total.total());
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.art.tutordesk.controller;
 
 import com.art.tutordesk.config.SecurityConfig;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.report.MonthlyMetrics;
+import com.art.tutordesk.report.ReportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
@@ -21,13 +31,20 @@ public class HomeControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
+    @MockitoBean
+    private ReportService reportService;
 
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void home_shouldReturnIndexView() throws Exception {
+        MonthlyMetrics metrics = new MonthlyMetrics(YearMonth.now(), 12L,
+                Map.of(Currency.USD, new BigDecimal("300.00")), Map.of(Currency.USD, new BigDecimal("250.00")));
+        when(reportService.getMetricsThisMonth()).thenReturn(metrics);
+
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("index"));
+                .andExpect(view().name("index"))
+                .andExpect(model().attribute("metrics", metrics));
     }
 
     @Test
@@ -6,10 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
+import org.springframework.web.server.ResponseStatusException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -51,4 +55,28 @@ class GlobalExceptionHandlerTest {
         assertEquals(null, actualViewName);
         verify(model, never()).addAttribute(any(), any());
     }
+
+    @Test
+    void handleResponseStatusException_shouldKeepStatusAndShowReason() {
+        ResponseStatusException exception = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported report format");
+
+        when(response.isCommitted()).thenReturn(false);
+
+        String actualViewName = globalExceptionHandler.handleResponseStatusException(exception, model, response);
+
+        assertEquals("error/custom-error", actualViewName);
+        verify(response).setStatus(400);
+        verify(model).addAttribute("errorMessage", "Unsupported report format");
+    }
+
+    @Test
+    void handleResponseStatusException_shouldReturnNull_whenResponseIsCommitted() {
+        ResponseStatusException exception = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported report format");
+
+        when(response.isCommitted()).thenReturn(true);
+
+        assertNull(globalExceptionHandler.handleResponseStatusException(exception, model, response));
+        verify(response, never()).setStatus(anyInt());
+        verify(model, never()).addAttribute(any(), any());
+    }
 }
@@ -0,0 +1,82 @@
+package com.art.tutordesk.integrationtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL of every prepared statement executed through the DataSource, exactly as Hibernate sent it.
+ * The PostgreSQL driver prints a prepared statement with its bound parameters inlined, so a recorded statement can be
+ * run again, e.g. under EXPLAIN. Import it into the test context; it wraps the DataSource bean.
+ */
+class ExecutedSqlRecorder implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    void clear() {
+        statements.clear();
+    }
+
+    List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (method, result) ->
+                    result instanceof Connection connection ? recording(connection) : result);
+        }
+        return bean;
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) ->
+                result instanceof PreparedStatement statement ? recording(statement) : result);
+    }
+
+    private PreparedStatement recording(PreparedStatement statement) {
+        return proxy(PreparedStatement.class, statement, (method, result) -> result, method -> {
+            if (EXECUTE_METHODS.contains(method.getName()) && method.getParameterCount() == 0) {
+                statements.add(statement.unwrap(PreparedStatement.class).toString());
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        return proxy(type, target, mapper, method -> {
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper, BeforeCall beforeCall) {
+        return type.cast(Proxy.newProxyInstance(ExecutedSqlRecorder.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    beforeCall.accept(method);
+                    try {
+                        return mapper.map(method, method.invoke(target, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+    }
+
+    @FunctionalInterface
+    private interface ResultMapper {
+        Object map(Method method, Object result) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface BeforeCall {
+        void accept(Method method) throws Exception;
+    }
+}
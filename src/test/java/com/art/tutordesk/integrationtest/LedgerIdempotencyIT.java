@@ -0,0 +1,152 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
+import com.art.tutordesk.balance.TransactionSource;
+import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.Student;
+import com.art.tutordesk.student.StudentRepository;
+import com.art.tutordesk.student.service.StudentHardDeleteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes the same ledger operation twice against PostgreSQL, once replayed after the first write committed and once
+ * from two overlapping transactions. Nothing is rolled back, so the student and its ledger are hard deleted after
+ * each test.
+ */
+@SpringBootTest
+public class LedgerIdempotencyIT extends BaseIntegrationTest {
+
+    private static final long PAYMENT_ID = 900001L;
+    private static final BigDecimal AMOUNT = new BigDecimal("40.00");
+
+    @Autowired
+    private BalanceTransactionService balanceTransactionService;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private StudentHardDeleteService studentHardDeleteService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        Student newStudent = new Student();
+        newStudent.setFirstName("Ledger");
+        newStudent.setLastName("Idempotency");
+        newStudent.setCurrency(Currency.USD);
+        student = studentRepository.save(newStudent);
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentHardDeleteService.performHardDelete(student.getId());
+    }
+
+    @Test
+    void replayAfterCommit_shouldChangeNothing() {
+        writePayment();
+        writePayment();
+
+        assertThat(operationSequences()).containsExactly(1);
+        assertThat(snapshotBalance()).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void differentOperationsOfSameSource_shouldBothBeRecorded() {
+        writePayment();
+        writePaymentUpdate(1, new BigDecimal("5.00"));
+        writePaymentUpdate(2, new BigDecimal("-10.00"));
+        writePaymentUpdate(2, new BigDecimal("-10.00"));
+
+        assertThat(operationSequences()).containsExactly(1, 1, 2);
+        assertThat(snapshotBalance()).isEqualByComparingTo("35.00");
+    }
+
+    @Test
+    void concurrentDuplicate_shouldBeWrittenOnce() throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            writePayment();
+            firstWritten.countDown();
+            await(commitFirst);
+        }));
+        assertThat(firstWritten.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The duplicate hits the uncommitted row in the unique index and waits for the first transaction
+        CompletableFuture<Void> second = CompletableFuture.runAsync(this::writePayment);
+        awaitLockWait();
+        commitFirst.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(operationSequences()).containsExactly(1);
+        assertThat(snapshotBalance()).isEqualByComparingTo("40.00");
+    }
+
+    private void writePayment() {
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_RECEIVED, Currency.USD,
+                TransactionSource.PAYMENT, AMOUNT, PAYMENT_ID, LedgerEntry.SINGLE_OPERATION);
+    }
+
+    private void writePaymentUpdate(int revision, BigDecimal difference) {
+        balanceTransactionService.createBalanceTransaction(student, TransactionType.PAYMENT_UPDATED, Currency.USD,
+                TransactionSource.PAYMENT, difference, PAYMENT_ID, revision);
+    }
+
+    private List<Integer> operationSequences() {
+        return jdbcTemplate.queryForList("""
+                SELECT operation_seq FROM balance_transactions
+                WHERE source_entity = 'PAYMENT' AND source_id = ? ORDER BY operation_seq
+                """, Integer.class, PAYMENT_ID);
+    }
+
+    private BigDecimal snapshotBalance() {
+        return jdbcTemplate.queryForObject("SELECT balance FROM student_balances WHERE student_id = ? AND currency = 'USD'",
+                BigDecimal.class, student.getId());
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()",
+                    Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("The duplicate write never waited for the first transaction");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.StudentDto;
+import com.art.tutordesk.student.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+public class MetricsIT extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Test
+    void prometheusEndpoint_shouldExposeServiceTimersLedgerCountersAndPoolAndHibernateGauges() throws Exception {
+        // Creating a student writes a STUDENT_CREATED ledger entry through the timed BalanceTransactionService
+        studentService.createStudent(new StudentDto(null, "Metered", "Student", "B1", null,
+                new BigDecimal("25.00"), new BigDecimal("20.00"), Currency.USD, true, null));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("tutordesk_ledger_entries_total{application=\"tutordesk\",type=\"STUDENT_CREATED\"}"),
+                        containsString("tutordesk_service_seconds_bucket{application=\"tutordesk\",class=\"com.art.tutordesk.balance.BalanceTransactionService\""),
+                        containsString("hikaricp_connections_active"),
+                        containsString("hibernate_sessions_open_total"))));
+    }
+
+    @Test
+    void otherActuatorEndpoints_shouldRequireLogin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+}
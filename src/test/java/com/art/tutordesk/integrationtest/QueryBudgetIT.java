@@ -0,0 +1,162 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.config.SecurityConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Every GET endpoint of the view controllers, and every POST endpoint that writes the ledger, has a declared budget of
+ * SQL statements per request. The dataset has 1,000 students, so an N+1 on any page overshoots its budget by hundreds
+ * of statements. Writes that move many charges are budgeted per moved charge instead.
+ * Data is committed once per class (not rolled back per test) so the asynchronous CSV export sees it too.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Import(SecurityConfig.class)
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+@Sql(scripts = "/query-budget-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/query-budget-cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_CLASS)
+public class QueryBudgetIT extends BaseIntegrationTest {
+
+    private static final long LESSON_ID = 10003L;
+    private static final long PAYMENT_ID = 10001L;
+    private static final long STUDENT_ID = 10001L;
+    // Snapshot update, cursor lock and re-allocation of the student's later charges, with their flushes
+    private static final int STATEMENTS_PER_MOVED_CHARGE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void setUp() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+    }
+
+    static Stream<Arguments> endpointBudgets() {
+        LocalDate start = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth());
+        LocalDate end = LocalDate.now().with(TemporalAdjusters.lastDayOfMonth());
+        String reportParams = "?startDate=%s&endDate=%s&includeLessons=true&includePayments=true".formatted(start, end);
+
+        return Stream.of(
+                Arguments.of("/", 1),
+                // LessonViewController
+                Arguments.of("/lessons/list", 3),
+                Arguments.of("/lessons/new", 1),
+                Arguments.of("/lessons/profile/" + LESSON_ID, 5),
+                Arguments.of("/lessons/edit/" + LESSON_ID, 6),
+                // LessonSeriesViewController
+                Arguments.of("/lessons/series/new", 1),
+                // PaymentViewController
+                Arguments.of("/payments/list", 2),
+                Arguments.of("/payments/profile/" + PAYMENT_ID, 2),
+                Arguments.of("/payments/new", 1),
+                Arguments.of("/payments/edit/" + PAYMENT_ID, 3),
+                // StudentViewController
+                Arguments.of("/students/new", 0),
+                // The students and the balance snapshots of all of them
+                Arguments.of("/students/list", 2),
+                Arguments.of("/students/list?showInactive=true", 2),
+                Arguments.of("/students/profile/" + STUDENT_ID, 2),
+                Arguments.of("/students/edit/" + STUDENT_ID, 2),
+                // ReportViewController
+                Arguments.of("/reports/list", 3),
+                Arguments.of("/reports/generate" + reportParams, 4),
+                // The students of the lessons, their payment statuses, then the lesson and payment cursors
+                Arguments.of("/reports/export" + reportParams, 5)
+        );
+    }
+
+    static Stream<Arguments> writeBudgets() {
+        LocalDate start = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth());
+        // Lessons 10004, 10032, ... 11488 fall on the fifth, each with one SCHEDULED student of its own
+        int scheduledOnFifth = 54;
+
+        return Stream.of(
+                Arguments.of("complete-day", post("/lessons/complete-day")
+                                .param("lessonDate", start.plusDays(4).toString()),
+                        10 + scheduledOnFifth * STATEMENTS_PER_MOVED_CHARGE),
+                // Group lesson: the first student is cancelled (a reversal at the group price), the second is unchanged
+                Arguments.of("lesson update", post("/lessons/update/" + LESSON_ID)
+                                .param("lessonDate", start.plusDays(3).toString())
+                                .param("studentUpdates[0].studentId", "10003")
+                                .param("studentUpdates[0].status", "CANCELED")
+                                .param("studentUpdates[1].studentId", "10503")
+                                .param("studentUpdates[1].status", "COMPLETED"),
+                        25),
+                Arguments.of("payment create", payment(post("/payments/create"), "40.00"), 15),
+                Arguments.of("payment update", payment(post("/payments/update/" + PAYMENT_ID), "60.00"), 15)
+        );
+    }
+
+    @ParameterizedTest(name = "{0} issues at most {1} statements")
+    @MethodSource("endpointBudgets")
+    void viewEndpoint_shouldStayWithinItsQueryBudget(String url, int budget) throws Exception {
+        queryCounter.reset();
+
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+
+        assertThat(result.getResolvedException()).isNull();
+        assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(queryCounter.count())
+                .as("GET %s issued %s", url, queryCounter.describe())
+                .isLessThanOrEqualTo(budget);
+    }
+
+    @ParameterizedTest(name = "POST {0} issues at most {2} statements")
+    @MethodSource("writeBudgets")
+    void writeEndpoint_shouldStayWithinItsQueryBudget(String name, MockHttpServletRequestBuilder request, int budget)
+            throws Exception {
+        queryCounter.reset();
+
+        MvcResult result = mockMvc.perform(request.with(csrf())).andReturn();
+
+        assertThat(result.getResolvedException()).isNull();
+        assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.FOUND.value());
+        assertThat(queryCounter.count())
+                .as("POST %s issued %s", name, queryCounter.describe())
+                .isLessThanOrEqualTo(budget);
+    }
+
+    // Payment 10001 of student 10001, kept on its date and currency
+    private static MockHttpServletRequestBuilder payment(MockHttpServletRequestBuilder request, String amount) {
+        LocalDate paymentDate = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth()).plusDays(1);
+        return request
+                .param("studentId", String.valueOf(STUDENT_ID))
+                .param("paymentDate", paymentDate.toString())
+                .param("paymentMethod", "CARD")
+                .param("amount", amount)
+                .param("currency", "EUR");
+    }
+}
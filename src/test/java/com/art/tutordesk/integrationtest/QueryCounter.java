@@ -0,0 +1,35 @@
+package com.art.tutordesk.integrationtest;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements prepared by Hibernate, so a test can put a ceiling on the queries a request issues.
+ * Requires {@code spring.jpa.properties.hibernate.generate_statistics=true}.
+ */
+class QueryCounter {
+
+    private final Statistics statistics;
+
+    QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    void reset() {
+        statistics.clear();
+    }
+
+    long count() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Summary for assertion messages: entity and collection fetches are what grows when an N+1 slips in.
+     */
+    String describe() {
+        return "%d statements (%d queries, %d entity fetches, %d collection fetches)".formatted(
+                statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount(),
+                statistics.getEntityFetchCount(), statistics.getCollectionFetchCount());
+    }
+}
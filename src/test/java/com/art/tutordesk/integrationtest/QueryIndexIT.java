@@ -0,0 +1,236 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.balance.BalanceTransactionRepository;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.repository.LessonRepository;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.report.MonthlyRollupRepository;
+import com.art.tutordesk.student.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the hot repository methods on a seeded dataset, then EXPLAINs the SQL Hibernate actually sent, with its
+ * bound parameters, and asserts that the query reads one of the secondary indexes of 013-add-query-indexes.yaml.
+ * The dataset has a long history next to the current month, so with sequential scans enabled the planner only
+ * picks an index when it is the cheaper plan. The seeded rows are rolled back after each test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/query-budget-data.sql")
+@Import(ExecutedSqlRecorder.class)
+public class QueryIndexIT extends BaseIntegrationTest {
+
+    private static final String LESSON_DATE = "idx_lessons_lesson_date_id";
+    private static final String LESSON_STUDENT_BY_STUDENT = "idx_lesson_student_student_currency_status";
+    private static final String LESSON_STUDENT_BY_LESSON = "idx_lesson_student_lesson_student";
+    private static final String PAYMENT_DATE = "idx_payments_payment_date_id";
+    private static final String PAYMENT_BY_STUDENT = "idx_payments_student_currency_amount";
+    private static final String LEDGER_BY_STUDENT = "idx_balance_transactions_student_currency_amount";
+    private static final String MONTHLY_ROLLUP = "pk_monthly_rollups";
+
+    private static final Long STUDENT_ID = 10001L;
+    private static final Pageable PAGE = PageRequest.of(0, 51);
+    private static final LocalDate END_DATE = LocalDate.now();
+    private static final LocalDate START_DATE = END_DATE.minusDays(30);
+
+    @Autowired
+    private ExecutedSqlRecorder executedSqlRecorder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private LessonRepository lessonRepository;
+    @Autowired
+    private LessonStudentRepository lessonStudentRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private BalanceTransactionRepository balanceTransactionRepository;
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Ten years of history before the current month of query-budget-data.sql, spread over many more students
+        jdbcTemplate.update("""
+                INSERT INTO students (id, first_name, last_name, knowledge_level, price_individual, price_group, currency, active, created_at, updated_at)
+                SELECT 100000 + g, 'History', 'Student' || g, 'B1', 25.00, 20.00, (ARRAY['USD', 'EUR', 'PLN'])[1 + g % 3], FALSE, now(), now()
+                FROM generate_series(1, 20000) AS g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO lessons (id, lesson_date)
+                SELECT 100000 + g, CURRENT_DATE - 40 - g % 3650
+                FROM generate_series(1, 100000) AS g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO lesson_student (id, lesson_id, student_id, price, currency, status)
+                SELECT 100000 + g, 100000 + g, s.id, s.price_individual, s.currency, 'COMPLETED'
+                FROM generate_series(1, 100000) AS g
+                JOIN students s ON s.id = 100001 + g % 20000
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO lesson_charge_allocations (lesson_student_id, student_id, currency, lesson_date, status, allocated_amount, consumed_credit)
+                SELECT ls.id, ls.student_id, ls.currency, l.lesson_date, 'PAID', ls.price, ls.price
+                FROM lesson_student ls
+                JOIN lessons l ON l.id = ls.lesson_id
+                WHERE ls.status = 'COMPLETED'
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO payments (id, payment_date, student_id, payment_method, amount, currency, created_at, updated_at)
+                SELECT 100000 + g, CURRENT_DATE - 40 - g % 3650, s.id, 'CARD', 50.00, s.currency, now(), now()
+                FROM generate_series(1, 100000) AS g
+                JOIN students s ON s.id = 100001 + g % 20000
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO balance_transactions (id, student_id, transaction_datetime, type, amount, currency, source_entity, source_id)
+                SELECT 100000 + p.id, p.student_id, now(), 'PAYMENT_RECEIVED', p.amount, p.currency, 'PAYMENT', p.id
+                FROM payments p
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO monthly_rollups (month_start, lesson_count)
+                SELECT CAST(date_trunc('month', CURRENT_DATE) - make_interval(months => g) AS DATE), 10
+                FROM generate_series(0, 2399) AS g
+                ON CONFLICT DO NOTHING
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO monthly_rollup_currencies (month_start, currency, payment_total, charge_total)
+                SELECT r.month_start, c.currency, 100.00, 80.00
+                FROM monthly_rollups r
+                CROSS JOIN (VALUES ('USD'), ('EUR'), ('PLN')) AS c(currency)
+                ON CONFLICT DO NOTHING
+                """);
+        jdbcTemplate.execute("ANALYZE");
+        executedSqlRecorder.clear();
+    }
+
+    @Test
+    void lessonPageKeys_shouldReadLessonDateIndex() {
+        assertServedByIndex(() -> lessonRepository.findPageKeys(START_DATE, END_DATE, START_DATE, 10000L,
+                null, null, null, PAGE), LESSON_DATE);
+    }
+
+    @Test
+    void monthlyRollupWithTotals_shouldReadPrimaryKey() {
+        assertServedByIndex(() -> monthlyRollupRepository.findWithTotals(END_DATE.withDayOfMonth(1)), MONTHLY_ROLLUP);
+    }
+
+    @Test
+    void lessonListRows_shouldReadLessonStudentByLessonIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findListRowsByLessonIds(List.of(10001L, 10002L, 10003L, 10004L, 10005L)),
+                LESSON_STUDENT_BY_LESSON);
+    }
+
+    @Test
+    void lessonStudentOfLessonAndStudent_shouldReadLessonStudentByLessonIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findByLessonIdAndStudentId(10003L, 10003L), LESSON_STUDENT_BY_LESSON);
+    }
+
+    @Test
+    void currenciesOfStudent_shouldReadLessonStudentByStudentIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findCurrenciesByStudentId(STUDENT_ID), LESSON_STUDENT_BY_STUDENT);
+    }
+
+    @Test
+    void chargesInOrder_shouldReadLessonStudentByStudentIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findChargesInOrder(STUDENT_ID, Currency.EUR,
+                List.of(LessonStudentStatus.COMPLETED, LessonStudentStatus.NOT_ATTENDED)), LESSON_STUDENT_BY_STUDENT);
+    }
+
+    @Test
+    void lessonsOfStudentsInWindow_shouldReadAnIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findByLessonDateBetweenAndStudentIds(START_DATE, END_DATE,
+                List.of(STUDENT_ID, 10002L)), LESSON_STUDENT_BY_STUDENT, LESSON_DATE);
+    }
+
+    @Test
+    void reportLessons_shouldReadAnIndex() {
+        assertServedByIndex(() -> {
+            try (Stream<?> rows = lessonStudentRepository.streamReportLessons(START_DATE, END_DATE, List.of(STUDENT_ID, 10002L))) {
+                rows.forEach(row -> {
+                });
+            }
+        }, LESSON_STUDENT_BY_STUDENT, LESSON_DATE);
+    }
+
+    @Test
+    void paymentStatusesInWindow_shouldReadAnIndex() {
+        assertServedByIndex(() -> lessonStudentRepository.findPaymentStatusesInWindow(List.of(STUDENT_ID, 10002L), START_DATE, END_DATE),
+                LESSON_STUDENT_BY_STUDENT, LESSON_DATE);
+    }
+
+    @Test
+    void paymentPage_shouldReadPaymentDateIndex() {
+        assertServedByIndex(() -> paymentRepository.findPage(null, null, null, null, null, END_DATE, 11000L, PAGE),
+                PAYMENT_DATE);
+    }
+
+    @Test
+    void paymentPageOfStudent_shouldReadAnIndex() {
+        assertServedByIndex(() -> paymentRepository.findPage(null, null, STUDENT_ID, null, null, null, null, PAGE),
+                PAYMENT_BY_STUDENT, PAYMENT_DATE);
+    }
+
+    @Test
+    void paymentsOfStudentsInWindow_shouldReadAnIndex() {
+        assertServedByIndex(() -> paymentRepository.findByFilters(START_DATE, END_DATE, List.of(STUDENT_ID, 10002L)),
+                PAYMENT_BY_STUDENT, PAYMENT_DATE);
+    }
+
+    @Test
+    void paymentSum_shouldReadPaymentByStudentIndex() {
+        Student student = entityManager.find(Student.class, STUDENT_ID);
+        executedSqlRecorder.clear();
+
+        assertServedByIndex(() -> paymentRepository.sumPayments(student, Currency.EUR), PAYMENT_BY_STUDENT);
+    }
+
+    @Test
+    void ledgerOfStudentAndCurrency_shouldReadLedgerByStudentIndex() {
+        assertServedByIndex(() -> balanceTransactionRepository.findByStudentIdAndCurrency(STUDENT_ID, Currency.EUR),
+                LEDGER_BY_STUDENT);
+    }
+
+    @Test
+    void ledgerOfStudent_shouldReadLedgerByStudentIndex() {
+        assertServedByIndex(() -> balanceTransactionRepository.findByStudentId(STUDENT_ID), LEDGER_BY_STUDENT);
+    }
+
+    /**
+     * The first statement of the call is the repository query and must read one of the indexes. Statements that
+     * follow it, e.g. eager fetches of associations, must not scan a table either.
+     */
+    private void assertServedByIndex(Runnable call, String... expectedIndexes) {
+        call.run();
+        List<String> statements = executedSqlRecorder.statements();
+
+        assertThat(statements).as("statements of the call").isNotEmpty();
+        for (int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i);
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            assertThat(plan).as("plan of %s", sql).doesNotContain("Seq Scan");
+            if (i == 0) {
+                assertThat(plan).as("plan of %s", sql).containsAnyOf(expectedIndexes);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.perf.RequestTiming;
+import com.art.tutordesk.perf.RequestTimingBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+public class RequestTimingIT extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestTimingBuffer requestTimingBuffer;
+
+    @Test
+    void renderedPage_shouldBeRecordedWithItsQueriesAndRenderTime() throws Exception {
+        mockMvc.perform(get("/payments/list")).andExpect(status().isOk());
+
+        RequestTiming timing = requestTimingBuffer.snapshot().getLast();
+        assertThat(timing.endpoint()).isEqualTo("GET /payments/list");
+        assertThat(timing.status()).isEqualTo(200);
+        assertThat(timing.queryCount()).isPositive();
+        assertThat(timing.sqlNanos()).isPositive();
+        assertThat(timing.viewNanos()).isPositive();
+        assertThat(timing.serviceNanos() + timing.sqlNanos() + timing.viewNanos()).isLessThanOrEqualTo(timing.totalNanos());
+    }
+
+    @Test
+    void pathVariables_shouldBeGroupedUnderTheirPattern() throws Exception {
+        mockMvc.perform(get("/lessons/profile/999999"));
+
+        assertThat(requestTimingBuffer.snapshot().getLast().endpoint()).isEqualTo("GET /lessons/profile/{id}");
+    }
+
+    @Test
+    void staticResources_shouldNotBeRecorded() throws Exception {
+        int before = requestTimingBuffer.snapshot().size();
+
+        mockMvc.perform(get("/css/styles.css")).andExpect(status().isOk());
+
+        assertThat(requestTimingBuffer.snapshot()).hasSize(before);
+    }
+}
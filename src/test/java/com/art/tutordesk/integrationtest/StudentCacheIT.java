@@ -0,0 +1,101 @@
+package com.art.tutordesk.integrationtest;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.Student;
+import com.art.tutordesk.student.StudentDto;
+import com.art.tutordesk.student.StudentRepository;
+import com.art.tutordesk.student.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with the second-level cache enabled, which the test profile otherwise turns off.
+ * Nothing here is rolled back: each call commits on its own, like a request does.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class StudentCacheIT extends BaseIntegrationTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long studentId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        studentId = studentService.createStudent(new StudentDto(null, "Cached", "Student", "B1", null,
+                new BigDecimal("25.00"), new BigDecimal("20.00"), Currency.USD, true, null)).getId();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentService.hardDeleteStudent(studentId);
+    }
+
+    @Test
+    void getStudentEntityById_shouldBeServedFromCacheAfterFirstLoad() {
+        studentService.getStudentEntityById(studentId);
+        long statementsAfterFirstLoad = statistics.getPrepareStatementCount();
+
+        Student student = studentService.getStudentEntityById(studentId);
+
+        assertThat(student.getFirstName()).isEqualTo("Cached");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstLoad);
+        assertThat(entityRegion().getHitCount()).isPositive();
+    }
+
+    @Test
+    void updateStudent_shouldWriteThroughToCache() {
+        studentService.getStudentEntityById(studentId);
+        StudentDto update = studentService.getStudentById(studentId);
+        update.setFirstName("Renamed");
+
+        studentService.updateStudent(update);
+        long statementsAfterUpdate = statistics.getPrepareStatementCount();
+
+        assertThat(studentService.getStudentEntityById(studentId).getFirstName()).isEqualTo("Renamed");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterUpdate);
+    }
+
+    @Test
+    void getAllActiveStudents_shouldUseQueryCacheUntilAStudentChanges() {
+        assertThat(studentService.getAllActiveStudents()).extracting(StudentDto::getId).contains(studentId);
+        assertThat(studentService.getAllActiveStudents()).extracting(StudentDto::getId).contains(studentId);
+        assertThat(queryRegion().getHitCount()).isEqualTo(1);
+
+        studentService.deactivateStudent(studentId);
+
+        assertThat(studentService.getAllActiveStudents()).extracting(StudentDto::getId).doesNotContain(studentId);
+        assertThat(queryRegion().getHitCount()).isEqualTo(1);
+        assertThat(queryRegion().getMissCount()).isEqualTo(2);
+    }
+
+    private CacheRegionStatistics entityRegion() {
+        return statistics.getDomainDataRegionStatistics(Student.CACHE_REGION);
+    }
+
+    private CacheRegionStatistics queryRegion() {
+        return statistics.getQueryRegionStatistics(StudentRepository.ACTIVE_STUDENTS_CACHE_REGION);
+    }
+}
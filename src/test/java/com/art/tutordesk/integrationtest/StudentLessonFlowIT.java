@@ -1,13 +1,18 @@
 package com.art.tutordesk.integrationtest;
 
 import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.balance.BalanceQueryService;
 import com.art.tutordesk.config.SecurityConfig;
 import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
 import com.art.tutordesk.lesson.repository.LessonRepository;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.lesson.service.LessonService;
 import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.report.MonthlyMetrics;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.StudentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,9 +27,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -58,6 +66,15 @@ public class StudentLessonFlowIT extends BaseIntegrationTest {
     @Autowired
     private BalanceQueryService balanceQueryService;
 
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private PaymentAllocationService paymentAllocationService;
+
+    @Autowired
+    private LessonService lessonService;
+
     private Student studentA;
     private Student studentB;
 
@@ -79,7 +96,8 @@ public class StudentLessonFlowIT extends BaseIntegrationTest {
         studentB.setPriceGroup(new BigDecimal("24.00"));
         studentB.setCurrency(Currency.PLN);
         studentB.setActive(true);
-        studentB = studentRepository.save(studentB);
+        // The ledger is written with plain JDBC, which does not flush the persistence context
+        studentB = studentRepository.saveAndFlush(studentB);
     }
 
     @Test
@@ -286,6 +304,88 @@ public class StudentLessonFlowIT extends BaseIntegrationTest {
         assertThat(balanceQueryService.getAllBalancesForStudent(studentA.getId()).getOrDefault(Currency.USD, BigDecimal.ZERO)).isEqualByComparingTo(BigDecimal.ZERO);
     }
 
+    @Test
+    void tc4_3_deletePaidLessonSettlesLaterCharge() throws Exception {
+        Long earlyLessonId = createCompletedLesson("2025-12-01");
+        Long laterLessonId = createCompletedLesson("2025-12-10");
+        mockMvc.perform(post("/payments/create")
+                        .param("studentId", studentA.getId().toString())
+                        .param("amount", "25.00")
+                        .param("currency", "USD")
+                        .param("paymentDate", "2025-12-01")
+                        .param("paymentMethod", "CARD")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        Long earlyChargeId = lessonStudentIdOf(earlyLessonId);
+        Long laterChargeId = lessonStudentIdOf(laterLessonId);
+        assertThat(paymentAllocationService.getPaymentStatuses(Set.of(earlyChargeId, laterChargeId)))
+                .containsEntry(earlyChargeId, PaymentStatus.PAID)
+                .containsEntry(laterChargeId, PaymentStatus.UNPAID);
+
+        // Completed lessons cannot be deleted from the UI, so the service is called directly
+        lessonService.deleteLesson(earlyLessonId);
+
+        assertThat(paymentAllocationService.getPaymentStatuses(Set.of(earlyChargeId, laterChargeId)))
+                .containsOnly(entry(laterChargeId, PaymentStatus.PAID));
+    }
+
+    @Test
+    void tc5_1_monthlyRollupsFollowLessonAndPaymentWrites() throws Exception {
+        YearMonth december = YearMonth.of(2025, 12);
+        YearMonth january = YearMonth.of(2026, 1);
+        mockMvc.perform(post("/lessons/create")
+                        .param("lessonDate", "2025-12-20")
+                        .param("selectedStudentIds", studentA.getId().toString())
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        Long lessonId = lessonRepository.findAll().getFirst().getId();
+
+        assertThat(monthlyRollupService.getMonthlyMetrics(december).lessonCount()).isEqualTo(1);
+        assertThat(monthlyRollupService.getMonthlyMetrics(december).charges()).isEmpty();
+
+        // Completing the lesson charges it in its month
+        mockMvc.perform(post("/lessons/update/" + lessonId)
+                        .param("lessonDate", "2025-12-20")
+                        .param("studentUpdates[0].studentId", studentA.getId().toString())
+                        .param("studentUpdates[0].status", "COMPLETED")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        assertThat(monthlyRollupService.getMonthlyMetrics(december).charges().get(Currency.USD)).isEqualByComparingTo("25.00");
+
+        // Moving the lesson moves its count and charge to the new month
+        mockMvc.perform(post("/lessons/update/" + lessonId)
+                        .param("lessonDate", "2026-01-05")
+                        .param("studentUpdates[0].studentId", studentA.getId().toString())
+                        .param("studentUpdates[0].status", "COMPLETED")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        mockMvc.perform(post("/payments/create")
+                        .param("studentId", studentA.getId().toString())
+                        .param("amount", "100.00")
+                        .param("currency", "USD")
+                        .param("paymentDate", "2025-12-03")
+                        .param("paymentMethod", "CARD")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+
+        MonthlyMetrics decemberMetrics = monthlyRollupService.getMonthlyMetrics(december);
+        MonthlyMetrics januaryMetrics = monthlyRollupService.getMonthlyMetrics(january);
+        assertThat(decemberMetrics.lessonCount()).isZero();
+        assertThat(decemberMetrics.charges()).isEmpty();
+        assertThat(decemberMetrics.payments().get(Currency.USD)).isEqualByComparingTo("100.00");
+        assertThat(januaryMetrics.lessonCount()).isEqualTo(1);
+        assertThat(januaryMetrics.charges().get(Currency.USD)).isEqualByComparingTo("25.00");
+
+        // The incremental rollups match a full recomputation
+        monthlyRollupService.rebuildAll();
+        assertThat(monthlyRollupService.getMonthlyMetrics(december)).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class).isEqualTo(decemberMetrics);
+        assertThat(monthlyRollupService.getMonthlyMetrics(january)).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class).isEqualTo(januaryMetrics);
+    }
+
     @Test
     void test_fullStudentLifecycle() throws Exception {
         // 1. Create student
@@ -357,4 +457,32 @@ public class StudentLessonFlowIT extends BaseIntegrationTest {
         assertThat(paymentRepository.findAll().stream().anyMatch(p -> p.getStudent().getId().equals(sId))).isFalse();
         assertThat(lessonStudentRepository.findAll().stream().anyMatch(ls -> ls.getStudent().getId().equals(sId))).isFalse();
     }
+
+    private Long createCompletedLesson(String lessonDate) throws Exception {
+        mockMvc.perform(post("/lessons/create")
+                        .param("lessonDate", lessonDate)
+                        .param("selectedStudentIds", studentA.getId().toString())
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        Long lessonId = lessonRepository.findAll().stream()
+                .filter(l -> l.getLessonDate().equals(LocalDate.parse(lessonDate)))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+        mockMvc.perform(post("/lessons/update/" + lessonId)
+                        .param("lessonDate", lessonDate)
+                        .param("studentUpdates[0].studentId", studentA.getId().toString())
+                        .param("studentUpdates[0].status", "COMPLETED")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection());
+        return lessonId;
+    }
+
+    private Long lessonStudentIdOf(Long lessonId) {
+        return lessonStudentRepository.findAll().stream()
+                .filter(ls -> ls.getLesson().getId().equals(lessonId))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
 }
@@ -0,0 +1,34 @@
+package com.art.tutordesk.lesson;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DayOfWeekSetConverterTest {
+
+    private final DayOfWeekSetConverter converter = new DayOfWeekSetConverter();
+
+    @Test
+    void convertToDatabaseColumn_SortsByWeekday() {
+        String column = converter.convertToDatabaseColumn(new LinkedHashSet<>(List.of(DayOfWeek.THURSDAY, DayOfWeek.MONDAY)));
+
+        assertEquals("MONDAY,THURSDAY", column);
+    }
+
+    @Test
+    void convertToEntityAttribute_ParsesNames() {
+        assertEquals(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), converter.convertToEntityAttribute("MONDAY,THURSDAY"));
+    }
+
+    @Test
+    void convertToEntityAttribute_NullOrBlank_ReturnsEmptySet() {
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+        assertTrue(converter.convertToEntityAttribute(" ").isEmpty());
+    }
+}
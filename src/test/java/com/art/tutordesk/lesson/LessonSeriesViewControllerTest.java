@@ -0,0 +1,140 @@
+package com.art.tutordesk.lesson;
+
+import com.art.tutordesk.config.SecurityConfig;
+import com.art.tutordesk.lesson.dto.LessonSeriesForm;
+import com.art.tutordesk.lesson.service.LessonSeriesService;
+import com.art.tutordesk.student.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@Import(SecurityConfig.class)
+@WebMvcTest(LessonSeriesViewController.class)
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+class LessonSeriesViewControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private LessonSeriesService lessonSeriesService;
+    @MockitoBean
+    private StudentService studentService;
+
+    @Test
+    void newSeriesForm() throws Exception {
+        when(studentService.getAllActiveStudents()).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/lessons/series/new"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("lesson/add-series"))
+                .andExpect(model().attributeExists("series", "allStudents", "frequencies", "weekdays"));
+    }
+
+    @Test
+    void createSeries_whenValid() throws Exception {
+        LessonSeries series = new LessonSeries();
+        series.setStartDate(LocalDate.of(2025, 9, 1));
+        when(lessonSeriesService.createSeries(any(LessonSeriesForm.class))).thenReturn(series);
+
+        mockMvc.perform(post("/lessons/series/create")
+                        .param("startDate", "2025-09-01")
+                        .param("frequency", "BI_WEEKLY")
+                        .param("weekdays", "MONDAY", "THURSDAY")
+                        .param("occurrences", "20")
+                        .param("studentIds", "1", "2")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/lessons/list?startDate=2025-09-01"))
+                .andExpect(flash().attributeExists("message"));
+
+        ArgumentCaptor<LessonSeriesForm> captor = ArgumentCaptor.forClass(LessonSeriesForm.class);
+        verify(lessonSeriesService).createSeries(captor.capture());
+        assertEquals(RecurrenceFrequency.BI_WEEKLY, captor.getValue().getFrequency());
+        assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), captor.getValue().getWeekdays());
+        assertEquals(20, captor.getValue().getOccurrences());
+        assertEquals(List.of(1L, 2L), captor.getValue().getStudentIds());
+    }
+
+    @Test
+    void createSeries_whenInvalid_noStudents() throws Exception {
+        when(studentService.getAllActiveStudents()).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(post("/lessons/series/create")
+                        .param("startDate", "2025-09-01")
+                        .param("occurrences", "20")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("lesson/add-series"))
+                .andExpect(model().attributeHasErrors("series"));
+
+        verify(lessonSeriesService, never()).createSeries(any());
+    }
+
+    @Test
+    void createSeries_whenRuleRejected() throws Exception {
+        when(studentService.getAllActiveStudents()).thenReturn(Collections.emptyList());
+        when(lessonSeriesService.createSeries(any(LessonSeriesForm.class)))
+                .thenThrow(new IllegalArgumentException("A lesson series needs an end date or a number of lessons."));
+
+        mockMvc.perform(post("/lessons/series/create")
+                        .param("startDate", "2025-09-01")
+                        .param("studentIds", "1")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("lesson/add-series"))
+                .andExpect(model().attributeHasErrors("series"));
+    }
+
+    @Test
+    void cancelRemaining() throws Exception {
+        when(lessonSeriesService.cancelRemaining(7L, LocalDate.of(2025, 9, 8))).thenReturn(12);
+
+        mockMvc.perform(post("/lessons/series/7/cancel")
+                        .param("fromDate", "2025-09-08")
+                        .param("lessonId", "42")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/lessons/profile/42"))
+                .andExpect(flash().attribute("message", "12 scheduled lesson student(s) of the series canceled."));
+    }
+
+    @Test
+    void updateRemainingPrice() throws Exception {
+        when(lessonSeriesService.updateRemainingPrice(7L, LocalDate.of(2025, 9, 8), 1L, new BigDecimal("30.00"))).thenReturn(5);
+
+        mockMvc.perform(post("/lessons/series/7/price")
+                        .param("fromDate", "2025-09-08")
+                        .param("lessonId", "42")
+                        .param("studentId", "1")
+                        .param("price", "30.00")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/lessons/profile/42"))
+                .andExpect(flash().attribute("message", "Price updated in 5 scheduled lesson(s) of the series."));
+    }
+}
@@ -2,6 +2,8 @@ package com.art.tutordesk.lesson;
 
 import com.art.tutordesk.config.SecurityConfig;
 import com.art.tutordesk.lesson.dto.LessonListDTO;
+import com.art.tutordesk.lesson.dto.LessonListFilter;
+import com.art.tutordesk.lesson.dto.LessonListPage;
 import com.art.tutordesk.lesson.dto.LessonProfileDTO;
 import com.art.tutordesk.lesson.dto.LessonStudentDto;
 import com.art.tutordesk.lesson.dto.LessonUpdateForm;
@@ -22,14 +24,18 @@ import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
@@ -50,22 +56,27 @@ class LessonViewControllerTest {
 
     @Test
     void listLessons() throws Exception {
-        when(lessonService.getLessonsByDateRange(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(Collections.emptyList());
+        when(lessonService.getLessonPage(any(LessonListFilter.class), isNull(), isNull(), eq(50)))
+                .thenReturn(new LessonListPage(Collections.emptyList(), null, null));
 
         mockMvc.perform(get("/lessons/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("lesson/list-lessons"))
-                .andExpect(model().attributeExists("lessons", "startDate", "endDate"));
+                .andExpect(model().attributeExists("lessons", "page", "startDate", "endDate", "allStudents"))
+                .andExpect(model().attribute("firstPage", true));
+
+        // The filter offers the cached list of active students
+        verify(studentService).getAllActiveStudents();
     }
 
     @Test
     void listLessons_withDateParams() throws Exception {
         LocalDate startDate = LocalDate.of(2025, 1, 1);
         LocalDate endDate = LocalDate.of(2025, 1, 31);
+        LessonListFilter filter = new LessonListFilter(startDate, endDate, null, null, null);
 
-        when(lessonService.getLessonsByDateRange(startDate, endDate))
-                .thenReturn(Collections.singletonList(new LessonListDTO()));
+        when(lessonService.getLessonPage(filter, null, null, 50))
+                .thenReturn(new LessonListPage(Collections.singletonList(new LessonListDTO()), null, null));
 
         mockMvc.perform(get("/lessons/list")
                         .param("startDate", "2025-01-01")
@@ -76,6 +87,40 @@ class LessonViewControllerTest {
                 .andExpect(model().attribute("endDate", endDate));
     }
 
+    @Test
+    void listLessons_withFiltersAndKeyset() throws Exception {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 12, 31);
+        LocalDate afterDate = LocalDate.of(2025, 3, 1);
+        LessonListFilter filter = new LessonListFilter(startDate, endDate, 7L, LessonStudentStatus.COMPLETED, PaymentStatus.UNPAID);
+        LessonListDTO lesson = new LessonListDTO();
+        lesson.setId(12L);
+        lesson.setLessonDate(LocalDate.of(2025, 3, 2));
+        lesson.setStudentNames(List.of("John Doe"));
+        lesson.setPaymentStatus(PaymentStatus.UNPAID);
+
+        when(lessonService.getLessonPage(filter, afterDate, 11L, 10))
+                .thenReturn(new LessonListPage(List.of(lesson), lesson.getLessonDate(), 12L));
+
+        mockMvc.perform(get("/lessons/list")
+                        .param("startDate", "2025-01-01")
+                        .param("endDate", "2025-12-31")
+                        .param("studentId", "7")
+                        .param("status", "COMPLETED")
+                        .param("paymentStatus", "UNPAID")
+                        .param("afterDate", "2025-03-01")
+                        .param("afterId", "11")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("lesson/list-lessons"))
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(model().attribute("studentId", 7L))
+                .andExpect(model().attribute("status", LessonStudentStatus.COMPLETED))
+                .andExpect(model().attribute("paymentStatus", PaymentStatus.UNPAID))
+                .andExpect(content().string(containsString("afterDate=2025-03-02")))
+                .andExpect(content().string(containsString("afterId=12")));
+    }
+
     @Test
     void newLessonForm() throws Exception {
         when(studentService.getAllActiveStudents()).thenReturn(Collections.emptyList());
@@ -199,6 +244,19 @@ class LessonViewControllerTest {
                 .andExpect(model().attributeHasErrors("lessonUpdateForm"));
     }
 
+    @Test
+    void completeDay() throws Exception {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        when(lessonService.updateStatusesForDate(date, LessonStudentStatus.SCHEDULED, LessonStudentStatus.COMPLETED)).thenReturn(3);
+
+        mockMvc.perform(post("/lessons/complete-day")
+                        .param("lessonDate", "2025-01-01")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/lessons/list?startDate=2025-01-01&endDate=2025-01-01"))
+                .andExpect(flash().attribute("message", "3 lesson student(s) on 2025-01-01 marked as COMPLETED."));
+    }
+
     @Test
     void deleteLesson() throws Exception {
         doNothing().when(lessonService).deleteLesson(1L);
@@ -2,6 +2,9 @@ package com.art.tutordesk.lesson;
 
 import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.payment.Payment;
+import com.art.tutordesk.student.Student;
+import com.art.tutordesk.test.FlightRecorderEvents;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -61,6 +64,57 @@ class PaymentStatusUtilTest {
         assertFalse(result.containsKey(104L)); // SCHEDULED is skipped
     }
 
+    @Test
+    void calculatePaymentStatuses_RecordsFlightRecorderEventOnlyWhenEnabled() {
+        Lesson lesson1 = new Lesson();
+        lesson1.setId(1L);
+        lesson1.setLessonDate(LocalDate.of(2025, 1, 1));
+        LessonStudent ls1 = createLessonStudent(101L, lesson1, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        LessonStudent ls2 = createLessonStudent(102L, lesson1, new BigDecimal("25.00"), LessonStudentStatus.SCHEDULED);
+        Payment p1 = new Payment();
+        p1.setAmount(new BigDecimal("30.00"));
+        p1.setCurrency(Currency.USD);
+
+        assertFalse(new PaymentStatusCalculationEvent().isEnabled());
+        List<RecordedEvent> events = FlightRecorderEvents.recordWhile(PaymentStatusCalculationEvent.NAME,
+                () -> util.calculatePaymentStatuses(List.of(ls1, ls2), List.of(p1)));
+
+        assertEquals(1, events.size());
+        assertEquals(2, events.getFirst().getInt("lessonCount"));
+        assertEquals(1, events.getFirst().getInt("paymentCount"));
+        assertEquals(1, events.getFirst().getInt("statusCount"));
+    }
+
+    @Test
+    void calculatePaymentStatusesForStudents_AppliesPaymentsOnlyToOwnStudent() {
+        Lesson lesson1 = new Lesson();
+        lesson1.setId(1L);
+        lesson1.setLessonDate(LocalDate.of(2025, 1, 1));
+
+        Student student1 = createStudent(1L);
+        Student student2 = createStudent(2L);
+
+        LessonStudent ls1 = createLessonStudent(101L, lesson1, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        ls1.setStudent(student1);
+        LessonStudent ls2 = createLessonStudent(102L, lesson1, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        ls2.setStudent(student2);
+
+        Payment p1 = new Payment();
+        p1.setStudent(student1);
+        p1.setAmount(new BigDecimal("25.00"));
+        p1.setCurrency(Currency.USD);
+
+        Map<Long, PaymentStatus> result = util.calculatePaymentStatusesForStudents(List.of(ls1, ls2), List.of(p1));
+
+        assertEquals(PaymentStatus.PAID, result.get(101L));
+        assertEquals(PaymentStatus.UNPAID, result.get(102L)); // Student 2 has no payments of its own
+    }
+
+    @Test
+    void calculatePaymentStatusesForStudents_EmptyInput() {
+        assertTrue(util.calculatePaymentStatusesForStudents(Collections.emptyList(), Collections.emptyList()).isEmpty());
+    }
+
     @Test
     void calculateOverallLessonPaymentStatus_Rules() {
         assertEquals(PaymentStatus.FREE, util.calculateOverallLessonPaymentStatus(List.of(PaymentStatus.FREE, PaymentStatus.FREE)));
@@ -70,6 +124,12 @@ class PaymentStatusUtilTest {
         assertEquals(PaymentStatus.UNPAID, util.calculateOverallLessonPaymentStatus(Collections.emptyList()));
     }
 
+    private Student createStudent(Long id) {
+        Student student = new Student();
+        student.setId(id);
+        return student;
+    }
+
     private LessonStudent createLessonStudent(Long id, Lesson l, BigDecimal price, LessonStudentStatus status) {
         LessonStudent ls = new LessonStudent();
         ls.setId(id);
@@ -1,16 +1,18 @@
 package com.art.tutordesk.lesson.repository;
 
 import com.art.tutordesk.BaseIntegrationTest;
-import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,85 +24,96 @@ public class LessonRepositoryIT extends BaseIntegrationTest {
     @Autowired
     private LessonRepository lessonRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
-    void countByLessonDateGreaterThanEqual_shouldReturnCorrectCount() {
-        long countAll = lessonRepository.countByLessonDateGreaterThanEqual(LocalDate.of(2025, 1, 1));
-        long countThree = lessonRepository.countByLessonDateGreaterThanEqual(LocalDate.of(2025, 1, 5));
-        long countTwo = lessonRepository.countByLessonDateGreaterThanEqual(LocalDate.of(2025, 1, 10));
-        long countOne = lessonRepository.countByLessonDateGreaterThanEqual(LocalDate.of(2025, 2, 1));
-        long countNone = lessonRepository.countByLessonDateGreaterThanEqual(LocalDate.of(2025, 2, 11));
-
-        assertThat(countAll).isEqualTo(5);
-        assertThat(countThree).isEqualTo(3);
-        assertThat(countTwo).isEqualTo(2);
-        assertThat(countOne).isEqualTo(1);
-        assertThat(countNone).isZero();
+    void findPageKeys_shouldReturnLessonsInDateRangeOrderedByDateAndId() {
+        List<LessonPageKey> keys = lessonRepository.findPageKeys(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10),
+                null, null, null, null, null, PageRequest.of(0, 10));
+
+        // 2025-01-01 (ID 1), 2025-01-02 (ID 2), 2025-01-05 (ID 4), 2025-01-10 (ID 3)
+        assertThat(keys).extracting(LessonPageKey::id).containsExactly(1L, 2L, 4L, 3L);
+        assertThat(keys.getFirst().lessonDate()).isEqualTo(LocalDate.of(2025, 1, 1));
     }
 
     @Test
-    void findByLessonDateBetween_shouldReturnCorrectLessons() {
+    void findPageKeys_shouldContinueAfterKeyAndRespectPageSize() {
         LocalDate startDate = LocalDate.of(2025, 1, 1);
-        LocalDate endDate = LocalDate.of(2025, 1, 2);
+        LocalDate endDate = LocalDate.of(2025, 2, 28);
 
-        List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
+        List<LessonPageKey> firstPage = lessonRepository.findPageKeys(startDate, endDate,
+                null, null, null, null, null, PageRequest.of(0, 2));
+        LessonPageKey last = firstPage.getLast();
+        List<LessonPageKey> secondPage = lessonRepository.findPageKeys(startDate, endDate,
+                last.lessonDate(), last.id(), null, null, null, PageRequest.of(0, 2));
 
-        assertThat(lessons).isNotNull();
-        assertThat(lessons).hasSize(2);
-        assertThat(lessons.getFirst().getId()).isEqualTo(1L);
-        assertThat(lessons.get(1).getId()).isEqualTo(2L);
+        assertThat(firstPage).extracting(LessonPageKey::id).containsExactly(1L, 2L);
+        assertThat(secondPage).extracting(LessonPageKey::id).containsExactly(4L, 3L);
     }
 
     @Test
-    void findByLessonDateBetween_shouldReturnSingleLesson() {
-        LocalDate startDate = LocalDate.of(2025, 1, 2);
-        LocalDate endDate = LocalDate.of(2025, 1, 2);
+    void findPageKeys_shouldBreakTiesOnSameDateById() {
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO lessons (id, lesson_date) VALUES (6, '2025-01-05'), (7, '2025-01-05')")
+                .executeUpdate();
 
-        List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
+        List<LessonPageKey> keys = lessonRepository.findPageKeys(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                LocalDate.of(2025, 1, 5), 4L, null, null, null, PageRequest.of(0, 10));
 
-        assertThat(lessons).isNotNull();
-        assertThat(lessons).hasSize(1);
-        assertThat(lessons.getFirst().getId()).isEqualTo(2L);
+        assertThat(keys).extracting(LessonPageKey::id).containsExactly(6L, 7L, 3L);
     }
 
     @Test
-    void findByLessonDateBetween_shouldReturnEmptyListForNoMatches() {
-        LocalDate startDate = LocalDate.of(2025, 3, 1);
-        LocalDate endDate = LocalDate.of(2025, 3, 31);
+    void findPageKeys_shouldFilterByStudentAndLessonStatus() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 2, 28);
+
+        List<LessonPageKey> byStudent = lessonRepository.findPageKeys(startDate, endDate,
+                null, null, 2L, null, null, PageRequest.of(0, 10));
+        List<LessonPageKey> byStatus = lessonRepository.findPageKeys(startDate, endDate,
+                null, null, null, LessonStudentStatus.COMPLETED, null, PageRequest.of(0, 10));
+        List<LessonPageKey> byStudentAndStatus = lessonRepository.findPageKeys(startDate, endDate,
+                null, null, 4L, LessonStudentStatus.COMPLETED, null, PageRequest.of(0, 10));
+
+        assertThat(byStudent).extracting(LessonPageKey::id).containsExactly(1L, 5L);
+        assertThat(byStatus).extracting(LessonPageKey::id).containsExactly(5L);
+        assertThat(byStudentAndStatus).isEmpty();
+    }
 
-        List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
+    @Test
+    void findPageKeys_shouldFilterByOverallPaymentStatusOfLesson() {
+        // Lesson student 7 is allocated as PAID, lesson student 8 has no allocation and counts as UNPAID
+        entityManager.getEntityManager().createNativeQuery("""
+                INSERT INTO lesson_charge_allocations (lesson_student_id, student_id, currency, lesson_date, status,
+                                                       allocated_amount, consumed_credit)
+                VALUES (7, 1, 'USD', '2025-02-01', 'PAID', 20.00, 20.00)
+                """).executeUpdate();
+
+        // Lesson 5 is partially paid overall, the other lessons have no chargeable students
+        assertThat(pageKeys(null, PaymentStatus.PARTIALLY_PAID)).extracting(LessonPageKey::id).containsExactly(5L);
+        assertThat(pageKeys(2L, PaymentStatus.PARTIALLY_PAID)).extracting(LessonPageKey::id).containsExactly(5L);
+        assertThat(pageKeys(null, PaymentStatus.PAID)).isEmpty();
+        assertThat(pageKeys(null, PaymentStatus.UNPAID)).isEmpty();
+        assertThat(pageKeys(null, PaymentStatus.FREE)).isEmpty();
+    }
 
-        assertThat(lessons).isNotNull();
-        assertThat(lessons).isEmpty();
+    @Test
+    void findPageKeys_withAllChargesPaidOrFree_shouldMatchPaid() {
+        entityManager.getEntityManager().createNativeQuery("""
+                INSERT INTO lesson_charge_allocations (lesson_student_id, student_id, currency, lesson_date, status,
+                                                       allocated_amount, consumed_credit)
+                VALUES (7, 1, 'USD', '2025-02-01', 'PAID', 20.00, 20.00),
+                       (8, 2, 'EUR', '2025-02-01', 'FREE', 0.00, 0.00)
+                """).executeUpdate();
+
+        assertThat(pageKeys(null, PaymentStatus.PAID)).extracting(LessonPageKey::id).containsExactly(5L);
+        assertThat(pageKeys(null, PaymentStatus.PARTIALLY_PAID)).isEmpty();
+        assertThat(pageKeys(4L, PaymentStatus.PAID)).isEmpty();
     }
 
-        @Test
-        void findByLessonDateBetween_shouldFetchStudentsEagerly() {
-            LocalDate startDate = LocalDate.of(2025, 1, 1);
-            LocalDate endDate = LocalDate.of(2025, 1, 1);
-    
-            List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
-            Lesson lesson = lessons.getFirst();
-    
-            // No LazyInitializationException should be thrown when accessing students
-            assertThat(lesson.getLessonStudents()).hasSize(2);
-            List<Long> studentIds = lesson.getLessonStudents().stream()
-                    .map(ls -> ls.getStudent().getId())
-                    .collect(Collectors.toList());
-            assertThat(studentIds).containsExactlyInAnyOrder(1L, 2L);
-        }
-    
-        @Test
-        void findByLessonDateBetween_shouldReturnLessonsInAscendingOrder() {
-            LocalDate startDate = LocalDate.of(2025, 1, 1);
-            LocalDate endDate = LocalDate.of(2025, 1, 10);
-    
-            List<Lesson> lessons = lessonRepository.findByLessonDateBetween(startDate, endDate);
-    
-            assertThat(lessons).isNotNull();
-            assertThat(lessons).hasSize(4);
-            // Verify the order based on lesson_date: 2025-01-01 (ID 1), 2025-01-02 (ID 2), 2025-01-05 (ID 4), 2025-01-10 (ID 3)
-            assertThat(lessons.stream().map(Lesson::getId).collect(Collectors.toList()))
-                    .containsExactly(1L, 2L, 4L, 3L);
-        }
+    private List<LessonPageKey> pageKeys(Long studentId, PaymentStatus paymentStatus) {
+        return lessonRepository.findPageKeys(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28),
+                null, null, studentId, null, paymentStatus, PageRequest.of(0, 10));
     }
-    
\ No newline at end of file
+}
@@ -2,13 +2,17 @@ package com.art.tutordesk.lesson.repository;
 
 import com.art.tutordesk.BaseIntegrationTest;
 import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.report.ReportLessonRow;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
@@ -16,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,6 +31,8 @@ public class LessonStudentRepositoryIT extends BaseIntegrationTest {
 
     @Autowired
     private LessonStudentRepository lessonStudentRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     @Test
     void findByLessonDateBetweenAndStudentIds_withSpecificStudent_shouldReturnMatchingLessons() {
@@ -134,4 +141,106 @@ public class LessonStudentRepositoryIT extends BaseIntegrationTest {
 
         assertThat(result).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByStudentIdIn_shouldReturnWholeHistoryOfGivenStudents() {
+        List<LessonStudent> result = lessonStudentRepository.findAllByStudentIdIn(Set.of(1L, 4L));
+
+        assertThat(result).hasSize(5);
+        assertThat(result).extracting(ls -> ls.getStudent().getId()).containsOnly(1L, 4L);
+        assertThat(result).allMatch(ls -> ls.getLesson().getLessonDate() != null);
+    }
+
+    @Test
+    void findAllByStudentIdIn_withUnknownStudents_shouldReturnEmptyList() {
+        List<LessonStudent> result = lessonStudentRepository.findAllByStudentIdIn(Set.of(99L));
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void streamReportLessons_shouldReturnRowsOrderedByDate() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        try (Stream<ReportLessonRow> rows = lessonStudentRepository.streamReportLessons(startDate, endDate, List.of(1L))) {
+            List<ReportLessonRow> result = rows.toList();
+
+            assertThat(result).extracting(ReportLessonRow::lessonStudentId).containsExactly(1L, 6L, 5L);
+        }
+    }
+
+    @Test
+    void findReportStudentIds_shouldReturnStudentsWithLessonsInWindow() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        assertThat(lessonStudentRepository.findReportStudentIds(startDate, endDate, null)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(lessonStudentRepository.findReportStudentIds(startDate, endDate, List.of(2L, 5L))).containsExactly(2L);
+    }
+
+    @Test
+    void findListRowsByLessonIds_shouldReturnStudentNamesAndStatusesOfGivenLessons() {
+        List<LessonStudentListRow> rows = lessonStudentRepository.findListRowsByLessonIds(List.of(1L, 5L));
+
+        assertThat(rows).extracting(LessonStudentListRow::lessonId).containsExactly(1L, 1L, 5L, 5L);
+        assertThat(rows.getFirst().firstName()).isEqualTo("Test");
+        assertThat(rows.getFirst().lastName()).isEqualTo("Student1");
+        assertThat(rows).extracting(LessonStudentListRow::status).containsExactly(
+                LessonStudentStatus.SCHEDULED, LessonStudentStatus.SCHEDULED,
+                LessonStudentStatus.COMPLETED, LessonStudentStatus.COMPLETED);
+        // data-test.sql has no allocations
+        assertThat(rows).allMatch(row -> row.paymentStatus() == null);
+    }
+
+    @Test
+    void findByLessonDateAndStatus_shouldReturnMatchingStudentsOfAllLessonsOfTheDay() {
+        List<LessonStudent> scheduled = lessonStudentRepository.findByLessonDateAndStatus(LocalDate.of(2025, 1, 1), LessonStudentStatus.SCHEDULED);
+        List<LessonStudent> completed = lessonStudentRepository.findByLessonDateAndStatus(LocalDate.of(2025, 1, 1), LessonStudentStatus.COMPLETED);
+
+        assertThat(scheduled).extracting(LessonStudent::getId).containsExactly(1L, 2L);
+        assertThat(scheduled).extracting(ls -> ls.getStudent().getLastName()).containsExactly("Student1", "Student2");
+        assertThat(completed).isEmpty();
+    }
+
+    @Test
+    void updateStatusInSeries_shouldCancelOnlyScheduledStudentsOfSeriesLessonsFromDate() {
+        createSeriesOfLessons(1L, 2L, 3L, 5L);
+
+        int canceled = lessonStudentRepository.updateStatusInSeries(1L, LocalDate.of(2025, 1, 2),
+                LessonStudentStatus.SCHEDULED, LessonStudentStatus.CANCELED);
+
+        assertThat(canceled).isEqualTo(3);
+        assertThat(lessonStudentRepository.findAllById(List.of(3L, 4L, 5L)))
+                .allMatch(ls -> ls.getStatus() == LessonStudentStatus.CANCELED);
+        // Before fromDate, completed, or not part of the series
+        assertThat(lessonStudentRepository.findAllById(List.of(1L, 2L, 6L)))
+                .allMatch(ls -> ls.getStatus() == LessonStudentStatus.SCHEDULED);
+        assertThat(lessonStudentRepository.findAllById(List.of(7L, 8L)))
+                .allMatch(ls -> ls.getStatus() == LessonStudentStatus.COMPLETED);
+    }
+
+    @Test
+    void updatePriceInSeries_shouldChangeOnlyScheduledLessonsOfStudentFromDate() {
+        createSeriesOfLessons(1L, 2L, 3L, 5L);
+
+        int updated = lessonStudentRepository.updatePriceInSeries(1L, LocalDate.of(2025, 1, 2), 1L,
+                LessonStudentStatus.SCHEDULED, new BigDecimal("40.00"));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(lessonStudentRepository.findById(5L).orElseThrow().getPrice()).isEqualByComparingTo("40.00");
+        assertThat(lessonStudentRepository.findById(1L).orElseThrow().getPrice()).isEqualByComparingTo("25.00");
+        assertThat(lessonStudentRepository.findById(7L).orElseThrow().getPrice()).isEqualByComparingTo("20.00");
+    }
+
+    private void createSeriesOfLessons(Long... lessonIds) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO lesson_series (id, frequency, weekdays, start_date, occurrences, created_at)
+                        VALUES (1, 'WEEKLY', 'WEDNESDAY', '2025-01-01', 4, CURRENT_TIMESTAMP)
+                        """)
+                .executeUpdate();
+        entityManager.createNativeQuery("UPDATE lessons SET series_id = 1 WHERE id IN (:ids)")
+                .setParameter("ids", List.of(lessonIds))
+                .executeUpdate();
+    }
+}
@@ -1,6 +1,8 @@
 package com.art.tutordesk.lesson.service;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
 import com.art.tutordesk.lesson.Lesson;
@@ -11,13 +13,16 @@ import com.art.tutordesk.student.Student;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +31,8 @@ class LessonBalanceServiceTest {
 
     @Mock
     private BalanceTransactionService balanceTransactionService;
+    @Mock
+    private PaymentAllocationService paymentAllocationService;
 
     @InjectMocks
     private LessonBalanceService lessonBalanceService;
@@ -58,6 +65,7 @@ class LessonBalanceServiceTest {
         lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price20, LessonStudentStatus.SCHEDULED);
 
         verifyNoInteractions(balanceTransactionService);
+        verifyNoInteractions(paymentAllocationService);
         assertEquals(price20, lessonStudent.getPrice());
         assertEquals(LessonStudentStatus.SCHEDULED, lessonStudent.getStatus());
     }
@@ -68,6 +76,7 @@ class LessonBalanceServiceTest {
         lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price25, LessonStudentStatus.CANCELED);
 
         verifyNoInteractions(balanceTransactionService);
+        verifyNoInteractions(paymentAllocationService);
         assertEquals(price25, lessonStudent.getPrice());
         assertEquals(LessonStudentStatus.CANCELED, lessonStudent.getStatus());
     }
@@ -83,15 +92,39 @@ class LessonBalanceServiceTest {
                 eq(Currency.USD),
                 eq(TransactionSource.LESSON),
                 eq(price20.negate()),
-                eq(100L)
+                eq(100L),
+                eq(1)
         );
+        verify(paymentAllocationService).onChargeChanged(lessonStudent);
         assertEquals(LessonStudentStatus.COMPLETED, lessonStudent.getStatus());
+        assertEquals(1, lessonStudent.getChargeVersion());
+    }
+
+    @Test
+    void testChargeAfterReversal_TakesNextChargeVersion() {
+        // CANCELED after an earlier charge and its reversal -> COMPLETED
+        lessonStudent.setStatus(LessonStudentStatus.CANCELED);
+        lessonStudent.setChargeVersion(1);
+
+        lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price20, LessonStudentStatus.COMPLETED);
+
+        verify(balanceTransactionService).createBalanceTransaction(
+                eq(student),
+                eq(TransactionType.LESSON_CHARGE),
+                eq(Currency.USD),
+                eq(TransactionSource.LESSON),
+                eq(price20.negate()),
+                eq(100L),
+                eq(2)
+        );
+        assertEquals(2, lessonStudent.getChargeVersion());
     }
 
     @Test
     void testChargeableToNonChargeable_CreatesReversal() {
         // COMPLETED -> CANCELED
         lessonStudent.setStatus(LessonStudentStatus.COMPLETED);
+        lessonStudent.setChargeVersion(1);
 
         lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price20, LessonStudentStatus.CANCELED);
 
@@ -101,15 +134,19 @@ class LessonBalanceServiceTest {
                 eq(Currency.USD),
                 eq(TransactionSource.LESSON),
                 eq(price20),
-                eq(100L)
+                eq(100L),
+                eq(1)
         );
+        verify(paymentAllocationService).onChargeChanged(lessonStudent);
         assertEquals(LessonStudentStatus.CANCELED, lessonStudent.getStatus());
+        assertEquals(1, lessonStudent.getChargeVersion());
     }
 
     @Test
     void testChargeableToChargeablePriceChanged_CreatesReversalAndNewCharge() {
         // COMPLETED -> COMPLETED, price 20 -> 25 (e.g. lesson became individual)
         lessonStudent.setStatus(LessonStudentStatus.COMPLETED);
+        lessonStudent.setChargeVersion(1);
 
         lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price25, LessonStudentStatus.COMPLETED);
 
@@ -120,7 +157,8 @@ class LessonBalanceServiceTest {
                 eq(Currency.USD),
                 eq(TransactionSource.LESSON),
                 eq(price20),
-                eq(100L)
+                eq(100L),
+                eq(1)
         );
 
         // Should apply new price
@@ -130,10 +168,12 @@ class LessonBalanceServiceTest {
                 eq(Currency.USD),
                 eq(TransactionSource.LESSON),
                 eq(price25.negate()),
-                eq(100L)
+                eq(100L),
+                eq(2)
         );
 
         assertEquals(price25, lessonStudent.getPrice());
+        assertEquals(2, lessonStudent.getChargeVersion());
         assertEquals(LessonStudentStatus.COMPLETED, lessonStudent.getStatus());
     }
 
@@ -145,6 +185,75 @@ class LessonBalanceServiceTest {
         lessonBalanceService.adjustBalanceForPriceAndStatusChange(lessonStudent, price20, LessonStudentStatus.NOT_ATTENDED);
 
         verifyNoInteractions(balanceTransactionService);
+        verify(paymentAllocationService).onChargeChanged(lessonStudent);
         assertEquals(LessonStudentStatus.NOT_ATTENDED, lessonStudent.getStatus());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkStatusChange_WritesLedgerEntriesAsOneBatch() {
+        LessonStudent other = new LessonStudent();
+        other.setId(101L);
+        other.setStudent(student);
+        other.setLesson(lessonStudent.getLesson());
+        other.setCurrency(Currency.USD);
+        other.setPrice(price25);
+        other.setStatus(LessonStudentStatus.SCHEDULED);
+
+        int changed = lessonBalanceService.adjustBalancesForStatusChange(List.of(lessonStudent, other), LessonStudentStatus.COMPLETED);
+
+        assertEquals(2, changed);
+        ArgumentCaptor<List<LedgerEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(balanceTransactionService).createBalanceTransactions(entriesCaptor.capture());
+        assertEquals(List.of(
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, price20.negate(), 100L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, price25.negate(), 101L, 1)
+        ), entriesCaptor.getValue());
+        verify(balanceTransactionService, never()).createBalanceTransaction(any(), any(), any(), any(), any(), any(), any());
+        verify(paymentAllocationService).onChargesChanged(List.of(lessonStudent, other));
+        verify(paymentAllocationService, never()).onChargeChanged(any());
+        assertEquals(LessonStudentStatus.COMPLETED, other.getStatus());
+    }
+
+    @Test
+    void testBulkStatusChange_SkipsRecordsAlreadyInStatusAndNonChargeableMoves() {
+        LessonStudent canceled = new LessonStudent();
+        canceled.setStatus(LessonStudentStatus.CANCELED);
+
+        int changed = lessonBalanceService.adjustBalancesForStatusChange(List.of(lessonStudent, canceled), LessonStudentStatus.CANCELED);
+
+        assertEquals(1, changed);
+        verify(balanceTransactionService).createBalanceTransactions(List.of());
+        verify(paymentAllocationService).onChargesChanged(List.of());
+        assertEquals(LessonStudentStatus.CANCELED, lessonStudent.getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPriceAndStatusChanges_WritesLedgerEntriesOfAllStudentsAsOneBatch() {
+        LessonStudent completed = new LessonStudent();
+        completed.setId(101L);
+        completed.setStudent(student);
+        completed.setLesson(lessonStudent.getLesson());
+        completed.setCurrency(Currency.USD);
+        completed.setPrice(price20);
+        completed.setStatus(LessonStudentStatus.COMPLETED);
+        completed.setChargeVersion(1);
+
+        lessonBalanceService.adjustBalancesForPriceAndStatusChanges(List.of(
+                new LessonStudentChange(lessonStudent, price20, LessonStudentStatus.COMPLETED),
+                new LessonStudentChange(completed, price25, LessonStudentStatus.COMPLETED)));
+
+        ArgumentCaptor<List<LedgerEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(balanceTransactionService).createBalanceTransactions(entriesCaptor.capture());
+        assertEquals(List.of(
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, price20.negate(), 100L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE_REVERSAL, Currency.USD, TransactionSource.LESSON, price20, 101L, 1),
+                new LedgerEntry(student, TransactionType.LESSON_CHARGE, Currency.USD, TransactionSource.LESSON, price25.negate(), 101L, 2)
+        ), entriesCaptor.getValue());
+        verify(balanceTransactionService, never()).createBalanceTransaction(any(), any(), any(), any(), any(), any(), any());
+        verify(paymentAllocationService).onChargesChanged(List.of(lessonStudent, completed));
+        verify(paymentAllocationService, never()).onChargeChanged(any());
+        assertEquals(price25, completed.getPrice());
+    }
 }
@@ -0,0 +1,184 @@
+package com.art.tutordesk.lesson.service;
+
+import com.art.tutordesk.lesson.Lesson;
+import com.art.tutordesk.lesson.LessonSeries;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.RecurrenceFrequency;
+import com.art.tutordesk.lesson.dto.LessonSeriesForm;
+import com.art.tutordesk.lesson.repository.LessonRepository;
+import com.art.tutordesk.lesson.repository.LessonSeriesRepository;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.report.MonthlyRollupService;
+import com.art.tutordesk.student.Student;
+import com.art.tutordesk.student.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LessonSeriesServiceTest {
+
+    // A Monday
+    private static final LocalDate SEP_1 = LocalDate.of(2025, 9, 1);
+
+    @Mock
+    private LessonSeriesRepository lessonSeriesRepository;
+    @Mock
+    private LessonRepository lessonRepository;
+    @Mock
+    private LessonStudentRepository lessonStudentRepository;
+    @Mock
+    private StudentService studentService;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Spy
+    private LessonStudentService lessonStudentService = new LessonStudentService(null);
+
+    @InjectMocks
+    private LessonSeriesService lessonSeriesService;
+
+    @Test
+    void occurrenceDates_Weekly_SelectedWeekdays_StopsAfterCount() {
+        List<LocalDate> dates = LessonSeriesService.occurrenceDates(SEP_1, RecurrenceFrequency.WEEKLY,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), null, 5);
+
+        assertThat(dates).containsExactly(SEP_1, SEP_1.plusDays(3), SEP_1.plusDays(7), SEP_1.plusDays(10), SEP_1.plusDays(14));
+    }
+
+    @Test
+    void occurrenceDates_BiWeekly_StopsAtEndDate() {
+        // Starts on a Wednesday: the Tuesday of the first week is already past, its Friday is not
+        LocalDate wednesday = SEP_1.plusDays(2);
+
+        List<LocalDate> dates = LessonSeriesService.occurrenceDates(wednesday, RecurrenceFrequency.BI_WEEKLY,
+                EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.FRIDAY), SEP_1.plusDays(29), null);
+
+        assertThat(dates).containsExactly(SEP_1.plusDays(4), SEP_1.plusDays(15), SEP_1.plusDays(18), SEP_1.plusDays(29));
+    }
+
+    @Test
+    void occurrenceDates_NoWeekdays_UsesWeekdayOfStartDate() {
+        List<LocalDate> dates = LessonSeriesService.occurrenceDates(SEP_1, RecurrenceFrequency.WEEKLY,
+                Set.of(), null, 3);
+
+        assertThat(dates).containsExactly(SEP_1, SEP_1.plusWeeks(1), SEP_1.plusWeeks(2));
+    }
+
+    @Test
+    void occurrenceDates_InvalidRules_Throw() {
+        Set<DayOfWeek> none = Set.of();
+        assertThrows(IllegalArgumentException.class,
+                () -> LessonSeriesService.occurrenceDates(null, RecurrenceFrequency.WEEKLY, none, null, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> LessonSeriesService.occurrenceDates(SEP_1, RecurrenceFrequency.WEEKLY, none, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> LessonSeriesService.occurrenceDates(SEP_1, RecurrenceFrequency.WEEKLY, none, null, 0));
+        // No Friday between Monday and Thursday
+        assertThrows(IllegalArgumentException.class, () -> LessonSeriesService.occurrenceDates(SEP_1,
+                RecurrenceFrequency.WEEKLY, EnumSet.of(DayOfWeek.FRIDAY), SEP_1.plusDays(3), null));
+        assertThrows(IllegalArgumentException.class, () -> LessonSeriesService.occurrenceDates(SEP_1,
+                RecurrenceFrequency.WEEKLY, none, null, LessonSeriesService.MAX_OCCURRENCES + 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createSeries_SavesAllLessonsWithScheduledStudentsAtGroupPrice() {
+        Student first = student(1L, Currency.USD);
+        Student second = student(2L, Currency.EUR);
+        when(studentService.getStudentsByIds(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(lessonSeriesRepository.save(any(LessonSeries.class))).thenAnswer(invocation -> {
+            LessonSeries series = invocation.getArgument(0);
+            series.setId(7L);
+            return series;
+        });
+
+        LessonSeriesForm form = new LessonSeriesForm();
+        form.setStartDate(SEP_1);
+        form.setOccurrences(4);
+        form.setStudentIds(List.of(1L, 2L));
+
+        LessonSeries series = lessonSeriesService.createSeries(form);
+
+        assertEquals(EnumSet.of(DayOfWeek.MONDAY), series.getWeekdays());
+        ArgumentCaptor<List<Lesson>> captor = ArgumentCaptor.forClass(List.class);
+        verify(lessonRepository).saveAll(captor.capture());
+        List<Lesson> lessons = captor.getValue();
+        assertThat(lessons).extracting(Lesson::getLessonDate)
+                .containsExactly(SEP_1, SEP_1.plusWeeks(1), SEP_1.plusWeeks(2), SEP_1.plusWeeks(3));
+        assertThat(lessons).allMatch(lesson -> lesson.getSeriesId() == 7L && lesson.getLessonStudents().size() == 2);
+        assertThat(lessons).flatExtracting(Lesson::getLessonStudents)
+                .allMatch(ls -> ls.getStatus() == LessonStudentStatus.SCHEDULED
+                        && ls.getPrice().compareTo(new BigDecimal("20.00")) == 0
+                        && ls.getCurrency() == ls.getStudent().getCurrency());
+        verify(monthlyRollupService).addLessons(List.of(SEP_1, SEP_1.plusWeeks(1), SEP_1.plusWeeks(2), SEP_1.plusWeeks(3)));
+    }
+
+    @Test
+    void createSeries_NoStudentsFound_Throws() {
+        LessonSeriesForm form = new LessonSeriesForm();
+        form.setStartDate(SEP_1);
+        form.setOccurrences(4);
+        form.setStudentIds(List.of(99L));
+        when(studentService.getStudentsByIds(List.of(99L))).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> lessonSeriesService.createSeries(form));
+        verify(lessonRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void cancelRemaining_UpdatesScheduledStudentsWithOneStatement() {
+        when(lessonSeriesRepository.findById(7L)).thenReturn(Optional.of(new LessonSeries()));
+        when(lessonStudentRepository.updateStatusInSeries(7L, SEP_1, LessonStudentStatus.SCHEDULED, LessonStudentStatus.CANCELED))
+                .thenReturn(12);
+
+        assertEquals(12, lessonSeriesService.cancelRemaining(7L, SEP_1));
+    }
+
+    @Test
+    void updateRemainingPrice_UpdatesScheduledStudentWithOneStatement() {
+        BigDecimal price = new BigDecimal("30.00");
+        when(lessonSeriesRepository.findById(7L)).thenReturn(Optional.of(new LessonSeries()));
+        when(lessonStudentRepository.updatePriceInSeries(7L, SEP_1, 1L, LessonStudentStatus.SCHEDULED, price)).thenReturn(5);
+
+        assertEquals(5, lessonSeriesService.updateRemainingPrice(7L, SEP_1, 1L, price));
+    }
+
+    @Test
+    void cancelRemaining_UnknownSeries_Throws() {
+        when(lessonSeriesRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> lessonSeriesService.cancelRemaining(7L, SEP_1));
+        verify(lessonStudentRepository, never()).updateStatusInSeries(any(), any(), any(), any());
+    }
+
+    private Student student(Long id, Currency currency) {
+        Student student = new Student();
+        student.setId(id);
+        student.setCurrency(currency);
+        student.setPriceIndividual(new BigDecimal("25.00"));
+        student.setPriceGroup(new BigDecimal("20.00"));
+        return student;
+    }
+}
@@ -1,28 +1,37 @@
 package com.art.tutordesk.lesson.service;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.lesson.Lesson;
 import com.art.tutordesk.lesson.LessonStudent;
 import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.lesson.PaymentStatus;
 import com.art.tutordesk.lesson.PaymentStatusUtil;
 import com.art.tutordesk.lesson.dto.LessonListDTO;
+import com.art.tutordesk.lesson.dto.LessonListFilter;
+import com.art.tutordesk.lesson.dto.LessonListPage;
 import com.art.tutordesk.lesson.dto.LessonProfileDTO;
 import com.art.tutordesk.lesson.dto.LessonStudentDto;
 import com.art.tutordesk.lesson.dto.LessonStudentUpdateDTO;
 import com.art.tutordesk.lesson.dto.LessonUpdateForm;
 import com.art.tutordesk.lesson.mapper.LessonMapper;
+import com.art.tutordesk.lesson.repository.LessonPageKey;
 import com.art.tutordesk.lesson.repository.LessonRepository;
+import com.art.tutordesk.lesson.repository.LessonStudentListRow;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
 import com.art.tutordesk.payment.Currency;
-import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.service.StudentService;
+import com.art.tutordesk.test.FlightRecorderEvents;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,13 +43,15 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -52,6 +63,8 @@ class LessonServiceTest {
     @Mock
     private LessonRepository lessonRepository;
     @Mock
+    private LessonStudentRepository lessonStudentRepository;
+    @Mock
     private StudentService studentService;
     @Mock
     private LessonStudentService lessonStudentService;
@@ -60,11 +73,11 @@ class LessonServiceTest {
     @Mock
     private LessonBalanceService lessonBalanceService;
     @Mock
-    private PaymentRepository paymentRepository;
-    @Mock
-    private LessonStudentRepository lessonStudentRepository;
+    private PaymentAllocationService paymentAllocationService;
     @Mock
     private PaymentStatusUtil paymentStatusUtil;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
 
     @InjectMocks
     private LessonService lessonService;
@@ -95,38 +108,83 @@ class LessonServiceTest {
         student2.setCurrency(Currency.USD);
 
         // Lenient stubs for new dependencies to avoid breaking existing tests
-        lenient().when(lessonStudentRepository.findAllByStudentId(anyLong())).thenReturn(Collections.emptyList());
-        lenient().when(paymentRepository.findAllByStudentId(anyLong())).thenReturn(Collections.emptyList());
-        lenient().when(paymentStatusUtil.calculatePaymentStatuses(anyList(), anyList())).thenReturn(Collections.emptyMap());
+        lenient().when(paymentAllocationService.getPaymentStatuses(anySet())).thenReturn(Collections.emptyMap());
         lenient().when(paymentStatusUtil.calculateOverallLessonPaymentStatus(anyList())).thenReturn(PaymentStatus.UNPAID);
     }
 
     @Test
-    void testGetLessonsByDateRange() {
-        LocalDate start = LocalDate.now();
-        LocalDate end = LocalDate.now().plusDays(1);
-        when(lessonRepository.findByLessonDateBetween(start, end)).thenReturn(List.of(lesson));
-        when(lessonMapper.toLessonListDTO(any())).thenReturn(new LessonListDTO());
+    void testGetLessonPage_Empty() {
+        LessonListFilter filter = new LessonListFilter(LocalDate.now(), LocalDate.now().plusDays(1), null, null, null);
+        when(lessonRepository.findPageKeys(filter.startDate(), filter.endDate(), null, null, null, null, null,
+                PageRequest.of(0, 21))).thenReturn(List.of());
 
-        List<LessonListDTO> result = lessonService.getLessonsByDateRange(start, end);
+        LessonListPage result = lessonService.getLessonPage(filter, null, null, 20);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(lessonRepository).findByLessonDateBetween(start, end);
+        assertTrue(result.lessons().isEmpty());
+        assertFalse(result.hasNext());
+        verify(lessonStudentRepository, never()).findListRowsByLessonIds(any());
+    }
+
+    @Test
+    void testGetLessonPage_BuildsRowsAndNextKey() {
+        LocalDate date = LocalDate.of(2025, 1, 5);
+        LessonListFilter filter = new LessonListFilter(date, date.plusDays(30), 10L, LessonStudentStatus.COMPLETED, PaymentStatus.PAID);
+        when(lessonRepository.findPageKeys(filter.startDate(), filter.endDate(), date, 3L, 10L,
+                LessonStudentStatus.COMPLETED, PaymentStatus.PAID, PageRequest.of(0, 3)))
+                .thenReturn(List.of(new LessonPageKey(4L, date), new LessonPageKey(7L, date), new LessonPageKey(9L, date.plusDays(1))));
+        when(lessonStudentRepository.findListRowsByLessonIds(List.of(4L, 7L))).thenReturn(List.of(
+                new LessonStudentListRow(4L, "John", "Doe", LessonStudentStatus.COMPLETED, PaymentStatus.PAID),
+                new LessonStudentListRow(4L, "Jane", "Roe", LessonStudentStatus.NOT_ATTENDED, null),
+                new LessonStudentListRow(4L, "Jim", "Poe", LessonStudentStatus.CANCELED, null),
+                new LessonStudentListRow(7L, "Jane", "Roe", LessonStudentStatus.SCHEDULED, null)));
+
+        LessonListPage result = lessonService.getLessonPage(filter, date, 3L, 2);
+
+        assertEquals(2, result.lessons().size());
+        assertTrue(result.hasNext());
+        assertEquals(date, result.nextAfterDate());
+        assertEquals(7L, result.nextAfterId());
+
+        LessonListDTO first = result.lessons().getFirst();
+        assertEquals(4L, first.getId());
+        assertEquals(List.of("John Doe", "Jane Roe", "Jim Poe"), first.getStudentNames());
+        assertEquals(PaymentStatus.UNPAID, first.getPaymentStatus());
+        // A charge without an allocation counts as UNPAID, non-chargeable students are skipped
+        verify(paymentStatusUtil).calculateOverallLessonPaymentStatus(List.of(PaymentStatus.PAID, PaymentStatus.UNPAID));
+
+        LessonListDTO second = result.lessons().get(1);
+        assertEquals(List.of("Jane Roe"), second.getStudentNames());
+        assertNull(second.getPaymentStatus());
     }
 
     @Test
-    void testGetLessonsByDateRange_Empty() {
-        LocalDate start = LocalDate.now();
-        LocalDate end = LocalDate.now().plusDays(1);
-        when(lessonRepository.findByLessonDateBetween(start, end)).thenReturn(List.of());
+    void testGetLessonPage_LastPageHasNoNextKey() {
+        LocalDate date = LocalDate.of(2025, 1, 5);
+        LessonListFilter filter = new LessonListFilter(date, date, null, null, null);
+        when(lessonRepository.findPageKeys(date, date, null, null, null, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(new LessonPageKey(4L, date)));
+        when(lessonStudentRepository.findListRowsByLessonIds(List.of(4L))).thenReturn(List.of());
+
+        LessonListPage result = lessonService.getLessonPage(filter, null, null, 2);
+
+        assertEquals(1, result.lessons().size());
+        assertTrue(result.lessons().getFirst().getStudentNames().isEmpty());
+        assertFalse(result.hasNext());
+        assertNull(result.nextAfterDate());
+    }
 
-        List<LessonListDTO> result = lessonService.getLessonsByDateRange(start, end);
+    @Test
+    void testGetLessonPage_ClampsPageSize() {
+        LessonListFilter filter = new LessonListFilter(LocalDate.now(), LocalDate.now(), null, null, null);
+        when(lessonRepository.findPageKeys(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(lessonRepository).findByLessonDateBetween(start, end);
-        verify(lessonMapper, never()).toLessonListDTO(any());
+        lessonService.getLessonPage(filter, null, null, 10_000);
+        lessonService.getLessonPage(filter, null, null, 0);
+
+        verify(lessonRepository).findPageKeys(filter.startDate(), filter.endDate(), null, null, null, null, null,
+                PageRequest.of(0, LessonService.MAX_PAGE_SIZE + 1));
+        verify(lessonRepository).findPageKeys(filter.startDate(), filter.endDate(), null, null, null, null, null,
+                PageRequest.of(0, 2));
     }
 
     @Test
@@ -153,7 +211,7 @@ class LessonServiceTest {
 
         when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
         when(lessonMapper.toLessonProfileDTO(lesson)).thenReturn(dto);
-        when(paymentStatusUtil.calculatePaymentStatuses(anyList(), anyList())).thenReturn(Map.of(100L, PaymentStatus.PAID));
+        when(paymentAllocationService.getPaymentStatuses(Set.of(100L))).thenReturn(Map.of(100L, PaymentStatus.PAID));
         when(paymentStatusUtil.calculateOverallLessonPaymentStatus(anyList())).thenReturn(PaymentStatus.PAID);
 
         LessonProfileDTO result = lessonService.getLessonById(1L);
@@ -208,6 +266,7 @@ class LessonServiceTest {
         verify(lessonRepository).save(lesson);
         verify(lessonStudentService).save(any(LessonStudent.class));
         assertEquals(new BigDecimal("25.00"), ls.getPrice());
+        verify(monthlyRollupService).addLesson(lesson.getLessonDate(), Map.of());
     }
 
     @Test
@@ -227,9 +286,11 @@ class LessonServiceTest {
 
         lessonService.updateLesson(1L, form);
 
-        verify(lessonBalanceService).adjustBalanceForPriceAndStatusChange(ls2, ls2.getPrice(), LessonStudentStatus.CANCELED);
-        verify(lessonStudentService).delete(ls2);
-        verify(lessonBalanceService).adjustBalanceForPriceAndStatusChange(ls1, student1.getPriceIndividual(), LessonStudentStatus.COMPLETED);
+        InOrder inOrder = inOrder(lessonBalanceService, lessonStudentService);
+        inOrder.verify(lessonBalanceService).adjustBalancesForPriceAndStatusChanges(List.of(
+                new LessonStudentChange(ls2, ls2.getPrice(), LessonStudentStatus.CANCELED),
+                new LessonStudentChange(ls1, student1.getPriceIndividual(), LessonStudentStatus.COMPLETED)));
+        inOrder.verify(lessonStudentService).delete(ls2);
 
         assertEquals(1, lesson.getLessonStudents().size());
     }
@@ -259,18 +320,119 @@ class LessonServiceTest {
 
         lessonService.updateLesson(1L, form);
 
-        verify(lessonBalanceService).adjustBalanceForPriceAndStatusChange(ls1, student1.getPriceGroup(), LessonStudentStatus.SCHEDULED);
         verify(lessonStudentService).save(ls2New);
         assertEquals(new BigDecimal("24.00"), ls2New.getPrice());
-        verify(lessonBalanceService).adjustBalanceForPriceAndStatusChange(ls2New, student2.getPriceGroup(), LessonStudentStatus.SCHEDULED);
+        verify(lessonBalanceService).adjustBalancesForPriceAndStatusChanges(List.of(
+                new LessonStudentChange(ls1, student1.getPriceGroup(), LessonStudentStatus.SCHEDULED),
+                new LessonStudentChange(ls2New, student2.getPriceGroup(), LessonStudentStatus.SCHEDULED)));
 
         assertEquals(2, lesson.getLessonStudents().size());
     }
 
+    @Test
+    void testUpdateLesson_DateChanged_ReallocatesChargeableStudents() {
+        LessonStudent ls1 = createLessonStudent(100L, student1, lesson, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        lesson.getLessonStudents().add(ls1);
+
+        when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
+        when(lessonBalanceService.isChargeable(LessonStudentStatus.COMPLETED)).thenReturn(true);
+
+        LessonUpdateForm form = new LessonUpdateForm();
+        form.setLessonDate(lesson.getLessonDate().minusDays(7));
+        LessonStudentUpdateDTO update1 = new LessonStudentUpdateDTO();
+        update1.setStudentId(10L);
+        update1.setStatus(LessonStudentStatus.COMPLETED);
+        form.setStudentUpdates(List.of(update1));
+
+        lessonService.updateLesson(1L, form);
+
+        assertEquals(form.getLessonDate(), lesson.getLessonDate());
+        verify(paymentAllocationService).onChargesChanged(List.of(ls1));
+        Map<Currency, BigDecimal> charges = Map.of(Currency.USD, new BigDecimal("25.00"));
+        verify(monthlyRollupService).updateLesson(form.getLessonDate().plusDays(7), charges, form.getLessonDate(), charges);
+    }
+
+    @Test
+    void testUpdateLesson_SameDate_DoesNotReallocate() {
+        LessonStudent ls1 = createLessonStudent(100L, student1, lesson, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        lesson.getLessonStudents().add(ls1);
+
+        when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
+
+        LessonUpdateForm form = new LessonUpdateForm();
+        form.setLessonDate(lesson.getLessonDate());
+        LessonStudentUpdateDTO update1 = new LessonStudentUpdateDTO();
+        update1.setStudentId(10L);
+        update1.setStatus(LessonStudentStatus.COMPLETED);
+        form.setStudentUpdates(List.of(update1));
+
+        lessonService.updateLesson(1L, form);
+
+        verify(paymentAllocationService, never()).onChargesChanged(any());
+    }
+
+    @Test
+    void testUpdateLesson_RecordsFlightRecorderEvent_WhenEnabled() {
+        LessonStudent ls1 = createLessonStudent(100L, student1, lesson, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        lesson.getLessonStudents().add(ls1);
+        when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
+
+        LessonUpdateForm form = new LessonUpdateForm();
+        form.setLessonDate(lesson.getLessonDate());
+        LessonStudentUpdateDTO update1 = new LessonStudentUpdateDTO();
+        update1.setStudentId(10L);
+        update1.setStatus(LessonStudentStatus.COMPLETED);
+        form.setStudentUpdates(List.of(update1));
+
+        List<RecordedEvent> events = FlightRecorderEvents.recordWhile(LessonUpdateEvent.NAME,
+                () -> lessonService.updateLesson(1L, form));
+
+        assertEquals(1, events.size());
+        assertEquals(1L, events.getFirst().getLong("lessonId"));
+        assertEquals(1, events.getFirst().getInt("studentCount"));
+        assertEquals(0, events.getFirst().getInt("removedStudentCount"));
+        assertFalse(events.getFirst().getBoolean("dateChanged"));
+    }
+
+    @Test
+    void testUpdateStatusesForDate_AppliesChargeRulesToAllLessonsOfTheDay() {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        List<LessonStudent> scheduled = List.of(
+                createLessonStudent(1L, student1, lesson, BigDecimal.TEN, LessonStudentStatus.SCHEDULED),
+                createLessonStudent(2L, student2, lesson, BigDecimal.TEN, LessonStudentStatus.SCHEDULED));
+        when(lessonStudentRepository.findByLessonDateAndStatus(date, LessonStudentStatus.SCHEDULED)).thenReturn(scheduled);
+        when(lessonBalanceService.adjustBalancesForStatusChange(scheduled, LessonStudentStatus.COMPLETED)).thenReturn(2);
+
+        int updated = lessonService.updateStatusesForDate(date, LessonStudentStatus.SCHEDULED, LessonStudentStatus.COMPLETED);
+
+        assertEquals(2, updated);
+        verify(lessonBalanceService, never()).adjustBalanceForPriceAndStatusChange(any(), any(), any());
+        verify(monthlyRollupService).updateCharges(date, Map.of(), Map.of());
+    }
+
     @Test
     void testDeleteLesson() {
+        LessonStudent completed = createLessonStudent(100L, student1, lesson, new BigDecimal("25.00"), LessonStudentStatus.COMPLETED);
+        LessonStudent canceled = createLessonStudent(101L, student2, lesson, new BigDecimal("30.00"), LessonStudentStatus.CANCELED);
+        lesson.getLessonStudents().addAll(Set.of(completed, canceled));
+        when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
+        when(lessonBalanceService.isChargeable(LessonStudentStatus.COMPLETED)).thenReturn(true);
+        when(lessonBalanceService.isChargeable(LessonStudentStatus.CANCELED)).thenReturn(false);
+
         lessonService.deleteLesson(1L);
-        verify(lessonRepository).deleteById(1L);
+
+        verify(monthlyRollupService).removeLesson(lesson.getLessonDate(), Map.of(Currency.USD, new BigDecimal("25.00")));
+        InOrder inOrder = inOrder(paymentAllocationService, lessonRepository);
+        inOrder.verify(paymentAllocationService).onChargesRemoved(List.of(completed));
+        inOrder.verify(lessonRepository).delete(lesson);
+    }
+
+    @Test
+    void testDeleteLesson_NotFound() {
+        when(lessonRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> lessonService.deleteLesson(1L));
+        verify(lessonRepository, never()).delete(any());
     }
 
     private LessonStudent createLessonStudent(Long id, Student s, Lesson l, BigDecimal p, LessonStudentStatus st) {
@@ -0,0 +1,65 @@
+package com.art.tutordesk.lesson.service;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.PaymentStatusUtil;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Payment;
+import com.art.tutordesk.payment.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStatusServiceTest {
+
+    @Mock
+    private LessonStudentRepository lessonStudentRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private PaymentStatusUtil paymentStatusUtil;
+
+    @InjectMocks
+    private PaymentStatusService paymentStatusService;
+
+    @Test
+    void getPaymentStatuses_shouldLoadAllStudentsWithSingleQueries() {
+        Set<Long> studentIds = Set.of(1L, 2L, 3L);
+        List<LessonStudent> lessons = List.of(new LessonStudent());
+        List<Payment> payments = List.of(new Payment());
+        when(lessonStudentRepository.findAllByStudentIdIn(studentIds)).thenReturn(lessons);
+        when(paymentRepository.findAllByStudentIdIn(studentIds)).thenReturn(payments);
+        when(paymentStatusUtil.calculatePaymentStatusesForStudents(lessons, payments)).thenReturn(Map.of(10L, PaymentStatus.PAID));
+
+        Map<Long, PaymentStatus> result = paymentStatusService.getPaymentStatuses(studentIds);
+
+        assertEquals(Map.of(10L, PaymentStatus.PAID), result);
+        verify(lessonStudentRepository).findAllByStudentIdIn(studentIds);
+        verify(paymentRepository).findAllByStudentIdIn(studentIds);
+    }
+
+    @Test
+    void getPaymentStatuses_withNoStudents_shouldNotQuery() {
+        Map<Long, PaymentStatus> result = paymentStatusService.getPaymentStatuses(Set.of());
+
+        assertTrue(result.isEmpty());
+        verify(lessonStudentRepository, never()).findAllByStudentIdIn(any());
+        verify(paymentRepository, never()).findAllByStudentIdIn(any());
+        verify(paymentStatusUtil, never()).calculatePaymentStatusesForStudents(anyList(), anyList());
+    }
+}
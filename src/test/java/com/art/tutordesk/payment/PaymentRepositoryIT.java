@@ -1,6 +1,7 @@
 package com.art.tutordesk.payment;
 
 import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.report.ReportPaymentRow;
 import com.art.tutordesk.student.Student;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.math.BigDecimal;
@@ -15,6 +17,7 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -71,28 +74,6 @@ public class PaymentRepositoryIT extends BaseIntegrationTest {
         assertThat(sumNoMatch).isEqualByComparingTo(BigDecimal.ZERO);
     }
 
-    @Test
-    void findByPaymentDateGreaterThanEqual_shouldReturnPaymentsOnOrAfterDate() {
-        // Payments on or after '2025-01-05' (ID 3, 4, 5, 6)
-        LocalDate startDate = LocalDate.of(2025, 1, 5);
-        List<Payment> payments = paymentRepository.findByPaymentDateGreaterThanEqual(startDate);
-
-        assertThat(payments).hasSize(4); // Payments with ID 3, 4, 5, 6
-        assertThat(payments).extracting(Payment::getId).containsExactlyInAnyOrder(3L, 4L, 5L, 6L);
-
-        // Payments on or after '2025-02-01' (ID 6)
-        LocalDate laterDate = LocalDate.of(2025, 2, 1);
-        List<Payment> laterPayments = paymentRepository.findByPaymentDateGreaterThanEqual(laterDate);
-
-        assertThat(laterPayments).hasSize(1); // Payment with ID 6
-        assertThat(laterPayments).extracting(Payment::getId).containsExactlyInAnyOrder(6L);
-
-        // Payments on or after '2025-03-01' (no payments)
-        LocalDate futureDate = LocalDate.of(2025, 3, 1);
-        List<Payment> futurePayments = paymentRepository.findByPaymentDateGreaterThanEqual(futureDate);
-        assertThat(futurePayments).isEmpty();
-    }
-
     @Test
     void findByFilters_shouldReturnPaymentsMatchingAllCriteria() {
         LocalDate startDate = LocalDate.of(2025, 1, 1); // Covers payments from ID 2 onwards
@@ -127,6 +108,19 @@ public class PaymentRepositoryIT extends BaseIntegrationTest {
         assertThat(oldPayments).isEmpty();
     }
 
+    @Test
+    void streamReportPayments_shouldReturnRowsOrderedByDate() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        try (Stream<ReportPaymentRow> rows = paymentRepository.streamReportPayments(startDate, endDate, Arrays.asList(1L, 2L, 4L))) {
+            List<ReportPaymentRow> result = rows.toList();
+
+            assertThat(result).extracting(ReportPaymentRow::paymentId).containsExactly(2L, 3L, 4L);
+            assertThat(result.getFirst().lastName()).isEqualTo("Student2");
+        }
+    }
+
     @Test
     void deleteAllByStudentId_shouldDeleteAllPaymentsForStudent() {
         // Pre-condition: Verify payments exist for student 1
@@ -148,4 +142,50 @@ public class PaymentRepositoryIT extends BaseIntegrationTest {
                 .filter(p -> p.getStudent().getId().equals(2L)))
                 .hasSize(2); // Payments ID 2 and 6
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByStudentIdIn_shouldReturnPaymentsOfGivenStudents() {
+        List<Payment> payments = paymentRepository.findAllByStudentIdIn(Arrays.asList(1L, 2L));
+
+        assertThat(payments).hasSize(4);
+        assertThat(payments).extracting(Payment::getId).containsExactlyInAnyOrder(1L, 2L, 4L, 6L);
+    }
+
+    @Test
+    void findPage_shouldReturnRowsNewestFirstWithStudentNames() {
+        List<PaymentDto> rows = paymentRepository.findPage(null, null, null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(rows).extracting(PaymentDto::getId).containsExactly(6L, 5L, 4L, 3L, 2L, 1L);
+        PaymentDto newest = rows.getFirst();
+        assertThat(newest.getStudentId()).isEqualTo(2L);
+        assertThat(newest.getStudentLastName()).isEqualTo("Student2");
+        assertThat(newest.getPaymentMethod()).isEqualTo(PaymentMethod.CARD);
+        assertThat(newest.getAmount()).isEqualByComparingTo("25.00");
+        assertThat(newest.getCurrency()).isEqualTo(Currency.EUR);
+    }
+
+    @Test
+    void findPage_shouldContinueBeforeKey() {
+        List<PaymentDto> firstPage = paymentRepository.findPage(null, null, null, null, null, null, null, PageRequest.of(0, 2));
+        PaymentDto last = firstPage.getLast();
+        List<PaymentDto> secondPage = paymentRepository.findPage(null, null, null, null, null,
+                last.getPaymentDate(), last.getId(), PageRequest.of(0, 2));
+
+        assertThat(firstPage).extracting(PaymentDto::getId).containsExactly(6L, 5L);
+        assertThat(secondPage).extracting(PaymentDto::getId).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void findPage_shouldApplyFilters() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        List<PaymentDto> inJanuary = paymentRepository.findPage(startDate, endDate, null, null, null, null, null, PageRequest.of(0, 10));
+        List<PaymentDto> student1ByCard = paymentRepository.findPage(null, null, 1L, PaymentMethod.CARD, null, null, null, PageRequest.of(0, 10));
+        List<PaymentDto> inEur = paymentRepository.findPage(null, null, null, null, Currency.EUR, null, null, PageRequest.of(0, 10));
+
+        assertThat(inJanuary).extracting(PaymentDto::getId).containsExactly(5L, 4L, 3L, 2L);
+        assertThat(student1ByCard).extracting(PaymentDto::getId).containsExactly(4L, 1L);
+        assertThat(inEur).extracting(PaymentDto::getId).containsExactly(6L, 5L, 2L);
+    }
+}
@@ -1,8 +1,11 @@
 package com.art.tutordesk.payment;
 
+import com.art.tutordesk.allocation.PaymentAllocationService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.service.StudentService;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +15,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +48,10 @@ public class PaymentServiceTest {
     private PaymentMapper paymentMapper;
     @Mock
     private StudentService studentService;
+    @Mock
+    private PaymentAllocationService paymentAllocationService;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
     @InjectMocks
     private PaymentService paymentService;
 
@@ -93,32 +102,47 @@ public class PaymentServiceTest {
     }
 
     @Test
-    void getAllPayments_shouldReturnAllPayments() {
-        when(paymentRepository.findAll()).thenReturn(Arrays.asList(payment1, payment2));
-        when(paymentMapper.toPaymentDto(payment1)).thenReturn(paymentDto1);
-        when(paymentMapper.toPaymentDto(payment2)).thenReturn(paymentDto2);
+    void getPaymentPage_shouldReturnLastPage_whenNoMoreRows() {
+        PaymentListFilter filter = new PaymentListFilter(null, null, null, null, null);
+        when(paymentRepository.findPage(null, null, null, null, null, null, null, PageRequest.of(0, 3)))
+                .thenReturn(List.of(paymentDto1, paymentDto2));
 
-        List<PaymentDto> result = paymentService.getAllPayments();
+        PaymentListPage result = paymentService.getPaymentPage(filter, null, null, 2);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains(paymentDto1));
-        assertTrue(result.contains(paymentDto2));
-        verify(paymentRepository, times(1)).findAll();
-        verify(paymentMapper, times(1)).toPaymentDto(payment1);
-        verify(paymentMapper, times(1)).toPaymentDto(payment2);
+        assertEquals(List.of(paymentDto1, paymentDto2), result.payments());
+        assertFalse(result.hasNext());
+        assertNull(result.nextBeforeDate());
     }
 
     @Test
-    void getAllPayments_shouldReturnEmptyList_whenNoPayments() {
-        when(paymentRepository.findAll()).thenReturn(List.of());
+    void getPaymentPage_shouldReturnNextKey_whenMoreRowsExist() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        LocalDate end = LocalDate.of(2025, 12, 31);
+        LocalDate beforeDate = LocalDate.now();
+        PaymentListFilter filter = new PaymentListFilter(start, end, 1L, PaymentMethod.CARD, Currency.USD);
+        PaymentDto extra = new PaymentDto();
+        when(paymentRepository.findPage(start, end, 1L, PaymentMethod.CARD, Currency.USD, beforeDate, 500L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(paymentDto1, extra));
+
+        PaymentListPage result = paymentService.getPaymentPage(filter, beforeDate, 500L, 1);
+
+        assertEquals(List.of(paymentDto1), result.payments());
+        assertTrue(result.hasNext());
+        assertEquals(paymentDto1.getPaymentDate(), result.nextBeforeDate());
+        assertEquals(paymentDto1.getId(), result.nextBeforeId());
+    }
 
-        List<PaymentDto> result = paymentService.getAllPayments();
+    @Test
+    void getPaymentPage_shouldClampPageSize() {
+        PaymentListFilter filter = new PaymentListFilter(null, null, null, null, null);
+        when(paymentRepository.findPage(any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(paymentRepository, times(1)).findAll();
-        verify(paymentMapper, never()).toPaymentDto(any(Payment.class));
+        paymentService.getPaymentPage(filter, null, null, 10_000);
+        paymentService.getPaymentPage(filter, null, null, -5);
+
+        verify(paymentRepository).findPage(null, null, null, null, null, null, null,
+                PageRequest.of(0, PaymentService.MAX_PAGE_SIZE + 1));
+        verify(paymentRepository).findPage(null, null, null, null, null, null, null, PageRequest.of(0, 2));
     }
 
     @Test
@@ -166,8 +190,11 @@ public class PaymentServiceTest {
                 eq(payment1.getCurrency()),
                 eq(TransactionSource.PAYMENT),
                 eq(payment1.getAmount()),
-                eq(payment1.getId())
+                eq(payment1.getId()),
+                eq(LedgerEntry.SINGLE_OPERATION)
         );
+        verify(paymentAllocationService).onPaymentChanged(1L, Currency.USD, new BigDecimal("50.00"));
+        verify(monthlyRollupService).addPayment(payment1.getPaymentDate(), Currency.USD, new BigDecimal("50.00"));
         verify(paymentMapper, times(1)).toPaymentDto(payment1);
     }
 
@@ -186,8 +213,10 @@ public class PaymentServiceTest {
         updatedPaymentEntity.setAmount(new BigDecimal("60.00"));
         updatedPaymentEntity.setCurrency(Currency.USD);
         updatedPaymentEntity.setPaymentDate(LocalDate.now());
+        updatedPaymentEntity.setRevision(3);
+        payment1.setRevision(2);
 
-        when(paymentRepository.findById(100L)).thenReturn(Optional.of(payment1));
+        when(paymentRepository.findByIdForUpdate(100L)).thenReturn(Optional.of(payment1));
         doNothing().when(paymentMapper).updatePaymentFromDto(any(PaymentDto.class), eq(payment1));
         when(studentService.getStudentEntityById(student.getId())).thenReturn(student);
         when(paymentRepository.save(payment1)).thenReturn(updatedPaymentEntity);
@@ -197,7 +226,7 @@ public class PaymentServiceTest {
 
         assertNotNull(result);
         assertEquals(updatedPaymentDto.getAmount(), result.getAmount());
-        verify(paymentRepository, times(1)).findById(100L);
+        verify(paymentRepository, times(1)).findByIdForUpdate(100L);
         verify(paymentMapper, times(1)).updatePaymentFromDto(any(PaymentDto.class), eq(payment1));
         verify(studentService, times(1)).getStudentEntityById(student.getId());
         verify(paymentRepository, times(1)).save(payment1);
@@ -209,27 +238,60 @@ public class PaymentServiceTest {
                 eq(Currency.USD),
                 eq(TransactionSource.PAYMENT),
                 amountCaptor.capture(),
-                eq(updatedPaymentEntity.getId())
+                eq(updatedPaymentEntity.getId()),
+                eq(3)
         );
         assertEquals(new BigDecimal("10.00"), amountCaptor.getValue());
+        assertEquals(3, payment1.getRevision());
+        verify(paymentAllocationService).onPaymentChanged(1L, Currency.USD, new BigDecimal("10.00"));
+        verify(monthlyRollupService).updatePayment(payment1.getPaymentDate(), Currency.USD, new BigDecimal("50.00"),
+                updatedPaymentEntity.getPaymentDate(), Currency.USD, new BigDecimal("60.00"));
         verify(paymentMapper, times(1)).toPaymentDto(updatedPaymentEntity);
     }
 
+    @Test
+    void updatePayment_shouldMoveAllocation_whenStudentChanged() {
+        Student otherStudent = new Student();
+        otherStudent.setId(2L);
+
+        PaymentDto updatedPaymentDto = new PaymentDto();
+        updatedPaymentDto.setId(100L);
+        updatedPaymentDto.setStudentId(otherStudent.getId());
+        updatedPaymentDto.setAmount(new BigDecimal("50.00"));
+        updatedPaymentDto.setCurrency(Currency.USD);
+        updatedPaymentDto.setPaymentDate(LocalDate.now());
+
+        Payment updatedPaymentEntity = new Payment();
+        updatedPaymentEntity.setId(100L);
+        updatedPaymentEntity.setStudent(otherStudent);
+        updatedPaymentEntity.setAmount(new BigDecimal("50.00"));
+        updatedPaymentEntity.setCurrency(Currency.USD);
+
+        when(paymentRepository.findByIdForUpdate(100L)).thenReturn(Optional.of(payment1));
+        when(studentService.getStudentEntityById(otherStudent.getId())).thenReturn(otherStudent);
+        when(paymentRepository.save(payment1)).thenReturn(updatedPaymentEntity);
+
+        paymentService.updatePayment(updatedPaymentDto);
+
+        verify(paymentAllocationService).onPaymentChanged(1L, Currency.USD, new BigDecimal("-50.00"));
+        verify(paymentAllocationService).onPaymentChanged(2L, Currency.USD, new BigDecimal("50.00"));
+    }
+
     @Test
     void updatePayment_shouldThrowException_whenPaymentNotFound() {
         PaymentDto nonExistentPaymentDto = new PaymentDto();
         nonExistentPaymentDto.setId(999L);
-        when(paymentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(paymentRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
                 paymentService.updatePayment(nonExistentPaymentDto));
 
         assertEquals("Payment not found for update with id: 999", exception.getMessage());
-        verify(paymentRepository, times(1)).findById(999L);
+        verify(paymentRepository, times(1)).findByIdForUpdate(999L);
         verify(paymentMapper, never()).updatePaymentFromDto(any(PaymentDto.class), any(Payment.class));
         verify(studentService, never()).getStudentEntityById(anyLong()); // Updated to exact method
         verify(paymentRepository, never()).save(any(Payment.class));
-        verify(balanceTransactionService, never()).createBalanceTransaction(any(Student.class), any(), any(), any(), any(), anyLong());
+        verify(balanceTransactionService, never()).createBalanceTransaction(any(Student.class), any(), any(), any(), any(), anyLong(), any());
         verify(paymentMapper, never()).toPaymentDto(any(Payment.class));
     }
 
@@ -247,8 +309,11 @@ public class PaymentServiceTest {
                 eq(payment1.getCurrency()),
                 eq(TransactionSource.PAYMENT),
                 eq(payment1.getAmount().negate()),
-                eq(payment1.getId())
+                eq(payment1.getId()),
+                eq(LedgerEntry.SINGLE_OPERATION)
         );
+        verify(paymentAllocationService).onPaymentChanged(1L, Currency.USD, new BigDecimal("-50.00"));
+        verify(monthlyRollupService).addPayment(payment1.getPaymentDate(), Currency.USD, new BigDecimal("-50.00"));
         verify(paymentRepository, times(1)).deleteById(100L);
     }
 
@@ -262,6 +327,6 @@ public class PaymentServiceTest {
         assertEquals("Payment not found for deletion with id: 999", exception.getMessage());
         verify(paymentRepository, times(1)).findById(999L);
         verify(paymentRepository, never()).deleteById(anyLong());
-        verify(balanceTransactionService, never()).createBalanceTransaction(any(Student.class), any(), any(), any(), any(), anyLong());
+        verify(balanceTransactionService, never()).createBalanceTransaction(any(Student.class), any(), any(), any(), any(), anyLong(), any());
     }
 }
\ No newline at end of file
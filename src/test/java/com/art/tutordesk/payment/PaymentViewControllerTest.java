@@ -16,6 +16,7 @@ import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -43,13 +45,43 @@ class PaymentViewControllerTest {
     @Test
     void listPayments() throws Exception {
         PaymentDto paymentDto = createPaymentDto(1L);
+        PaymentListFilter filter = new PaymentListFilter(null, null, null, null, null);
 
-        when(paymentService.getAllPayments()).thenReturn(Collections.singletonList(paymentDto));
+        when(paymentService.getPaymentPage(filter, null, null, 50))
+                .thenReturn(new PaymentListPage(Collections.singletonList(paymentDto), null, null));
 
         mockMvc.perform(get("/payments/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("payment/list-payments"))
-                .andExpect(model().attributeExists("payments"));
+                .andExpect(model().attributeExists("payments", "page", "students"))
+                .andExpect(model().attribute("firstPage", true));
+    }
+
+    @Test
+    void listPayments_withFiltersAndKeyset() throws Exception {
+        PaymentDto paymentDto = createPaymentDto(7L);
+        LocalDate beforeDate = LocalDate.of(2025, 6, 1);
+        PaymentListFilter filter = new PaymentListFilter(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), 1L,
+                PaymentMethod.CARD, Currency.USD);
+
+        when(paymentService.getPaymentPage(filter, beforeDate, 9L, 10))
+                .thenReturn(new PaymentListPage(List.of(paymentDto), paymentDto.getPaymentDate(), 7L));
+
+        mockMvc.perform(get("/payments/list")
+                        .param("startDate", "2025-01-01")
+                        .param("endDate", "2025-12-31")
+                        .param("studentId", "1")
+                        .param("paymentMethod", "CARD")
+                        .param("currency", "USD")
+                        .param("beforeDate", "2025-06-01")
+                        .param("beforeId", "9")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("payment/list-payments"))
+                .andExpect(model().attribute("firstPage", false))
+                .andExpect(model().attribute("paymentMethod", PaymentMethod.CARD))
+                .andExpect(model().attribute("currency", Currency.USD))
+                .andExpect(content().string(containsString("beforeId=7")));
     }
 
     @Test
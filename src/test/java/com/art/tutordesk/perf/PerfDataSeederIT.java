@@ -0,0 +1,67 @@
+package com.art.tutordesk.perf;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PerfDataSeederIT extends BaseIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_shouldSeedConfiguredDatasetWithMatchingLedger() {
+        // A batch size below every row count exercises both the in-loop and the final flushes
+        PerfDataSeeder seeder = new PerfDataSeeder(jdbcTemplate, 12, 300, 40, 5);
+
+        seeder.run(new DefaultApplicationArguments());
+
+        assertThat(count("SELECT COUNT(*) FROM students")).isEqualTo(12);
+        assertThat(count("SELECT COUNT(*) FROM lessons")).isEqualTo(300);
+        assertThat(count("SELECT COUNT(*) FROM payments")).isEqualTo(40);
+        assertThat(count("SELECT COUNT(*) FROM lesson_student")).isGreaterThan(300);
+
+        long chargeable = count("SELECT COUNT(*) FROM lesson_student WHERE status IN ('COMPLETED', 'NOT_ATTENDED')");
+        assertThat(count("SELECT COUNT(*) FROM balance_transactions")).isEqualTo(12 + 40 + chargeable);
+        assertThat(count("SELECT COUNT(*) FROM balance_transactions WHERE operation_seq IS NULL")).isZero();
+        assertThat(count("SELECT SUM(charge_version) FROM lesson_student")).isEqualTo(chargeable);
+        assertThat(count("""
+                SELECT COUNT(*) FROM student_balances sb
+                WHERE sb.balance <> (SELECT SUM(bt.amount) FROM balance_transactions bt
+                                     WHERE bt.student_id = sb.student_id AND bt.currency = sb.currency)
+                """)).isZero();
+
+        // Identity columns continue after the seeded IDs
+        jdbcTemplate.update("""
+                INSERT INTO students (first_name, currency, active, created_at, updated_at)
+                VALUES ('New', 'USD', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """);
+        assertThat(count("SELECT MAX(id) FROM students")).isEqualTo(13);
+        // The sequences hand Hibernate blocks of IDs that start right after the seeded ones
+        assertThat(count("SELECT nextval('lessons_seq')")).isEqualTo(300 + 50);
+    }
+
+    @Test
+    @Sql("/data-test.sql")
+    void run_shouldSkipSeeding_whenDatabaseAlreadyHasStudents() {
+        PerfDataSeeder seeder = new PerfDataSeeder(jdbcTemplate, 12, 300, 40, 5);
+
+        seeder.run(new DefaultApplicationArguments());
+
+        assertThat(count("SELECT COUNT(*) FROM students")).isEqualTo(5);
+        assertThat(count("SELECT COUNT(*) FROM lessons")).isEqualTo(5);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.art.tutordesk.perf;
+
+import com.art.tutordesk.balance.LedgerEntry;
+import com.art.tutordesk.balance.LedgerEntryRepository;
+import com.art.tutordesk.balance.TransactionSource;
+import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentDto;
+import com.art.tutordesk.payment.PaymentMethod;
+import com.art.tutordesk.payment.PaymentService;
+import com.art.tutordesk.student.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs on the embedded H2 database of the perf profile, not on the PostgreSQL container of BaseIntegrationTest
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "app.perf.seed.students=6",
+        "app.perf.seed.lessons=120",
+        "app.perf.seed.payments=30",
+        "app.perf.seed.batch-size=25"})
+@ActiveProfiles("perf")
+@Transactional
+public class PerfProfileIT {
+
+    private static final long STUDENT_ID = 1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Test
+    void startup_shouldMigrateSeedAndInitialiseDerivedTables() {
+        assertThat(count("SELECT COUNT(*) FROM databasechangelog")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM students")).isEqualTo(6);
+        assertThat(count("SELECT COUNT(*) FROM lessons")).isEqualTo(120);
+        assertThat(count("SELECT COUNT(*) FROM payments")).isEqualTo(30);
+
+        // The allocation rebuild at startup created its cursors with INSERT ... ON CONFLICT DO NOTHING
+        assertThat(count("SELECT COUNT(*) FROM payment_allocation_cursors")).isPositive();
+        assertThat(count("SELECT COUNT(*) FROM monthly_rollups")).isPositive();
+        assertThat(count("""
+                SELECT COUNT(*) FROM student_balances sb
+                WHERE sb.balance <> (SELECT SUM(bt.amount) FROM balance_transactions bt
+                                     WHERE bt.student_id = sb.student_id AND bt.currency = sb.currency)
+                """)).isZero();
+    }
+
+    @Test
+    void createPayment_shouldInsertMissingRowsAndContinueAfterSeededIds() {
+        Currency seeded = Currency.valueOf(jdbcTemplate.queryForObject(
+                "SELECT currency FROM students WHERE id = ?", String.class, STUDENT_ID));
+        Currency other = Arrays.stream(Currency.values()).filter(currency -> currency != seeded).findFirst().orElseThrow();
+        // A month after the seeded history, so its rollup row does not exist yet
+        LocalDate paymentDate = LocalDate.now().plusYears(1).withDayOfMonth(1);
+
+        PaymentDto created = paymentService.createPayment(payment(other, paymentDate));
+
+        // ALTER SEQUENCE ... RESTART moved payments_seq past the seeded IDs
+        assertThat(created.getId()).isGreaterThan(30);
+        assertThat(count("SELECT COUNT(*) FROM student_balances WHERE student_id = ? AND currency = ?",
+                STUDENT_ID, other.name())).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM payment_allocation_cursors WHERE student_id = ? AND currency = ?",
+                STUDENT_ID, other.name())).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM monthly_rollups WHERE month_start = ?", paymentDate)).isEqualTo(1);
+
+        // A replay of the ledger entry is dropped by the unique operation key
+        Student student = new Student();
+        student.setId(STUDENT_ID);
+        LedgerEntry replay = new LedgerEntry(student, TransactionType.PAYMENT_RECEIVED, other, TransactionSource.PAYMENT,
+                created.getAmount(), created.getId(), LedgerEntry.SINGLE_OPERATION);
+        assertThat(ledgerEntryRepository.insert(replay, LocalDateTime.now())).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM balance_transactions WHERE source_entity = 'PAYMENT' AND source_id = ?",
+                created.getId())).isEqualTo(1);
+    }
+
+    private PaymentDto payment(Currency currency, LocalDate paymentDate) {
+        PaymentDto payment = new PaymentDto();
+        payment.setStudentId(STUDENT_ID);
+        payment.setPaymentDate(paymentDate);
+        payment.setPaymentMethod(PaymentMethod.CARD);
+        payment.setAmount(new BigDecimal("40.00"));
+        payment.setCurrency(currency);
+        return payment;
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count == null ? 0 : count;
+    }
+}
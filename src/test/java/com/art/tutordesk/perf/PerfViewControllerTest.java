@@ -0,0 +1,56 @@
+package com.art.tutordesk.perf;
+
+import com.art.tutordesk.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@Import(SecurityConfig.class)
+@WebMvcTest(PerfViewController.class)
+@WithMockUser(username = "admin", roles = {"ADMIN"})
+class PerfViewControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private RequestTimingService requestTimingService;
+
+    @Test
+    void showTimings_shouldListSlowestRequestsAndEndpointPercentiles() throws Exception {
+        List<RequestTiming> slowest = List.of(new RequestTiming(Instant.now(), "GET /lessons/list", "/lessons/list",
+                200, 3, 42_000_000, 10_000_000, 20_000_000, 12_000_000));
+        List<EndpointTimingStats> endpoints = List.of(new EndpointTimingStats("GET /lessons/list", 1, 42, 42, 42, 42, 3));
+        when(requestTimingService.getSlowestRecent(PerfViewController.SLOWEST_LIMIT)).thenReturn(slowest);
+        when(requestTimingService.getEndpointStats()).thenReturn(endpoints);
+        when(requestTimingService.getCapacity()).thenReturn(2000);
+
+        mockMvc.perform(get("/admin/perf"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin/perf"))
+                .andExpect(model().attribute("slowest", slowest))
+                .andExpect(model().attribute("endpoints", endpoints))
+                .andExpect(content().string(containsString("GET /lessons/list")));
+    }
+
+    @Test
+    @WithMockUser(username = "viewer", roles = {"USER"})
+    void showTimings_withoutAdminRole_shouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/admin/perf"))
+                .andExpect(status().isForbidden());
+    }
+}
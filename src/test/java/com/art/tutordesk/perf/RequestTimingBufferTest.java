@@ -0,0 +1,52 @@
+package com.art.tutordesk.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestTimingBufferTest {
+
+    @Test
+    void snapshot_beforeWrap_shouldReturnAllTimingsOldestFirst() {
+        RequestTimingBuffer buffer = new RequestTimingBuffer(4);
+        buffer.record(timing("/a"));
+        buffer.record(timing("/b"));
+
+        assertThat(buffer.snapshot()).extracting(RequestTiming::path).containsExactly("/a", "/b");
+    }
+
+    @Test
+    void record_whenFull_shouldOverwriteOldestTimings() {
+        RequestTimingBuffer buffer = new RequestTimingBuffer(3);
+        IntStream.range(0, 7).forEach(i -> buffer.record(timing("/" + i)));
+
+        assertThat(buffer.snapshot()).extracting(RequestTiming::path).containsExactly("/4", "/5", "/6");
+    }
+
+    @Test
+    void record_fromConcurrentThreads_shouldFillEverySlot() throws InterruptedException {
+        RequestTimingBuffer buffer = new RequestTimingBuffer(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 1000).forEach(i -> executor.submit(() -> buffer.record(timing("/" + i))));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(buffer.snapshot()).hasSize(100).doesNotContainNull();
+    }
+
+    @Test
+    void constructor_withoutCapacity_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestTimingBuffer(0));
+    }
+
+    static RequestTiming timing(String path) {
+        return new RequestTiming(Instant.now(), "GET " + path, path, 200, 1, 1_000_000, 500_000, 300_000, 200_000);
+    }
+}
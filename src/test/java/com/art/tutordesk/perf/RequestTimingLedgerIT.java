@@ -0,0 +1,55 @@
+package com.art.tutordesk.perf;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.balance.LedgerEntry;
+import com.art.tutordesk.balance.LedgerEntryRepository;
+import com.art.tutordesk.balance.TransactionSource;
+import com.art.tutordesk.balance.TransactionType;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.student.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+@Import(LedgerEntryRepository.class)
+public class RequestTimingLedgerIT extends BaseIntegrationTest {
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @AfterEach
+    void tearDown() {
+        RequestTimingContext.finish();
+    }
+
+    @Test
+    void ledgerBatch_shouldBeAddedToCurrentRequest() {
+        Student student = new Student();
+        student.setId(1L);
+        RequestTimingContext context = RequestTimingContext.start();
+
+        ledgerEntryRepository.insertAll(List.of(
+                entry(student, 900001L), entry(student, 900002L)), LocalDateTime.now());
+
+        assertThat(context.getQueryCount()).isEqualTo(1);
+        assertThat(context.getSqlNanos()).isPositive();
+    }
+
+    private LedgerEntry entry(Student student, Long paymentId) {
+        return new LedgerEntry(student, TransactionType.PAYMENT_RECEIVED, Currency.USD, TransactionSource.PAYMENT,
+                new BigDecimal("10.00"), paymentId, LedgerEntry.SINGLE_OPERATION);
+    }
+}
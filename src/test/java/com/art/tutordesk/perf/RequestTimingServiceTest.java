@@ -0,0 +1,64 @@
+package com.art.tutordesk.perf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestTimingServiceTest {
+
+    private RequestTimingBuffer buffer;
+    private RequestTimingService requestTimingService;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new RequestTimingBuffer(500);
+        requestTimingService = new RequestTimingService(buffer);
+    }
+
+    @Test
+    void getSlowestRecent_shouldOrderByTotalTimeDescending() {
+        buffer.record(timing("GET /lessons/list", 5, 3));
+        buffer.record(timing("GET /payments/list", 40, 2));
+        buffer.record(timing("GET /", 12, 1));
+
+        List<RequestTiming> slowest = requestTimingService.getSlowestRecent(2);
+
+        assertThat(slowest).extracting(RequestTiming::endpoint).containsExactly("GET /payments/list", "GET /");
+    }
+
+    @Test
+    void getEndpointStats_shouldComputeNearestRankPercentilesPerEndpoint() {
+        // 1..100 ms, so each percentile is its own rank
+        IntStream.rangeClosed(1, 100).forEach(millis -> buffer.record(timing("GET /lessons/list", millis, 2)));
+        buffer.record(timing("GET /", 3, 1));
+
+        List<EndpointTimingStats> stats = requestTimingService.getEndpointStats();
+
+        assertThat(stats).extracting(EndpointTimingStats::endpoint).containsExactly("GET /lessons/list", "GET /");
+        EndpointTimingStats lessons = stats.getFirst();
+        assertEquals(100, lessons.count());
+        assertEquals(50, lessons.p50Millis(), 0.001);
+        assertEquals(95, lessons.p95Millis(), 0.001);
+        assertEquals(99, lessons.p99Millis(), 0.001);
+        assertEquals(100, lessons.maxMillis(), 0.001);
+        assertEquals(2, lessons.avgQueryCount(), 0.001);
+        assertEquals(3, stats.get(1).p99Millis(), 0.001);
+    }
+
+    @Test
+    void getEndpointStats_withoutTimings_shouldBeEmpty() {
+        assertThat(requestTimingService.getEndpointStats()).isEmpty();
+        assertEquals(500, requestTimingService.getCapacity());
+    }
+
+    private RequestTiming timing(String endpoint, long millis, int queryCount) {
+        long nanos = millis * 1_000_000;
+        return new RequestTiming(Instant.now(), endpoint, endpoint.substring(4), 200, queryCount, nanos, nanos, 0, 0);
+    }
+}
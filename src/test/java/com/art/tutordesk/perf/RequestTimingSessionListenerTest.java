@@ -0,0 +1,41 @@
+package com.art.tutordesk.perf;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestTimingSessionListenerTest {
+
+    private final RequestTimingSessionListener listener = new RequestTimingSessionListener();
+
+    @AfterEach
+    void tearDown() {
+        RequestTimingContext.finish();
+    }
+
+    @Test
+    void statementsAndBatches_shouldBeAddedToCurrentRequest() {
+        RequestTimingContext context = RequestTimingContext.start();
+
+        listener.jdbcPrepareStatementStart();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcPrepareStatementStart();
+        listener.jdbcExecuteBatchStart();
+        listener.jdbcExecuteBatchEnd();
+
+        assertEquals(2, context.getQueryCount());
+        assertThat(context.getSqlNanos()).isPositive();
+    }
+
+    @Test
+    void statementsOutsideRequest_shouldBeIgnored() {
+        listener.jdbcPrepareStatementStart();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+
+        assertThat(RequestTimingContext.current()).isNull();
+    }
+}
@@ -0,0 +1,147 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.PaymentStatusUtil;
+import com.art.tutordesk.lesson.repository.LessonPaymentStatusView;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.lesson.service.PaymentStatusService;
+import com.art.tutordesk.payment.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+public class LessonPaymentStatusStrategyIT extends BaseIntegrationTest {
+
+    private static final Set<Long> ALL_STUDENTS = Set.of(1L, 2L, 3L, 4L, 5L);
+
+    @Autowired
+    private LessonStudentRepository lessonStudentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private LessonPaymentStatusStrategy javaStrategy;
+    private LessonPaymentStatusStrategy nativeStrategy;
+
+    @BeforeEach
+    void setUp() {
+        PaymentStatusService paymentStatusService = new PaymentStatusService(lessonStudentRepository, paymentRepository,
+                new PaymentStatusUtil());
+        javaStrategy = new JavaLessonPaymentStatusStrategy(paymentStatusService);
+        nativeStrategy = new NativeLessonPaymentStatusStrategy(lessonStudentRepository, paymentStatusService);
+
+        // Student 1 USD paid 30: lesson 1 (25) is paid, lesson 3 (25) is not, the cheaper lesson 5 (5) is paid again
+        complete(1L, null);
+        complete(5L, null);
+        complete(7L, new BigDecimal("5.00"));
+        // Student 2 EUR paid 40: lesson 1 (30) is paid, lesson 5 (24) is not
+        complete(2L, null);
+        // Free lesson and a student with too little credit
+        complete(3L, null);
+        complete(4L, null);
+        lessonStudentRepository.flush();
+    }
+
+    @Test
+    void nativeStrategy_shouldMatchJavaStrategyForFullHistory() {
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 12, 31);
+
+        Map<Long, PaymentStatus> nativeStatuses = nativeStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate);
+
+        assertThat(nativeStatuses).isEqualTo(javaStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate));
+        assertThat(nativeStatuses)
+                .containsEntry(1L, PaymentStatus.PAID)
+                .containsEntry(5L, PaymentStatus.UNPAID)
+                .containsEntry(7L, PaymentStatus.PAID)
+                .containsEntry(2L, PaymentStatus.PAID)
+                .containsEntry(8L, PaymentStatus.UNPAID)
+                .containsEntry(3L, PaymentStatus.FREE)
+                .containsEntry(4L, PaymentStatus.UNPAID);
+    }
+
+    @Test
+    void nativeStrategy_shouldOnlyReturnLessonsInsideWindow() {
+        LocalDate startDate = LocalDate.of(2025, 1, 2);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        Map<Long, PaymentStatus> nativeStatuses = nativeStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate);
+
+        Set<Long> insideWindow = lessonStudentRepository.findByLessonDateBetweenAndStudentIds(startDate, endDate, List.copyOf(ALL_STUDENTS)).stream()
+                .filter(ls -> ls.getStatus() == LessonStudentStatus.COMPLETED)
+                .map(LessonStudent::getId)
+                .collect(Collectors.toSet());
+        Map<Long, PaymentStatus> javaStatuses = javaStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate);
+
+        assertThat(nativeStatuses.keySet()).isEqualTo(insideWindow);
+        insideWindow.forEach(id -> assertThat(nativeStatuses.get(id)).isEqualTo(javaStatuses.get(id)));
+    }
+
+    @Test
+    void paymentStatusesInWindow_shouldDecideChargesUpToFirstUnpaidWithRunningSum() {
+        Map<Long, String> statuses = statusesInWindow(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 12, 31));
+
+        // Student 1 has 5 left after the unpaid lesson 3, so the cheaper lesson 5 needs the FIFO walk
+        assertThat(statuses)
+                .containsEntry(1L, "PAID")
+                .containsEntry(5L, "UNPAID")
+                .containsEntry(7L, null)
+                .containsEntry(2L, "PAID")
+                .containsEntry(8L, "UNPAID")
+                .containsEntry(3L, "FREE")
+                .containsEntry(4L, "UNPAID");
+    }
+
+    @Test
+    void nativeStrategy_withLaterChargeAboveRemainingCredit_shouldMatchJavaStrategy() {
+        // Lesson 5 now costs more than the 5 left after the unpaid lesson 3, the running sum decides it alone
+        complete(7L, new BigDecimal("6.00"));
+        lessonStudentRepository.flush();
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 12, 31);
+
+        assertThat(statusesInWindow(startDate, endDate)).containsEntry(7L, "UNPAID").doesNotContainValue(null);
+        assertThat(nativeStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate))
+                .isEqualTo(javaStrategy.getPaymentStatuses(ALL_STUDENTS, startDate, endDate));
+    }
+
+    @Test
+    void nativeStrategy_withoutStudents_shouldReturnEmptyMap() {
+        assertThat(nativeStrategy.getPaymentStatuses(Set.of(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31))).isEmpty();
+    }
+
+    private Map<Long, String> statusesInWindow(LocalDate startDate, LocalDate endDate) {
+        Map<Long, String> statuses = new HashMap<>();
+        for (LessonPaymentStatusView row : lessonStudentRepository.findPaymentStatusesInWindow(ALL_STUDENTS, startDate, endDate)) {
+            statuses.put(row.getLessonStudentId(), row.getPaymentStatus());
+        }
+        return statuses;
+    }
+
+    private void complete(Long lessonStudentId, BigDecimal price) {
+        LessonStudent lessonStudent = lessonStudentRepository.findById(lessonStudentId).orElseThrow();
+        lessonStudent.setStatus(LessonStudentStatus.COMPLETED);
+        if (price != null) {
+            lessonStudent.setPrice(price);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.art.tutordesk.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MonthlyRollupRebuildRunnerTest {
+
+    @Mock
+    private MonthlyRollupRepository monthlyRollupRepository;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @InjectMocks
+    private MonthlyRollupRebuildRunner monthlyRollupRebuildRunner;
+
+    @Test
+    void run_withRebuildOption_shouldRebuildRollups() {
+        monthlyRollupRebuildRunner.run(new DefaultApplicationArguments("--rebuild-rollups"));
+
+        verify(monthlyRollupService).rebuildAll();
+        verifyNoInteractions(monthlyRollupRepository);
+    }
+
+    @Test
+    void run_withoutRollups_shouldInitialiseThem() {
+        when(monthlyRollupRepository.count()).thenReturn(0L);
+
+        monthlyRollupRebuildRunner.run(new DefaultApplicationArguments());
+
+        verify(monthlyRollupService).rebuildAll();
+    }
+
+    @Test
+    void run_withExistingRollups_shouldDoNothing() {
+        when(monthlyRollupRepository.count()).thenReturn(12L);
+
+        monthlyRollupRebuildRunner.run(new DefaultApplicationArguments());
+
+        verify(monthlyRollupService, never()).rebuildAll();
+    }
+}
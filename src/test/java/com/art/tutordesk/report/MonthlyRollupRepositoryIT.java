@@ -0,0 +1,107 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.BaseIntegrationTest;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql("/data-test.sql")
+public class MonthlyRollupRepositoryIT extends BaseIntegrationTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void countLessonsByMonth_shouldGroupLessonsByCalendarMonth() {
+        // Lessons 1-4 are in January 2025, lesson 5 on 2025-02-01
+        assertThat(monthlyRollupRepository.countLessonsByMonth())
+                .containsExactlyInAnyOrder(new MonthlyCount(2025, 1, 4L), new MonthlyCount(2025, 2, 1L));
+    }
+
+    @Test
+    void sumPaymentsByMonth_shouldGroupPaymentsByMonthAndCurrency() {
+        // January USD: payments 3 (10.00) and 4 (20.00); January EUR: payments 2 (15.00) and 5 (30.00)
+        assertThat(monthlyRollupRepository.sumPaymentsByMonth())
+                .extracting(MonthlyCurrencyTotal::year, MonthlyCurrencyTotal::month, MonthlyCurrencyTotal::currency,
+                        total -> total.total().setScale(2))
+                .containsExactlyInAnyOrder(
+                        tuple(2024, 12, Currency.USD, new BigDecimal("10.00")),
+                        tuple(2025, 1, Currency.USD, new BigDecimal("30.00")),
+                        tuple(2025, 1, Currency.EUR, new BigDecimal("45.00")),
+                        tuple(2025, 2, Currency.EUR, new BigDecimal("25.00")));
+    }
+
+    @Test
+    void sumChargesByMonth_shouldOnlySumChargeableStatuses() {
+        // Only lesson 5 has COMPLETED students: 20.00 USD and 24.00 EUR
+        assertThat(monthlyRollupRepository.sumChargesByMonth(MonthlyRollupService.CHARGEABLE_STATUSES))
+                .extracting(MonthlyCurrencyTotal::month, MonthlyCurrencyTotal::currency, total -> total.total().setScale(2))
+                .containsExactlyInAnyOrder(
+                        tuple(2, Currency.USD, new BigDecimal("20.00")),
+                        tuple(2, Currency.EUR, new BigDecimal("24.00")));
+    }
+
+    @Test
+    void sumByMonthOfStudent_shouldOnlyIncludeThatStudent() {
+        assertThat(monthlyRollupRepository.sumPaymentsByMonthOfStudent(2L))
+                .extracting(MonthlyCurrencyTotal::month, MonthlyCurrencyTotal::currency)
+                .containsExactlyInAnyOrder(
+                        tuple(1, Currency.EUR),
+                        tuple(2, Currency.EUR));
+        assertThat(monthlyRollupRepository.sumChargesByMonthOfStudent(2L, MonthlyRollupService.CHARGEABLE_STATUSES))
+                .singleElement()
+                .satisfies(total -> assertThat(total.total()).isEqualByComparingTo("24.00"));
+    }
+
+    @Test
+    void findWithTotals_shouldLoadRollupWithItsCurrencyTotals() {
+        MonthlyRollup rollup = new MonthlyRollup(JANUARY);
+        rollup.setLessonCount(4);
+        rollup.totalsFor(Currency.USD).setPaymentTotal(new BigDecimal("30.00"));
+        rollup.totalsFor(Currency.EUR).setChargeTotal(new BigDecimal("24.00"));
+        monthlyRollupRepository.save(rollup);
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<MonthlyRollup> found = monthlyRollupRepository.findWithTotals(JANUARY);
+
+        assertThat(found).isPresent();
+        assertThat(found.get().getLessonCount()).isEqualTo(4);
+        assertThat(found.get().getCurrencyTotals()).containsOnlyKeys(Currency.USD, Currency.EUR);
+        assertThat(found.get().getCurrencyTotals().get(Currency.USD).getPaymentTotal()).isEqualByComparingTo("30.00");
+        assertThat(found.get().getCurrencyTotals().get(Currency.EUR).getChargeTotal()).isEqualByComparingTo("24.00");
+        assertThat(monthlyRollupRepository.findByIdForUpdate(JANUARY.plusMonths(1))).isEmpty();
+    }
+
+    @Test
+    void insertIfAbsent_shouldOnlyInsertMissingMonth() {
+        MonthlyRollup rollup = new MonthlyRollup(JANUARY);
+        rollup.setLessonCount(4);
+        monthlyRollupRepository.save(rollup);
+
+        assertThat(monthlyRollupRepository.insertIfAbsent(JANUARY)).isZero();
+        assertThat(monthlyRollupRepository.insertIfAbsent(JANUARY.plusMonths(1))).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(monthlyRollupRepository.findByIdForUpdate(JANUARY).orElseThrow().getLessonCount()).isEqualTo(4);
+        assertThat(monthlyRollupRepository.findByIdForUpdate(JANUARY.plusMonths(1)).orElseThrow().getLessonCount()).isZero();
+    }
+}
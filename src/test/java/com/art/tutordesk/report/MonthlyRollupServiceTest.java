@@ -0,0 +1,225 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudent;
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.payment.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MonthlyRollupServiceTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2025, 2, 1);
+
+    @Mock
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @InjectMocks
+    private MonthlyRollupService monthlyRollupService;
+
+    @Test
+    void getMonthlyMetrics_shouldLeaveOutZeroTotals() {
+        MonthlyRollup rollup = rollup(JANUARY, 3);
+        rollup.totalsFor(Currency.USD).setPaymentTotal(new BigDecimal("50.00"));
+        rollup.totalsFor(Currency.EUR).setChargeTotal(new BigDecimal("24.00"));
+        when(monthlyRollupRepository.findWithTotals(JANUARY)).thenReturn(Optional.of(rollup));
+
+        MonthlyMetrics metrics = monthlyRollupService.getMonthlyMetrics(YearMonth.of(2025, 1));
+
+        assertEquals(3, metrics.lessonCount());
+        assertThat(metrics.payments()).containsExactly(Map.entry(Currency.USD, new BigDecimal("50.00")));
+        assertThat(metrics.charges()).containsExactly(Map.entry(Currency.EUR, new BigDecimal("24.00")));
+    }
+
+    @Test
+    void getMonthlyMetrics_withoutRollup_shouldReturnEmptyMetrics() {
+        when(monthlyRollupRepository.findWithTotals(JANUARY)).thenReturn(Optional.empty());
+
+        MonthlyMetrics metrics = monthlyRollupService.getMonthlyMetrics(YearMonth.of(2025, 1));
+
+        assertEquals(0, metrics.lessonCount());
+        assertThat(metrics.payments()).isEmpty();
+        assertThat(metrics.charges()).isEmpty();
+    }
+
+    @Test
+    void chargesOf_shouldSumChargeableStudentsPerCurrency() {
+        List<LessonStudent> lessonStudents = List.of(
+                lessonStudent(LessonStudentStatus.COMPLETED, Currency.USD, "25.00"),
+                lessonStudent(LessonStudentStatus.NOT_ATTENDED, Currency.USD, "20.00"),
+                lessonStudent(LessonStudentStatus.SCHEDULED, Currency.EUR, "30.00"),
+                lessonStudent(LessonStudentStatus.CANCELED, Currency.PLN, "40.00"));
+
+        assertThat(MonthlyRollupService.chargesOf(lessonStudents))
+                .containsExactly(Map.entry(Currency.USD, new BigDecimal("45.00")));
+    }
+
+    @Test
+    void addLesson_withoutRollup_shouldInsertItBeforeLocking() {
+        when(monthlyRollupRepository.findByIdForUpdate(JANUARY)).thenReturn(Optional.of(new MonthlyRollup(JANUARY)));
+
+        monthlyRollupService.addLesson(JANUARY.plusDays(14), Map.of(Currency.USD, new BigDecimal("25.00")));
+
+        InOrder inOrder = inOrder(monthlyRollupRepository);
+        inOrder.verify(monthlyRollupRepository).insertIfAbsent(JANUARY);
+        inOrder.verify(monthlyRollupRepository).findByIdForUpdate(JANUARY);
+        MonthlyRollup saved = captureSaved();
+        assertEquals(JANUARY, saved.getMonthStart());
+        assertEquals(1, saved.getLessonCount());
+        assertThat(saved.getCurrencyTotals().get(Currency.USD).getChargeTotal()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void updateLesson_sameMonth_shouldOnlyApplyChargeDifference() {
+        MonthlyRollup rollup = rollup(JANUARY, 2);
+        rollup.totalsFor(Currency.USD).setChargeTotal(new BigDecimal("25.00"));
+        when(monthlyRollupRepository.findByIdForUpdate(JANUARY)).thenReturn(Optional.of(rollup));
+
+        monthlyRollupService.updateLesson(JANUARY.plusDays(3), Map.of(Currency.USD, new BigDecimal("25.00")),
+                JANUARY.plusDays(10), Map.of(Currency.USD, new BigDecimal("30.00")));
+
+        assertEquals(2, rollup.getLessonCount());
+        assertThat(rollup.getCurrencyTotals().get(Currency.USD).getChargeTotal()).isEqualByComparingTo("30.00");
+        verify(monthlyRollupRepository).save(rollup);
+    }
+
+    @Test
+    void updateLesson_otherMonth_shouldMoveLessonAndLockMonthsInOrder() {
+        MonthlyRollup january = rollup(JANUARY, 1);
+        january.totalsFor(Currency.USD).setChargeTotal(new BigDecimal("25.00"));
+        MonthlyRollup february = rollup(FEBRUARY, 1);
+        when(monthlyRollupRepository.findByIdForUpdate(JANUARY)).thenReturn(Optional.of(january));
+        when(monthlyRollupRepository.findByIdForUpdate(FEBRUARY)).thenReturn(Optional.of(february));
+
+        // The later month is passed first, the rows are still locked in month order
+        monthlyRollupService.updateLesson(FEBRUARY.plusDays(2), Map.of(),
+                JANUARY.plusDays(20), Map.of(Currency.USD, new BigDecimal("25.00")));
+
+        InOrder inOrder = inOrder(monthlyRollupRepository);
+        inOrder.verify(monthlyRollupRepository).insertIfAbsent(JANUARY);
+        inOrder.verify(monthlyRollupRepository).findByIdForUpdate(JANUARY);
+        inOrder.verify(monthlyRollupRepository).insertIfAbsent(FEBRUARY);
+        inOrder.verify(monthlyRollupRepository).findByIdForUpdate(FEBRUARY);
+        assertEquals(2, january.getLessonCount());
+        assertThat(january.getCurrencyTotals().get(Currency.USD).getChargeTotal()).isEqualByComparingTo("50.00");
+        assertEquals(0, february.getLessonCount());
+    }
+
+    @Test
+    void updateCharges_withoutChange_shouldNotTouchRollups() {
+        Map<Currency, BigDecimal> charges = Map.of(Currency.USD, new BigDecimal("25.00"));
+
+        monthlyRollupService.updateCharges(JANUARY, charges, charges);
+
+        verify(monthlyRollupRepository, never()).findByIdForUpdate(any());
+        verify(monthlyRollupRepository, never()).save(any());
+    }
+
+    @Test
+    void updatePayment_shouldMoveAmountBetweenCurrencies() {
+        MonthlyRollup rollup = rollup(JANUARY, 0);
+        rollup.totalsFor(Currency.USD).setPaymentTotal(new BigDecimal("100.00"));
+        when(monthlyRollupRepository.findByIdForUpdate(JANUARY)).thenReturn(Optional.of(rollup));
+
+        monthlyRollupService.updatePayment(JANUARY, Currency.USD, new BigDecimal("40.00"),
+                JANUARY.plusDays(1), Currency.EUR, new BigDecimal("35.00"));
+
+        assertThat(rollup.getCurrencyTotals().get(Currency.USD).getPaymentTotal()).isEqualByComparingTo("60.00");
+        assertThat(rollup.getCurrencyTotals().get(Currency.EUR).getPaymentTotal()).isEqualByComparingTo("35.00");
+    }
+
+    @Test
+    void removeStudent_shouldSubtractPaymentsAndCharges() {
+        MonthlyRollup rollup = rollup(JANUARY, 4);
+        rollup.totalsFor(Currency.EUR).setPaymentTotal(new BigDecimal("45.00"));
+        rollup.totalsFor(Currency.EUR).setChargeTotal(new BigDecimal("54.00"));
+        when(monthlyRollupRepository.sumPaymentsByMonthOfStudent(2L))
+                .thenReturn(List.of(new MonthlyCurrencyTotal(2025, 1, Currency.EUR, new BigDecimal("15.00"))));
+        when(monthlyRollupRepository.sumChargesByMonthOfStudent(2L, MonthlyRollupService.CHARGEABLE_STATUSES))
+                .thenReturn(List.of(new MonthlyCurrencyTotal(2025, 1, Currency.EUR, new BigDecimal("24.00"))));
+        when(monthlyRollupRepository.findByIdForUpdate(JANUARY)).thenReturn(Optional.of(rollup));
+
+        monthlyRollupService.removeStudent(2L);
+
+        // The lessons stay, only the student's part of them is removed
+        assertEquals(4, rollup.getLessonCount());
+        assertThat(rollup.getCurrencyTotals().get(Currency.EUR).getPaymentTotal()).isEqualByComparingTo("30.00");
+        assertThat(rollup.getCurrencyTotals().get(Currency.EUR).getChargeTotal()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildAll_shouldResetExistingRollupsAndApplyAggregates() {
+        MonthlyRollup stale = rollup(JANUARY.minusYears(1), 7);
+        stale.totalsFor(Currency.USD).setPaymentTotal(new BigDecimal("70.00"));
+        when(monthlyRollupRepository.findAll()).thenReturn(List.of(stale));
+        when(monthlyRollupRepository.countLessonsByMonth()).thenReturn(List.of(new MonthlyCount(2025, 1, 4L)));
+        when(monthlyRollupRepository.sumPaymentsByMonth())
+                .thenReturn(List.of(new MonthlyCurrencyTotal(2025, 1, Currency.USD, new BigDecimal("30.00"))));
+        when(monthlyRollupRepository.sumChargesByMonth(MonthlyRollupService.CHARGEABLE_STATUSES))
+                .thenReturn(List.of(new MonthlyCurrencyTotal(2025, 2, Currency.EUR, new BigDecimal("24.00"))));
+
+        assertEquals(3, monthlyRollupService.rebuildAll());
+
+        ArgumentCaptor<Iterable<MonthlyRollup>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(monthlyRollupRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(3);
+        assertEquals(0, stale.getLessonCount());
+        assertThat(stale.getCurrencyTotals()).isEmpty();
+        MonthlyRollup january = findRollup(captor.getValue(), JANUARY);
+        assertEquals(4, january.getLessonCount());
+        assertThat(january.getCurrencyTotals().get(Currency.USD).getPaymentTotal()).isEqualByComparingTo("30.00");
+        assertThat(findRollup(captor.getValue(), FEBRUARY).getCurrencyTotals().get(Currency.EUR).getChargeTotal())
+                .isEqualByComparingTo("24.00");
+    }
+
+    private MonthlyRollup captureSaved() {
+        ArgumentCaptor<MonthlyRollup> captor = ArgumentCaptor.forClass(MonthlyRollup.class);
+        verify(monthlyRollupRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    private MonthlyRollup findRollup(Iterable<MonthlyRollup> rollups, LocalDate monthStart) {
+        for (MonthlyRollup rollup : rollups) {
+            if (rollup.getMonthStart().equals(monthStart)) {
+                return rollup;
+            }
+        }
+        throw new AssertionError("No rollup for " + monthStart);
+    }
+
+    private MonthlyRollup rollup(LocalDate monthStart, long lessonCount) {
+        MonthlyRollup rollup = new MonthlyRollup(monthStart);
+        rollup.setLessonCount(lessonCount);
+        return rollup;
+    }
+
+    private LessonStudent lessonStudent(LessonStudentStatus status, Currency currency, String price) {
+        LessonStudent lessonStudent = new LessonStudent();
+        lessonStudent.setStatus(status);
+        lessonStudent.setCurrency(currency);
+        lessonStudent.setPrice(new BigDecimal(price));
+        return lessonStudent;
+    }
+}
@@ -0,0 +1,129 @@
+package com.art.tutordesk.report;
+
+import com.art.tutordesk.lesson.LessonStudentStatus;
+import com.art.tutordesk.lesson.PaymentStatus;
+import com.art.tutordesk.lesson.repository.LessonStudentRepository;
+import com.art.tutordesk.payment.Currency;
+import com.art.tutordesk.payment.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportExportServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 1, 31);
+
+    @Mock
+    private LessonStudentRepository lessonStudentRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private LessonPaymentStatusStrategy lessonPaymentStatusStrategy;
+
+    @InjectMocks
+    private ReportExportService reportExportService;
+
+    @Test
+    void exportReport_MergesLessonsAndPaymentsByDate() throws Exception {
+        List<Long> studentIds = List.of(1L);
+        // Lesson student 2 has no status and counts as UNPAID
+        when(lessonStudentRepository.findReportStudentIds(START, END, studentIds)).thenReturn(Set.of(1L));
+        when(lessonPaymentStatusStrategy.getPaymentStatuses(Set.of(1L), START, END)).thenReturn(Map.of(1L, PaymentStatus.PAID));
+        when(lessonStudentRepository.streamReportLessons(START, END, studentIds)).thenReturn(Stream.of(
+                new ReportLessonRow(1L, "John", "Doe", Currency.USD, new BigDecimal("25"), LocalDate.of(2025, 1, 5),
+                        LessonStudentStatus.COMPLETED),
+                new ReportLessonRow(2L, "John", "Doe", Currency.USD, new BigDecimal("25"), LocalDate.of(2025, 1, 10),
+                        LessonStudentStatus.NOT_ATTENDED),
+                new ReportLessonRow(3L, "John", "Doe", Currency.USD, new BigDecimal("25"), LocalDate.of(2025, 1, 20),
+                        LessonStudentStatus.SCHEDULED)));
+        when(paymentRepository.streamReportPayments(START, END, studentIds)).thenReturn(Stream.of(
+                new ReportPaymentRow(1L, "John", "Doe", Currency.USD, new BigDecimal("50.00"), LocalDate.of(2025, 1, 3)),
+                new ReportPaymentRow(2L, "John", "Doe", Currency.USD, new BigDecimal("10.5"), LocalDate.of(2025, 1, 10))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = reportExportService.exportReport(START, END, studentIds, true, true, ReportExportFormat.CSV, out);
+
+        assertEquals(5, rows);
+        assertEquals("""
+                Date,Student,Type,Currency,Amount,Payment Status\r
+                2025-01-03,John Doe,PAYMENT,USD,50.00,\r
+                2025-01-05,John Doe,LESSON,USD,25.00,PAID\r
+                2025-01-10,John Doe,LESSON,USD,25.00,UNPAID\r
+                2025-01-10,John Doe,PAYMENT,USD,10.50,\r
+                2025-01-20,John Doe,LESSON,USD,25.00,\r
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportReport_EscapesValuesAndSkipsExcludedItems() throws Exception {
+        when(paymentRepository.streamReportPayments(START, END, null)).thenReturn(Stream.of(
+                new ReportPaymentRow(1L, "Anna, \"Ann\"", "Lee", Currency.EUR, new BigDecimal("30"), LocalDate.of(2025, 1, 3))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = reportExportService.exportReport(START, END, null, false, true, ReportExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("2025-01-03,\"Anna, \"\"Ann\"\" Lee\",PAYMENT,EUR,30.00,\r\n"));
+        verify(lessonStudentRepository, never()).streamReportLessons(any(), any(), any());
+        verify(lessonPaymentStatusStrategy, never()).getPaymentStatuses(any(), any(), any());
+    }
+
+    @Test
+    void exportReport_ExcelFormatWritesFormulasAsText() throws Exception {
+        when(lessonStudentRepository.findReportStudentIds(START, END, null)).thenReturn(Set.of());
+        when(lessonStudentRepository.streamReportLessons(START, END, null)).thenReturn(Stream.of(
+                new ReportLessonRow(1L, "=HYPERLINK(\"http://x\")", "Doe", Currency.USD, new BigDecimal("25"),
+                        LocalDate.of(2025, 1, 5), LessonStudentStatus.SCHEDULED),
+                new ReportLessonRow(2L, "@SUM(A1)", "Doe", Currency.USD, new BigDecimal("25"),
+                        LocalDate.of(2025, 1, 6), LessonStudentStatus.SCHEDULED)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.exportReport(START, END, null, true, false, ReportExportFormat.EXCEL, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.contains("2025-01-05,\"'=HYPERLINK(\"\"http://x\"\") Doe\",LESSON,USD,25.00,\r\n"));
+        assertTrue(csv.contains("2025-01-06,'@SUM(A1) Doe,LESSON,USD,25.00,\r\n"));
+        verify(lessonPaymentStatusStrategy, never()).getPaymentStatuses(any(), any(), any());
+    }
+
+    @Test
+    void exportReport_CsvFormatKeepsValuesAsTheyAre() throws Exception {
+        when(paymentRepository.streamReportPayments(START, END, null)).thenReturn(Stream.of(
+                new ReportPaymentRow(1L, "+Anna", "Lee", Currency.EUR, new BigDecimal("30"), LocalDate.of(2025, 1, 3))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportExportService.exportReport(START, END, null, false, true, ReportExportFormat.CSV, out);
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("2025-01-03,+Anna Lee,PAYMENT,EUR,30.00,\r\n"));
+    }
+
+    @Test
+    void exportReport_ExcelFormatStartsWithByteOrderMark() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = reportExportService.exportReport(START, END, null, false, false, ReportExportFormat.EXCEL, out);
+
+        assertEquals(0, rows);
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("\uFEFFDate,Student"));
+    }
+}
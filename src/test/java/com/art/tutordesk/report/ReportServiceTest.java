@@ -4,14 +4,14 @@ import com.art.tutordesk.lesson.Lesson;
 import com.art.tutordesk.lesson.LessonStudent;
 import com.art.tutordesk.lesson.LessonStudentStatus;
 import com.art.tutordesk.lesson.PaymentStatus;
-import com.art.tutordesk.lesson.PaymentStatusUtil;
-import com.art.tutordesk.lesson.repository.LessonRepository;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
 import com.art.tutordesk.payment.Currency;
 import com.art.tutordesk.payment.Payment;
 import com.art.tutordesk.payment.PaymentRepository;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.StudentRepository;
+import com.art.tutordesk.test.FlightRecorderEvents;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,15 +21,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -39,8 +41,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ReportServiceTest {
 
-    @Mock
-    private LessonRepository lessonRepository;
     @Mock
     private StudentRepository studentRepository;
     @Mock
@@ -48,7 +48,9 @@ class ReportServiceTest {
     @Mock
     private LessonStudentRepository lessonStudentRepository;
     @Mock
-    private PaymentStatusUtil paymentStatusUtil;
+    private LessonPaymentStatusStrategy lessonPaymentStatusStrategy;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
 
     @InjectMocks
     private ReportService reportService;
@@ -68,21 +70,19 @@ class ReportServiceTest {
         student2.setFirstName("Jane");
         student2.setLastName("Smith");
 
-        // Default behavior for historical fetches and status calculation to avoid NPE
-        lenient().when(lessonStudentRepository.findAllByStudentId(anyLong())).thenReturn(Collections.emptyList());
-        lenient().when(paymentRepository.findAllByStudentId(anyLong())).thenReturn(Collections.emptyList());
-        lenient().when(paymentStatusUtil.calculatePaymentStatuses(anyList(), anyList())).thenReturn(Collections.emptyMap());
+        // Default behavior for status calculation to avoid NPE
+        lenient().when(lessonPaymentStatusStrategy.getPaymentStatuses(anySet(), any(), any())).thenReturn(Collections.emptyMap());
     }
 
     @Test
-    void getLessonsThisMonthCount() {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        when(lessonRepository.countByLessonDateGreaterThanEqual(startOfMonth)).thenReturn(15L);
+    void getMetricsThisMonth() {
+        MonthlyMetrics metrics = new MonthlyMetrics(YearMonth.now(), 15L,
+                Map.of(Currency.USD, BigDecimal.valueOf(150)), Map.of(Currency.USD, BigDecimal.valueOf(120)));
+        when(monthlyRollupService.getMonthlyMetrics(YearMonth.now())).thenReturn(metrics);
 
-        long result = reportService.getLessonsThisMonthCount();
+        MonthlyMetrics result = reportService.getMetricsThisMonth();
 
-        assertEquals(15L, result);
-        verify(lessonRepository).countByLessonDateGreaterThanEqual(startOfMonth);
+        assertEquals(metrics, result);
     }
 
     @Test
@@ -95,29 +95,6 @@ class ReportServiceTest {
         verify(studentRepository).countByActiveTrue();
     }
 
-    @Test
-    void getTotalPaymentsThisMonth() {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        Payment payment1 = new Payment();
-        payment1.setAmount(BigDecimal.valueOf(100));
-        payment1.setCurrency(Currency.USD);
-        Payment payment2 = new Payment();
-        payment2.setAmount(BigDecimal.valueOf(50));
-        payment2.setCurrency(Currency.USD);
-        Payment payment3 = new Payment();
-        payment3.setAmount(BigDecimal.valueOf(200));
-        payment3.setCurrency(Currency.EUR);
-        List<Payment> payments = Arrays.asList(payment1, payment2, payment3);
-        when(paymentRepository.findByPaymentDateGreaterThanEqual(startOfMonth)).thenReturn(payments);
-
-        Map<Currency, BigDecimal> result = reportService.getTotalPaymentsThisMonth();
-
-        assertEquals(2, result.size());
-        assertEquals(0, BigDecimal.valueOf(150).compareTo(result.get(Currency.USD)));
-        assertEquals(0, BigDecimal.valueOf(200).compareTo(result.get(Currency.EUR)));
-        verify(paymentRepository).findByPaymentDateGreaterThanEqual(startOfMonth);
-    }
-
     @Test
     void generateReport_IncludeLessonsOnly() {
         LocalDate startDate = LocalDate.of(2025, 1, 1);
@@ -147,7 +124,8 @@ class ReportServiceTest {
         ls2.setStatus(LessonStudentStatus.COMPLETED);
 
         when(lessonStudentRepository.findByLessonDateBetweenAndStudentIds(startDate, endDate, studentIds)).thenReturn(Arrays.asList(ls1, ls2));
-        when(paymentStatusUtil.calculatePaymentStatuses(anyList(), anyList())).thenReturn(Map.of(101L, PaymentStatus.PAID, 102L, PaymentStatus.UNPAID));
+        when(lessonPaymentStatusStrategy.getPaymentStatuses(Set.of(1L, 2L), startDate, endDate))
+                .thenReturn(Map.of(101L, PaymentStatus.PAID, 102L, PaymentStatus.UNPAID));
 
         List<ReportItemDto> report = reportService.generateReport(startDate, endDate, studentIds, true, false);
 
@@ -157,7 +135,7 @@ class ReportServiceTest {
         assertEquals("John Doe", report.get(1).getStudentName());
         assertEquals(PaymentStatus.PAID, report.get(1).getPaymentStatus());
 
-        verify(paymentStatusUtil, times(2)).calculatePaymentStatuses(anyList(), anyList());
+        verify(lessonPaymentStatusStrategy, times(1)).getPaymentStatuses(Set.of(1L, 2L), startDate, endDate);
     }
 
     @Test
@@ -185,7 +163,28 @@ class ReportServiceTest {
         assertEquals(LocalDate.of(2025, 1, 3), report.get(0).getDate());
         assertEquals(LocalDate.of(2025, 1, 15), report.get(1).getDate());
 
-        verify(paymentStatusUtil, never()).calculatePaymentStatuses(anyList(), anyList());
+        verify(lessonPaymentStatusStrategy, never()).getPaymentStatuses(any(), any(), any());
+    }
+
+    @Test
+    void generateReport_RecordsFlightRecorderEvent_whenEnabled() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+        Payment payment = new Payment();
+        payment.setStudent(student1);
+        payment.setAmount(BigDecimal.valueOf(100));
+        payment.setCurrency(Currency.USD);
+        payment.setPaymentDate(LocalDate.of(2025, 1, 15));
+        when(paymentRepository.findByFilters(startDate, endDate, List.of(1L))).thenReturn(List.of(payment));
+
+        List<RecordedEvent> events = FlightRecorderEvents.recordWhile(ReportGenerationEvent.NAME,
+                () -> reportService.generateReport(startDate, endDate, List.of(1L), false, true));
+
+        assertEquals(1, events.size());
+        assertEquals("2025-01-01", events.getFirst().getString("startDate"));
+        assertEquals("2025-01-31", events.getFirst().getString("endDate"));
+        assertEquals(1, events.getFirst().getInt("studentCount"));
+        assertEquals(1, events.getFirst().getInt("rowCount"));
     }
 
     @Test
@@ -218,7 +217,7 @@ class ReportServiceTest {
         assertEquals(2, report.size());
         assertEquals(ReportItemDto.ItemType.PAYMENT, report.get(0).getItemType());
         assertEquals(ReportItemDto.ItemType.LESSON, report.get(1).getItemType());
-        verify(paymentStatusUtil, times(1)).calculatePaymentStatuses(anyList(), anyList());
+        verify(lessonPaymentStatusStrategy, times(1)).getPaymentStatuses(Set.of(1L), startDate, endDate);
     }
 
     @Test
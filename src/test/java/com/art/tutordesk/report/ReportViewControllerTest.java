@@ -7,21 +7,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
@@ -36,15 +48,17 @@ class ReportViewControllerTest {
     private StudentService studentService;
     @MockitoBean
     private ReportService reportService;
+    @MockitoBean
+    private ReportExportService reportExportService;
 
     @Test
     void showReportPage() throws Exception {
         Map<Currency, BigDecimal> paymentsMap = Collections.singletonMap(Currency.USD, BigDecimal.valueOf(1000));
+        Map<Currency, BigDecimal> chargesMap = Collections.singletonMap(Currency.USD, BigDecimal.valueOf(800));
 
         when(studentService.getAllActiveStudents()).thenReturn(Collections.emptyList());
-        when(reportService.getLessonsThisMonthCount()).thenReturn(10L);
+        when(reportService.getMetricsThisMonth()).thenReturn(new MonthlyMetrics(YearMonth.now(), 10L, paymentsMap, chargesMap));
         when(reportService.getActiveStudentsCount()).thenReturn(5L);
-        when(reportService.getTotalPaymentsThisMonth()).thenReturn(paymentsMap);
 
         mockMvc.perform(get("/reports/list"))
                 .andExpect(status().isOk())
@@ -52,7 +66,8 @@ class ReportViewControllerTest {
                 .andExpect(model().attributeExists("students"))
                 .andExpect(model().attribute("lessonsThisMonth", 10L))
                 .andExpect(model().attribute("activeStudentsCount", 5L))
-                .andExpect(model().attribute("totalPayments", paymentsMap));
+                .andExpect(model().attribute("totalPayments", paymentsMap))
+                .andExpect(model().attribute("totalCharges", chargesMap));
     }
 
     @Test
@@ -75,4 +90,46 @@ class ReportViewControllerTest {
                 .andExpect(model().attribute("startDate", startDate))
                 .andExpect(model().attribute("endDate", endDate));
     }
+
+    @Test
+    void exportReport() throws Exception {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        when(reportExportService.exportReport(eq(startDate), eq(endDate), eq(List.of(1L)), eq(true), eq(true),
+                eq(ReportExportFormat.EXCEL), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(6, OutputStream.class).write("Date\r\n".getBytes(StandardCharsets.UTF_8));
+                    return 0L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/reports/export")
+                        .param("startDate", "2025-01-01")
+                        .param("endDate", "2025-01-31")
+                        .param("selectedStudentIds", "1")
+                        .param("includeLessons", "true")
+                        .param("includePayments", "true")
+                        .param("format", "excel"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report_2025-01-01_2025-01-31.csv\""))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("Date\r\n"));
+    }
+
+    @Test
+    void exportReport_shouldRejectUnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/reports/export")
+                        .param("startDate", "2025-01-01")
+                        .param("endDate", "2025-01-31")
+                        .param("format", "pdf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(view().name("error/custom-error"))
+                .andExpect(model().attribute("errorMessage", "Unsupported report format 'pdf'. Supported formats: csv, excel."));
+
+        verifyNoInteractions(reportExportService);
+    }
 }
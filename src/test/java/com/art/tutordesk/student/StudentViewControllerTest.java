@@ -76,7 +76,7 @@ class StudentViewControllerTest {
         StudentDto studentDto = createStudentDto();
         studentDto.setActive(true);
 
-        when(studentService.getAllActiveStudents()).thenReturn(Collections.singletonList(studentDto));
+        when(studentService.getStudentListWithBalances(false)).thenReturn(Collections.singletonList(studentDto));
 
         mockMvc.perform(get("/students/list"))
                 .andExpect(status().isOk())
@@ -90,7 +90,7 @@ class StudentViewControllerTest {
         StudentDto studentDto = createStudentDto();
         studentDto.setActive(false);
 
-        when(studentService.getAllStudentsIncludingInactive()).thenReturn(Collections.singletonList(studentDto));
+        when(studentService.getStudentListWithBalances(true)).thenReturn(Collections.singletonList(studentDto));
 
         mockMvc.perform(get("/students/list").param("showInactive", "true"))
                 .andExpect(status().isOk())
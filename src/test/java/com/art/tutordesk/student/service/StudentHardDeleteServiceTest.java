@@ -1,8 +1,13 @@
 package com.art.tutordesk.student.service;
 
+import com.art.tutordesk.balance.BalanceCheckpointRepository;
+import com.art.tutordesk.balance.BalanceTransactionArchiveRepository;
 import com.art.tutordesk.balance.BalanceTransactionRepository;
+import com.art.tutordesk.balance.LedgerDiscrepancyRepository;
+import com.art.tutordesk.balance.StudentBalanceRepository;
 import com.art.tutordesk.lesson.repository.LessonStudentRepository;
 import com.art.tutordesk.payment.PaymentRepository;
+import com.art.tutordesk.report.MonthlyRollupService;
 import com.art.tutordesk.student.Student;
 import com.art.tutordesk.student.StudentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +39,16 @@ class StudentHardDeleteServiceTest {
     private LessonStudentRepository lessonStudentRepository;
     @Mock
     private BalanceTransactionRepository balanceTransactionRepository;
+    @Mock
+    private StudentBalanceRepository studentBalanceRepository;
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    @Mock
+    private BalanceTransactionArchiveRepository balanceTransactionArchiveRepository;
+    @Mock
+    private LedgerDiscrepancyRepository ledgerDiscrepancyRepository;
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
 
     @InjectMocks
     private StudentHardDeleteService studentHardDeleteService;
@@ -56,10 +71,17 @@ class StudentHardDeleteServiceTest {
         verify(studentRepository, times(1)).findById(studentId);
 
         // Verify deletion methods are called in the correct order
-        InOrder inOrder = inOrder(paymentRepository, lessonStudentRepository, balanceTransactionRepository, studentRepository);
+        InOrder inOrder = inOrder(monthlyRollupService, paymentRepository, lessonStudentRepository, balanceTransactionRepository,
+                studentBalanceRepository, balanceCheckpointRepository, balanceTransactionArchiveRepository, ledgerDiscrepancyRepository,
+                studentRepository);
+        inOrder.verify(monthlyRollupService, times(1)).removeStudent(studentId);
         inOrder.verify(paymentRepository, times(1)).deleteAllByStudentId(studentId);
         inOrder.verify(lessonStudentRepository, times(1)).deleteAllByStudentId(studentId);
         inOrder.verify(balanceTransactionRepository, times(1)).deleteByStudentId(studentId);
+        inOrder.verify(studentBalanceRepository, times(1)).deleteByStudentId(studentId);
+        inOrder.verify(balanceCheckpointRepository, times(1)).deleteByStudentId(studentId);
+        inOrder.verify(balanceTransactionArchiveRepository, times(1)).deleteByStudentId(studentId);
+        inOrder.verify(ledgerDiscrepancyRepository, times(1)).deleteByStudentId(studentId);
         inOrder.verify(studentRepository, times(1)).deleteById(studentId);
     }
 
@@ -72,9 +94,14 @@ class StudentHardDeleteServiceTest {
 
         // Verify that no deletion methods were called
         verify(studentRepository, times(1)).findById(studentId);
+        verify(monthlyRollupService, never()).removeStudent(anyLong());
         verify(paymentRepository, never()).deleteAllByStudentId(anyLong());
         verify(lessonStudentRepository, never()).deleteAllByStudentId(anyLong());
         verify(balanceTransactionRepository, never()).deleteByStudentId(anyLong());
+        verify(studentBalanceRepository, never()).deleteByStudentId(anyLong());
+        verify(balanceCheckpointRepository, never()).deleteByStudentId(anyLong());
+        verify(balanceTransactionArchiveRepository, never()).deleteByStudentId(anyLong());
+        verify(ledgerDiscrepancyRepository, never()).deleteByStudentId(anyLong());
         verify(studentRepository, never()).deleteById(anyLong());
     }
 
@@ -2,6 +2,7 @@ package com.art.tutordesk.student.service;
 
 import com.art.tutordesk.balance.BalanceQueryService;
 import com.art.tutordesk.balance.BalanceTransactionService;
+import com.art.tutordesk.balance.LedgerEntry;
 import com.art.tutordesk.balance.TransactionSource;
 import com.art.tutordesk.balance.TransactionType;
 import com.art.tutordesk.payment.Currency;
@@ -32,6 +33,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -90,7 +92,7 @@ class StudentServiceTest {
         newStudentEntity.setCurrency(newStudentDto.getCurrency());
 
         when(studentMapper.toStudent(newStudentDto)).thenReturn(newStudentEntity);
-        when(studentRepository.save(any(Student.class))).thenReturn(newStudentEntity);
+        when(studentRepository.saveAndFlush(any(Student.class))).thenReturn(newStudentEntity);
         when(studentMapper.toStudentDto(newStudentEntity)).thenReturn(newStudentDto);
 
         StudentDto result = studentService.createStudent(newStudentDto);
@@ -98,7 +100,7 @@ class StudentServiceTest {
         assertNotNull(result);
         assertEquals(newStudentDto.getFirstName(), result.getFirstName());
         verify(studentMapper, times(1)).toStudent(newStudentDto);
-        verify(studentRepository, times(1)).save(newStudentEntity);
+        verify(studentRepository, times(1)).saveAndFlush(newStudentEntity);
         verify(studentMapper, times(1)).toStudentDto(newStudentEntity);
         verify(balanceTransactionService, times(1)).createBalanceTransaction(
                 eq(newStudentEntity),
@@ -106,7 +108,8 @@ class StudentServiceTest {
                 eq(newStudentEntity.getCurrency()),
                 eq(TransactionSource.STUDENT),
                 eq(BigDecimal.ZERO),
-                eq(newStudentEntity.getId())
+                eq(newStudentEntity.getId()),
+                eq(LedgerEntry.SINGLE_OPERATION)
         );
     }
 
@@ -139,7 +142,7 @@ class StudentServiceTest {
         verify(studentMapper, times(1)).updateStudentFromDto(eq(existingStudentDto), any(Student.class));
         verify(studentRepository, times(1)).save(existingStudentEntity);
         verify(studentMapper, times(1)).toStudentDto(existingStudentEntity);
-        verify(balanceTransactionService, never()).createBalanceTransaction(any(), any(), any(), any(), any(), anyLong());
+        verify(balanceTransactionService, never()).createBalanceTransaction(any(), any(), any(), any(), any(), anyLong(), any());
     }
 
     @Test
@@ -187,7 +190,8 @@ class StudentServiceTest {
                 eq(updatedStudentEntity.getCurrency()),
                 eq(TransactionSource.STUDENT),
                 eq(BigDecimal.ZERO),
-                eq(updatedStudentEntity.getId())
+                eq(updatedStudentEntity.getId()),
+                isNull()
         );
     }
 
@@ -244,6 +248,35 @@ class StudentServiceTest {
         verify(studentMapper, times(1)).toStudentDto(student2);
     }
 
+    @Test
+    void getStudentListWithBalances_shouldAttachBalancesReadInOneCall() {
+        when(studentRepository.findAll()).thenReturn(Arrays.asList(student1, student2));
+        when(studentMapper.toStudentDto(student1)).thenReturn(studentDto1);
+        when(studentMapper.toStudentDto(student2)).thenReturn(studentDto2);
+        Map<Currency, BigDecimal> balances = Map.of(Currency.USD, new BigDecimal("-25.00"));
+        when(balanceQueryService.getBalancesByStudent(true)).thenReturn(Map.of(studentDto1.getId(), balances));
+
+        List<StudentDto> result = studentService.getStudentListWithBalances(true);
+
+        assertEquals(2, result.size());
+        assertEquals(balances, result.get(0).getBalances());
+        assertTrue(result.get(1).getBalances().isEmpty());
+        verify(balanceQueryService, never()).getAllBalancesForStudent(anyLong());
+    }
+
+    @Test
+    void getStudentListWithBalances_activeOnly_shouldReadActiveStudentsAndTheirBalances() {
+        when(studentRepository.findAllByActiveTrueOrderByIdAsc()).thenReturn(Collections.singletonList(student1));
+        when(studentMapper.toStudentDto(student1)).thenReturn(studentDto1);
+        when(balanceQueryService.getBalancesByStudent(false)).thenReturn(Map.of());
+
+        List<StudentDto> result = studentService.getStudentListWithBalances(false);
+
+        assertEquals(1, result.size());
+        assertTrue(result.getFirst().getBalances().isEmpty());
+        verify(studentRepository, never()).findAll();
+    }
+
     @Test
     void deactivateStudent_shouldDeactivateExistingStudent() {
         when(studentRepository.findById(anyLong())).thenReturn(Optional.of(student1));
@@ -41,6 +41,12 @@ INSERT INTO balance_transactions (id, student_id, transaction_datetime, type, am
 (7, 1, '2025-02-01 10:00:00', 'LESSON_CHARGE', 20.00, 'USD', 'LESSON', 7),
 (8, 2, '2025-02-01 10:00:00', 'LESSON_CHARGE', 24.00, 'EUR', 'LESSON', 8);
 
+INSERT INTO student_balances (student_id, currency, balance, updated_at) VALUES
+(1, 'USD', 50.00, '2025-02-01 10:00:00'),
+(2, 'EUR', 64.00, '2025-02-01 10:00:00'),
+(4, 'USD', 10.00, '2025-01-01 10:00:00'),
+(5, 'EUR', 30.00, '2025-01-01 10:00:00');
+
 ALTER TABLE students ALTER COLUMN id RESTART WITH 6;
 ALTER TABLE lessons ALTER COLUMN id RESTART WITH 6;
 ALTER TABLE lesson_student ALTER COLUMN id RESTART WITH 9;
@@ -0,0 +1,9 @@
+-- Removes the dataset of query-budget-data.sql
+DELETE FROM lesson_charge_allocations WHERE student_id > 10000;
+DELETE FROM payment_allocation_cursors WHERE student_id > 10000;
+DELETE FROM balance_transactions WHERE student_id > 10000;
+DELETE FROM student_balances WHERE student_id > 10000;
+DELETE FROM payments WHERE student_id > 10000;
+DELETE FROM lesson_student WHERE student_id > 10000;
+DELETE FROM lessons WHERE id > 10000;
+DELETE FROM students WHERE id > 10000;
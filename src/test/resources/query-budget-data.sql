@@ -0,0 +1,32 @@
+-- Seeded dataset for QueryBudgetIT and QueryIndexIT: 1,000 students with lessons and payments in the current month.
+-- IDs start above 10000 so the rows never collide with data-test.sql or IDs generated by other tests.
+INSERT INTO students (id, first_name, last_name, knowledge_level, price_individual, price_group, currency, active, created_at, updated_at)
+SELECT 10000 + g, 'Budget', 'Student' || g, 'B1', 25.00, 20.00,
+       (ARRAY['USD', 'EUR', 'PLN'])[1 + g % 3], g % 10 <> 0, now(), now()
+FROM generate_series(1, 1000) AS g;
+
+INSERT INTO lessons (id, lesson_date)
+SELECT 10000 + g, CAST(date_trunc('month', CURRENT_DATE) AS DATE) + g % 28
+FROM generate_series(1, 1500) AS g;
+
+-- Every lesson has one student, every third lesson is a group lesson with a second student
+INSERT INTO lesson_student (id, lesson_id, student_id, price, currency, status)
+SELECT 10000 + g, 10000 + g, s.id, s.price_individual, s.currency,
+       CASE WHEN g % 4 = 0 THEN 'SCHEDULED' ELSE 'COMPLETED' END
+FROM generate_series(1, 1500) AS g
+JOIN students s ON s.id = 10001 + (g - 1) % 1000;
+
+INSERT INTO lesson_student (id, lesson_id, student_id, price, currency, status)
+SELECT 20000 + g, 10000 + g, s.id, s.price_group, s.currency, 'COMPLETED'
+FROM generate_series(3, 1500, 3) AS g
+JOIN students s ON s.id = 10001 + (g + 499) % 1000;
+
+INSERT INTO payments (id, payment_date, student_id, payment_method, amount, currency, created_at, updated_at)
+SELECT 10000 + g, CAST(date_trunc('month', CURRENT_DATE) AS DATE) + g % 28, s.id, 'CARD', 50.00, s.currency, now(), now()
+FROM generate_series(1, 2000) AS g
+JOIN students s ON s.id = 10001 + (g - 1) % 1000;
+
+INSERT INTO student_balances (student_id, currency, balance, updated_at)
+SELECT id, currency, 100.00, now()
+FROM students
+WHERE id > 10000;